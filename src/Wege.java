@@ -1,9 +1,15 @@
+import game.WegeEndgameSolver;
 import game.WegeGameSetting;
+import game.WegeHeadless;
+import game.WegePuzzle;
+import game.WegeTablebase;
 import javafx.application.Application;
 import javafx.scene.Scene;
 import javafx.stage.Stage;
 import ui.WegeGameBox;
 
+import java.io.IOException;
+import java.nio.file.Path;
 import java.util.List;
 import java.util.Scanner;
 
@@ -31,23 +37,60 @@ public class Wege extends Application {
      *                      If two or more arguments is provided, start the game with
      *                      {@link WegeGameSetting#createGame(List)}
      *                  </li>
+     *                  <li>
+     *                      If the first argument is <code>--puzzle</code>, play a puzzle of a
+     *                      puzzle pack, see {@link WegeCLI#loadPuzzle(List)}
+     *                  </li>
+     *                  <li>
+     *                      If the first argument is <code>--headless</code>, play two engines against
+     *                      each other without a window, see {@link WegeHeadless#main(String[])}
+     *                  </li>
      *             </ul>
+     * @throws Exception if the engines cannot be started or the thread is interrupted.
      */
-    public static void main(String[] args) {
+    public static void main(String[] args) throws Exception {
+        if (isHeadless(List.of(args))) {
+            WegeHeadless.main(args);
+            return;
+        }
         launch(args);
     }
 
     @Override
     public void start(Stage primaryStage) throws Exception {
+        List<String> applicationArguments = getParameters().getUnnamed();
+        if (isPuzzle(applicationArguments)) {
+            WegePuzzle puzzle = loadPuzzle(applicationArguments);
+            System.out.printf("Start a puzzle on a %d x %d playing board%n", puzzle.rows(), puzzle.cols());
+            primaryStage.setTitle("Wege Game v1.0");
+            primaryStage.setScene(new Scene(new WegeGameBox(puzzle)));
+            primaryStage.show();
+            return;
+        }
         WegeGameSetting wegeGameSetting = retrieveSettingFromCLI();
         System.out.printf("Start the game with %d x %d playing board and %d cards%n",
                 wegeGameSetting.rows(), wegeGameSetting.cols(), wegeGameSetting.deck().size());
-        Scene scene = new Scene(new WegeGameBox(wegeGameSetting));
+        Scene scene = new Scene(new WegeGameBox(wegeGameSetting, loadSolver(wegeGameSetting)));
         primaryStage.setTitle("Wege Game v1.0");
         primaryStage.setScene(scene);
         primaryStage.show();
     }
 
+    /**
+     * Load the solver of the endgames of a small board, with the tablebase of the board size in
+     * the working directory if there is one. See {@link WegeTablebase#main(String[])}.
+     *
+     * @param wegeGameSetting the setting of the game.
+     * @return the solver, or <code>null</code> if the board is too large for hints.
+     * @throws IOException if the tablebase cannot be read.
+     */
+    private WegeEndgameSolver loadSolver(WegeGameSetting wegeGameSetting) throws IOException {
+        int rows = wegeGameSetting.rows();
+        int cols = wegeGameSetting.cols();
+        if (rows * cols > WegeEndgameSolver.MAX_BOARD_TILES) return null;
+        return WegeEndgameSolver.load(rows, cols, Path.of(""));
+    }
+
     /**
      * Retrieve the application setting given from the command line.
      * If a user enter an invalid number, show message and let the user
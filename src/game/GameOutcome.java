@@ -0,0 +1,36 @@
+package game;
+
+/**
+ * A record hold the score bounds of both players of the game Wege. It tells
+ * whether the winner of the game can still change by the cards left to play.
+ *
+ * @param land  the score bound of the land player.
+ * @param water the score bound of the water player.
+ */
+public record GameOutcome(ScoreBound land, ScoreBound water) {
+
+    /**
+     * Return <code>true</code> if the result of the game can no longer change.
+     */
+    public boolean isDecided() {
+        return getWinner() != null || isDraw();
+    }
+
+    /**
+     * Return the player who wins the game whatever cards are played next, or
+     * <code>null</code> if the winner is not decided yet.
+     */
+    public Player getWinner() {
+        if (land.lowerBound() > water.upperBound()) return land.player();
+        if (water.lowerBound() > land.upperBound()) return water.player();
+        return null;
+    }
+
+    /**
+     * Return <code>true</code> if both players end the game with the same score
+     * whatever cards are played next.
+     */
+    public boolean isDraw() {
+        return land.isExact() && water.isExact() && land.lowerBound() == water.lowerBound();
+    }
+}
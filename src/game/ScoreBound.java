@@ -0,0 +1,18 @@
+package game;
+
+/**
+ * A record hold the range of the final score a player can still reach.
+ *
+ * @param player     the player of this score bound.
+ * @param lowerBound the final score of the player is at least this value.
+ * @param upperBound the final score of the player is at most this value.
+ */
+public record ScoreBound(Player player, int lowerBound, int upperBound) {
+
+    /**
+     * Return <code>true</code> if the final score of the player is already known.
+     */
+    public boolean isExact() {
+        return lowerBound == upperBound;
+    }
+}
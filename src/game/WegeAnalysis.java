@@ -0,0 +1,210 @@
+package game;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * An analysis of a position of a game with a known deck, which finds the best few moves of the
+ * player to move with their values and principal variations, for coaching and for the review of
+ * replays, see {@link WegeSearch}. A position of a game master is created with
+ * {@link WegeGameMaster#createPosition(WegeDeck, WegePlayingCard)}.
+ *
+ * <p>The analysis deepens one move at a time like the search. At each depth every move of the
+ * root is searched with a window whose lower bound is the value of the worst line kept so far,
+ * so only the lines which can still be kept get exact values. The moves of the root are tried in
+ * the order of their values at the depth before. After each depth, the lines found so far are
+ * reported, so a host can show them while the next depth is searched.</p>
+ *
+ * <p>The principal variation of a line is read from the transposition table, so it may be shorter
+ * than the depth when its entries were replaced. An analysis must only be used by one thread at
+ * a time, except {@link #stop()}.</p>
+ */
+public final class WegeAnalysis {
+
+    /**
+     * A line of the analysis: a move of the root and the moves which follow it.
+     *
+     * @param move the packed move, see {@link WegeMove#unpack(int)}.
+     * @param value the value of the move for the player to move.
+     * @param isSolved whether the value is the exact result of the game with the best moves.
+     * @param pv the move and the best moves after it, where <code>null</code> is a discarded card.
+     */
+    public record Line(int move, int value, boolean isSolved, List<WegeMove> pv) {
+
+        /**
+         * Return the move, or <code>null</code> if the card must be discarded.
+         */
+        public WegeMove bestMove() {
+            return WegeMove.unpack(move);
+        }
+    }
+
+    /**
+     * The lines found at a depth.
+     *
+     * @param depth the depth of the lines.
+     * @param lines the best lines, best first.
+     * @param nodes the number of positions searched since the analysis started.
+     * @param millis the milliseconds since the analysis started.
+     */
+    public record Report(int depth, List<Line> lines, long nodes, long millis) {}
+
+    /* A value larger than the value of any position. */
+    private static final int INFINITY = 30000;
+
+    /* The transposition table. */
+    private final WegeTranspositionTable table;
+
+    /* The number of lines kept. */
+    private final int lines;
+
+    /* Whether the analysis is asked to stop. */
+    private volatile boolean stopped;
+
+    /* The search of the running analysis, or null. */
+    private volatile WegeSearch search;
+
+    /**
+     * Create an analysis.
+     *
+     * @param table the transposition table, which can be kept between analyses of the same game.
+     * @param lines the number of best moves to find.
+     * @throws IllegalArgumentException if the number of lines is less than 1.
+     */
+    public WegeAnalysis(WegeTranspositionTable table, int lines) {
+        if (lines < 1) throw new IllegalArgumentException("Invalid number of lines!");
+        this.table = table;
+        this.lines = lines;
+    }
+
+    /**
+     * Ask the analysis running on another thread to stop. The analysis returns the report of its
+     * last complete depth.
+     */
+    public void stop() {
+        stopped = true;
+        WegeSearch running = search;
+        if (running != null) running.stop();
+    }
+
+    /**
+     * Analyze a position one depth at a time, until a depth, the time or the end of the game.
+     *
+     * @param position the position, which is the same when the analysis returns.
+     * @param maxDepth the largest number of moves searched ahead.
+     * @param millis the milliseconds the analysis may take, or {@link Long#MAX_VALUE} until it is stopped.
+     * @param listener the listener of the report of each depth, on the thread of the analysis.
+     * @return the report of the deepest complete depth, or of depth 0 without lines if the
+     * analysis is stopped before the first depth is complete.
+     * @throws IllegalStateException if the game is ended.
+     */
+    public Report analyze(WegePosition position, int maxDepth, long millis, Consumer<Report> listener) {
+        if (position.isGameEnded()) throw new IllegalStateException("Game is ended!");
+        long start = System.nanoTime();
+        WegeSearch running = new WegeSearch(table);
+        search = running;
+        // A stop before the search was set stops it at once.
+        if (stopped) running.stop();
+        running.prepare(position);
+        if (millis < Long.MAX_VALUE) {
+            CompletableFuture.delayedExecutor(millis, TimeUnit.MILLISECONDS).execute(running::stop);
+        }
+        try {
+            int[] moves = new int[position.maxMoves()];
+            int count = position.generateMoves(moves);
+            int[] values = new int[count];
+            Report report = new Report(0, List.of(), 0, 0);
+            for (int depth = 1; depth <= Math.max(maxDepth, 1); depth++) {
+                sortByValues(moves, values, count);
+                List<Line> found = new ArrayList<>();
+                boolean isSolved = true;
+                for (int i = 0; i < count; i++) {
+                    int alpha = found.size() < lines ? -INFINITY : found.get(lines - 1).value() - 1;
+                    int value = running.searchMove(position, moves[i], depth, alpha, INFINITY);
+                    if (running.isStopped()) break;
+                    boolean isMoveSolved = !running.isHorizonReached();
+                    isSolved &= isMoveSolved;
+                    values[i] = value;
+                    if (value > alpha) addLine(found, new Line(moves[i], value, isMoveSolved,
+                            findPrincipalVariation(position, moves[i], depth)));
+                }
+                if (running.isStopped()) break;
+                report = new Report(depth, Collections.unmodifiableList(found), running.getNodes(),
+                        (System.nanoTime() - start) / 1_000_000);
+                listener.accept(report);
+                if (isSolved) break;
+            }
+            return report;
+        } finally {
+            search = null;
+            stopped = false;
+        }
+    }
+
+    /**
+     * Insert a line by its value after the lines with the same value, and drop the worst line
+     * when there are too many.
+     */
+    private void addLine(List<Line> found, Line line) {
+        int index = 0;
+        while (index < found.size() && found.get(index).value() >= line.value()) {
+            index++;
+        }
+        found.add(index, line);
+        if (found.size() > lines) found.remove(lines);
+    }
+
+    /**
+     * Follow the best moves stored in the table after a move of the root, up to a depth.
+     */
+    private List<WegeMove> findPrincipalVariation(WegePosition position, int move, int depth) {
+        List<WegeMove> pv = new ArrayList<>();
+        pv.add(WegeMove.unpack(move));
+        position.play(move);
+        int played = 1;
+        int[] moves = new int[position.maxMoves()];
+        while (played < depth && !position.isGameEnded()) {
+            long entry = table.probe(position.getHash());
+            if (entry == 0) break;
+            int next = WegeTranspositionTable.moveOf(entry);
+            int count = position.generateMoves(moves);
+            if (!contains(moves, count, next)) break;
+            pv.add(WegeMove.unpack(next));
+            position.play(next);
+            played++;
+        }
+        for (int i = 0; i < played; i++) {
+            position.undo();
+        }
+        return Collections.unmodifiableList(pv);
+    }
+
+    private static boolean contains(int[] moves, int count, int move) {
+        for (int i = 0; i < count; i++) {
+            if (moves[i] == move) return true;
+        }
+        return false;
+    }
+
+    /**
+     * Sort the moves by their values, best first, and keep the order of the moves with the same value.
+     */
+    private static void sortByValues(int[] moves, int[] values, int count) {
+        for (int i = 1; i < count; i++) {
+            int move = moves[i];
+            int value = values[i];
+            int j = i - 1;
+            while (j >= 0 && values[j] < value) {
+                moves[j + 1] = moves[j];
+                values[j + 1] = values[j];
+                j--;
+            }
+            moves[j + 1] = move;
+            values[j + 1] = value;
+        }
+    }
+}
@@ -0,0 +1,335 @@
+package game;
+
+import java.nio.ByteBuffer;
+
+/**
+ * A view which plays a game stored in a slot of a {@link WegeGameArena}. It works like
+ * {@link WegeGameMaster} on card codes: the next card is drawn from the deck of the slot and
+ * placed, swapped or discarded, with the same rules and the same score, see {@link WegeRules}.
+ * After a swap the next player plays the replaced card instead of drawing one.
+ *
+ * <p>The slot always holds the state of the game. An operation which needs the rules copies
+ * the board of the slot into small arrays of the view with two bulk reads, applies the rules
+ * of {@link WegeRules} on them and writes a changed location and its intersections back, so
+ * the rules have one implementation and a view can be moved to another slot at any time. A
+ * view must only be used by one thread.</p>
+ */
+public final class WegeArenaGame {
+
+    /* The arena with the games. */
+    private final WegeGameArena arena;
+
+    /* The number of rows of the game board. */
+    private final int rows;
+
+    /* The number of columns of the game board. */
+    private final int cols;
+
+    /* The location codes of the game copied out of the slot. */
+    private final byte[] cards;
+
+    /* The intersection codes of the game copied out of the slot. */
+    private final byte[] points;
+
+    /* The scratch array to score the game. */
+    private final int[] scoreScratch;
+
+    /* The slot of the game. */
+    private int slot;
+
+    /* The buffer which holds the slot. */
+    private ByteBuffer buffer;
+
+    /* The offset of the slot in the buffer. */
+    private int offset;
+
+    /* The index of the first location of the slot in the buffer. */
+    private int cardBase;
+
+    /* The index of the first intersection of the slot in the buffer. */
+    private int pointBase;
+
+    /**
+     * Create a view on an arena.
+     *
+     * @param arena the arena with the games.
+     */
+    WegeArenaGame(WegeGameArena arena) {
+        this.arena = arena;
+        this.rows = arena.getRows();
+        this.cols = arena.getCols();
+        this.cards = new byte[rows * cols];
+        this.points = new byte[(rows + 1) * (cols + 1)];
+        this.scoreScratch = new int[WegeRules.scratchSize(rows, cols)];
+    }
+
+    /**
+     * Move this view to the game in another slot.
+     *
+     * @param slot the slot of the game.
+     * @return this view.
+     * @throws IndexOutOfBoundsException if there is no game in the slot.
+     */
+    public WegeArenaGame moveTo(int slot) {
+        this.buffer = arena.bufferOf(slot);
+        this.offset = arena.offsetOf(slot);
+        this.cardBase = offset + WegeGameArena.CARDS_OFFSET;
+        this.pointBase = offset + arena.pointsOffset();
+        this.slot = slot;
+        return this;
+    }
+
+    /**
+     * Return the slot of the game.
+     */
+    public int getSlot() {
+        return slot;
+    }
+
+    /**
+     * Return the number of cards drawn from the deck, which were played or discarded.
+     */
+    public int getDeckPosition() {
+        return buffer.getInt(offset + WegeGameArena.DECK_POSITION);
+    }
+
+    /**
+     * Return the number of locations which have a card.
+     */
+    public int getCardsPlayed() {
+        return buffer.getInt(offset + WegeGameArena.CARDS_PLAYED);
+    }
+
+    /**
+     * Return the number of cards discarded because they could not be played.
+     */
+    public int getCardsDiscarded() {
+        return buffer.getInt(offset + WegeGameArena.CARDS_DISCARDED);
+    }
+
+    /**
+     * Return the number of turns taken, the cards drawn plus the swaps.
+     */
+    public int getTurn() {
+        return buffer.getInt(offset + WegeGameArena.TURN);
+    }
+
+    /**
+     * Return the number of cards left to play, in the deck and replaced by a swap.
+     */
+    public int getCardsLeft() {
+        return arena.getDeckSize() - getDeckPosition() + (getHeldCard() == WegeRules.EMPTY ? 0 : 1);
+    }
+
+    /**
+     * Return the card replaced by the last move if it was a swap, which the next player plays
+     * instead of drawing a card.
+     *
+     * @return the card code, or {@link WegeRules#EMPTY} if no card is held.
+     * @see WegeGameMaster#getReplacedCard() the same card on the game master.
+     */
+    public byte getHeldCard() {
+        return (byte) buffer.getInt(offset + WegeGameArena.HELD_CARD);
+    }
+
+    /**
+     * Check if the land player plays the next card. The players take turns from the first card.
+     */
+    public boolean isLandTurn() {
+        return (getTurn() & 1) == 0;
+    }
+
+    /**
+     * Return the next card, the card held after a swap if any, or else the next card of the deck.
+     *
+     * @return the card code, or {@link WegeRules#EMPTY} if no card is left.
+     */
+    public byte peekCard() {
+        byte held = getHeldCard();
+        if (held != WegeRules.EMPTY) return held;
+        int deckPosition = getDeckPosition();
+        if (deckPosition == arena.getDeckSize()) return WegeRules.EMPTY;
+        return buffer.get(offset + arena.deckOffset() + deckPosition);
+    }
+
+    /**
+     * Return the card played at a location.
+     *
+     * @param row the row on the game board.
+     * @param col the column on the game board.
+     * @return the card code, or {@link WegeRules#EMPTY} if there is no card.
+     */
+    public byte findCard(int row, int col) {
+        return buffer.get(cardBase + row * cols + col);
+    }
+
+    /**
+     * Return the code of an intersection, see {@link WegeRules#POINT_EXISTS}.
+     *
+     * @param x the row of the intersection.
+     * @param y the column of the intersection.
+     */
+    public byte findPoint(int x, int y) {
+        return buffer.get(pointBase + WegeRules.pointIndex(cols, x, y));
+    }
+
+    /**
+     * Check if the next card can be placed at an empty location.
+     *
+     * @param row the row on the game board.
+     * @param col the column on the game board.
+     * @param orientation the orientation of the card, see {@link WegeRules#TOP_LEFT}.
+     * @return <code>true</code> if the card can be placed.
+     * @see WegeGameMaster#tryPlaceCard(WegePlayingCard) the same rule on the game master.
+     */
+    public boolean isLegalPlace(int row, int col, int orientation) {
+        if (isGameEnded() || findCard(row, col) != WegeRules.EMPTY) return false;
+        if (getCardsPlayed() == 0) return true;
+        loadBoard();
+        return WegeRules.isLegalPlace(points, 0, 1, cols, row, col, WegeRules.rotate(peekCard(), orientation));
+    }
+
+    /**
+     * Check if the next card can replace the card at a location.
+     *
+     * @param row the row on the game board.
+     * @param col the column on the game board.
+     * @param orientation the orientation of the card, see {@link WegeRules#TOP_LEFT}.
+     * @return <code>true</code> if the card is a bridge which can be swapped in.
+     * @see WegeGameMaster#trySwapCard(WegePlayingCard) the same rule on the game master.
+     */
+    public boolean isLegalSwap(int row, int col, int orientation) {
+        if (isGameEnded()) return false;
+        loadBoard();
+        return WegeRules.isLegalSwap(cards, points, 0, 1, cols, row, col, WegeRules.rotate(peekCard(), orientation));
+    }
+
+    /**
+     * Attempt to place the next card at an empty location.
+     *
+     * @param row the row on the game board.
+     * @param col the column on the game board.
+     * @param orientation the orientation of the card, see {@link WegeRules#TOP_LEFT}.
+     * @return <code>true</code> if the card is placed successfully.
+     */
+    public boolean tryPlaceCard(int row, int col, int orientation) {
+        if (!isLegalPlace(row, col, orientation)) return false;
+        int card = peekCard();
+        // The board is loaded by the check, unless this is the first card.
+        if (getCardsPlayed() == 0) loadBoard();
+        playCard(row, col, WegeRules.rotate(card, orientation));
+        buffer.putInt(offset + WegeGameArena.CARDS_PLAYED, getCardsPlayed() + 1);
+        if (WegeRules.cardTypeOf(card) == WegeRules.COSSACK) {
+            int cossacks = offset + (isLandTurn() ? WegeGameArena.LAND_COSSACKS : WegeGameArena.WATER_COSSACKS);
+            buffer.putInt(cossacks, buffer.getInt(cossacks) + 1);
+        }
+        nextTurn(WegeRules.EMPTY);
+        return true;
+    }
+
+    /**
+     * Attempt to swap the next card with the card at a location.
+     *
+     * @param row the row on the game board.
+     * @param col the column on the game board.
+     * @param orientation the orientation of the card, see {@link WegeRules#TOP_LEFT}.
+     * @return <code>true</code> if the card is swapped successfully.
+     */
+    public boolean trySwapCard(int row, int col, int orientation) {
+        if (!isLegalSwap(row, col, orientation)) return false;
+        byte replaced = cards[row * cols + col];
+        playCard(row, col, WegeRules.rotate(peekCard(), orientation));
+        nextTurn(WegeRules.rotate(replaced, WegeRules.TOP_LEFT));
+        return true;
+    }
+
+    /**
+     * Check if the next card can be played anywhere on the game board in any orientation.
+     *
+     * @return <code>true</code> if there is at least one legal place or swap for the card.
+     * @see WegeGameMaster#hasLegalMove(WegePlayingCard) the same rule on the game master.
+     */
+    public boolean hasLegalMove() {
+        if (isGameEnded()) return false;
+        if (getCardsPlayed() == 0) return true;
+        loadBoard();
+        boolean isBridge = WegeRules.cardTypeOf(peekCard()) == WegeRules.BRIDGE;
+        for (int row = 0; row < rows; row++) {
+            for (int col = 0; col < cols; col++) {
+                // A card can be rotated to match any contact point, and a played card always has one.
+                if (cards[row * cols + col] == WegeRules.EMPTY) {
+                    if (WegeRules.findContactCorner(points, 0, 1, cols, row, col) >= 0) return true;
+                } else if (isBridge && WegeRules.isSwappable(cards, points, 0, 1, cols, row, col)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Pass the turn when the next card cannot be played. The card is discarded.
+     *
+     * @return <code>true</code> if the card is discarded and the turn is passed,
+     * <code>false</code> if the card has a legal move and must be played.
+     * @see WegeGameMaster#passTurn(WegePlayingCard) the same rule on the game master.
+     */
+    public boolean passTurn() {
+        if (isGameEnded() || hasLegalMove()) return false;
+        buffer.putInt(offset + WegeGameArena.CARDS_DISCARDED, getCardsDiscarded() + 1);
+        nextTurn(WegeRules.EMPTY);
+        return true;
+    }
+
+    /**
+     * Check if the game is ended. The game ends when the game board is filled up
+     * or when there is no card left to be played, neither in the deck nor replaced.
+     */
+    public boolean isGameEnded() {
+        return getCardsPlayed() == rows * cols || getCardsLeft() == 0;
+    }
+
+    /**
+     * Score the game as if it ended now.
+     *
+     * @param scores the array which receives the land score and then the water score.
+     * @see WegeGameMaster#collectPlayerStatistic() the same score on the game master.
+     */
+    public void score(int[] scores) {
+        loadBoard();
+        WegeRules.score(cards, points, 0, 1, rows, cols,
+                buffer.getInt(offset + WegeGameArena.LAND_COSSACKS),
+                buffer.getInt(offset + WegeGameArena.WATER_COSSACKS), scoreScratch, scores);
+    }
+
+    /**
+     * Copy the board of the slot into the arrays of this view.
+     */
+    private void loadBoard() {
+        buffer.get(cardBase, cards);
+        buffer.get(pointBase, points);
+    }
+
+    /**
+     * Play a card on the loaded board and write the changed location and intersections back to the slot.
+     */
+    private void playCard(int row, int col, int code) {
+        WegeRules.placeCard(cards, points, 0, 1, cols, row, col, code);
+        buffer.put(cardBase + row * cols + col, (byte) code);
+        for (int corner = WegeRules.TOP_LEFT; corner <= WegeRules.BOTTOM_LEFT; corner++) {
+            int point = WegeRules.cornerPointIndex(cols, row, col, corner);
+            buffer.put(pointBase + point, points[point]);
+        }
+    }
+
+    /**
+     * End the turn of the next card. The card was drawn from the deck unless it was held.
+     *
+     * @param replaced the code of the card replaced by a swap, or {@link WegeRules#EMPTY}.
+     */
+    private void nextTurn(byte replaced) {
+        if (getHeldCard() == WegeRules.EMPTY) buffer.putInt(offset + WegeGameArena.DECK_POSITION, getDeckPosition() + 1);
+        buffer.putInt(offset + WegeGameArena.HELD_CARD, replaced);
+        buffer.putInt(offset + WegeGameArena.TURN, getTurn() + 1);
+    }
+}
@@ -0,0 +1,577 @@
+package game;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+/**
+ * An engine which plays many games of Wege in lockstep with random legal moves,
+ * for balancing runs which need a large number of games. The games are stored as
+ * a structure of arrays: the code of a location, an intersection or a deck card is
+ * stored for all games next to each other, at <code>index * games + game</code>.
+ *
+ * <p>Every running game plays one card per step, so the player to move is the same in
+ * all of them. A game draws the next card of its deck, unless the move before was a swap:
+ * then it plays the replaced card instead, so the deck positions of the games drift apart
+ * as they swap. The legal moves
+ * are counted and picked by loops over all games for one location, which read and
+ * write consecutive indexes without branches or calls, so the JIT compiler can unroll
+ * and vectorize them. Only the picked move is applied game by game.</p>
+ *
+ * <p>The rules and the scores are the same as {@link WegeGameMaster}, see {@link WegeRules}.</p>
+ */
+public final class WegeBatchEngine {
+
+    /* The increment of the random generator of each game. */
+    private static final long GOLDEN_GAMMA = 0x9E3779B97F4A7C15L;
+
+    /* The number of games. */
+    private final int games;
+
+    /* The number of rows of the game boards. */
+    private final int rows;
+
+    /* The number of columns of the game boards. */
+    private final int cols;
+
+    /* The number of cards in each deck. */
+    private final int deckSize;
+
+    /* The card codes of all locations of all games. */
+    private final byte[] cardCodes;
+
+    /* The intersection codes of all intersections of all games. */
+    private final byte[] pointCodes;
+
+    /* The card codes of all decks in the order they are drawn. */
+    private final byte[] deckCodes;
+
+    /* The number of cards drawn from the deck of each game. */
+    private final int[] deckPositions;
+
+    /* The card replaced by the last swap of each game, which it plays next instead of drawing, or 0. */
+    private final int[] heldCards;
+
+    /* 1 if a location has no card. */
+    private final int[] emptyCells;
+
+    /* The number of intersections around a location which have a card played around them. */
+    private final int[] contactCounts;
+
+    /* 1 if a location has at least two contacts, so it has a first contact point. */
+    private final int[] connectedCells;
+
+    /* 1 if a location has a card without a gnome which a bridge can always replace. */
+    private final int[] plainCells;
+
+    /* 1 if a location has a card with a gnome which a bridge can replace if no facing gnomes block it. */
+    private final int[] gnomeCells;
+
+    /* 1 if more than one gnome faces an intersection. */
+    private final int[] facingPoints;
+
+    /*
+     * Whether facing gnomes at an intersection, or at any intersection above or on the
+     * left of it, block a swap. It has an extra row and column of zeros on top and on the left.
+     */
+    private final int[] swapBlocks;
+
+    /* Whether a location is a legal move for the card drawn in this step. */
+    private final int[] candidates;
+
+    /* The number of locations of each game which have a card. */
+    private final int[] cardsPlayed;
+
+    /* The number of cossack cards played by the land player of each game. */
+    private final int[] landCossacks;
+
+    /* The number of cossack cards played by the water player of each game. */
+    private final int[] waterCossacks;
+
+    /* The final score of the land player of each game. */
+    private final int[] landScores;
+
+    /* The final score of the water player of each game. */
+    private final int[] waterScores;
+
+    /* 1 while a game is running, 0 when it is ended. */
+    private final int[] running;
+
+    /* The state of the random generator of each game. */
+    private final long[] randomStates;
+
+    /* The card drawn by each game in this step. */
+    private final int[] drawnCards;
+
+    /* 1 if the card drawn by a game in this step is a bridge. */
+    private final int[] drawnBridges;
+
+    /* 1 if a game has no card played yet in this step. */
+    private final int[] emptyBoards;
+
+    /* Whether any game drew a bridge in this step. */
+    private boolean bridgeDrawn;
+
+    /* The number of legal moves counted so far in this step for each game. */
+    private final int[] moveCounts;
+
+    /* The legal move picked by each game in this step, counted from 1. */
+    private final int[] pickedMoves;
+
+    /* The location picked by each game in this step, or -1 to pass. */
+    private final int[] pickedCells;
+
+    /* The packed move of each game in the last step. */
+    private final int[] lastMoves;
+
+    /* The card codes of a game copied out to score it. */
+    private final byte[] gameCards;
+
+    /* The intersection codes of a game copied out to score it. */
+    private final byte[] gamePoints;
+
+    /* The scratch array to score a game. */
+    private final int[] scoreScratch;
+
+    /* The land score and the water score of a game just scored. */
+    private final int[] gameScores = new int[2];
+
+    /* The number of steps played so far. */
+    private int turn;
+
+    /* The number of games which are not ended. */
+    private int gamesRunning;
+
+    /**
+     * Create an engine which plays games with the board size and the deck of a game setting.
+     * Every game shuffles its own copy of the deck.
+     *
+     * @param setting the setting with the board size and the cards of the deck.
+     * @param games the number of games.
+     * @param seed the seed of the random moves and the shuffled decks.
+     */
+    public WegeBatchEngine(WegeGameSetting setting, int games, long seed) {
+        this(setting, games, seed, 0);
+    }
+
+    /**
+     * Create an engine which plays a range of the games of a simulation. The random generators
+     * of a game only depend on the seed and the number of the game in the simulation, see
+     * {@link WegeRandom}, so the simulation can be split over many engines with the same results.
+     *
+     * @param setting the setting with the board size and the cards of the deck.
+     * @param games the number of games.
+     * @param seed the seed of the simulation.
+     * @param firstGame the number of the first game of this engine in the simulation.
+     */
+    public WegeBatchEngine(WegeGameSetting setting, int games, long seed, long firstGame) {
+        this.games = games;
+        this.rows = setting.rows();
+        this.cols = setting.cols();
+        byte[] sortedDeck = WegeRules.encodeDeck(setting.deck());
+        // The deck of a setting is already shuffled, sort it so only the seed decides the games.
+        Arrays.sort(sortedDeck);
+        byte[] deck = new byte[sortedDeck.length];
+        this.deckSize = deck.length;
+        int points = (rows + 1) * (cols + 1);
+        this.cardCodes = new byte[rows * cols * games];
+        this.pointCodes = new byte[points * games];
+        this.deckCodes = new byte[deckSize * games];
+        this.deckPositions = new int[games];
+        this.heldCards = new int[games];
+        this.emptyCells = new int[rows * cols * games];
+        Arrays.fill(emptyCells, 1);
+        this.contactCounts = new int[rows * cols * games];
+        this.connectedCells = new int[rows * cols * games];
+        this.plainCells = new int[rows * cols * games];
+        this.gnomeCells = new int[rows * cols * games];
+        this.facingPoints = new int[points * games];
+        this.swapBlocks = new int[(rows + 2) * (cols + 2) * games];
+        this.candidates = new int[rows * cols * games];
+        this.cardsPlayed = new int[games];
+        this.landCossacks = new int[games];
+        this.waterCossacks = new int[games];
+        this.landScores = new int[games];
+        this.waterScores = new int[games];
+        this.running = new int[games];
+        this.randomStates = new long[games];
+        this.drawnCards = new int[games];
+        this.drawnBridges = new int[games];
+        this.emptyBoards = new int[games];
+        this.moveCounts = new int[games];
+        this.pickedMoves = new int[games];
+        this.pickedCells = new int[games];
+        this.lastMoves = new int[games];
+        this.gameCards = new byte[rows * cols];
+        this.gamePoints = new byte[points];
+        this.scoreScratch = new int[WegeRules.scratchSize(rows, cols)];
+        for (int game = 0; game < games; game++) {
+            randomStates[game] = WegeRandom.seedOf(seed, firstGame + game, WegeRandom.Purpose.POLICY);
+            // Shuffle the deck of this game.
+            SplittableRandom random = WegeRandom.forGame(seed, firstGame + game, WegeRandom.Purpose.DECK);
+            System.arraycopy(sortedDeck, 0, deck, 0, deckSize);
+            for (int i = deckSize - 1; i > 0; i--) {
+                int j = random.nextInt(i + 1);
+                byte card = deck[i];
+                deck[i] = deck[j];
+                deck[j] = card;
+            }
+            for (int i = 0; i < deckSize; i++) {
+                deckCodes[i * games + game] = deck[i];
+            }
+            running[game] = deckSize > 0 ? 1 : 0;
+        }
+        this.gamesRunning = deckSize > 0 ? games : 0;
+    }
+
+    /**
+     * Play one turn of every running game. Each game draws a card and plays one of its
+     * legal moves at random, or passes the turn if there is none.
+     *
+     * @return the number of games still running after this step.
+     */
+    public int step() {
+        if (gamesRunning == 0) return 0;
+        drawCards();
+        if (bridgeDrawn) updateSwapBlocks();
+        countMoves();
+        pickMoves();
+        findPickedCells();
+        applyMoves();
+        turn++;
+        return gamesRunning;
+    }
+
+    /**
+     * Play all games until they are ended.
+     */
+    public void playToEnd() {
+        while (step() > 0) {
+            // Keep stepping.
+        }
+    }
+
+    /**
+     * Draw the next card of every game, or take the card replaced by its last swap.
+     */
+    private void drawCards() {
+        bridgeDrawn = false;
+        for (int game = 0; game < games; game++) {
+            int card = peekCard(game);
+            drawnCards[game] = card;
+            drawnBridges[game] = WegeRules.cardTypeOf(card) == WegeRules.BRIDGE ? 1 : 0;
+            emptyBoards[game] = cardsPlayed[game] == 0 ? 1 : 0;
+            moveCounts[game] = 0;
+            bridgeDrawn |= drawnBridges[game] != 0;
+        }
+    }
+
+    /**
+     * Find the intersections where a card with a gnome cannot be swapped. Like
+     * {@link WegeRules#isSwappable}, a card is blocked by facing gnomes at any intersection
+     * above or on the left of its bottom right corner, so the flags are accumulated
+     * from top left.
+     */
+    private void updateSwapBlocks() {
+        int blockCols = cols + 2;
+        for (int x = 0; x <= rows; x++) {
+            for (int y = 0; y <= cols; y++) {
+                int pointBase = WegeRules.pointIndex(cols, x, y) * games;
+                int blockBase = ((x + 1) * blockCols + y + 1) * games;
+                int upBase = blockBase - blockCols * games;
+                int leftBase = blockBase - games;
+                for (int game = 0; game < games; game++) {
+                    swapBlocks[blockBase + game] = facingPoints[pointBase + game]
+                            | swapBlocks[upBase + game] | swapBlocks[leftBase + game];
+                }
+            }
+        }
+    }
+
+    /**
+     * Mark the legal moves of the drawn cards and count them for every game. Each pass over
+     * the games is kept small and reads one index of <code>int</code> arrays, so it can be
+     * vectorized.
+     */
+    private void countMoves() {
+        int blockCols = cols + 2;
+        for (int row = 0; row < rows; row++) {
+            for (int col = 0; col < cols; col++) {
+                int cellBase = (row * cols + col) * games;
+                for (int game = 0; game < games; game++) {
+                    candidates[cellBase + game] = emptyCells[cellBase + game]
+                            & (connectedCells[cellBase + game] | emptyBoards[game]);
+                }
+                if (bridgeDrawn) {
+                    int blockBase = ((row + 2) * blockCols + col + 2) * games;
+                    for (int game = 0; game < games; game++) {
+                        int swappable = plainCells[cellBase + game]
+                                | (gnomeCells[cellBase + game] & (1 - swapBlocks[blockBase + game]));
+                        candidates[cellBase + game] |= swappable & drawnBridges[game];
+                    }
+                }
+                for (int game = 0; game < games; game++) {
+                    moveCounts[game] += candidates[cellBase + game];
+                }
+            }
+        }
+    }
+
+    /**
+     * Pick one of the legal moves of every game at random.
+     */
+    private void pickMoves() {
+        for (int game = 0; game < games; game++) {
+            int moves = running[game] == 0 ? 0 : moveCounts[game];
+            pickedMoves[game] = moves == 0 ? 0 : 1 + nextInt(game, moves);
+            moveCounts[game] = 0;
+            pickedCells[game] = -1;
+        }
+    }
+
+    /**
+     * Find the location of the picked move of every game.
+     */
+    private void findPickedCells() {
+        int cells = rows * cols;
+        for (int cell = 0; cell < cells; cell++) {
+            int cellBase = cell * games;
+            for (int game = 0; game < games; game++) {
+                int candidate = candidates[cellBase + game];
+                int count = moveCounts[game] + candidate;
+                moveCounts[game] = count;
+                // 1 only at the picked move, which is found once.
+                int picked = candidate & (((count ^ pickedMoves[game]) - 1) >>> 31);
+                pickedCells[game] += picked * (cell + 1);
+            }
+        }
+    }
+
+    /**
+     * Apply the picked move of every running game, then end and score the games
+     * which filled the board or have no card left.
+     */
+    private void applyMoves() {
+        boolean isLandTurn = (turn & 1) == 0;
+        for (int game = 0; game < games; game++) {
+            if (running[game] == 0) continue;
+            // The card played was drawn from the deck unless it was held, and a swap holds another.
+            if (heldCards[game] == WegeRules.EMPTY) deckPositions[game]++;
+            heldCards[game] = WegeRules.EMPTY;
+            int cell = pickedCells[game];
+            if (cell < 0) {
+                lastMoves[game] = WegeMove.PASS;
+            } else {
+                applyMove(game, cell, isLandTurn);
+            }
+            boolean noCardLeft = deckPositions[game] == deckSize && heldCards[game] == WegeRules.EMPTY;
+            if (noCardLeft || cardsPlayed[game] == rows * cols) {
+                running[game] = 0;
+                gamesRunning--;
+                scoreGame(game);
+            }
+        }
+    }
+
+    /**
+     * Score an ended game. The board is copied out first, so it is read with independent
+     * loads instead of following the trails through the interleaved arrays.
+     */
+    private void scoreGame(int game) {
+        for (int cell = 0; cell < gameCards.length; cell++) {
+            gameCards[cell] = cardCodes[cell * games + game];
+        }
+        for (int point = 0; point < gamePoints.length; point++) {
+            gamePoints[point] = pointCodes[point * games + game];
+        }
+        WegeRules.score(gameCards, gamePoints, 0, 1, rows, cols,
+                landCossacks[game], waterCossacks[game], scoreScratch, gameScores);
+        landScores[game] = gameScores[0];
+        waterScores[game] = gameScores[1];
+    }
+
+    /**
+     * Place or swap the drawn card of a game at a location in a random legal orientation.
+     * A swap holds the replaced card for the next step.
+     */
+    private void applyMove(int game, int cell, boolean isLandTurn) {
+        int row = cell / cols;
+        int col = cell % cols;
+        int card = drawnCards[game];
+        boolean isSwap = cardCodes[cell * games + game] != WegeRules.EMPTY;
+        int orientation;
+        if (cardsPlayed[game] == 0) {
+            orientation = nextInt(game, 4);
+        } else {
+            orientation = WegeRules.findMatchingOrientation(pointCodes, game, games, cols, row, col, card)
+                    + 2 * nextInt(game, 2);
+        }
+        if (!isSwap) updateContacts(game, row, col);
+        else heldCards[game] = WegeRules.rotate(cardCodes[cell * games + game], WegeRules.TOP_LEFT);
+        WegeRules.placeCard(cardCodes, pointCodes, game, games, cols, row, col, WegeRules.rotate(card, orientation));
+        updateFlags(game, row, col, card);
+        if (!isSwap) {
+            cardsPlayed[game]++;
+            if (WegeRules.cardTypeOf(card) == WegeRules.COSSACK) {
+                if (isLandTurn) landCossacks[game]++;
+                else waterCossacks[game]++;
+            }
+        }
+        lastMoves[game] = WegeMove.pack(row, col, orientation, isSwap);
+    }
+
+    /**
+     * Count the new contacts of the locations around an empty location before a card is placed
+     * there. Only the intersections without a card played around them become new contacts.
+     */
+    private void updateContacts(int game, int row, int col) {
+        for (int corner = WegeRules.TOP_LEFT; corner <= WegeRules.BOTTOM_LEFT; corner++) {
+            int x = row + (corner >>> 1);
+            int y = col + (((corner + 1) >>> 1) & 1);
+            if ((pointCodes[WegeRules.pointIndex(cols, x, y) * games + game] & WegeRules.POINT_EXISTS) != 0) continue;
+            for (int r = Math.max(x - 1, 0); r <= Math.min(x, rows - 1); r++) {
+                for (int c = Math.max(y - 1, 0); c <= Math.min(y, cols - 1); c++) {
+                    int index = (r * cols + c) * games + game;
+                    if (++contactCounts[index] == 2) connectedCells[index] = 1;
+                }
+            }
+        }
+    }
+
+    /**
+     * Refresh the flags of a location and its intersections after a card is placed there.
+     */
+    private void updateFlags(int game, int row, int col, int card) {
+        int index = (row * cols + col) * games + game;
+        // A bridge only replaces a water or land card.
+        boolean swappable = WegeRules.cardTypeOf(card) == WegeRules.WATER || WegeRules.cardTypeOf(card) == WegeRules.LAND;
+        boolean hasGnome = WegeRules.gnomeOf(card) != WegeRules.NO_GNOME;
+        emptyCells[index] = 0;
+        plainCells[index] = swappable && !hasGnome ? 1 : 0;
+        gnomeCells[index] = swappable && hasGnome ? 1 : 0;
+        for (int corner = WegeRules.TOP_LEFT; corner <= WegeRules.BOTTOM_LEFT; corner++) {
+            int point = WegeRules.cornerPointIndex(cols, row, col, corner) * games + game;
+            facingPoints[point] = pointCodes[point] >>> WegeRules.POINT_GNOME_SHIFT > 1 ? 1 : 0;
+        }
+    }
+
+    /**
+     * Return a random number from 0 (inclusive) to bound (exclusive) from the generator of a game.
+     */
+    private int nextInt(int game, int bound) {
+        long z = randomStates[game] += GOLDEN_GAMMA;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        z ^= z >>> 31;
+        return (int) (((z >>> 32) * bound) >>> 32);
+    }
+
+    /**
+     * Return the number of games.
+     */
+    public int getGames() {
+        return games;
+    }
+
+    /**
+     * Return the number of steps played so far, which is also the number of turns
+     * taken by each running game.
+     */
+    public int getTurn() {
+        return turn;
+    }
+
+    /**
+     * Return the number of games which are not ended.
+     */
+    public int getGamesRunning() {
+        return gamesRunning;
+    }
+
+    /**
+     * Return <code>true</code> if a game is not ended.
+     */
+    public boolean isRunning(int game) {
+        return running[game] != 0;
+    }
+
+    /**
+     * Return the code of the card a game plays in the next step, the card replaced by its
+     * last swap if any, or else the next card of its deck.
+     *
+     * @param game the game.
+     * @return the code of the card or {@link WegeRules#EMPTY} if no card is left.
+     */
+    public byte peekCard(int game) {
+        if (heldCards[game] != WegeRules.EMPTY) return (byte) heldCards[game];
+        int deckPosition = deckPositions[game];
+        return deckPosition < deckSize ? deckCodes[deckPosition * games + game] : WegeRules.EMPTY;
+    }
+
+    /**
+     * Return the number of cards a game has left to play, in its deck and replaced by its last swap.
+     *
+     * @param game the game.
+     */
+    public int getCardsLeft(int game) {
+        return deckSize - deckPositions[game] + (heldCards[game] == WegeRules.EMPTY ? 0 : 1);
+    }
+
+    /**
+     * Return the packed move played by a game in the last step.
+     *
+     * @param game the game.
+     * @return the packed move, see {@link WegeMove#unpack(int)}.
+     */
+    public int getLastMove(int game) {
+        return lastMoves[game];
+    }
+
+    /**
+     * Return the code of the card played at a location of a game.
+     *
+     * @param game the game.
+     * @param row the row on the game board.
+     * @param col the column on the game board.
+     * @return the code of the card or {@link WegeRules#EMPTY}.
+     */
+    public byte findCard(int game, int row, int col) {
+        return cardCodes[(row * cols + col) * games + game];
+    }
+
+    /**
+     * Return the number of locations of a game which have a card.
+     */
+    public int getCardsPlayed(int game) {
+        return cardsPlayed[game];
+    }
+
+    /**
+     * Return the final score of the land player of an ended game.
+     */
+    public int getLandScore(int game) {
+        return landScores[game];
+    }
+
+    /**
+     * Return the final score of the water player of an ended game.
+     */
+    public int getWaterScore(int game) {
+        return waterScores[game];
+    }
+
+    /**
+     * Get the card codes of all games, see {@link WegeRules}.
+     * Use only for unit test.
+     */
+    byte[] getCardCodes() {
+        return cardCodes;
+    }
+
+    /**
+     * Get the intersection codes of all games, see {@link WegeRules}.
+     * Use only for unit test.
+     */
+    byte[] getPointCodes() {
+        return pointCodes;
+    }
+}
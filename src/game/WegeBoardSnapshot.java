@@ -0,0 +1,183 @@
+package game;
+
+import javafx.geometry.Pos;
+
+import java.util.Arrays;
+
+/**
+ * An immutable snapshot of a Wege playing board, taken after a card is placed.
+ * A new snapshot copies only the rows changed by the placed card and shares all
+ * other rows with the previous snapshot, so snapshots are cheap to create and can
+ * be read from any thread without locks.
+ */
+public final class WegeBoardSnapshot {
+
+    /**
+     * A card played on the board at the time of the snapshot.
+     *
+     * @param cardType    the type of the card.
+     * @param orientation the orientation of the card.
+     * @param hasGnome    whether there is a gnome on this card.
+     * @param isPathGnome whether the gnome, if it exists, is on the path.
+     */
+    public record Card(WegeCard.CardType cardType, Pos orientation, boolean hasGnome, boolean isPathGnome) {
+
+        /**
+         * Take the state of a played card.
+         */
+        static Card of(WegeCard card) {
+            return new Card(card.getCardType(), card.getOrientation(), card.hasGnome(), card.isPathGnome());
+        }
+    }
+
+    /* Packed value of an intersection which has no card around it. */
+    private static final int NO_INTERSECTION = -1;
+
+    /* The number of times a card is placed on the board before this snapshot. */
+    private final long version;
+
+    /* The number of locations on the game board which have a card. */
+    private final int cardsPlayed;
+
+    /* Rows of played cards, a row may be shared with other snapshots and must never be changed. */
+    private final Card[][] cardRows;
+
+    /*
+     * Rows of the intersection grid, each intersection is packed as whether it connects land
+     * in the lowest bit and the facing gnome count in the other bits. A row may be shared
+     * with other snapshots and must never be changed.
+     */
+    private final int[][] intersectionRows;
+
+    private WegeBoardSnapshot(long version, int cardsPlayed, Card[][] cardRows, int[][] intersectionRows) {
+        this.version = version;
+        this.cardsPlayed = cardsPlayed;
+        this.cardRows = cardRows;
+        this.intersectionRows = intersectionRows;
+    }
+
+    /**
+     * Create the snapshot of an empty playing board.
+     *
+     * @param rows the number of rows of the board.
+     * @param cols the number of columns of the board.
+     * @return the first snapshot of the board.
+     */
+    static WegeBoardSnapshot createEmpty(int rows, int cols) {
+        Card[][] cardRows = new Card[rows][];
+        Card[] emptyCardRow = new Card[cols];
+        Arrays.fill(cardRows, emptyCardRow);
+        int[][] intersectionRows = new int[rows + 1][];
+        int[] emptyIntersectionRow = new int[cols + 1];
+        Arrays.fill(emptyIntersectionRow, NO_INTERSECTION);
+        Arrays.fill(intersectionRows, emptyIntersectionRow);
+        return new WegeBoardSnapshot(0, 0, cardRows, intersectionRows);
+    }
+
+    /**
+     * Create the next snapshot after a card is placed on the board. Only the row
+     * of the card and the two rows of intersections around it are copied.
+     *
+     * @param card the placed card.
+     * @param surroundIntersections the intersections around the placed card.
+     * @param cardsPlayed the number of locations which have a card after placing.
+     * @return the next snapshot of the board.
+     */
+    WegeBoardSnapshot placeCard(WegePlayingCard card, Iterable<Intersection> surroundIntersections, int cardsPlayed) {
+        int row = card.getRow();
+        Card[][] nextCardRows = cardRows.clone();
+        nextCardRows[row] = cardRows[row].clone();
+        nextCardRows[row][card.getCol()] = Card.of(card);
+        int[][] nextIntersectionRows = intersectionRows.clone();
+        nextIntersectionRows[row] = intersectionRows[row].clone();
+        nextIntersectionRows[row + 1] = intersectionRows[row + 1].clone();
+        for (Intersection intersection : surroundIntersections) {
+            int packed = intersection.getFacingGnomeCount() << 1 | (intersection.isConnectLand() ? 1 : 0);
+            nextIntersectionRows[intersection.getX()][intersection.getY()] = packed;
+        }
+        return new WegeBoardSnapshot(version + 1, cardsPlayed, nextCardRows, nextIntersectionRows);
+    }
+
+    /**
+     * Return the number of times a card is placed on the board before this snapshot.
+     * A later snapshot always has a larger version.
+     */
+    public long getVersion() {
+        return version;
+    }
+
+    /**
+     * Return the number of rows of the board.
+     */
+    public int getRows() {
+        return cardRows.length;
+    }
+
+    /**
+     * Return the number of columns of the board.
+     */
+    public int getCols() {
+        return cardRows[0].length;
+    }
+
+    /**
+     * Return the number of locations on the board which have a card.
+     */
+    public int getCardsPlayed() {
+        return cardsPlayed;
+    }
+
+    /**
+     * Find a card played at a given location.
+     *
+     * @param row the row on the board.
+     * @param col the column on the board.
+     * @return the played card or <code>null</code> if there is no card at the given location.
+     */
+    public Card findCard(int row, int col) {
+        return cardRows[row][col];
+    }
+
+    /**
+     * Check if a card is played around an intersection.
+     *
+     * @param x the x coordinate on the intersection grid.
+     * @param y the y coordinate on the intersection grid.
+     * @return <code>true</code> if there is an intersection at the given coordinate.
+     */
+    public boolean hasIntersection(int x, int y) {
+        return intersectionRows[x][y] != NO_INTERSECTION;
+    }
+
+    /**
+     * Check if an intersection connects land.
+     *
+     * @param x the x coordinate on the intersection grid.
+     * @param y the y coordinate on the intersection grid.
+     * @return <code>true</code> if the intersection exists and connects land.
+     */
+    public boolean isConnectLand(int x, int y) {
+        int packed = intersectionRows[x][y];
+        return packed != NO_INTERSECTION && (packed & 1) == 1;
+    }
+
+    /**
+     * Return the number of gnomes facing together at an intersection.
+     *
+     * @param x the x coordinate on the intersection grid.
+     * @param y the y coordinate on the intersection grid.
+     * @return the number of gnomes, or 0 if the intersection does not exist.
+     */
+    public int getFacingGnomeCount(int x, int y) {
+        int packed = intersectionRows[x][y];
+        return packed == NO_INTERSECTION ? 0 : packed >>> 1;
+    }
+
+    /**
+     * Check if a row of cards is shared with another snapshot.
+     * Use only for unit test.
+     */
+    boolean isSharingCardRow(WegeBoardSnapshot other, int row) {
+        return cardRows[row] == other.cardRows[row];
+    }
+}
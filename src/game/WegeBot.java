@@ -0,0 +1,71 @@
+package game;
+
+import java.util.List;
+
+/**
+ * A player of the game Wege which is not a human, such as a search engine or a remote bot.
+ * A bot is asked for the move of each card it draws, and is given an immutable view of the
+ * game with the time it may take, see {@link WegeBotMatch}. A bot which does not answer in
+ * time, throws or answers an illegal move is given a fallback move, so it never stalls its
+ * match.
+ */
+@FunctionalInterface
+public interface WegeBot {
+
+    /**
+     * What a bot found while it chose its last move.
+     *
+     * @param depth the number of moves searched ahead.
+     * @param nodes the number of positions searched.
+     * @param millis the milliseconds taken.
+     * @param pv the best moves of both players from the position, starting with the move chosen.
+     */
+    record Info(int depth, long nodes, long millis, List<WegeMove> pv) {
+
+        /**
+         * Return the positions searched per second.
+         */
+        public long nodesPerSecond() {
+            return millis == 0 ? nodes * 1000 : nodes * 1000 / millis;
+        }
+    }
+
+    /**
+     * Return the name of this bot, for logs and tables of results.
+     */
+    default String getName() {
+        return getClass().getSimpleName();
+    }
+
+    /**
+     * Choose the move of a drawn card. The bot should answer within
+     * {@link WegeGameView#getMoveMillis()}, and stop its work when its thread is interrupted.
+     *
+     * @param view the view of the game before the card is played.
+     * @param card the drawn card, its orientation does not matter.
+     * @return one of {@link WegeGameView#getLegalMoves()}, or <code>null</code> if there is none
+     * and the card is discarded.
+     * @throws InterruptedException if the thread is interrupted because the time is over.
+     */
+    WegeMove chooseMove(WegeGameView view, WegeBoardSnapshot.Card card) throws InterruptedException;
+
+    /**
+     * Think on the time of the other player after a move of this bot, until the thread is
+     * interrupted, so the next moves are found faster. The next card of the view is not drawn
+     * yet and the other player draws it. A bot which thinks in another process may start it
+     * and return at once. The bot is always interrupted before it is asked for its next move.
+     *
+     * @param view the view of the game after the move of this bot, without legal moves.
+     * @throws InterruptedException if the thread is interrupted.
+     */
+    default void ponder(WegeGameView view) throws InterruptedException {}
+
+    /**
+     * Return what this bot found while it chose its last move, for analysis and logs.
+     *
+     * @return the info, or <code>null</code> if the bot does not tell.
+     */
+    default Info getLastInfo() {
+        return null;
+    }
+}
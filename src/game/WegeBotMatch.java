@@ -0,0 +1,199 @@
+package game;
+
+import java.io.ByteArrayOutputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * A match of two bots on the game master, see {@link WegeBot}, with a clock which bounds the
+ * time of each move and of each game, see {@link WegeGameClock}.
+ *
+ * <p>Each bot is asked on a thread of the match and waited for no longer than the time of its
+ * move. A bot which does not answer in time, throws or answers an illegal move plays the
+ * fallback move instead, the first legal move in row, column and orientation order, and a bot
+ * whose game time is over is not asked again. The thread of a late bot is interrupted, and it
+ * is a daemon thread, so a bot which ignores the interrupt cannot stall the match or keep the
+ * application alive. A discarded card is discarded without asking the bot.</p>
+ *
+ * <p>In a match with pondering, a bot thinks on the time of the other player after each of its
+ * moves, see {@link WegeBot#ponder(WegeGameView)}, and is interrupted before it is asked for
+ * its next move. The time of pondering is not charged to its clock.</p>
+ */
+public final class WegeBotMatch {
+
+    /**
+     * The result of a match.
+     *
+     * @param landScore the final score of the land player.
+     * @param waterScore the final score of the water player.
+     * @param landFallbacks the number of fallback moves of the land bot.
+     * @param waterFallbacks the number of fallback moves of the water bot.
+     * @param landMillis the milliseconds taken by the land bot.
+     * @param waterMillis the milliseconds taken by the water bot.
+     */
+    public record Result(int landScore, int waterScore, int landFallbacks, int waterFallbacks,
+                         long landMillis, long waterMillis) {}
+
+    /* The bot of the land player. */
+    private final WegeBot landBot;
+
+    /* The bot of the water player. */
+    private final WegeBot waterBot;
+
+    /* The milliseconds a bot may take for a move. */
+    private final long moveMillis;
+
+    /* The milliseconds a bot may take for all its moves of a game. */
+    private final long gameMillis;
+
+    /* Whether the bots think on the time of the other player. */
+    private final boolean isPondering;
+
+    /**
+     * Create a match.
+     *
+     * @param landBot the bot of the land player.
+     * @param waterBot the bot of the water player.
+     * @param moveMillis the milliseconds a bot may take for a move.
+     * @param gameMillis the milliseconds a bot may take for all its moves of a game.
+     */
+    public WegeBotMatch(WegeBot landBot, WegeBot waterBot, long moveMillis, long gameMillis) {
+        this(landBot, waterBot, moveMillis, gameMillis, false);
+    }
+
+    /**
+     * Create a match where the bots may think on the time of the other player.
+     *
+     * @param landBot the bot of the land player.
+     * @param waterBot the bot of the water player.
+     * @param moveMillis the milliseconds a bot may take for a move.
+     * @param gameMillis the milliseconds a bot may take for all its moves of a game.
+     * @param isPondering <code>true</code> if the bots think on the time of the other player.
+     */
+    public WegeBotMatch(WegeBot landBot, WegeBot waterBot, long moveMillis, long gameMillis, boolean isPondering) {
+        this.landBot = landBot;
+        this.waterBot = waterBot;
+        this.moveMillis = moveMillis;
+        this.gameMillis = gameMillis;
+        this.isPondering = isPondering;
+    }
+
+    /**
+     * Play a game to its end.
+     *
+     * @param setting the board size and the deck of the game, which is drawn.
+     * @return the result.
+     * @throws IllegalStateException if the thread is interrupted.
+     */
+    public Result play(WegeGameSetting setting) {
+        ExecutorService executor = Executors.newCachedThreadPool(runnable -> {
+            Thread thread = new Thread(runnable, "wege-bot");
+            thread.setDaemon(true);
+            return thread;
+        });
+        try {
+            WegeGameMaster gameMaster = new WegeGameMaster(new WegePlayingBoard(setting.rows(), setting.cols()));
+            WegeDeck deck = setting.deck();
+            WegeGameClock clock = new WegeGameClock(moveMillis, gameMillis);
+            int[] fallbacks = new int[2];
+            long[] millis = new long[2];
+            ByteArrayOutputStream playedCards = new ByteArrayOutputStream();
+            List<Integer> playedMoves = new ArrayList<>();
+            // The pondering of each bot, or null.
+            List<Future<?>> ponders = new ArrayList<>(Arrays.asList(null, null));
+            while (!gameMaster.isGameEnded(deck.size() + (gameMaster.getReplacedCard() == null ? 0 : 1))) {
+                // After a swap the next player plays the replaced card instead of drawing one.
+                WegePlayingCard card = gameMaster.getReplacedCard();
+                if (card == null) card = deck.drawFromFront();
+                boolean isLandTurn = gameMaster.isLandTurn();
+                int player = isLandTurn ? 0 : 1;
+                List<WegeMove> moves = gameMaster.findLegalMoves(card);
+                byte code = WegeRules.encodeCard(card);
+                if (moves.isEmpty()) {
+                    gameMaster.passTurn(card);
+                    playedCards.write(code);
+                    playedMoves.add(WegeMove.PASS);
+                    continue;
+                }
+                WegeGameView view = new WegeGameView(gameMaster.getBoardSnapshot(), playedCards.toByteArray(),
+                        playedMoves.stream().mapToInt(Integer::intValue).toArray(), isLandTurn,
+                        gameMaster.getCossackCardsPlayed(true), gameMaster.getCossackCardsPlayed(false),
+                        WegeRules.encodeDeck(deck), moves, clock.getMoveMillis(isLandTurn), clock.getMillisLeft(isLandTurn));
+                stopPondering(ponders, player);
+                WegeBot bot = isLandTurn ? landBot : waterBot;
+                long start = System.nanoTime();
+                WegeMove move = askBot(executor, bot, view, WegeBoardSnapshot.Card.of(card));
+                long elapsed = (System.nanoTime() - start) / 1_000_000;
+                clock.charge(isLandTurn, elapsed);
+                millis[player] += elapsed;
+                if (move == null || !moves.contains(move)) {
+                    fallbacks[player]++;
+                    move = moves.get(0);
+                }
+                move.play(gameMaster, card);
+                playedCards.write(code);
+                playedMoves.add(move.pack());
+                WegePlayingCard replaced = gameMaster.getReplacedCard();
+                if (isPondering && !gameMaster.isGameEnded(deck.size() + (replaced == null ? 0 : 1))
+                        && !clock.isOver(isLandTurn)) {
+                    // The cards left before the next card include the replaced card.
+                    byte[] deckCards = WegeRules.encodeDeck(deck);
+                    byte[] cardsLeft = replaced == null ? deckCards : Arrays.copyOf(deckCards, deckCards.length + 1);
+                    if (replaced != null) cardsLeft[deckCards.length] = WegeRules.encodeCard(replaced);
+                    WegeGameView after = new WegeGameView(gameMaster.getBoardSnapshot(), playedCards.toByteArray(),
+                            playedMoves.stream().mapToInt(Integer::intValue).toArray(), gameMaster.isLandTurn(),
+                            gameMaster.getCossackCardsPlayed(true), gameMaster.getCossackCardsPlayed(false),
+                            cardsLeft, List.of(), clock.getMoveMillis(isLandTurn),
+                            clock.getMillisLeft(isLandTurn));
+                    ponders.set(player, executor.submit(() -> {
+                        bot.ponder(after);
+                        return null;
+                    }));
+                }
+            }
+            stopPondering(ponders, 0);
+            stopPondering(ponders, 1);
+            List<Player> players = gameMaster.collectPlayerStatistic();
+            return new Result(players.get(0).getGameScore().total(), players.get(1).getGameScore().total(),
+                    fallbacks[0], fallbacks[1], millis[0], millis[1]);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Interrupt the pondering of a bot, if it ponders.
+     */
+    private static void stopPondering(List<Future<?>> ponders, int player) {
+        Future<?> ponder = ponders.set(player, null);
+        if (ponder != null) ponder.cancel(true);
+    }
+
+    /**
+     * Ask a bot for its move and wait for the time of the move.
+     *
+     * @return the move of the bot, or <code>null</code> if it has no time, is late or throws.
+     */
+    private static WegeMove askBot(ExecutorService executor, WegeBot bot, WegeGameView view,
+                                   WegeBoardSnapshot.Card card) {
+        if (view.getMoveMillis() == 0) return null;
+        Future<WegeMove> future = executor.submit(() -> bot.chooseMove(view, card));
+        try {
+            return future.get(view.getMoveMillis(), TimeUnit.MILLISECONDS);
+        } catch (TimeoutException | ExecutionException e) {
+            future.cancel(true);
+            return null;
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Match is interrupted!", e);
+        }
+    }
+}
@@ -1,6 +1,9 @@
 package game;
 
+import java.io.IOException;
+import java.nio.file.Path;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import java.util.regex.Pattern;
 
@@ -12,6 +15,35 @@ public class WegeCLI {
     /* Only accept maximum two-digit positive number start from 1. */
     private static final Pattern VALID_POSITIVE_INTEGER_REGEX = Pattern.compile("^[3-9]$");
 
+    /* The first argument of the headless launch mode. */
+    public static final String HEADLESS_OPTION = "--headless";
+
+    /* The first argument of the puzzle launch mode. */
+    public static final String PUZZLE_OPTION = "--puzzle";
+
+    /* The error rates of the test of the headless launch mode. */
+    private static final double SPRT_ERROR_RATE = 0.05;
+
+    /**
+     * The arguments of a headless tournament of engines, see {@link WegeHeadless}.
+     *
+     * @param engines the commands of the engines, each a program and its arguments.
+     * @param rows the number of rows of the game boards.
+     * @param cols the number of columns of the game boards.
+     * @param games the largest number of games of each pair of engines, which is rounded up to
+     *              pairs with the sides swapped.
+     * @param moveMillis the milliseconds an engine may take for a move.
+     * @param gameMillis the milliseconds an engine may take for all its moves of a game.
+     * @param threads the number of games played at once.
+     * @param seed the seed of the decks.
+     * @param sprt the test which stops a pair of engines early, or <code>null</code>.
+     * @param results the file of the results of the games, or <code>null</code>.
+     * @param isPondering <code>true</code> if the engines think on the time of the other engine.
+     */
+    public record HeadlessArguments(List<List<String>> engines, int rows, int cols, int games,
+                                    long moveMillis, long gameMillis, int threads, long seed,
+                                    WegeSprt sprt, Path results, boolean isPondering) {}
+
     private WegeCLI() {}
 
     /**
@@ -62,4 +94,113 @@ public class WegeCLI {
         };
     }
 
+    /**
+     * Check if the application is launched without a window to let engines play.
+     *
+     * @param applicationArguments the argument given to this application.
+     * @return true if the first argument is {@link #HEADLESS_OPTION}.
+     */
+    public static boolean isHeadless(List<String> applicationArguments) {
+        return !applicationArguments.isEmpty() && applicationArguments.get(0).equals(HEADLESS_OPTION);
+    }
+
+    /**
+     * Check if the application is launched to play a puzzle of a puzzle pack.
+     *
+     * @param applicationArguments the argument given to this application.
+     * @return true if the first argument is {@link #PUZZLE_OPTION}.
+     */
+    public static boolean isPuzzle(List<String> applicationArguments) {
+        return !applicationArguments.isEmpty() && applicationArguments.get(0).equals(PUZZLE_OPTION);
+    }
+
+    /**
+     * Load the puzzle of the puzzle launch mode, whose arguments are {@link #PUZZLE_OPTION}, the
+     * pack file, see {@link WegePuzzleGenerator}, and the number of the puzzle from 1, by default 1.
+     *
+     * @param applicationArguments the argument given to this application.
+     * @return the puzzle.
+     * @throws IOException if the pack cannot be read.
+     * @throws IllegalArgumentException if the arguments are not valid or the pack has no such puzzle.
+     */
+    public static WegePuzzle loadPuzzle(List<String> applicationArguments) throws IOException {
+        if (!isPuzzle(applicationArguments) || applicationArguments.size() < 2 || applicationArguments.size() > 3) {
+            throw new IllegalArgumentException("Usage: --puzzle file [number]");
+        }
+        List<WegePuzzle> puzzles = WegePuzzle.readPack(Path.of(applicationArguments.get(1)));
+        int number = applicationArguments.size() > 2 ? Integer.parseInt(applicationArguments.get(2)) : 1;
+        if (number < 1 || number > puzzles.size()) throw new IllegalArgumentException("Invalid puzzle number!");
+        return puzzles.get(number - 1);
+    }
+
+    /**
+     * Parse the arguments of the headless launch mode, which are {@link #HEADLESS_OPTION} and
+     * <code>--engine "command"</code> at least twice, with the options
+     * <code>--board rows cols</code>, <code>--games n</code>, <code>--movetime ms</code>,
+     * <code>--gametime ms</code>, <code>--threads n</code>, <code>--seed n</code>,
+     * <code>--sprt elo0 elo1</code>, <code>--results file</code> and <code>--ponder</code>.
+     *
+     * @param applicationArguments the argument given to this application.
+     * @return the headless arguments.
+     * @throws IllegalArgumentException if the arguments are not valid.
+     */
+    public static HeadlessArguments parseHeadlessArguments(List<String> applicationArguments) {
+        if (!isHeadless(applicationArguments)) throw new IllegalArgumentException("Not a headless launch!");
+        List<List<String>> engines = new ArrayList<>();
+        int rows = WegeGameSetting.STANDARD_BOARD_ROWS;
+        int cols = WegeGameSetting.STANDARD_BOARD_COLS;
+        int games = 10;
+        long moveMillis = 1000;
+        long gameMillis = 60_000;
+        int threads = 1;
+        long seed = 0;
+        WegeSprt sprt = null;
+        Path results = null;
+        boolean isPondering = false;
+        try {
+            for (int i = 1; i < applicationArguments.size(); i++) {
+                String option = applicationArguments.get(i);
+                switch (option) {
+                    case "--engine" -> {
+                        List<String> command = Arrays.asList(applicationArguments.get(++i).trim().split("\\s+"));
+                        if (command.get(0).isEmpty()) throw new IllegalArgumentException("Engine command is empty!");
+                        engines.add(command);
+                    }
+                    case "--board" -> {
+                        rows = parsePositive(applicationArguments.get(++i));
+                        cols = parsePositive(applicationArguments.get(++i));
+                    }
+                    case "--games" -> games = parsePositive(applicationArguments.get(++i));
+                    case "--movetime" -> moveMillis = parsePositive(applicationArguments.get(++i));
+                    case "--gametime" -> gameMillis = parsePositive(applicationArguments.get(++i));
+                    case "--threads" -> threads = parsePositive(applicationArguments.get(++i));
+                    case "--seed" -> seed = Long.parseLong(applicationArguments.get(++i));
+                    case "--sprt" -> sprt = new WegeSprt(Double.parseDouble(applicationArguments.get(++i)),
+                            Double.parseDouble(applicationArguments.get(++i)), SPRT_ERROR_RATE, SPRT_ERROR_RATE);
+                    case "--results" -> results = Path.of(applicationArguments.get(++i));
+                    case "--ponder" -> isPondering = true;
+                    default -> throw new IllegalArgumentException("Unknown option: " + option);
+                }
+            }
+        } catch (IndexOutOfBoundsException e) {
+            throw new IllegalArgumentException("Missing value of the last option!");
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid number: " + e.getMessage());
+        }
+        if (engines.size() < 2) throw new IllegalArgumentException("Two engines are needed!");
+        if (rows < 3 || cols < 3) throw new IllegalArgumentException("Board must be at least 3 x 3!");
+        return new HeadlessArguments(List.copyOf(engines), rows, cols, games, moveMillis, gameMillis, threads, seed,
+                sprt, results, isPondering);
+    }
+
+    /**
+     * Parse a positive number.
+     *
+     * @throws NumberFormatException if the text is not a positive number.
+     */
+    private static int parsePositive(String text) {
+        int number = Integer.parseInt(text);
+        if (number < 1) throw new NumberFormatException(text);
+        return number;
+    }
 }
@@ -112,9 +112,20 @@ public class WegeCard {
    * @return true if that corner displays water and false if that corner displays land or a bridge
    */
   public boolean isWater(Pos location) {
+    return isWater(location, getOrientation());
+  }
+  
+  /**
+   * Returns whether a particular corner of the card would have water if the card had the given orientation.
+   * The orientation of the card itself is not changed.
+   * @param location one of the four corners of the card
+   * @param orientation the orientation to test the card with
+   * @return true if that corner would display water and false if it would display land or a bridge
+   */
+  public boolean isWater(Pos location, Pos orientation) {
     boolean waterOnMainDiagonal = 
-       getCardType() == CardType.WATER  && (getOrientation() == Pos.TOP_LEFT  || getOrientation() == Pos.BOTTOM_RIGHT) ||
-     !(getCardType() == CardType.WATER) && (getOrientation() == Pos.TOP_RIGHT || getOrientation() == Pos.BOTTOM_LEFT);
+       getCardType() == CardType.WATER  && (orientation == Pos.TOP_LEFT  || orientation == Pos.BOTTOM_RIGHT) ||
+     !(getCardType() == CardType.WATER) && (orientation == Pos.TOP_RIGHT || orientation == Pos.BOTTOM_LEFT);
     
     if (location == Pos.TOP_LEFT || location == Pos.BOTTOM_RIGHT)
       return waterOnMainDiagonal;
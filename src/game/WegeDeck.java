@@ -2,6 +2,7 @@ package game;
 
 import java.util.*;
 import java.util.function.Supplier;
+import java.util.random.RandomGenerator;
 
 /**
  * A Deck with different cards of the Wege Game.
@@ -47,6 +48,40 @@ public class WegeDeck {
         return cards.size();
     }
 
+    /**
+     * Return <code>true</code> if there is no card left in the deck.
+     */
+    public boolean isEmpty() {
+        return cards.isEmpty();
+    }
+
+    /**
+     * Count the cards left in the deck with the given type.
+     *
+     * @param cardType the type of the card.
+     * @return the number of cards with this type.
+     */
+    public int countCards(WegeCard.CardType cardType) {
+        int count = 0;
+        for (WegePlayingCard card : cards) {
+            if (card.getCardType() == cardType) count++;
+        }
+        return count;
+    }
+
+    /**
+     * Count the cards left in the deck which have a gnome.
+     *
+     * @return the number of cards with a gnome.
+     */
+    public int countGnomeCards() {
+        int count = 0;
+        for (WegePlayingCard card : cards) {
+            if (card.hasGnome()) count++;
+        }
+        return count;
+    }
+
     /**
      * Add multiple cards with the same type to the deck.
      *
@@ -62,14 +97,32 @@ public class WegeDeck {
     }
 
     /**
-     * Shuffle the deck.
+     * Shuffle the deck with a new generator, which is not shared with other decks.
      */
     void shuffle() {
-        Collections.shuffle(cards);
+        shuffle(new SplittableRandom());
+    }
+
+    /**
+     * Shuffle the deck with a generator. The same cards shuffled by generators in the
+     * same state are in the same order.
+     *
+     * @param random the generator.
+     */
+    void shuffle(RandomGenerator random) {
+        WegePlayingCard[] shuffled = cards.toArray(new WegePlayingCard[0]);
+        for (int i = shuffled.length - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            WegePlayingCard card = shuffled[i];
+            shuffled[i] = shuffled[j];
+            shuffled[j] = card;
+        }
+        cards.clear();
+        Collections.addAll(cards, shuffled);
     }
 
     /**
-     * Return all the cards available in the deck. Used for unit test.
+     * Return all the cards available in the deck in the order they are drawn.
      *
      * @return a copy list of all cards in this deck to avoid
      * mutation.
@@ -95,9 +148,19 @@ public class WegeDeck {
      * @return a {@link WegeDeck} for the playing board.
      */
     public static WegeDeck createStandardDeck() {
+        return createStandardDeck(new SplittableRandom());
+    }
+
+    /**
+     * Create a deck like {@link #createStandardDeck()} shuffled with a generator.
+     *
+     * @param random the generator to shuffle the deck.
+     * @return a {@link WegeDeck} for the playing board.
+     */
+    public static WegeDeck createStandardDeck(RandomGenerator random) {
         WegeDeck playingDeck = new WegeDeck();
         insertStandardCards(playingDeck);
-        playingDeck.shuffle();
+        playingDeck.shuffle(random);
         return playingDeck;
     }
 
@@ -109,6 +172,17 @@ public class WegeDeck {
      * @return a {@link WegeDeck} for the playing board.
      */
     public static WegeDeck createSpecialDeck(int numberOfEachCard) {
+        return createSpecialDeck(numberOfEachCard, new SplittableRandom());
+    }
+
+    /**
+     * Create a deck like {@link #createSpecialDeck(int)} shuffled with a generator.
+     *
+     * @param numberOfEachCard the number of each special card.
+     * @param random the generator to shuffle the deck.
+     * @return a {@link WegeDeck} for the playing board.
+     */
+    public static WegeDeck createSpecialDeck(int numberOfEachCard, RandomGenerator random) {
         WegeDeck playingDeck = new WegeDeck();
         playingDeck.addCardsToDeck(numberOfEachCard, cardSupplier(WegeCard.CardType.LAND, GnomePos.PATH));
         playingDeck.addCardsToDeck(numberOfEachCard, cardSupplier(WegeCard.CardType.LAND, GnomePos.CORNER));
@@ -116,7 +190,7 @@ public class WegeDeck {
         playingDeck.addCardsToDeck(numberOfEachCard, cardSupplier(WegeCard.CardType.WATER, GnomePos.CORNER));
         playingDeck.addCardsToDeck(numberOfEachCard, cardSupplier(WegeCard.CardType.COSSACK, null));
         playingDeck.addCardsToDeck(numberOfEachCard, cardSupplier(WegeCard.CardType.BRIDGE, null));
-        playingDeck.shuffle();
+        playingDeck.shuffle(random);
         return playingDeck;
     }
 
@@ -130,6 +204,18 @@ public class WegeDeck {
      * @return a deck contains cards for the game Wege.
      */
     public static WegeDeck createWegeDeck(int rows, int cols) {
+        return createWegeDeck(rows, cols, new SplittableRandom());
+    }
+
+    /**
+     * Create a deck like {@link #createWegeDeck(int, int)} shuffled with a generator.
+     *
+     * @param rows the number of row for the playing board of the Wege Game
+     * @param cols the number of column for the playing board of the Wege Game
+     * @param random the generator to shuffle the deck.
+     * @return a deck contains cards for the game Wege.
+     */
+    public static WegeDeck createWegeDeck(int rows, int cols, RandomGenerator random) {
         WegeDeck wegeDeck = new WegeDeck();
         insertStandardCards(wegeDeck);
         int difference = rows * cols - STANDARD_BOARD_TILES;
@@ -142,7 +228,7 @@ public class WegeDeck {
             // If significant larger than the standard size.
             addWaterAndLandCardsToDeck(wegeDeck, numberOfCards);
         }
-        wegeDeck.shuffle();
+        wegeDeck.shuffle(random);
         return wegeDeck;
     }
 
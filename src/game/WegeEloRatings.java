@@ -0,0 +1,162 @@
+package game;
+
+import java.util.Arrays;
+
+/**
+ * The Elo ratings of the players of a tournament with their error bars, kept up to date game
+ * by game. The ratings are the maximum a posteriori ratings of the Bradley-Terry model, where
+ * a draw counts as half a win and half a loss, with the prior of BayesElo: two virtual draws
+ * between each pair of players who met, so a player who won or lost every game still gets a
+ * finite rating. The mean rating is 0.
+ *
+ * <p>Only the points and the games between each pair of players are kept. The ratings are
+ * solved with the minorization-maximization iterations of Hunter, started from the ratings
+ * solved before, so a few iterations are enough after each game.</p>
+ */
+public final class WegeEloRatings {
+
+    /* The Elo points of a factor of e in the odds of a win. */
+    private static final double ELO_PER_NAT = 400 / Math.log(10);
+
+    /* The z value of a 95% confidence interval. */
+    private static final double Z95 = 1.959964;
+
+    /* The virtual draws between each pair of players who met. */
+    private static final double PRIOR_DRAWS = 2;
+
+    /* The largest change of a rating in Elo when the iterations stop. */
+    private static final double TOLERANCE = 1e-6;
+
+    /* The largest number of iterations of a solve. */
+    private static final int MAX_ITERATIONS = 10_000;
+
+    /* The points of each player against each other player. */
+    private final double[][] points;
+
+    /* The games of each pair of players. */
+    private final int[][] games;
+
+    /* The strengths of the players, 10 to the power of the rating over 400. */
+    private final double[] strengths;
+
+    /* Whether games were added after the last solve. */
+    private boolean isSolved = true;
+
+    /**
+     * Create the ratings of players who have not played yet.
+     *
+     * @param players the number of players.
+     */
+    public WegeEloRatings(int players) {
+        points = new double[players][players];
+        games = new int[players][players];
+        strengths = new double[players];
+        Arrays.fill(strengths, 1);
+    }
+
+    /**
+     * Return the expected score of a player who is better by an Elo difference.
+     */
+    public static double scoreOf(double elo) {
+        return 1 / (1 + Math.pow(10, -elo / 400));
+    }
+
+    /**
+     * Return the Elo difference of a player who scores a share of the points.
+     *
+     * @param score the share of the points, which is kept away from 0 and 1.
+     */
+    public static double eloOf(double score) {
+        double clamped = Math.min(Math.max(score, 1e-6), 1 - 1e-6);
+        return 400 * Math.log10(clamped / (1 - clamped));
+    }
+
+    /**
+     * Add a game between two players.
+     *
+     * @param player the first player.
+     * @param other the second player.
+     * @param score the score of the first player, 1 for a win, 0.5 for a draw and 0 for a loss.
+     */
+    public void add(int player, int other, double score) {
+        if (player == other) throw new IllegalArgumentException("A player cannot play itself!");
+        points[player][other] += score;
+        points[other][player] += 1 - score;
+        games[player][other]++;
+        games[other][player]++;
+        isSolved = false;
+    }
+
+    /**
+     * Return the ratings of the players.
+     */
+    public double[] getRatings() {
+        solve();
+        double[] ratings = new double[strengths.length];
+        for (int i = 0; i < ratings.length; i++) {
+            ratings[i] = ELO_PER_NAT * Math.log(strengths[i]);
+        }
+        return ratings;
+    }
+
+    /**
+     * Return half the width of the 95% confidence interval of the rating of each player, from
+     * the curvature of the likelihood when the ratings of the other players are known, or
+     * infinity for a player without games.
+     */
+    public double[] getErrors() {
+        solve();
+        double[] errors = new double[strengths.length];
+        for (int i = 0; i < errors.length; i++) {
+            double information = 0;
+            for (int j = 0; j < errors.length; j++) {
+                if (games[i][j] == 0) continue;
+                double total = strengths[i] + strengths[j];
+                information += (games[i][j] + PRIOR_DRAWS) * strengths[i] * strengths[j] / (total * total);
+            }
+            errors[i] = information == 0 ? Double.POSITIVE_INFINITY : Z95 * ELO_PER_NAT / Math.sqrt(information);
+        }
+        return errors;
+    }
+
+    /**
+     * Solve the ratings of the games added so far.
+     */
+    private void solve() {
+        if (isSolved) return;
+        int players = strengths.length;
+        for (int iteration = 0; iteration < MAX_ITERATIONS; iteration++) {
+            double change = 0;
+            for (int i = 0; i < players; i++) {
+                double wins = 0;
+                double denominator = 0;
+                for (int j = 0; j < players; j++) {
+                    if (games[i][j] == 0) continue;
+                    wins += points[i][j] + PRIOR_DRAWS / 2;
+                    denominator += (games[i][j] + PRIOR_DRAWS) / (strengths[i] + strengths[j]);
+                }
+                if (denominator == 0) continue;
+                double strength = wins / denominator;
+                change = Math.max(change, Math.abs(Math.log(strength / strengths[i])));
+                strengths[i] = strength;
+            }
+            normalize();
+            if (change * ELO_PER_NAT < TOLERANCE) break;
+        }
+        isSolved = true;
+    }
+
+    /**
+     * Scale the strengths to a geometric mean of 1, which is a mean rating of 0.
+     */
+    private void normalize() {
+        double logSum = 0;
+        for (double strength : strengths) {
+            logSum += Math.log(strength);
+        }
+        double scale = Math.exp(-logSum / strengths.length);
+        for (int i = 0; i < strengths.length; i++) {
+            strengths[i] *= scale;
+        }
+    }
+}
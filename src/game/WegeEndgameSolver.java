@@ -0,0 +1,178 @@
+package game;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.CancellationException;
+
+/**
+ * The exact expected results and best moves of the endgames of a board size, when the order
+ * of the cards left is hidden, for perfect play and hints on small boards. A position is
+ * looked up in the tablebase of the board size first, see {@link WegeTablebase}, and an
+ * endgame which is not in it is computed when few locations are left empty. The positions
+ * computed are kept, so the next turns of the same game are found at once, and a position can
+ * be solved ahead while a player still thinks, see {@link #ponder(WegePosition)}.
+ *
+ * <p>A solver must only be used by one thread at a time.</p>
+ */
+public final class WegeEndgameSolver {
+
+    /* The largest number of empty locations of an endgame computed during a game. */
+    public static final int LIVE_EMPTY_CELLS = 5;
+
+    /* The largest number of locations of a board the game gives hints for. */
+    public static final int MAX_BOARD_TILES = 16;
+
+    /* The number of positions kept before they are cleared. */
+    private static final int MAX_LIVE_POSITIONS = 1 << 22;
+
+    /* The number of rows of the game boards. */
+    private final int rows;
+
+    /* The number of columns of the game boards. */
+    private final int cols;
+
+    /* The tablebase of the board size, or null. */
+    private final WegeTablebase tablebase;
+
+    /* The largest number of empty locations of an endgame computed. */
+    private final int liveEmptyCells;
+
+    /* The builder which computes and keeps the endgames not in the tablebase. */
+    private WegeTablebase.Builder builder;
+
+    /**
+     * Create a solver of the endgames of a board size.
+     *
+     * @param rows the number of rows of the game boards.
+     * @param cols the number of columns of the game boards.
+     * @param tablebase the tablebase of the board size, or <code>null</code>.
+     * @param liveEmptyCells the largest number of empty locations of an endgame computed.
+     */
+    public WegeEndgameSolver(int rows, int cols, WegeTablebase tablebase, int liveEmptyCells) {
+        this.rows = rows;
+        this.cols = cols;
+        this.tablebase = tablebase;
+        this.liveEmptyCells = liveEmptyCells;
+        this.builder = WegeTablebase.builder(rows, cols, liveEmptyCells);
+    }
+
+    /**
+     * Create a solver of a board size with the tablebase file of the board size in a directory,
+     * see {@link #fileName(int, int)}, if there is one.
+     *
+     * @param rows the number of rows of the game boards.
+     * @param cols the number of columns of the game boards.
+     * @param directory the directory of the tablebase files.
+     * @return the solver.
+     * @throws IOException if the tablebase file cannot be read.
+     */
+    public static WegeEndgameSolver load(int rows, int cols, Path directory) throws IOException {
+        Path file = directory.resolve(fileName(rows, cols));
+        WegeTablebase tablebase = Files.exists(file) ? WegeTablebase.open(file) : null;
+        return new WegeEndgameSolver(rows, cols, tablebase, LIVE_EMPTY_CELLS);
+    }
+
+    /**
+     * Return the name of the tablebase file of a board size.
+     */
+    public static String fileName(int rows, int cols) {
+        return String.format("wege-%dx%d.tb", rows, cols);
+    }
+
+    /**
+     * Return the number of rows of the game boards.
+     */
+    public int getRows() {
+        return rows;
+    }
+
+    /**
+     * Return the number of columns of the game boards.
+     */
+    public int getCols() {
+        return cols;
+    }
+
+    /**
+     * Check if the expected result of a position can be found.
+     *
+     * @param position the position.
+     * @return <code>true</code> if the position has the board size of this solver and is
+     * ended, in the tablebase or has few enough empty locations.
+     */
+    public boolean isSolvable(WegePosition position) {
+        return !Double.isNaN(solve(position));
+    }
+
+    /**
+     * Find the expected result of a position, with the cards left in its deck in any order.
+     *
+     * @param position the position, which is the same when this returns.
+     * @return the expected land score minus water score at the end of the game, or
+     * {@link Double#NaN} if it cannot be found.
+     * @throws CancellationException if the thread is interrupted while the endgame is computed.
+     * The position may then be left in the middle of its endgame.
+     */
+    public double solve(WegePosition position) {
+        if (position.getRows() != rows || position.getCols() != cols) return Double.NaN;
+        if (position.isGameEnded()) return position.evaluate();
+        double value = tablebase == null ? Double.NaN : tablebase.probe(position);
+        if (!Double.isNaN(value) || rows * cols - position.getCardsPlayed() > liveEmptyCells) return value;
+        if (builder.size() > MAX_LIVE_POSITIONS) builder = WegeTablebase.builder(rows, cols, liveEmptyCells);
+        return builder.add(position);
+    }
+
+    /**
+     * Solve a position before its next card is drawn, while the player to move waits for the
+     * card, so the best move of each card which can be drawn is found at once afterwards.
+     * Every card kind left in the deck and every move of it is looked at, and the positions
+     * computed are kept when the thread is interrupted.
+     *
+     * @param position the position, whose next card is not drawn yet. It is not changed.
+     * @return <code>true</code> if the position is solved, <code>false</code> if it cannot be
+     * solved or the thread is interrupted.
+     */
+    public boolean ponder(WegePosition position) {
+        try {
+            return !Double.isNaN(solve(position.copy()));
+        } catch (CancellationException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Return the number of positions computed during the game and kept.
+     */
+    public int getLivePositions() {
+        return builder.size();
+    }
+
+    /**
+     * Find the move of the next card of a position with the best expected result for the player
+     * to move, when the cards left after it are drawn in any order.
+     *
+     * @param position the position, which is the same when this returns.
+     * @return the packed move, or {@link WegeMove#PASS} if the card cannot be played or the
+     * positions after the moves cannot be solved.
+     * @throws IllegalStateException if the game is ended.
+     */
+    public int findBestMove(WegePosition position) {
+        if (position.isGameEnded()) throw new IllegalStateException("Game is ended!");
+        int[] moves = new int[position.maxMoves()];
+        int count = position.generateMoves(moves);
+        int sign = position.isLandTurn() ? 1 : -1;
+        int bestMove = WegeMove.PASS;
+        double bestValue = Double.NEGATIVE_INFINITY;
+        for (int i = 0; i < count; i++) {
+            position.play(moves[i]);
+            double value = sign * solve(position);
+            position.undo();
+            if (value > bestValue) {
+                bestValue = value;
+                bestMove = moves[i];
+            }
+        }
+        return bestMove;
+    }
+}
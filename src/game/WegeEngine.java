@@ -0,0 +1,382 @@
+package game;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * An engine which lets a bot play through the text protocol of {@link WegeEngineProtocol},
+ * so it can run in its own process and be played by {@link WegeEngineClient}. The engine
+ * keeps the game on a game master and only replays the moves of a position which are new.
+ * A go runs on its own thread, so the engine still answers isready and stop while the bot
+ * chooses its move, and so does an analyze, see {@link WegeAnalysis}. A ponder runs on its
+ * own thread too, until the next command which is not isready.
+ */
+public final class WegeEngine {
+
+    /* The bytes of the transposition table of the analyses. */
+    private static final long ANALYSIS_TABLE_BYTES = 16 << 20;
+
+    /* The bot which chooses the moves. */
+    private final WegeBot bot;
+
+    /* The commands of the host. */
+    private final BufferedReader in;
+
+    /* The answers to the host. */
+    private final PrintStream out;
+
+    /* The number of rows of the game board. */
+    private int rows;
+
+    /* The number of columns of the game board. */
+    private int cols;
+
+    /* The number of cards of the deck of each code, without the orientation. */
+    private final int[] deckCounts = new int[256];
+
+    /* The game master of the moves applied so far, or null. */
+    private WegeGameMaster gameMaster;
+
+    /* The words of the moves applied so far. */
+    private final List<String> appliedMoves = new ArrayList<>();
+
+    /* The codes of the cards of the moves applied so far. */
+    private final List<Byte> playedCards = new ArrayList<>();
+
+    /* The packed moves applied so far. */
+    private final List<Integer> playedMoves = new ArrayList<>();
+
+    /* The thread of the last go, or null. */
+    private Thread search;
+
+    /* Whether a go has not answered its best move yet. */
+    private volatile boolean isSearching;
+
+    /* The thread of the last ponder, or null. */
+    private Thread pondering;
+
+    /* The analysis of the last analyze, or null. */
+    private volatile WegeAnalysis analysis;
+
+    /* The transposition table of the analyses, or null before the first analyze. */
+    private WegeTranspositionTable analysisTable;
+
+    /**
+     * Create an engine.
+     *
+     * @param bot the bot which chooses the moves.
+     * @param in the commands of the host.
+     * @param out the answers to the host.
+     */
+    public WegeEngine(WegeBot bot, InputStream in, OutputStream out) {
+        this.bot = bot;
+        this.in = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+        this.out = new PrintStream(out, true, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Run the greedy bot as an engine on the standard input and output, see {@link WegeGreedyBot}.
+     *
+     * @param args <code>[weights]</code>, the weight file of the evaluator of the bot, see
+     *             {@link WegeTuner}, by default the score alone.
+     * @throws IOException if the standard input or the weight file cannot be read.
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length > 1) {
+            System.err.println("Usage: java game.WegeEngine [weights]");
+            System.exit(2);
+            return;
+        }
+        WegeEvaluator evaluator = args.length > 0 ? WegeEvaluator.load(Path.of(args[0])) : WegeEvaluator.SCORE;
+        new WegeEngine(new WegeGreedyBot(evaluator), System.in, System.out).run();
+    }
+
+    /**
+     * Follow the commands of the host until quit or the end of the input.
+     *
+     * @throws IOException if the commands cannot be read.
+     */
+    public void run() throws IOException {
+        try {
+            for (String line = in.readLine(); line != null; line = in.readLine()) {
+                String[] words = line.trim().split("\\s+");
+                if (!words[0].equals("isready")) stopPondering();
+                try {
+                    switch (words[0]) {
+                        case "wege" -> {
+                            send("id name " + bot.getName());
+                            send("wegeok");
+                        }
+                        case "isready" -> send("readyok");
+                        case "newgame" -> newGame(words);
+                        case "position" -> setPosition(words);
+                        case "go" -> go(words);
+                        case "analyze" -> analyze(words);
+                        case "ponder" -> ponder();
+                        case "stop" -> stop();
+                        case "quit" -> {
+                            return;
+                        }
+                        case "" -> {}
+                        default -> send("info string Unknown command: " + words[0]);
+                    }
+                } catch (IllegalArgumentException | IllegalStateException | IndexOutOfBoundsException e) {
+                    send("info string " + e.getMessage());
+                }
+            }
+        } finally {
+            stop();
+            stopPondering();
+        }
+    }
+
+    /**
+     * Start a game with a board size and the cards of its deck.
+     */
+    private void newGame(String[] words) {
+        rows = Integer.parseInt(words[1]);
+        cols = Integer.parseInt(words[2]);
+        Arrays.fill(deckCounts, 0);
+        for (int i = 3; i < words.length; i++) {
+            deckCounts[WegeRules.rotate(Byte.parseByte(words[i]), WegeRules.TOP_LEFT) & 0xFF]++;
+        }
+        gameMaster = null;
+    }
+
+    /**
+     * Apply the moves of a position which are not applied yet, or all moves of another game.
+     */
+    private void setPosition(String[] words) {
+        if (rows == 0) throw new IllegalStateException("No game is started!");
+        if (words.length < 2 || !words[1].equals("moves")) throw new IllegalArgumentException("Invalid position!");
+        List<String> moves = Arrays.asList(words).subList(2, words.length);
+        if (gameMaster == null || moves.size() < appliedMoves.size()
+                || !moves.subList(0, appliedMoves.size()).equals(appliedMoves)) {
+            gameMaster = new WegeGameMaster(new WegePlayingBoard(rows, cols));
+            appliedMoves.clear();
+            playedCards.clear();
+            playedMoves.clear();
+        }
+        for (String word : moves.subList(appliedMoves.size(), moves.size())) {
+            int separator = word.indexOf(':');
+            if (separator < 0) throw new IllegalArgumentException("Invalid move: " + word);
+            byte code = Byte.parseByte(word.substring(0, separator));
+            WegeMove move = WegeEngineProtocol.parseMove(word.substring(separator + 1));
+            WegePlayingCard card = WegeRules.decodeCard(code, 0, 0);
+            boolean played = move == null ? gameMaster.passTurn(card) : move.play(gameMaster, card);
+            if (!played) {
+                // The game master keeps the moves before, but the next position replays them all.
+                gameMaster = null;
+                throw new IllegalArgumentException("Illegal move: " + word);
+            }
+            appliedMoves.add(word);
+            playedCards.add(code);
+            playedMoves.add(move == null ? WegeMove.PASS : move.pack());
+        }
+    }
+
+    /**
+     * Ask the bot for the move of a card on its own thread, and answer the info and the best move.
+     */
+    private void go(String[] words) {
+        if (gameMaster == null) throw new IllegalStateException("No position is set!");
+        if (isSearching) throw new IllegalStateException("A go is running!");
+        byte code = 0;
+        long moveMillis = Long.MAX_VALUE;
+        long gameMillis = Long.MAX_VALUE;
+        for (int i = 1; i + 1 < words.length; i += 2) {
+            switch (words[i]) {
+                case "card" -> code = Byte.parseByte(words[i + 1]);
+                case "movetime" -> moveMillis = Long.parseLong(words[i + 1]);
+                case "gametime" -> gameMillis = Long.parseLong(words[i + 1]);
+                default -> throw new IllegalArgumentException("Invalid go: " + words[i]);
+            }
+        }
+        if (code == WegeRules.EMPTY) throw new IllegalArgumentException("No card to play!");
+        WegePlayingCard card = WegeRules.decodeCard(code, 0, 0);
+        List<WegeMove> moves = gameMaster.findLegalMoves(card);
+        WegeGameView view = new WegeGameView(gameMaster.getBoardSnapshot(), toBytes(playedCards),
+                playedMoves.stream().mapToInt(Integer::intValue).toArray(), gameMaster.isLandTurn(),
+                gameMaster.getCossackCardsPlayed(true), gameMaster.getCossackCardsPlayed(false),
+                findCardsLeft(code), moves, moveMillis, gameMillis);
+        WegeBoardSnapshot.Card drawn = WegeBoardSnapshot.Card.of(card);
+        search = new Thread(() -> {
+            WegeMove move = moves.isEmpty() ? null : moves.get(0);
+            try {
+                WegeMove chosen = bot.chooseMove(view, drawn);
+                if (chosen != null || moves.isEmpty()) move = chosen;
+                WegeBot.Info info = bot.getLastInfo();
+                if (info != null) send(WegeEngineProtocol.formatInfo(info));
+            } catch (InterruptedException e) {
+                // Stopped, the first legal move is the best move found.
+            } catch (RuntimeException e) {
+                send("info string " + e);
+            }
+            // The host may send the next go as soon as it reads the best move.
+            isSearching = false;
+            send("bestmove " + WegeEngineProtocol.formatMove(move));
+        }, "wege-engine-search");
+        search.setDaemon(true);
+        isSearching = true;
+        search.start();
+    }
+
+    /**
+     * Analyze the best moves of a drawn card when the order of the cards left is known on its
+     * own thread, and answer the lines of each depth and the best move.
+     */
+    private void analyze(String[] words) {
+        if (gameMaster == null) throw new IllegalStateException("No position is set!");
+        if (isSearching) throw new IllegalStateException("A go is running!");
+        int lines = 1;
+        int maxDepth = Integer.MAX_VALUE;
+        long moveMillis = Long.MAX_VALUE;
+        List<Byte> cards = new ArrayList<>();
+        for (int i = 1; i < words.length; i++) {
+            switch (words[i]) {
+                case "lines" -> lines = Integer.parseInt(words[++i]);
+                case "depth" -> maxDepth = Integer.parseInt(words[++i]);
+                case "movetime" -> moveMillis = Long.parseLong(words[++i]);
+                case "cards" -> {
+                    while (i + 1 < words.length) {
+                        cards.add(Byte.parseByte(words[++i]));
+                    }
+                }
+                default -> throw new IllegalArgumentException("Invalid analyze: " + words[i]);
+            }
+        }
+        byte[] cardsLeft = toBytes(cards);
+        byte[] normalized = cardsLeft.clone();
+        for (int i = 0; i < normalized.length; i++) {
+            normalized[i] = WegeRules.rotate(normalized[i], WegeRules.TOP_LEFT);
+        }
+        Arrays.sort(normalized);
+        if (cardsLeft.length == 0 || !Arrays.equals(normalized, findCardsLeft(WegeRules.EMPTY))) {
+            throw new IllegalArgumentException("The cards are not the cards left!");
+        }
+        WegePosition position = WegePosition.of(gameMaster.getBoardSnapshot(), cardsLeft, gameMaster.isLandTurn(),
+                gameMaster.getCossackCardsPlayed(true), gameMaster.getCossackCardsPlayed(false));
+        if (position.isGameEnded()) throw new IllegalStateException("Game is ended!");
+        if (analysisTable == null) analysisTable = new WegeTranspositionTable(ANALYSIS_TABLE_BYTES);
+        WegeAnalysis running = new WegeAnalysis(analysisTable, lines);
+        int depthLimit = maxDepth;
+        long millis = moveMillis;
+        search = new Thread(() -> {
+            int[] moves = new int[position.maxMoves()];
+            position.generateMoves(moves);
+            int move = moves[0];
+            try {
+                WegeAnalysis.Report report = running.analyze(position, depthLimit, millis, depthReport -> {
+                    for (int rank = 0; rank < depthReport.lines().size(); rank++) {
+                        send(WegeEngineProtocol.formatLine(rank + 1, depthReport, depthReport.lines().get(rank)));
+                    }
+                });
+                if (!report.lines().isEmpty()) move = report.lines().get(0).move();
+            } catch (RuntimeException e) {
+                send("info string " + e);
+            }
+            analysis = null;
+            isSearching = false;
+            send("bestmove " + WegeEngineProtocol.formatMove(WegeMove.unpack(move)));
+        }, "wege-engine-analysis");
+        search.setDaemon(true);
+        analysis = running;
+        isSearching = true;
+        search.start();
+    }
+
+    /**
+     * Let the bot think on a position whose next card is drawn by the other player, on its own
+     * thread until the next command.
+     */
+    private void ponder() {
+        if (gameMaster == null) throw new IllegalStateException("No position is set!");
+        if (isSearching) throw new IllegalStateException("A go is running!");
+        WegeGameView view = new WegeGameView(gameMaster.getBoardSnapshot(), toBytes(playedCards),
+                playedMoves.stream().mapToInt(Integer::intValue).toArray(), gameMaster.isLandTurn(),
+                gameMaster.getCossackCardsPlayed(true), gameMaster.getCossackCardsPlayed(false),
+                findCardsLeft(WegeRules.EMPTY), List.of(), Long.MAX_VALUE, Long.MAX_VALUE);
+        pondering = new Thread(() -> {
+            try {
+                bot.ponder(view);
+            } catch (InterruptedException e) {
+                // Stopped by the next command.
+            } catch (RuntimeException e) {
+                send("info string " + e);
+            }
+        }, "wege-engine-ponder");
+        pondering.setDaemon(true);
+        pondering.start();
+    }
+
+    /**
+     * Interrupt the running ponder, which answers nothing.
+     */
+    private void stopPondering() {
+        if (pondering != null) pondering.interrupt();
+        pondering = null;
+    }
+
+    /**
+     * Stop the running go, which answers its best move.
+     */
+    private void stop() {
+        WegeAnalysis running = analysis;
+        if (running != null) running.stop();
+        if (search != null) search.interrupt();
+    }
+
+    /**
+     * Return the codes of the cards left to play, without a drawn card. After a swap the next
+     * player plays the replaced card instead of drawing one, so it is left instead of a card of
+     * the deck.
+     *
+     * @param drawn the drawn card, or {@link WegeRules#EMPTY} if the next card is not drawn yet.
+     */
+    private byte[] findCardsLeft(byte drawn) {
+        int[] counts = deckCounts.clone();
+        WegePlayingCard replaced = gameMaster.getReplacedCard();
+        if (replaced == null && drawn != WegeRules.EMPTY) counts[WegeRules.rotate(drawn, WegeRules.TOP_LEFT) & 0xFF]--;
+        if (replaced != null && drawn == WegeRules.EMPTY) {
+            counts[WegeRules.rotate(WegeRules.encodeCard(replaced), WegeRules.TOP_LEFT) & 0xFF]++;
+        }
+        for (int ply = 0; ply < playedCards.size(); ply++) {
+            // A card played after a swap was drawn before.
+            if (ply > 0 && (playedMoves.get(ply - 1) & 2) != 0) continue;
+            counts[WegeRules.rotate(playedCards.get(ply), WegeRules.TOP_LEFT) & 0xFF]--;
+        }
+        List<Byte> cardsLeft = new ArrayList<>();
+        for (int code = 0; code < counts.length; code++) {
+            for (int i = 0; i < counts[code]; i++) {
+                cardsLeft.add((byte) code);
+            }
+        }
+        return toBytes(cardsLeft);
+    }
+
+    private static byte[] toBytes(List<Byte> list) {
+        byte[] bytes = new byte[list.size()];
+        for (int i = 0; i < bytes.length; i++) {
+            bytes[i] = list.get(i);
+        }
+        return bytes;
+    }
+
+    /**
+     * Answer a line to the host.
+     */
+    private void send(String line) {
+        synchronized (out) {
+            out.println(line);
+        }
+    }
+}
@@ -0,0 +1,278 @@
+package game;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A bot which is an engine in another process, played through the text protocol of
+ * {@link WegeEngineProtocol}. The position and the go of a move are sent at once without
+ * waiting for the engine, and a new game is only sent when the position does not continue the
+ * position sent last, so the engine replays only the moves which are new.
+ *
+ * <p>The answers of the engine are read by a daemon thread into a queue, so a move can be
+ * waited for with an interrupt. When the host interrupts a move because it is late, the client
+ * sends stop and skips the best move of that go before the next one. An engine which exits
+ * makes every move fail at once, so the host plays its fallback moves.</p>
+ */
+public final class WegeEngineClient implements WegeBot, Closeable {
+
+    /* The milliseconds an engine may take to start. */
+    private static final long HANDSHAKE_MILLIS = 10_000;
+
+    /* The line put in the queue when the engine closes its output. */
+    private static final String END_OF_OUTPUT = "\0";
+
+    /* The engine process. */
+    private final Process process;
+
+    /* The commands to the engine. */
+    private final PrintStream commands;
+
+    /* The answers of the engine. */
+    private final BlockingQueue<String> answers = new LinkedBlockingQueue<>();
+
+    /* The name of the engine. */
+    private String name;
+
+    /* The number of goes whose best move is not read yet. */
+    private int pendingGoes;
+
+    /* The cards of the deck of the game sent last, or null before a game. */
+    private byte[] sentDeck;
+
+    /* The cards drawn of the position sent last. */
+    private byte[] sentCards = new byte[0];
+
+    /* The moves of the position sent last. */
+    private int[] sentMoves = new int[0];
+
+    /* What the engine found while it chose its last move. */
+    private volatile Info lastInfo;
+
+    private WegeEngineClient(Process process, List<String> command) {
+        this.process = process;
+        this.name = String.join(" ", command);
+        this.commands = new PrintStream(process.getOutputStream(), true, StandardCharsets.UTF_8);
+        Thread reader = new Thread(this::readAnswers, "wege-engine-reader");
+        reader.setDaemon(true);
+        reader.start();
+    }
+
+    /**
+     * Start an engine process and wait until it is ready.
+     *
+     * @param command the program and its arguments.
+     * @return the client of the engine, which must be closed.
+     * @throws IOException if the engine cannot be started or does not answer in time.
+     */
+    public static WegeEngineClient start(List<String> command) throws IOException {
+        Process process = new ProcessBuilder(command).redirectError(ProcessBuilder.Redirect.INHERIT).start();
+        WegeEngineClient client = new WegeEngineClient(process, command);
+        try {
+            client.commands.println("wege");
+            for (String line = client.poll(); !line.equals("wegeok"); line = client.poll()) {
+                if (line.startsWith("id name ")) client.name = line.substring("id name ".length());
+            }
+            client.commands.println("isready");
+            while (!client.poll().equals("readyok")) {
+                // Skip the info strings before the engine is ready.
+            }
+            return client;
+        } catch (IOException e) {
+            process.destroyForcibly();
+            throw e;
+        }
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public synchronized WegeMove chooseMove(WegeGameView view, WegeBoardSnapshot.Card card) throws InterruptedException {
+        skipLateMoves();
+        StringBuilder request = formatPosition(view, card);
+        request.append("go card ").append(WegeRules.encodeCard(card))
+                .append(" movetime ").append(view.getMoveMillis())
+                .append(" gametime ").append(view.getGameMillis());
+        // The position and the go are sent together without waiting for the engine.
+        commands.println(request);
+        pendingGoes++;
+        lastInfo = null;
+        try {
+            while (true) {
+                String[] words = take().split("\\s+");
+                if (words[0].equals("info")) {
+                    Info info = WegeEngineProtocol.parseInfo(words);
+                    if (info != null) lastInfo = info;
+                } else if (words[0].equals("bestmove") && words.length == 2) {
+                    pendingGoes--;
+                    return WegeEngineProtocol.parseMove(words[1]);
+                }
+            }
+        } catch (InterruptedException e) {
+            commands.println("stop");
+            throw e;
+        }
+    }
+
+    /**
+     * Send the position after the move of this engine and let the engine think until the host
+     * sends the next position, so this returns at once.
+     */
+    @Override
+    public synchronized void ponder(WegeGameView view) throws InterruptedException {
+        skipLateMoves();
+        commands.println(formatPosition(view, null).append("ponder"));
+    }
+
+    @Override
+    public Info getLastInfo() {
+        return lastInfo;
+    }
+
+    /**
+     * Check if the engine still runs.
+     */
+    public boolean isAlive() {
+        return process.isAlive();
+    }
+
+    /**
+     * Ask the engine to quit, and end its process if it does not quit in time.
+     */
+    @Override
+    public void close() {
+        commands.println("quit");
+        try {
+            if (!process.waitFor(1, TimeUnit.SECONDS)) process.destroyForcibly();
+        } catch (InterruptedException e) {
+            process.destroyForcibly();
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Skip the best moves of the goes which were late.
+     */
+    private void skipLateMoves() throws InterruptedException {
+        while (pendingGoes > 0) {
+            if (take().startsWith("bestmove")) pendingGoes--;
+        }
+    }
+
+    /**
+     * Format the position of a view, after a new game if the position does not continue the
+     * position sent last.
+     *
+     * @param card the drawn card, or <code>null</code> if the next card is not drawn yet.
+     * @return the commands, each ending with a new line.
+     */
+    private StringBuilder formatPosition(WegeGameView view, WegeBoardSnapshot.Card card) {
+        byte[] played = view.getPlayedCards();
+        int[] moves = view.getPlayedMoves();
+        byte[] cardsLeft = view.getCardsLeft();
+        // After a swap the next player plays the replaced card, which was drawn before.
+        int last = moves.length - 1;
+        boolean isHeld = last >= 0 && (moves[last] & 2) != 0;
+        byte[] deck = new byte[played.length + 1 + cardsLeft.length];
+        int size = 0;
+        for (int i = 0; i < played.length; i++) {
+            if (i == 0 || (moves[i - 1] & 2) == 0) deck[size++] = WegeRules.rotate(played[i], WegeRules.TOP_LEFT);
+        }
+        if (card != null && !isHeld) deck[size++] = WegeRules.rotate(WegeRules.encodeCard(card), WegeRules.TOP_LEFT);
+        for (byte code : cardsLeft) {
+            deck[size++] = WegeRules.rotate(code, WegeRules.TOP_LEFT);
+        }
+        if (card == null && isHeld) {
+            // The cards left hold the replaced card, the card played last at the location of the swap.
+            int replaced = last - 1;
+            while (replaced >= 0 && (moves[replaced] == WegeMove.PASS || moves[replaced] >>> 4 != moves[last] >>> 4)) {
+                replaced--;
+            }
+            byte held = WegeRules.rotate(played[replaced], WegeRules.TOP_LEFT);
+            int index = size - 1;
+            while (deck[index] != held) {
+                index--;
+            }
+            deck[index] = deck[--size];
+        }
+        deck = Arrays.copyOf(deck, size);
+        Arrays.sort(deck);
+        StringBuilder request = new StringBuilder();
+        if (!Arrays.equals(deck, sentDeck) || !isContinued(played, moves)) {
+            request.append(WegeEngineProtocol.formatNewGame(view.getBoard().getRows(), view.getBoard().getCols(), deck))
+                    .append('\n');
+        }
+        sentDeck = deck;
+        sentCards = played;
+        sentMoves = moves;
+        return request.append(WegeEngineProtocol.formatPosition(played, moves)).append('\n');
+    }
+
+    /**
+     * Check if a position continues the position sent last.
+     */
+    private boolean isContinued(byte[] played, int[] moves) {
+        return played.length >= sentCards.length
+                && Arrays.equals(played, 0, sentCards.length, sentCards, 0, sentCards.length)
+                && Arrays.equals(moves, 0, sentMoves.length, sentMoves, 0, sentMoves.length);
+    }
+
+    /**
+     * Take the next answer of the engine.
+     *
+     * @throws IllegalStateException if the engine closed its output.
+     */
+    private String take() throws InterruptedException {
+        String line = answers.take();
+        if (line.equals(END_OF_OUTPUT)) {
+            answers.add(END_OF_OUTPUT);
+            throw new IllegalStateException("Engine is closed!");
+        }
+        return line;
+    }
+
+    /**
+     * Wait for an answer of an engine which is starting.
+     *
+     * @throws IOException if the engine does not answer in time or exits.
+     */
+    private String poll() throws IOException {
+        try {
+            String line = answers.poll(HANDSHAKE_MILLIS, TimeUnit.MILLISECONDS);
+            if (line == null) throw new IOException("Engine does not answer!");
+            if (line.equals(END_OF_OUTPUT)) throw new IOException("Engine exits!");
+            return line;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Engine start is interrupted!", e);
+        }
+    }
+
+    /**
+     * Read the answers of the engine into the queue until it closes its output.
+     */
+    private void readAnswers() {
+        try (BufferedReader reader = new BufferedReader(
+                new InputStreamReader(process.getInputStream(), StandardCharsets.UTF_8))) {
+            for (String line = reader.readLine(); line != null; line = reader.readLine()) {
+                // A trimmed line is never the end of the output.
+                answers.add(line.trim());
+            }
+        } catch (IOException e) {
+            // The engine is gone, as if it closed its output.
+        }
+        answers.add(END_OF_OUTPUT);
+    }
+}
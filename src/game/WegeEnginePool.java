@@ -0,0 +1,116 @@
+package game;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+
+/**
+ * A pool of the processes of one engine, so the games played at once each have their own
+ * engine and an engine is started only once for many games, see {@link WegeEngineClient}.
+ * Engines are started when they are first needed, up to the size of the pool, and an engine
+ * which exits is replaced when it is released.
+ */
+public final class WegeEnginePool implements Closeable {
+
+    /* The program of the engine and its arguments. */
+    private final List<String> command;
+
+    /* The largest number of engines. */
+    private final int size;
+
+    /* The engines which are not in use. */
+    private final Deque<WegeEngineClient> idle = new ArrayDeque<>();
+
+    /* All engines of the pool. */
+    private final List<WegeEngineClient> engines = new ArrayList<>();
+
+    /* Whether the pool is closed. */
+    private boolean isClosed;
+
+    /**
+     * Create a pool of engines.
+     *
+     * @param command the program of the engine and its arguments.
+     * @param size the largest number of engines.
+     * @throws IllegalArgumentException if the command is empty or the size is not positive.
+     */
+    public WegeEnginePool(List<String> command, int size) {
+        if (command.isEmpty()) throw new IllegalArgumentException("Engine command is empty!");
+        if (size < 1) throw new IllegalArgumentException("Pool size must be positive!");
+        this.command = List.copyOf(command);
+        this.size = size;
+    }
+
+    /**
+     * Take an engine which is not in use, start one if the pool is not full, or wait for one.
+     *
+     * @return the engine, which must be released.
+     * @throws IOException if an engine cannot be started.
+     * @throws InterruptedException if the thread is interrupted while it waits.
+     * @throws IllegalStateException if the pool is closed.
+     */
+    public WegeEngineClient acquire() throws IOException, InterruptedException {
+        synchronized (this) {
+            while (idle.isEmpty() && engines.size() >= size) {
+                if (isClosed) throw new IllegalStateException("Pool is closed!");
+                wait();
+            }
+            if (isClosed) throw new IllegalStateException("Pool is closed!");
+            if (!idle.isEmpty()) return idle.pop();
+            // Take the place of the engine before it starts, which is slow.
+            engines.add(null);
+        }
+        WegeEngineClient engine;
+        try {
+            engine = WegeEngineClient.start(command);
+        } catch (IOException e) {
+            synchronized (this) {
+                engines.remove(null);
+                notifyAll();
+            }
+            throw e;
+        }
+        synchronized (this) {
+            engines.set(engines.indexOf(null), engine);
+            return engine;
+        }
+    }
+
+    /**
+     * Give back an engine taken from the pool. An engine which exited is closed and the next
+     * engine taken starts another.
+     *
+     * @param engine the engine.
+     */
+    public void release(WegeEngineClient engine) {
+        synchronized (this) {
+            if (!isClosed && engine.isAlive()) {
+                idle.push(engine);
+                notifyAll();
+                return;
+            }
+            engines.remove(engine);
+            notifyAll();
+        }
+        engine.close();
+    }
+
+    /**
+     * Close the engines which are not in use, and each other engine when it is released.
+     */
+    @Override
+    public void close() {
+        List<WegeEngineClient> closed;
+        synchronized (this) {
+            isClosed = true;
+            closed = new ArrayList<>(idle);
+            engines.removeAll(idle);
+            idle.clear();
+            notifyAll();
+        }
+        closed.forEach(WegeEngineClient::close);
+    }
+}
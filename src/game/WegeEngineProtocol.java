@@ -0,0 +1,225 @@
+package game;
+
+import javafx.geometry.Pos;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * The text protocol of engines which play Wege in another process through their standard input
+ * and output, like the universal chess interface. Each command and each answer is one line of
+ * words separated by spaces. A card is its code, see {@link WegeRules#encodeCard(int, int, int)},
+ * and a move is <code>row,col,orientation</code> with an <code>s</code> at the end for a swap,
+ * where the orientation is 0 to 3, see {@link WegeRules#cornerOf(Pos)}, or <code>pass</code> for
+ * a discarded card.
+ *
+ * <pre>
+ * host                                             engine
+ * wege                                         --&gt; id name &lt;name&gt;
+ *                                                  wegeok
+ * isready                                      --&gt; readyok
+ * newgame &lt;rows&gt; &lt;cols&gt; &lt;card&gt;...              the cards of the whole deck, in any order
+ * position moves &lt;card&gt;:&lt;move&gt;...                the cards drawn and their moves, in order
+ * go card &lt;card&gt; movetime &lt;ms&gt; gametime &lt;ms&gt; --&gt; info depth &lt;d&gt; time &lt;ms&gt; nodes &lt;n&gt; nps &lt;n&gt; pv &lt;move&gt;...
+ *                                                  bestmove &lt;move&gt;
+ * analyze lines &lt;k&gt; depth &lt;d&gt; movetime &lt;ms&gt;    --&gt; info multipv &lt;i&gt; depth &lt;d&gt; score &lt;v&gt; [solved] time &lt;ms&gt;
+ *         cards &lt;card&gt;...                          nodes &lt;n&gt; nps &lt;n&gt; pv &lt;move&gt;..., for each depth
+ *                                                  bestmove &lt;move&gt;
+ * stop                                         --&gt; bestmove &lt;move&gt;, if a go or an analyze is running
+ * ponder                                           think until the next command, on a position
+ *                                                  whose next card the other player draws
+ * quit
+ * </pre>
+ *
+ * <p>An analyze finds the best few moves of the drawn card when the order of the cards left is
+ * known, for the review of a game, see {@link WegeAnalysis}. Its cards are the drawn card and
+ * the cards left in the order they are drawn. The score is the land score minus the water score
+ * for the player to move, and <code>solved</code> marks a score which is the result of the game.
+ * The lines of a depth are answered best first, after the depth is complete.</p>
+ *
+ * <p>An engine answers <code>info string &lt;text&gt;</code> to a command it cannot follow.
+ * A host may send the position and the go of a move at once without waiting, and an engine
+ * answers each go with exactly one bestmove.</p>
+ */
+public final class WegeEngineProtocol {
+
+    /* The word of a discarded card. */
+    private static final String PASS = "pass";
+
+    private WegeEngineProtocol() {}
+
+    /**
+     * Format a move.
+     *
+     * @param move the move, or <code>null</code> for a discarded card.
+     * @return the text of the move.
+     */
+    public static String formatMove(WegeMove move) {
+        if (move == null) return PASS;
+        return move.row() + "," + move.col() + "," + WegeRules.cornerOf(move.orientation()) + (move.isSwap() ? "s" : "");
+    }
+
+    /**
+     * Parse a move.
+     *
+     * @param text the text of the move.
+     * @return the move, or <code>null</code> for a discarded card.
+     * @throws IllegalArgumentException if the text is not a move.
+     */
+    public static WegeMove parseMove(String text) {
+        if (text.equals(PASS)) return null;
+        boolean isSwap = text.endsWith("s");
+        String[] parts = (isSwap ? text.substring(0, text.length() - 1) : text).split(",");
+        try {
+            if (parts.length != 3) throw new NumberFormatException();
+            int orientation = Integer.parseInt(parts[2]);
+            if (orientation < 0 || orientation > 3) throw new NumberFormatException();
+            return new WegeMove(Integer.parseInt(parts[0]), Integer.parseInt(parts[1]),
+                    WegeRules.positionOf(orientation), isSwap);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid move: " + text);
+        }
+    }
+
+    /**
+     * Format the cards of a deck for a new game.
+     *
+     * @param rows the number of rows of the game board.
+     * @param cols the number of columns of the game board.
+     * @param cards the codes of the cards of the whole deck.
+     * @return the command.
+     */
+    public static String formatNewGame(int rows, int cols, byte[] cards) {
+        StringBuilder builder = new StringBuilder("newgame ").append(rows).append(' ').append(cols);
+        for (byte card : cards) {
+            builder.append(' ').append(card);
+        }
+        return builder.toString();
+    }
+
+    /**
+     * Format the cards drawn and their moves.
+     *
+     * @param cards the codes of the cards drawn.
+     * @param moves the packed moves of the cards, see {@link WegeMove#unpack(int)}.
+     * @return the command.
+     */
+    public static String formatPosition(byte[] cards, int[] moves) {
+        StringBuilder builder = new StringBuilder("position moves");
+        for (int i = 0; i < cards.length; i++) {
+            builder.append(' ').append(cards[i]).append(':').append(formatMove(WegeMove.unpack(moves[i])));
+        }
+        return builder.toString();
+    }
+
+    /**
+     * Format the info of a bot.
+     *
+     * @param info the info.
+     * @return the answer.
+     */
+    public static String formatInfo(WegeBot.Info info) {
+        StringBuilder builder = new StringBuilder("info depth ").append(info.depth())
+                .append(" time ").append(info.millis())
+                .append(" nodes ").append(info.nodes())
+                .append(" nps ").append(info.nodesPerSecond())
+                .append(" pv");
+        for (WegeMove move : info.pv()) {
+            builder.append(' ').append(formatMove(move));
+        }
+        return builder.toString();
+    }
+
+    /**
+     * Format a line of an analysis.
+     *
+     * @param rank the rank of the line, 1 for the best line.
+     * @param report the report of the depth of the line.
+     * @param line the line.
+     * @return the answer.
+     */
+    public static String formatLine(int rank, WegeAnalysis.Report report, WegeAnalysis.Line line) {
+        StringBuilder builder = new StringBuilder("info multipv ").append(rank)
+                .append(" depth ").append(report.depth())
+                .append(" score ").append(line.value())
+                .append(line.isSolved() ? " solved" : "")
+                .append(" time ").append(report.millis())
+                .append(" nodes ").append(report.nodes())
+                .append(" nps ").append(report.nodes() * 1000 / Math.max(report.millis(), 1))
+                .append(" pv");
+        for (WegeMove move : line.pv()) {
+            builder.append(' ').append(formatMove(move));
+        }
+        return builder.toString();
+    }
+
+    /**
+     * Parse a line of an analysis.
+     *
+     * @param words the words of the answer, starting with <code>info multipv</code>.
+     * @return the line.
+     * @throws IllegalArgumentException if the answer is not a line of an analysis.
+     */
+    public static WegeAnalysis.Line parseLine(String[] words) {
+        if (words.length < 2 || !words[1].equals("multipv")) throw new IllegalArgumentException("Invalid line!");
+        Integer value = null;
+        boolean isSolved = false;
+        List<WegeMove> pv = new ArrayList<>();
+        try {
+            for (int i = 1; i < words.length; i++) {
+                switch (words[i]) {
+                    case "score" -> value = Integer.parseInt(words[++i]);
+                    case "solved" -> isSolved = true;
+                    case "multipv", "depth", "time", "nodes", "nps" -> Long.parseLong(words[++i]);
+                    case "pv" -> {
+                        while (i + 1 < words.length) {
+                            pv.add(parseMove(words[++i]));
+                        }
+                    }
+                    default -> throw new IllegalArgumentException("Invalid line: " + words[i]);
+                }
+            }
+        } catch (NumberFormatException | ArrayIndexOutOfBoundsException e) {
+            throw new IllegalArgumentException("Invalid line!", e);
+        }
+        if (value == null || pv.isEmpty()) throw new IllegalArgumentException("Invalid line!");
+        WegeMove move = pv.get(0);
+        return new WegeAnalysis.Line(move == null ? WegeMove.PASS : move.pack(), value, isSolved,
+                Collections.unmodifiableList(pv));
+    }
+
+    /**
+     * Parse the info of an engine.
+     *
+     * @param words the words of the answer, starting with <code>info</code>.
+     * @return the info, or <code>null</code> if it is an info string.
+     * @throws IllegalArgumentException if the answer is not an info.
+     */
+    public static WegeBot.Info parseInfo(String[] words) {
+        if (words.length > 1 && words[1].equals("string")) return null;
+        int depth = 0;
+        long nodes = 0;
+        long millis = 0;
+        List<WegeMove> pv = new ArrayList<>();
+        try {
+            for (int i = 1; i < words.length; i++) {
+                switch (words[i]) {
+                    case "depth" -> depth = Integer.parseInt(words[++i]);
+                    case "nodes" -> nodes = Long.parseLong(words[++i]);
+                    case "time" -> millis = Long.parseLong(words[++i]);
+                    case "nps" -> i++;
+                    case "pv" -> {
+                        while (i + 1 < words.length) {
+                            pv.add(parseMove(words[++i]));
+                        }
+                    }
+                    default -> throw new IllegalArgumentException("Invalid info: " + words[i]);
+                }
+            }
+        } catch (NumberFormatException | ArrayIndexOutOfBoundsException e) {
+            throw new IllegalArgumentException("Invalid info!", e);
+        }
+        return new WegeBot.Info(depth, nodes, millis, pv);
+    }
+}
@@ -0,0 +1,211 @@
+package game;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Properties;
+
+/**
+ * A static evaluation of a position of Wege before the end of the game, for bots which look
+ * one move ahead, see {@link WegeGreedyBot}. The value is a weighted sum of features of the
+ * position, from the side of the land player like {@link WegePosition#evaluate()}. Each
+ * feature is the land count minus the water count:
+ * <ul>
+ *     <li>{@link Feature#SCORE}: the score as if the game ended now.</li>
+ *     <li>{@link Feature#OPEN_EDGES}: the edges touched by the trails which can still grow.</li>
+ *     <li>{@link Feature#OPEN_CORNERS}: the empty locations where a card of the colour can be placed.</li>
+ *     <li>{@link Feature#GNOME_PAIRS}: the single gnomes which a card with a gnome can still pair.</li>
+ *     <li>{@link Feature#COSSACK_BLOCKS}: the intersections of the colour blocked by a cossack card.</li>
+ *     <li>{@link Feature#TRAIL_MIX}: the open corners of each colour, weighted by the share of
+ *     the cards left of that colour.</li>
+ *     <li>{@link Feature#GNOME_MIX}: the gnome pairs, weighted by the share of the cards left with a gnome.</li>
+ *     <li>{@link Feature#COSSACK_MIX}: the share of cossack cards left, for the player who draws
+ *     one card more than the other.</li>
+ * </ul>
+ *
+ * <p>The counts of the frontier can be kept by the position as moves are played and taken back,
+ * see {@link WegePosition#trackFrontier()}, so only the score and the open edges follow the
+ * trails of the whole board. A bot tracks them when its evaluator uses them, see
+ * {@link #usesFrontier()}, unless an endgame solver plays the position. The weights are tuned by {@link WegeTuner} and saved
+ * in a properties file of the feature names, which an engine loads when it starts, see
+ * {@link WegeEngine#main(String[])}. An evaluator never changes, so it can be shared by
+ * threads.</p>
+ */
+public final class WegeEvaluator {
+
+    /**
+     * A feature of a position.
+     */
+    public enum Feature {
+        SCORE,
+        OPEN_EDGES,
+        OPEN_CORNERS,
+        GNOME_PAIRS,
+        COSSACK_BLOCKS,
+        TRAIL_MIX,
+        GNOME_MIX,
+        COSSACK_MIX
+    }
+
+    /* The evaluator of the score alone, the same as WegePosition#evaluate(). */
+    public static final WegeEvaluator SCORE = new WegeEvaluator(scoreWeights());
+
+    /* The weights of the features, by the ordinal of the feature. */
+    private final double[] weights;
+
+    /**
+     * Create an evaluator.
+     *
+     * @param weights the weights of the features, by the ordinal of the feature.
+     * @throws IllegalArgumentException if there is not one weight for each feature, or a weight is not finite.
+     */
+    public WegeEvaluator(double[] weights) {
+        if (weights.length != Feature.values().length) throw new IllegalArgumentException("Invalid number of weights!");
+        for (double weight : weights) {
+            if (!Double.isFinite(weight)) throw new IllegalArgumentException("Invalid weight!");
+        }
+        this.weights = weights.clone();
+    }
+
+    /**
+     * Load an evaluator from a weight file. A feature which is not in the file has no weight.
+     *
+     * @param file the properties file of the weights, see {@link #save(Path)}.
+     * @return the evaluator.
+     * @throws IOException if the file cannot be read.
+     * @throws IllegalArgumentException if the file has a feature which does not exist or a weight
+     * which is not a number.
+     */
+    public static WegeEvaluator load(Path file) throws IOException {
+        Properties properties = new Properties();
+        try (Reader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            properties.load(reader);
+        }
+        double[] weights = new double[Feature.values().length];
+        for (String name : properties.stringPropertyNames()) {
+            Feature feature;
+            try {
+                feature = Feature.valueOf(name);
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("Unknown feature " + name + "!");
+            }
+            try {
+                weights[feature.ordinal()] = Double.parseDouble(properties.getProperty(name));
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Invalid weight of " + name + "!");
+            }
+        }
+        return new WegeEvaluator(weights);
+    }
+
+    /**
+     * Save the weights to a file, one line for each feature.
+     *
+     * @param file the properties file of the weights.
+     * @throws IOException if the file cannot be written.
+     */
+    public void save(Path file) throws IOException {
+        // Properties#store writes the lines in any order, so they are written in the order of the features.
+        try (Writer writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            writer.write("# The weights of the features of WegeEvaluator\n");
+            for (Feature feature : Feature.values()) {
+                writer.write(feature.name() + "=" + weights[feature.ordinal()] + "\n");
+            }
+        }
+    }
+
+    /**
+     * Return the weight of a feature.
+     */
+    public double getWeight(Feature feature) {
+        return weights[feature.ordinal()];
+    }
+
+    /**
+     * Return the weights of the features, by the ordinal of the feature.
+     *
+     * @return a copy of the weights.
+     */
+    public double[] getWeights() {
+        return weights.clone();
+    }
+
+    /**
+     * Check if a feature of the frontier of the board has a weight, so the positions evaluated
+     * should track the frontier, see {@link WegePosition#trackFrontier()}.
+     */
+    public boolean usesFrontier() {
+        return weights[Feature.OPEN_CORNERS.ordinal()] != 0 || weights[Feature.GNOME_PAIRS.ordinal()] != 0
+                || weights[Feature.COSSACK_BLOCKS.ordinal()] != 0 || weights[Feature.TRAIL_MIX.ordinal()] != 0
+                || weights[Feature.GNOME_MIX.ordinal()] != 0;
+    }
+
+    /**
+     * Evaluate a position.
+     *
+     * @param position the position, which is not changed.
+     * @return the value for the land player.
+     */
+    public double evaluate(WegePosition position) {
+        double[] features = new double[weights.length];
+        extractFeatures(position, features);
+        double value = 0;
+        for (int i = 0; i < weights.length; i++) {
+            value += weights[i] * features[i];
+        }
+        return value;
+    }
+
+    /**
+     * Find the features of a position, each the land count minus the water count.
+     *
+     * @param position the position, which is not changed.
+     * @param features the array which receives the features, by the ordinal of the feature.
+     */
+    public static void extractFeatures(WegePosition position, double[] features) {
+        int[] edges = new int[2];
+        position.countOpenEdges(edges);
+        int landCorners = position.countOpenCorners(true);
+        int waterCorners = position.countOpenCorners(false);
+        int gnomePairs = position.countOpenGnomes(true) - position.countOpenGnomes(false);
+        int cardsLeft = position.getCardsLeft();
+        double landShare = 0;
+        double waterShare = 0;
+        double gnomeShare = 0;
+        double cossackShare = 0;
+        if (cardsLeft > 0) {
+            landShare = (double) position.countCardsLeft(WegeRules.LAND) / cardsLeft;
+            waterShare = (double) position.countCardsLeft(WegeRules.WATER) / cardsLeft;
+            gnomeShare = (double) position.countGnomeCardsLeft() / cardsLeft;
+            cossackShare = (double) position.countCardsLeft(WegeRules.COSSACK) / cardsLeft;
+        }
+        // With an odd number of cards left, the player to move draws one card more.
+        int extraDraw = (cardsLeft & 1) == 0 ? 0 : position.isLandTurn() ? 1 : -1;
+        features[Feature.SCORE.ordinal()] = position.evaluate();
+        features[Feature.OPEN_EDGES.ordinal()] = edges[0] - edges[1];
+        features[Feature.OPEN_CORNERS.ordinal()] = landCorners - waterCorners;
+        features[Feature.GNOME_PAIRS.ordinal()] = gnomePairs;
+        features[Feature.COSSACK_BLOCKS.ordinal()] = position.countCossackPoints(true) - position.countCossackPoints(false);
+        features[Feature.TRAIL_MIX.ordinal()] = landShare * landCorners - waterShare * waterCorners;
+        features[Feature.GNOME_MIX.ordinal()] = gnomeShare * gnomePairs;
+        features[Feature.COSSACK_MIX.ordinal()] = cossackShare * extraDraw;
+    }
+
+    @Override
+    public String toString() {
+        return Arrays.toString(weights);
+    }
+
+    /**
+     * Return the weights of the score alone.
+     */
+    private static double[] scoreWeights() {
+        double[] weights = new double[Feature.values().length];
+        weights[Feature.SCORE.ordinal()] = 1;
+        return weights;
+    }
+}
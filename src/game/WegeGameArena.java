@@ -0,0 +1,300 @@
+package game;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * An arena which holds the state of many suspended games of Wege outside the Java heap.
+ * Every game has a slot of the same size, with its counters, the codes of its locations and
+ * intersections, see {@link WegeRules}, and its deck in the order the cards are drawn:
+ *
+ * <pre>
+ * offset 0   deck position, the number of cards drawn
+ * offset 4   cards played on the board
+ * offset 8   cards discarded
+ * offset 12  cossack cards of the land player
+ * offset 16  cossack cards of the water player
+ * offset 20  turns taken, the cards drawn plus the swaps
+ * offset 24  code of the card replaced by a swap, which the next player plays instead of drawing
+ * offset 28  rows * cols location codes
+ *            (rows + 1) * (cols + 1) intersection codes
+ *            deck size card codes
+ * </pre>
+ *
+ * <p>The slots are stored in direct buffers of up to 1 GB which are allocated when the
+ * first game of the buffer is added, so the memory used grows by a known amount per game
+ * and the garbage collector never scans or moves the games. A game is played through a
+ * {@link WegeArenaGame} view on its slot. The arena can be written to a file as raw bytes
+ * and read back.</p>
+ */
+public final class WegeGameArena {
+
+    /* The first bytes of an arena file. */
+    private static final int FILE_MAGIC = 0x57454741;
+
+    /* The version of the arena file layout. */
+    private static final int FILE_VERSION = 2;
+
+    /* The number of bytes of the file header. */
+    private static final int FILE_HEADER_SIZE = 32;
+
+    /* The largest number of bytes of a buffer. */
+    private static final int MAX_BUFFER_SIZE = 1 << 30;
+
+    /* The offsets of the counters of a slot. */
+    static final int DECK_POSITION = 0;
+    static final int CARDS_PLAYED = 4;
+    static final int CARDS_DISCARDED = 8;
+    static final int LAND_COSSACKS = 12;
+    static final int WATER_COSSACKS = 16;
+    static final int TURN = 20;
+    static final int HELD_CARD = 24;
+
+    /* The offset of the location codes of a slot. */
+    static final int CARDS_OFFSET = 28;
+
+    /* The number of rows of the game boards. */
+    private final int rows;
+
+    /* The number of columns of the game boards. */
+    private final int cols;
+
+    /* The number of cards in each deck. */
+    private final int deckSize;
+
+    /* The largest number of games. */
+    private final int capacity;
+
+    /* The number of bytes of a slot, a multiple of 8. */
+    private final int slotSize;
+
+    /* The number of slots of a buffer. */
+    private final int slotsPerBuffer;
+
+    /* The buffers with the slots, allocated when needed. */
+    private final ByteBuffer[] buffers;
+
+    /* The number of games in the arena. */
+    private int size;
+
+    /**
+     * Create an empty arena.
+     *
+     * @param rows the number of rows of the game boards.
+     * @param cols the number of columns of the game boards.
+     * @param deckSize the number of cards in each deck.
+     * @param capacity the largest number of games.
+     */
+    public WegeGameArena(int rows, int cols, int deckSize, int capacity) {
+        this(rows, cols, deckSize, capacity, MAX_BUFFER_SIZE / slotSizeOf(rows, cols, deckSize));
+    }
+
+    /**
+     * Create an empty arena with a number of slots in each buffer.
+     * Use only for unit test.
+     */
+    WegeGameArena(int rows, int cols, int deckSize, int capacity, int slotsPerBuffer) {
+        this.rows = rows;
+        this.cols = cols;
+        this.deckSize = deckSize;
+        this.capacity = capacity;
+        this.slotSize = slotSizeOf(rows, cols, deckSize);
+        this.slotsPerBuffer = slotsPerBuffer;
+        this.buffers = new ByteBuffer[(capacity + slotsPerBuffer - 1) / slotsPerBuffer];
+    }
+
+    /**
+     * Return the number of bytes of a slot, rounded up so the counters of every slot are aligned.
+     */
+    private static int slotSizeOf(int rows, int cols, int deckSize) {
+        int bytes = CARDS_OFFSET + rows * cols + (rows + 1) * (cols + 1) + deckSize;
+        return (bytes + 7) & ~7;
+    }
+
+    /**
+     * Add a new game with an empty board.
+     *
+     * @param deck the card codes of the deck in the order they are drawn, see {@link WegeRules#encodeDeck(WegeDeck)}.
+     * @return the slot of the game.
+     * @throws IllegalArgumentException if the deck does not have the deck size of the arena.
+     * @throws IllegalStateException if the arena is full.
+     */
+    public int addGame(byte[] deck) {
+        if (deck.length != deckSize) throw new IllegalArgumentException("Deck size is not " + deckSize + "!");
+        if (size == capacity) throw new IllegalStateException("Arena is full!");
+        int slot = size++;
+        int bufferIndex = slot / slotsPerBuffer;
+        if (buffers[bufferIndex] == null) {
+            int slots = Math.min(slotsPerBuffer, capacity - bufferIndex * slotsPerBuffer);
+            // A new direct buffer is filled with zeros, which is an empty board.
+            buffers[bufferIndex] = ByteBuffer.allocateDirect(slots * slotSize).order(ByteOrder.nativeOrder());
+        }
+        bufferOf(slot).put(offsetOf(slot) + deckOffset(), deck);
+        return slot;
+    }
+
+    /**
+     * Create a view to play the game in a slot.
+     *
+     * @param slot the slot of the game.
+     * @return the view, which can be moved to other slots.
+     */
+    public WegeArenaGame view(int slot) {
+        WegeArenaGame game = new WegeArenaGame(this);
+        game.moveTo(slot);
+        return game;
+    }
+
+    /**
+     * Return the buffer which holds a slot.
+     *
+     * @throws IndexOutOfBoundsException if there is no game in the slot.
+     */
+    ByteBuffer bufferOf(int slot) {
+        if (slot < 0 || slot >= size) throw new IndexOutOfBoundsException("Slot " + slot + " has no game!");
+        return buffers[slot / slotsPerBuffer];
+    }
+
+    /**
+     * Return the offset of a slot in its buffer.
+     */
+    int offsetOf(int slot) {
+        return (slot % slotsPerBuffer) * slotSize;
+    }
+
+    /**
+     * Return the offset of the intersection codes in a slot.
+     */
+    int pointsOffset() {
+        return CARDS_OFFSET + rows * cols;
+    }
+
+    /**
+     * Return the offset of the deck in a slot.
+     */
+    int deckOffset() {
+        return pointsOffset() + (rows + 1) * (cols + 1);
+    }
+
+    /**
+     * Write all games to a file as raw bytes, after a header with the layout of the arena.
+     * The file is replaced if it exists.
+     *
+     * @param file the file to write.
+     * @throws IOException if the file cannot be written.
+     */
+    public void writeSnapshot(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer header = ByteBuffer.allocate(FILE_HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+            header.putInt(FILE_MAGIC).putInt(FILE_VERSION).putInt(rows).putInt(cols)
+                    .putInt(deckSize).putInt(capacity).putInt(size)
+                    .putInt(ByteOrder.nativeOrder() == ByteOrder.LITTLE_ENDIAN ? 0 : 1)
+                    .flip();
+            writeFully(channel, header);
+            for (int bufferIndex = 0; bufferIndex * slotsPerBuffer < size; bufferIndex++) {
+                int slots = Math.min(slotsPerBuffer, size - bufferIndex * slotsPerBuffer);
+                writeFully(channel, buffers[bufferIndex].duplicate().clear().limit(slots * slotSize));
+            }
+        }
+    }
+
+    /**
+     * Read an arena written by {@link #writeSnapshot(Path)}.
+     *
+     * @param file the file to read.
+     * @return the arena with all games of the file.
+     * @throws IOException if the file cannot be read or is not an arena of this machine.
+     */
+    public static WegeGameArena readSnapshot(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            ByteBuffer header = ByteBuffer.allocate(FILE_HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+            readFully(channel, header);
+            header.flip();
+            if (header.getInt() != FILE_MAGIC || header.getInt() != FILE_VERSION) {
+                throw new IOException("File is not a game arena!");
+            }
+            WegeGameArena arena = new WegeGameArena(header.getInt(), header.getInt(), header.getInt(), header.getInt());
+            int size = header.getInt();
+            boolean bigEndian = header.getInt() != 0;
+            if (bigEndian != (ByteOrder.nativeOrder() == ByteOrder.BIG_ENDIAN)) {
+                throw new IOException("File is written with another byte order!");
+            }
+            for (int bufferIndex = 0; bufferIndex * arena.slotsPerBuffer < size; bufferIndex++) {
+                int slots = Math.min(arena.slotsPerBuffer, arena.capacity - bufferIndex * arena.slotsPerBuffer);
+                ByteBuffer buffer = ByteBuffer.allocateDirect(slots * arena.slotSize).order(ByteOrder.nativeOrder());
+                int slotsInFile = Math.min(slots, size - bufferIndex * arena.slotsPerBuffer);
+                readFully(channel, buffer.limit(slotsInFile * arena.slotSize));
+                arena.buffers[bufferIndex] = buffer.clear();
+            }
+            arena.size = size;
+            return arena;
+        }
+    }
+
+    /**
+     * Write all remaining bytes of a buffer to a channel.
+     */
+    private static void writeFully(FileChannel channel, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+
+    /**
+     * Read a channel until a buffer is full.
+     *
+     * @throws IOException if the channel ends first.
+     */
+    private static void readFully(FileChannel channel, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer) < 0) throw new IOException("File is truncated!");
+        }
+    }
+
+    /**
+     * Return the number of rows of the game boards.
+     */
+    public int getRows() {
+        return rows;
+    }
+
+    /**
+     * Return the number of columns of the game boards.
+     */
+    public int getCols() {
+        return cols;
+    }
+
+    /**
+     * Return the number of cards in each deck.
+     */
+    public int getDeckSize() {
+        return deckSize;
+    }
+
+    /**
+     * Return the largest number of games.
+     */
+    public int getCapacity() {
+        return capacity;
+    }
+
+    /**
+     * Return the number of games in the arena.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Return the number of bytes of the slot of a game.
+     */
+    public int getSlotSize() {
+        return slotSize;
+    }
+}
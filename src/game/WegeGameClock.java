@@ -0,0 +1,70 @@
+package game;
+
+/**
+ * The clock of a game between bots. Each player may take a number of milliseconds for a move,
+ * and a number of milliseconds for all its moves of the game. The time of a move is the
+ * smaller of the two, so a player whose game time is over gets no time for its next moves.
+ * A clock is used by the thread which hosts the game only.
+ */
+public final class WegeGameClock {
+
+    /* The milliseconds a player may take for a move. */
+    private final long moveMillis;
+
+    /* The milliseconds left of the land player and the water player. */
+    private final long[] millisLeft = new long[2];
+
+    /**
+     * Create a clock.
+     *
+     * @param moveMillis the milliseconds a player may take for a move.
+     * @param gameMillis the milliseconds a player may take for all its moves of the game.
+     * @throws IllegalArgumentException if a time is negative.
+     */
+    public WegeGameClock(long moveMillis, long gameMillis) {
+        if (moveMillis < 0 || gameMillis < 0) throw new IllegalArgumentException("Invalid time!");
+        this.moveMillis = moveMillis;
+        this.millisLeft[0] = gameMillis;
+        this.millisLeft[1] = gameMillis;
+    }
+
+    /**
+     * Return the milliseconds a player may take for its next move.
+     *
+     * @param isLandPlayer whether the player is the land player.
+     * @return the time of the move, 0 if the game time of the player is over.
+     */
+    public long getMoveMillis(boolean isLandPlayer) {
+        return Math.min(moveMillis, getMillisLeft(isLandPlayer));
+    }
+
+    /**
+     * Return the milliseconds left of a player for the rest of the game.
+     *
+     * @param isLandPlayer whether the player is the land player.
+     * @return the time left, 0 if the game time of the player is over.
+     */
+    public long getMillisLeft(boolean isLandPlayer) {
+        return Math.max(millisLeft[isLandPlayer ? 0 : 1], 0);
+    }
+
+    /**
+     * Check if a player has used all its game time.
+     *
+     * @param isLandPlayer whether the player is the land player.
+     * @return <code>true</code> if no time is left.
+     */
+    public boolean isOver(boolean isLandPlayer) {
+        return getMillisLeft(isLandPlayer) == 0;
+    }
+
+    /**
+     * Take the time of a move from the game time of a player.
+     *
+     * @param isLandPlayer whether the player is the land player.
+     * @param millis the milliseconds the move took.
+     */
+    public void charge(boolean isLandPlayer, long millis) {
+        millisLeft[isLandPlayer ? 0 : 1] -= millis;
+    }
+}
@@ -0,0 +1,75 @@
+package game;
+
+/**
+ * An event published by the game master while a Wege game goes on. Each event
+ * carries the version of the board snapshot it was published after.
+ *
+ * @see WegeGameEventPublisher the publisher of game events.
+ * @see WegeBoardSnapshot#getVersion() the version of a board snapshot.
+ */
+public sealed interface WegeGameEvent {
+
+    /**
+     * Return the version of the board snapshot this event was published after.
+     */
+    long version();
+
+    /**
+     * A card is placed on an empty location of the board.
+     *
+     * @param version      the version of the board snapshot after placing.
+     * @param isLandPlayer whether the land player placed the card.
+     * @param row          the row of the card.
+     * @param col          the column of the card.
+     * @param card         the placed card.
+     */
+    record CardPlaced(long version, boolean isLandPlayer, int row, int col,
+                      WegeBoardSnapshot.Card card) implements WegeGameEvent {
+    }
+
+    /**
+     * A bridge card replaces a card on the board.
+     *
+     * @param version      the version of the board snapshot after swapping.
+     * @param isLandPlayer whether the land player swapped the card.
+     * @param row          the row of the card.
+     * @param col          the column of the card.
+     * @param card         the bridge card.
+     * @param replacedCard the card replaced by the bridge card.
+     */
+    record CardSwapped(long version, boolean isLandPlayer, int row, int col,
+                       WegeBoardSnapshot.Card card, WegeBoardSnapshot.Card replacedCard) implements WegeGameEvent {
+    }
+
+    /**
+     * A trail not touching any edge is sealed, which creates a central ground for a player that
+     * can no longer change: every card around the trail is played and cannot be replaced by a
+     * bridge card.
+     *
+     * @param version       the version of the board snapshot.
+     * @param isLandPlayer  whether the central ground belongs to the land player.
+     * @param centralGround the number of sealed central grounds of the player so far.
+     */
+    record ComponentClosed(long version, boolean isLandPlayer, int centralGround) implements WegeGameEvent {
+    }
+
+    /**
+     * The score of the players changed, as if the game ended now.
+     *
+     * @param version    the version of the board snapshot.
+     * @param landScore  the total score of the land player.
+     * @param waterScore the total score of the water player.
+     */
+    record ScoreChanged(long version, int landScore, int waterScore) implements WegeGameEvent {
+    }
+
+    /**
+     * The game is ended and the final score is collected.
+     *
+     * @param version    the version of the last board snapshot.
+     * @param landScore  the final score of the land player.
+     * @param waterScore the final score of the water player.
+     */
+    record GameEnded(long version, int landScore, int waterScore) implements WegeGameEvent {
+    }
+}
@@ -0,0 +1,130 @@
+package game;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Flow;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.SubmissionPublisher;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Publisher of the events of a Wege game. Each subscriber has its own bounded buffer,
+ * which is drained in batches on the executor, so subscribers never run on the game thread.
+ * Publishing never waits: when the buffer of a slow subscriber is full, the event is dropped
+ * for that subscriber only and counted. Events which take work to create, such as the live
+ * score, are created by tasks on the executor too, one at a time in order, see
+ * {@link #publishLater(Runnable)}.
+ */
+public class WegeGameEventPublisher implements Flow.Publisher<WegeGameEvent> {
+
+    /* The default number of events buffered for each subscriber. */
+    public static final int DEFAULT_BUFFER_CAPACITY = 256;
+
+    /* The executor which delivers events to subscribers. */
+    private final Executor executor;
+
+    /* The maximum number of events buffered for each subscriber. */
+    private final int bufferCapacity;
+
+    /* The number of events dropped because the buffer of a subscriber was full. */
+    private final AtomicLong droppedEvents = new AtomicLong();
+
+    /* The last task given to publish later, which the next task and the close wait for. */
+    private CompletableFuture<Void> lastTask = CompletableFuture.completedFuture(null);
+
+    /* The underlying publisher, created when the first subscriber comes. */
+    private volatile SubmissionPublisher<WegeGameEvent> publisher;
+
+    /**
+     * Create a publisher which delivers events on the common fork join pool
+     * with {@link #DEFAULT_BUFFER_CAPACITY} events buffered for each subscriber.
+     */
+    public WegeGameEventPublisher() {
+        this(ForkJoinPool.commonPool(), DEFAULT_BUFFER_CAPACITY);
+    }
+
+    /**
+     * Create a publisher of game events.
+     *
+     * @param executor the executor which delivers events to subscribers.
+     * @param bufferCapacity the maximum number of events buffered for each subscriber.
+     */
+    public WegeGameEventPublisher(Executor executor, int bufferCapacity) {
+        this.executor = executor;
+        this.bufferCapacity = bufferCapacity;
+    }
+
+    @Override
+    public void subscribe(Flow.Subscriber<? super WegeGameEvent> subscriber) {
+        getPublisher().subscribe(subscriber);
+    }
+
+    /**
+     * Return <code>true</code> if there is at least one subscriber. The game master
+     * checks it before creating events, so a game without subscribers pays nothing.
+     */
+    public boolean hasSubscribers() {
+        SubmissionPublisher<WegeGameEvent> current = publisher;
+        return current != null && current.hasSubscribers();
+    }
+
+    /**
+     * Publish an event to all subscribers without waiting.
+     *
+     * @param event the event to publish.
+     */
+    void publish(WegeGameEvent event) {
+        SubmissionPublisher<WegeGameEvent> current = publisher;
+        if (current == null || current.isClosed()) return;
+        current.offer(event, (subscriber, droppedEvent) -> {
+            droppedEvents.incrementAndGet();
+            return false;
+        });
+    }
+
+    /**
+     * Run a task which publishes events on the executor instead of the game thread. The tasks
+     * run one at a time in the order they are given, so their events keep the order of the game.
+     *
+     * @param task the task, which must only read state that the game no longer changes.
+     */
+    synchronized void publishLater(Runnable task) {
+        // A failed task does not stop the tasks after it.
+        lastTask = lastTask.exceptionally(e -> null).thenRunAsync(task, executor);
+    }
+
+    /**
+     * Complete all subscribers after the tasks to publish later are run and the events already
+     * published are delivered.
+     */
+    synchronized void close() {
+        lastTask = lastTask.exceptionally(e -> null).thenRun(() -> {
+            SubmissionPublisher<WegeGameEvent> current = publisher;
+            if (current != null) current.close();
+        });
+    }
+
+    /**
+     * Return the number of events dropped because the buffer of a subscriber was full.
+     */
+    public long getDroppedEvents() {
+        return droppedEvents.get();
+    }
+
+    /**
+     * Get the underlying publisher, create it if there is none yet.
+     */
+    private SubmissionPublisher<WegeGameEvent> getPublisher() {
+        SubmissionPublisher<WegeGameEvent> current = publisher;
+        if (current == null) {
+            synchronized (this) {
+                current = publisher;
+                if (current == null) {
+                    current = new SubmissionPublisher<>(executor, bufferCapacity);
+                    publisher = current;
+                }
+            }
+        }
+        return current;
+    }
+}
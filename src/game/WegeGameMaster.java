@@ -3,6 +3,8 @@ package game;
 import javafx.geometry.Pos;
 
 import java.util.*;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
 
 /**
  * The master of the game Wege. Only he knows the game rule and the game score well.
@@ -25,17 +27,60 @@ public class WegeGameMaster {
     /* flag to indicate whether the game started by a player placing a card on the game board. */
     private boolean gameStarted;
 
+    /* The number of cards discarded because they could not be played. */
+    private int cardsDiscarded;
+
+    /* The card replaced by the last move if it was a swap, which the next player plays instead of drawing. */
+    private WegePlayingCard replacedCard;
+
+    /* The publisher of the events of this game. */
+    private final WegeGameEventPublisher eventPublisher;
+
+    /* The live score of the land player last published to subscribers, only used on the executor of the publisher. */
+    private int publishedLandScore;
+
+    /* The live score of the water player last published to subscribers. */
+    private int publishedWaterScore;
+
+    /* The sealed central grounds of the land player and the water player last published to subscribers. */
+    private final int[] publishedCentralGrounds = new int[2];
+
+    /* The four orientations a card can be rotated to. */
+    private static final Pos[] ORIENTATIONS = {Pos.TOP_LEFT, Pos.TOP_RIGHT, Pos.BOTTOM_RIGHT, Pos.BOTTOM_LEFT};
+
     /**
      * Create a game master to control the game Wege by the rule of the game.
      *
      * @param gameBoard the playing board of the game Wege.
      */
     public WegeGameMaster(WegePlayingBoard gameBoard) {
+        this(gameBoard, new WegeGameEventPublisher());
+    }
+
+    /**
+     * Create a game master to control the game Wege by the rule of the game,
+     * which publishes the events of the game with the given publisher.
+     *
+     * @param gameBoard the playing board of the game Wege.
+     * @param eventPublisher the publisher of the events of this game.
+     */
+    public WegeGameMaster(WegePlayingBoard gameBoard, WegeGameEventPublisher eventPublisher) {
         this.gameBoard = gameBoard;
+        this.eventPublisher = eventPublisher;
         // Land player always go first.
         this.nextPlayer = landPlayer;
     }
 
+    /**
+     * Get the publisher of the events of this game. Subscribers are called on the
+     * executor of the publisher, so a slow subscriber never stalls the game.
+     *
+     * @return the publisher of game events.
+     */
+    public WegeGameEventPublisher getEventPublisher() {
+        return eventPublisher;
+    }
+
     /**
      * Attempt to place a Wege card on the game board.
      *
@@ -54,8 +99,15 @@ public class WegeGameMaster {
             if (card.getCardType() == WegeCard.CardType.COSSACK) {
                 nextPlayer.increaseCossackCardPlayed();
             }
+            boolean isLandPlayer = nextPlayer.isLandPlayer();
             setNextPlayer();
+            replacedCard = null;
             gameBoard.placeCardOnBoard(card);
+            if (eventPublisher.hasSubscribers()) {
+                WegeBoardSnapshot snapshot = gameBoard.getSnapshot();
+                publishLiveScore(snapshot, new WegeGameEvent.CardPlaced(snapshot.getVersion(), isLandPlayer,
+                        card.getRow(), card.getCol(), WegeBoardSnapshot.Card.of(card)));
+            }
         }
         return legalPlace;
     }
@@ -63,6 +115,8 @@ public class WegeGameMaster {
     /**
      * Attempt to swap a Wege card on the game board. If the swap card
      * is not align with the existing card on the game board, don't swap it.
+     * The replaced card goes to the next player, who plays it instead of
+     * drawing a card, see {@link #getReplacedCard()}.
      *
      * @param card the card to swap
      * @return <code>true</code> if the card is swap successfully.
@@ -72,12 +126,186 @@ public class WegeGameMaster {
     public boolean trySwapCard(WegePlayingCard card) {
         boolean legalSwap = isLegalSwap(card) && isLegalPlace(card);
         if (legalSwap) {
+            replacedCard = gameBoard.findPlayedCard(card.getRow(), card.getCol());
+            boolean isLandPlayer = nextPlayer.isLandPlayer();
             setNextPlayer();
             gameBoard.placeCardOnBoard(card);
+            if (eventPublisher.hasSubscribers()) {
+                WegeBoardSnapshot snapshot = gameBoard.getSnapshot();
+                publishLiveScore(snapshot, new WegeGameEvent.CardSwapped(snapshot.getVersion(), isLandPlayer,
+                        card.getRow(), card.getCol(), WegeBoardSnapshot.Card.of(card),
+                        WegeBoardSnapshot.Card.of(replacedCard)));
+            }
         }
         return legalSwap;
     }
 
+    /**
+     * Get the card replaced by the last move if it was a swap. The next player
+     * plays this card instead of drawing one from the deck.
+     *
+     * @return the replaced card, or <code>null</code> if the last move was not a swap.
+     */
+    public WegePlayingCard getReplacedCard() {
+        return replacedCard;
+    }
+
+    /**
+     * Get the latest snapshot of the game board. Spectators can read it from any
+     * thread while the game goes on.
+     *
+     * @return the snapshot taken after the last move.
+     * @see WegePlayingBoard#getSnapshot()
+     */
+    public WegeBoardSnapshot getBoardSnapshot() {
+        return gameBoard.getSnapshot();
+    }
+
+    /**
+     * Check if a card can be played anywhere on the game board in any orientation.
+     * Any card can be rotated to match a first contact point, so a card can be placed
+     * exactly when the frontier of the game board is not empty. Only when a bridge card
+     * cannot be placed, the cards on the game board are checked for a legal swap.
+     *
+     * @param card the card to be played.
+     * @return <code>true</code> if there is at least one legal place or swap for the card.
+     * @see WegePlayingBoard#countFrontier() the frontier of the game board.
+     */
+    public boolean hasLegalMove(WegePlayingCard card) {
+        if (!gameStarted) return true;
+        if (gameBoard.countFrontier() > 0) return true;
+        if (card.getCardType() != WegeCard.CardType.BRIDGE) return false;
+        // A bridge can be rotated to match any contact point of a played card,
+        // so only the card it replaces matters.
+        for (int row = 0; row < gameBoard.getRows(); row++) {
+            for (int col = 0; col < gameBoard.getCols(); col++) {
+                if (isSwappable(row, col)) return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Find every legal place and swap of a card, in row, column and orientation order.
+     * The location and orientation of the card are changed.
+     *
+     * @param card the card to be played.
+     * @return the legal moves, empty if the card must be discarded.
+     */
+    public List<WegeMove> findLegalMoves(WegePlayingCard card) {
+        List<WegeMove> moves = new ArrayList<>();
+        for (int row = 0; row < gameBoard.getRows(); row++) {
+            for (int col = 0; col < gameBoard.getCols(); col++) {
+                boolean isSwap = gameBoard.findPlayedCard(row, col) != null;
+                if (isSwap && card.getCardType() != WegeCard.CardType.BRIDGE) continue;
+                card.setRow(row);
+                card.setCol(col);
+                for (Pos orientation : ORIENTATIONS) {
+                    card.setOrientation(orientation);
+                    boolean legal = isSwap
+                            ? isLegalSwap(card) && isLegalPlace(card)
+                            : !gameStarted || isLegalPlace(card);
+                    if (legal) moves.add(new WegeMove(row, col, orientation, isSwap));
+                }
+            }
+        }
+        return moves;
+    }
+
+    /**
+     * Check if the land player plays the next card.
+     */
+    public boolean isLandTurn() {
+        return nextPlayer.isLandPlayer();
+    }
+
+    /**
+     * Return the number of cossack cards a player has played.
+     *
+     * @param isLandPlayer whether the player is the land player.
+     * @return the number of cossack cards.
+     */
+    public int getCossackCardsPlayed(boolean isLandPlayer) {
+        return (isLandPlayer ? landPlayer : waterPlayer).getCossackCardsPlayed();
+    }
+
+    /**
+     * Pass the turn of the next player when the drawn card cannot be played. The card
+     * is discarded and does not return to the deck.
+     *
+     * @param card the card drawn by the next player.
+     * @return <code>true</code> if the card is discarded and the turn is passed,
+     * <code>false</code> if the card has a legal move and must be played.
+     * @see #hasLegalMove(WegePlayingCard) the rule for a card to be played.
+     */
+    public boolean passTurn(WegePlayingCard card) {
+        if (hasLegalMove(card)) return false;
+        cardsDiscarded++;
+        setNextPlayer();
+        replacedCard = null;
+        return true;
+    }
+
+    /**
+     * Return the number of cards discarded because they could not be played.
+     */
+    public int getCardsDiscarded() {
+        return cardsDiscarded;
+    }
+
+    /**
+     * Check if the game is ended. The game ends when the game board is filled up
+     * or when there is no card left to be played.
+     *
+     * @param cardsLeftToPlay the cards left in the deck, including a drawn card which
+     *                        has not been played yet.
+     * @return <code>true</code> if the game is ended.
+     */
+    public boolean isGameEnded(int cardsLeftToPlay) {
+        return gameBoard.isFull() || cardsLeftToPlay == 0;
+    }
+
+    /**
+     * Estimate the lower and upper bound of the final score of both players from the
+     * cards played so far and the cards left to play. The game board is not changed,
+     * so the game can be estimated after every turn.
+     *
+     * @param deck the deck with cards left to draw.
+     * @param nextCard the drawn card which has not been played yet, or <code>null</code>.
+     * @return the outcome of the game, which tells if the winner can still change.
+     */
+    public GameOutcome estimateOutcome(WegeDeck deck, WegePlayingCard nextCard) {
+        int cardsLeftToPlay = deck.size();
+        int cossacksLeft = deck.countCards(WegeCard.CardType.COSSACK);
+        int bridgesLeft = deck.countCards(WegeCard.CardType.BRIDGE);
+        int gnomeCardsLeft = deck.countGnomeCards();
+        if (nextCard != null) {
+            cardsLeftToPlay++;
+            if (nextCard.getCardType() == WegeCard.CardType.COSSACK) cossacksLeft++;
+            if (nextCard.getCardType() == WegeCard.CardType.BRIDGE) bridgesLeft++;
+            if (nextCard.hasGnome()) gnomeCardsLeft++;
+        }
+        return new WegeOutcomeEstimator(this, gameBoard).estimate(landPlayer, waterPlayer,
+                cossacksLeft, bridgesLeft, gnomeCardsLeft, isGameEnded(cardsLeftToPlay));
+    }
+
+    /**
+     * Create the position of this game for a search or a solver, see {@link WegePosition}.
+     *
+     * @param deck the deck with cards left to draw.
+     * @param nextCard the drawn card which has not been played yet, or <code>null</code>.
+     * @return the position, whose next card is the drawn card.
+     */
+    public WegePosition createPosition(WegeDeck deck, WegePlayingCard nextCard) {
+        byte[] deckCards = WegeRules.encodeDeck(deck);
+        int drawn = nextCard == null ? 0 : 1;
+        byte[] cardsLeft = new byte[drawn + deckCards.length];
+        if (nextCard != null) cardsLeft[0] = WegeRules.encodeCard(nextCard);
+        System.arraycopy(deckCards, 0, cardsLeft, drawn, deckCards.length);
+        return WegePosition.of(getBoardSnapshot(), cardsLeft, isLandTurn(),
+                getCossackCardsPlayed(true), getCossackCardsPlayed(false));
+    }
+
     /**
      * Collect player statistic from cards played so far on the game board.
      *
@@ -93,9 +321,74 @@ public class WegeGameMaster {
             Player player = getAssociatePlayer(firstNotCompleted);
             travelAndUpdate(firstNotCompleted, player);
         }
+        if (eventPublisher.hasSubscribers()) {
+            WegeGameEvent gameEnded = new WegeGameEvent.GameEnded(gameBoard.getSnapshot().getVersion(),
+                    landPlayer.getGameScore().total(), waterPlayer.getGameScore().total());
+            eventPublisher.publishLater(() -> eventPublisher.publish(gameEnded));
+        }
+        eventPublisher.close();
         return List.of(landPlayer, waterPlayer);
     }
 
+    /**
+     * Collect player statistic from cards played so far as if the game ended now.
+     * Unlike {@link #collectPlayerStatistic()}, the game board is not changed,
+     * so it can be collected after every turn.
+     *
+     * @return the statistic of the land player and the water player.
+     */
+    public List<Player> collectLiveStatistic() {
+        Player liveLand = new Player(true);
+        Player liveWater = new Player(false);
+        for (int i = 0; i < landPlayer.getCossackCardsPlayed(); i++) liveLand.increaseCossackCardPlayed();
+        for (int i = 0; i < waterPlayer.getCossackCardsPlayed(); i++) liveWater.increaseCossackCardPlayed();
+        Set<Intersection> visited = new HashSet<>();
+        for (int x = 0; x <= gameBoard.getRows(); x++) {
+            for (int y = 0; y <= gameBoard.getCols(); y++) {
+                Intersection intersection = gameBoard.findIntersection(x, y);
+                if (intersection == null || visited.contains(intersection)) continue;
+                Player player = intersection.isConnectLand() ? liveLand : liveWater;
+                Player otherPlayer = intersection.isConnectLand() ? liveWater : liveLand;
+                List<Intersection> trail = travelTrail(intersection, player, visited::contains, visited::add);
+                collectEdges(trail, player, otherPlayer);
+            }
+        }
+        return List.of(liveLand, liveWater);
+    }
+
+    /**
+     * Publish the event of a move, then the live score when it changes, and a closed component
+     * when a player gets a new central ground which can no longer change. The live score is
+     * collected from the board snapshot on the executor of the publisher, not on the game thread.
+     *
+     * @param snapshot the board snapshot after the move.
+     * @param moveEvent the event of the move.
+     */
+    private void publishLiveScore(WegeBoardSnapshot snapshot, WegeGameEvent moveEvent) {
+        int landCossacks = landPlayer.getCossackCardsPlayed();
+        int waterCossacks = waterPlayer.getCossackCardsPlayed();
+        eventPublisher.publishLater(() -> {
+            eventPublisher.publish(moveEvent);
+            WegePosition position = WegePosition.of(snapshot, new byte[0], true, landCossacks, waterCossacks);
+            int[] centralGrounds = new int[2];
+            position.countSealedCentralGrounds(centralGrounds);
+            for (int index = 0; index < 2; index++) {
+                if (centralGrounds[index] > publishedCentralGrounds[index]) {
+                    eventPublisher.publish(new WegeGameEvent.ComponentClosed(snapshot.getVersion(),
+                            index == 0, centralGrounds[index]));
+                }
+                publishedCentralGrounds[index] = centralGrounds[index];
+            }
+            int[] scores = new int[2];
+            position.score(scores);
+            if (scores[0] != publishedLandScore || scores[1] != publishedWaterScore) {
+                publishedLandScore = scores[0];
+                publishedWaterScore = scores[1];
+                eventPublisher.publish(new WegeGameEvent.ScoreChanged(snapshot.getVersion(), scores[0], scores[1]));
+            }
+        });
+    }
+
     /**
      * The rules are:
      *
@@ -121,7 +414,7 @@ public class WegeGameMaster {
      * @return true if the next card can be placed on the game board.
      * Otherwise, return false.
      */
-    private boolean isLegalPlace(WegePlayingCard card) {
+    boolean isLegalPlace(WegePlayingCard card) {
         Intersection firstContactPoint = gameBoard.findFirstConnection(card.getRow(), card.getCol());
         // If no intersection played
         if (firstContactPoint == null) return false;
@@ -138,7 +431,7 @@ public class WegeGameMaster {
      *         water or land card. But:
      *         <ul>
      *             <li>
-     *                 A bridge card cannot replace a cossack card.
+     *                 A bridge card cannot replace a cossack card or another bridge card.
      *             </li>
      *             <li>
      *               A bridge card cannot replace a land or water card
@@ -152,15 +445,27 @@ public class WegeGameMaster {
      * @return true if the next card can be swapped on the game board.
      * Otherwise, return false.
      */
-    private boolean isLegalSwap(WegePlayingCard card) {
+    boolean isLegalSwap(WegePlayingCard card) {
         // Only bridge card is legal for swap
         if (card.getCardType() != WegeCard.CardType.BRIDGE) return false;
-        WegePlayingCard cardPlayedOnBoard = gameBoard.findPlayedCard(card.getRow(), card.getCol());
+        return isSwappable(card.getRow(), card.getCol());
+    }
+
+    /**
+     * Check if a card played on the game board can be replaced by a bridge card.
+     *
+     * @param row the row of the played card.
+     * @param col the column of the played card.
+     * @return true if a bridge card can replace the card at this location.
+     * @see #isLegalSwap(WegePlayingCard) the rule for valid swap.
+     */
+    boolean isSwappable(int row, int col) {
+        WegePlayingCard cardPlayedOnBoard = gameBoard.findPlayedCard(row, col);
         // Cannot swap a not played card.
         if (cardPlayedOnBoard == null) return false;
         WegeCard.CardType cardPlayedType = cardPlayedOnBoard.getCardType();
-        // Cannot swap a cossack card.
-        if (cardPlayedType == WegeCard.CardType.COSSACK) return false;
+        // Cannot swap a cossack card, and a bridge card only replaces a water or land card.
+        if (cardPlayedType == WegeCard.CardType.COSSACK || cardPlayedType == WegeCard.CardType.BRIDGE) return false;
         // Can swap if water and land card does not have a gnome.
         if (!cardPlayedOnBoard.hasGnome()) return true;
         List<Intersection> surroundIntersections = gameBoard.findSurroundIntersections(cardPlayedOnBoard);
@@ -240,30 +545,63 @@ public class WegeGameMaster {
      * @param player the player associate to this intersection.
      */
     private void travelAndUpdate(Intersection startIntersection, Player player) {
+        List<Intersection> visited = travelTrail(startIntersection, player,
+                Intersection::isVisited, i -> i.setVisited(true));
+        collectEdges(visited, player, getOtherPlayer(player));
+        visited.forEach(i -> i.setCompleted(true));
+    }
+
+    /**
+     * From the first intersection, follow the trail by go to the opposite direction based
+     * on cards have been played so far on the game board and collect facing gnome for the
+     * given player. Each intersection on the trail is visited once.
+     *
+     * @param startIntersection the intersection on the game board to start travel.
+     * @param player the player associate to this intersection.
+     * @param isVisited check if an intersection is visited before.
+     * @param markVisited mark an intersection as visited.
+     * @return the intersections of the trail.
+     */
+    List<Intersection> travelTrail(Intersection startIntersection,
+                                   Player player,
+                                   Predicate<Intersection> isVisited,
+                                   Consumer<Intersection> markVisited) {
         Deque<Intersection> intersectionStack = new LinkedList<>();
         intersectionStack.add(startIntersection);
+        markVisited.accept(startIntersection);
         List<Intersection> visited = new ArrayList<>();
         while (!intersectionStack.isEmpty()) {
             Intersection nextPoint = intersectionStack.pop();
             // Collect facing gnome.
             player.increaseFacingGnomeGroup(nextPoint.getFacingGnomeCount());
-            nextPoint.setVisited(true);
             visited.add(nextPoint);
             for (WegePlayingCard card : gameBoard.findSurroundCards(nextPoint)) {
                 if (isValidTrail(nextPoint, card)) {
                     // Go to the opposite.
                     Intersection oppositePoint = findOppositeIntersection(nextPoint, card);
-                    if (!oppositePoint.isVisited()) intersectionStack.addFirst(oppositePoint);
+                    if (!isVisited.test(oppositePoint)) {
+                        markVisited.accept(oppositePoint);
+                        intersectionStack.addFirst(oppositePoint);
+                    }
                 }
             }
         }
-        // Collect edges
-        if (!visited.isEmpty()) {
-            int edgeCount = gameBoard.countEdgeTouch(visited);
-            if (edgeCount == 0) getOtherPlayer(player).increaseCentralGround();
-            else player.setMaximumEdgeTouched(edgeCount);
-        }
-        visited.forEach(i -> i.setCompleted(true));
+        return visited;
+    }
+
+    /**
+     * Collect the edges touched by a trail. If the trail does not touch any edge,
+     * it is a central ground of the other player.
+     *
+     * @param trail the intersections of the trail.
+     * @param player the player associate to this trail.
+     * @param otherPlayer the other player of the game.
+     */
+    void collectEdges(List<Intersection> trail, Player player, Player otherPlayer) {
+        if (trail.isEmpty()) return;
+        int edgeCount = gameBoard.countEdgeTouch(trail);
+        if (edgeCount == 0) otherPlayer.increaseCentralGround();
+        else player.setMaximumEdgeTouched(edgeCount);
     }
 
     /**
@@ -274,7 +612,7 @@ public class WegeGameMaster {
      * @return the opposite intersection.
      * @throws RuntimeException if the intersection is not on the game card.
      */
-    private Intersection findOppositeIntersection(Intersection intersection, WegePlayingCard card) {
+    Intersection findOppositeIntersection(Intersection intersection, WegePlayingCard card) {
         Pos opposite = card.findOppositePosition(intersection);
         return gameBoard.findOppositeIntersection(intersection, opposite);
     }
@@ -289,7 +627,7 @@ public class WegeGameMaster {
      * return <code>false</code>.
      * @throws RuntimeException if the in start intersection is far away from the given card.
      */
-    private boolean isValidTrail(Intersection startIntersection, WegePlayingCard card) {
+    static boolean isValidTrail(Intersection startIntersection, WegePlayingCard card) {
         // Cossack means it's a block.
         if (card.getCardType() == WegeCard.CardType.COSSACK) return false;
         // Bridge can be travel.
@@ -0,0 +1,75 @@
+package game;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * A record hold a finished game of Wege for the game store: the board size, the deck,
+ * every move in order and the final result of both players.
+ *
+ * @param rows the number of rows of the game board.
+ * @param cols the number of columns of the game board.
+ * @param deckVariant 0 for the deck created for the board size, or the number of each special
+ *                    card of a special deck, the same as the third game argument.
+ * @param landScore the final score of the land player.
+ * @param waterScore the final score of the water player.
+ * @param landEdges the maximum edges touched by the land player.
+ * @param waterEdges the maximum edges touched by the water player.
+ * @param moves the packed moves in the order they are played, see {@link WegeMove#pack()}.
+ * @param cards the code of the card played by each move, see {@link WegeRules#encodeCard(WegeCard)},
+ *              which is the card replaced by the move before if that move was a swap.
+ */
+public record WegeGameRecord(int rows, int cols, int deckVariant, int landScore, int waterScore,
+                             int landEdges, int waterEdges, int[] moves, byte[] cards) {
+
+    /* The winners of a game. */
+    public static final int LAND_WINS = 0;
+    public static final int WATER_WINS = 1;
+    public static final int DRAW = 2;
+
+    /**
+     * Create a record of a finished game from the statistic of its players.
+     *
+     * @param rows the number of rows of the game board.
+     * @param cols the number of columns of the game board.
+     * @param deckVariant the deck variant, see {@link #deckVariant()}.
+     * @param players the land player and then the water player.
+     * @param moves the packed moves in the order they are played.
+     * @param cards the code of the card played by each move.
+     * @return the record of the game.
+     * @see WegeGameMaster#collectPlayerStatistic()
+     */
+    public static WegeGameRecord of(int rows, int cols, int deckVariant, List<Player> players,
+                                    int[] moves, byte[] cards) {
+        Player land = players.get(0);
+        Player water = players.get(1);
+        return new WegeGameRecord(rows, cols, deckVariant,
+                land.getGameScore().total(), water.getGameScore().total(),
+                land.getMaximumEdgesTouched(), water.getMaximumEdgesTouched(), moves, cards);
+    }
+
+    /**
+     * Return the codes of the cards drawn from the deck in the order they are drawn. After a
+     * swap the next player plays the replaced card instead of drawing one, so that card is not
+     * drawn again.
+     *
+     * @return a new array, the deck of the game up to the last card drawn.
+     */
+    public byte[] drawnCards() {
+        byte[] drawn = new byte[cards.length];
+        int count = 0;
+        for (int ply = 0; ply < cards.length; ply++) {
+            if (ply == 0 || (moves[ply - 1] & 2) == 0) drawn[count++] = cards[ply];
+        }
+        return Arrays.copyOf(drawn, count);
+    }
+
+    /**
+     * Return {@link #LAND_WINS}, {@link #WATER_WINS} or {@link #DRAW}.
+     */
+    public int winner() {
+        if (landScore > waterScore) return LAND_WINS;
+        if (waterScore > landScore) return WATER_WINS;
+        return DRAW;
+    }
+}
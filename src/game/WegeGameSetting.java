@@ -1,6 +1,8 @@
 package game;
 
 import java.util.List;
+import java.util.SplittableRandom;
+import java.util.random.RandomGenerator;
 
 /**
  * A record hold settings for a Wege Game
@@ -60,15 +62,26 @@ public record WegeGameSetting(int rows, int cols, WegeDeck deck) {
      * @return setting of this game.
      */
     public static WegeGameSetting createGame(List<Integer> arguments) {
+        return createGame(arguments, new SplittableRandom());
+    }
+
+    /**
+     * Create a Wege game from the arguments with a deck shuffled by a generator.
+     *
+     * @param arguments the arguments given of this wege game.
+     * @param random the generator to shuffle the deck.
+     * @return setting of this game.
+     */
+    public static WegeGameSetting createGame(List<Integer> arguments, RandomGenerator random) {
         WegeGameSetting wegeGameSetting;
         int rowsOfPlayingBoard = arguments.get(0);
         int colsOfPlayingBoard = arguments.get(1);
         WegeDeck wegeDeck;
         if (arguments.size() == 3) {
             int numberOfEachSpecialCard = arguments.get(2);
-            wegeDeck = WegeDeck.createSpecialDeck(numberOfEachSpecialCard);
+            wegeDeck = WegeDeck.createSpecialDeck(numberOfEachSpecialCard, random);
         } else {
-            wegeDeck = WegeDeck.createWegeDeck(rowsOfPlayingBoard, colsOfPlayingBoard);
+            wegeDeck = WegeDeck.createWegeDeck(rowsOfPlayingBoard, colsOfPlayingBoard, random);
         }
         wegeGameSetting = new WegeGameSetting(rowsOfPlayingBoard, colsOfPlayingBoard, wegeDeck);
         return wegeGameSetting;
@@ -0,0 +1,548 @@
+package game;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.PrimitiveIterator;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.IntStream;
+import java.util.stream.StreamSupport;
+
+/**
+ * An append-only store of finished games of Wege in a directory. The games are numbered
+ * from 0 in the order they are added, and are never changed or removed.
+ *
+ * <ul>
+ *     <li><code>games.dat</code> starts with a magic number and the version of the format, which
+ *     a store of another version is rejected for, and holds a record of each game: the board
+ *     size, the deck variant, the scores, the edges touched, the packed moves and the cards
+ *     drawn. The board size and the edges are unsigned bytes.</li>
+ *     <li><code>offsets.idx</code> holds the position of each record as a <code>long</code>.
+ *     A game is stored once its offset is written.</li>
+ *     <li><code>index/&lt;field&gt;-&lt;value&gt;.idx</code> holds the numbers of the games with
+ *     a value of a {@link Field} in ascending order.</li>
+ * </ul>
+ *
+ * <p>All files are read through memory mapped regions, so a query only touches the pages of
+ * the index files it needs and no game is loaded onto the heap. A {@link Query} intersects the
+ * indexes of its conditions, skipping through the larger indexes with a galloping search.</p>
+ */
+public final class WegeGameStore implements Closeable {
+
+    /**
+     * The values of a game which are indexed.
+     */
+    public enum Field {
+        /* The board size, see WegeGameStore#boardSize(int, int). */
+        BOARD_SIZE,
+        DECK_VARIANT,
+        /* The winner, see WegeGameRecord#winner(). */
+        WINNER,
+        LAND_SCORE,
+        WATER_SCORE,
+        LAND_EDGES,
+        WATER_EDGES;
+
+        /**
+         * Return the value of this field of a game.
+         */
+        int valueOf(WegeGameRecord game) {
+            return switch (this) {
+                case BOARD_SIZE -> boardSize(game.rows(), game.cols());
+                case DECK_VARIANT -> game.deckVariant();
+                case WINNER -> game.winner();
+                case LAND_SCORE -> game.landScore();
+                case WATER_SCORE -> game.waterScore();
+                case LAND_EDGES -> game.landEdges();
+                case WATER_EDGES -> game.waterEdges();
+            };
+        }
+    }
+
+    /* The number of bytes of a mapped region of the files. */
+    private static final int REGION_SIZE = 1 << 30;
+
+    /* The first int of the records file, "WEGS". */
+    private static final int FILE_MAGIC = 0x57454753;
+
+    /* The version of the format of the files. */
+    private static final int FILE_VERSION = 1;
+
+    /* The number of bytes of the header of the records file: magic and version. */
+    private static final int FILE_HEADER_SIZE = 8;
+
+    /* The number of bytes of a game record before its moves. */
+    private static final int RECORD_HEADER_SIZE = 12;
+
+    /* The game number returned by a cursor after its last game. */
+    private static final int END = Integer.MAX_VALUE;
+
+    /* The directory of the index files. */
+    private final Path indexDirectory;
+
+    /* The number of bytes of a mapped region of the files. */
+    private final int regionSize;
+
+    /* The records of the games. */
+    private final WegeMappedFile records;
+
+    /* The position of the record of each game. */
+    private final WegeMappedFile offsets;
+
+    /* The index files by file name. */
+    private final Map<String, WegeMappedFile> indexes = new HashMap<>();
+
+    /* The buffer to write a game record. */
+    private ByteBuffer recordBuffer = ByteBuffer.allocate(256).order(ByteOrder.LITTLE_ENDIAN);
+
+    /* The buffer to write an offset or a game number. */
+    private final ByteBuffer entryBuffer = ByteBuffer.allocate(8).order(ByteOrder.LITTLE_ENDIAN);
+
+    /* The number of games stored. */
+    private int size;
+
+    /**
+     * Open a store in a directory, which is created if it does not exist.
+     *
+     * @param directory the directory of the store.
+     * @return the store.
+     * @throws IOException if the files of the store cannot be opened, or are not of a store of
+     * this version.
+     */
+    public static WegeGameStore open(Path directory) throws IOException {
+        return new WegeGameStore(directory, REGION_SIZE);
+    }
+
+    /**
+     * Open a store with a size of the mapped regions.
+     * Use only for unit test.
+     */
+    WegeGameStore(Path directory, int regionSize) throws IOException {
+        this.regionSize = regionSize;
+        this.indexDirectory = directory.resolve("index");
+        Files.createDirectories(indexDirectory);
+        this.records = new WegeMappedFile(directory.resolve("games.dat"), regionSize);
+        this.offsets = new WegeMappedFile(directory.resolve("offsets.idx"), regionSize);
+        if (records.size() < FILE_HEADER_SIZE) {
+            records.truncate(0);
+            records.append(ByteBuffer.allocate(FILE_HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN)
+                    .putInt(FILE_MAGIC).putInt(FILE_VERSION).flip());
+        } else if (records.getInt(0) != FILE_MAGIC || records.getInt(4) != FILE_VERSION) {
+            String message = records.getInt(0) != FILE_MAGIC ? "Directory is not a game store!"
+                    : "Unknown game store version " + records.getInt(4) + "!";
+            records.close();
+            offsets.close();
+            throw new IOException(message);
+        }
+        // A game is stored once its offset is written, drop whatever was written after it.
+        this.size = (int) (offsets.size() / Long.BYTES);
+        if (offsets.size() != (long) size * Long.BYTES) offsets.truncate((long) size * Long.BYTES);
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(indexDirectory, "*.idx")) {
+            for (Path file : files) {
+                WegeMappedFile index = new WegeMappedFile(file, regionSize);
+                long entries = index.size() / Integer.BYTES;
+                while (entries > 0 && index.getInt((entries - 1) * Integer.BYTES) >= size) {
+                    entries--;
+                }
+                if (index.size() != entries * Integer.BYTES) index.truncate(entries * Integer.BYTES);
+                indexes.put(file.getFileName().toString(), index);
+            }
+        }
+    }
+
+    /**
+     * Return the value of {@link Field#BOARD_SIZE} for a board.
+     *
+     * @param rows the number of rows of the game board.
+     * @param cols the number of columns of the game board.
+     */
+    public static int boardSize(int rows, int cols) {
+        return rows << 8 | cols;
+    }
+
+    /**
+     * Add a finished game to the store.
+     *
+     * @param game the record of the game.
+     * @return the number of the game.
+     * @throws IOException if the game cannot be written.
+     */
+    public int append(WegeGameRecord game) throws IOException {
+        if (game.cards().length != game.moves().length) {
+            throw new IllegalArgumentException("Game has not one card for each move!");
+        }
+        if ((game.rows() | game.cols() | game.landEdges() | game.waterEdges()) >>> 8 != 0) {
+            throw new IllegalArgumentException("Game does not fit a record!");
+        }
+        int recordSize = RECORD_HEADER_SIZE + game.moves().length * (Integer.BYTES + 1);
+        if (recordSize > regionSize || game.moves().length > 0xFFFF) {
+            throw new IllegalArgumentException("Game has too many moves!");
+        }
+        if (recordBuffer.capacity() < recordSize) {
+            recordBuffer = ByteBuffer.allocate(recordSize).order(ByteOrder.LITTLE_ENDIAN);
+        }
+        recordBuffer.clear();
+        recordBuffer.put((byte) game.rows()).put((byte) game.cols()).putShort((short) game.deckVariant())
+                .putShort((short) game.landScore()).putShort((short) game.waterScore())
+                .put((byte) game.landEdges()).put((byte) game.waterEdges())
+                .putShort((short) game.moves().length);
+        for (int move : game.moves()) {
+            recordBuffer.putInt(move);
+        }
+        recordBuffer.put(game.cards());
+        long position = records.append(recordBuffer.flip());
+        int number = size;
+        for (Field field : Field.values()) {
+            indexOf(field, field.valueOf(game), true).append(entryBuffer.clear().putInt(number).flip());
+        }
+        offsets.append(entryBuffer.clear().putLong(position).flip());
+        size++;
+        return number;
+    }
+
+    /**
+     * Read a game. Many threads may read games at once while no game is added.
+     *
+     * @param number the number of the game.
+     * @return the record of the game.
+     * @throws IOException if the game cannot be read or its record runs past the end of the file.
+     * @throws IndexOutOfBoundsException if there is no game with the number.
+     */
+    public WegeGameRecord read(int number) throws IOException {
+        if (number < 0 || number >= size) throw new IndexOutOfBoundsException("Game " + number + " is not stored!");
+        long position = offsets.getLong((long) number * Long.BYTES);
+        if (position < FILE_HEADER_SIZE || position + RECORD_HEADER_SIZE > records.size()) {
+            throw new IOException("Game " + number + " is corrupt!");
+        }
+        ByteBuffer region = records.regionOf(position);
+        int offset = records.offsetOf(position);
+        int moveCount = Short.toUnsignedInt(region.getShort(offset + 10));
+        if (offset + RECORD_HEADER_SIZE + moveCount * (Integer.BYTES + 1) > region.capacity()) {
+            throw new IOException("Game " + number + " is corrupt!");
+        }
+        int[] moves = new int[moveCount];
+        for (int i = 0; i < moves.length; i++) {
+            moves[i] = region.getInt(offset + RECORD_HEADER_SIZE + i * Integer.BYTES);
+        }
+        byte[] cards = new byte[moves.length];
+        region.get(offset + RECORD_HEADER_SIZE + moves.length * Integer.BYTES, cards);
+        return new WegeGameRecord(Byte.toUnsignedInt(region.get(offset)), Byte.toUnsignedInt(region.get(offset + 1)),
+                region.getShort(offset + 2), region.getShort(offset + 4), region.getShort(offset + 6),
+                Byte.toUnsignedInt(region.get(offset + 8)), Byte.toUnsignedInt(region.get(offset + 9)), moves, cards);
+    }
+
+    /**
+     * Return the number of games stored.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Create a query which finds all games until conditions are added.
+     */
+    public Query query() {
+        return new Query();
+    }
+
+    /**
+     * Force all games added so far to the storage device.
+     *
+     * @throws IOException if the files cannot be written.
+     */
+    public void flush() throws IOException {
+        records.force();
+        for (WegeMappedFile index : indexes.values()) {
+            index.force();
+        }
+        // The offsets are written last, so a stored game is never missing from an index.
+        offsets.force();
+    }
+
+    @Override
+    public void close() throws IOException {
+        records.close();
+        offsets.close();
+        for (WegeMappedFile index : indexes.values()) {
+            index.close();
+        }
+        indexes.clear();
+    }
+
+    /**
+     * Return the index file of a value of a field.
+     *
+     * @param create whether to create the file if there is none.
+     * @return the index file, or <code>null</code> if there is none and it is not created.
+     */
+    private WegeMappedFile indexOf(Field field, int value, boolean create) throws IOException {
+        String fileName = field.name().toLowerCase() + "-" + value + ".idx";
+        WegeMappedFile index = indexes.get(fileName);
+        if (index == null && create) {
+            index = new WegeMappedFile(indexDirectory.resolve(fileName), regionSize);
+            indexes.put(fileName, index);
+        }
+        return index;
+    }
+
+    /**
+     * A query which finds the numbers of the games matching all of its conditions.
+     */
+    public final class Query {
+
+        /* The cursors of the conditions. */
+        private final List<Cursor> conditions = new ArrayList<>();
+
+        private Query() {}
+
+        /**
+         * Keep only the games with a value of a field.
+         *
+         * @param field the field.
+         * @param value the value of the field.
+         * @return this query.
+         * @throws IOException if the index cannot be read.
+         */
+        public Query where(Field field, int value) throws IOException {
+            return whereBetween(field, value, value);
+        }
+
+        /**
+         * Keep only the games with a value of a field in a range.
+         *
+         * @param field the field.
+         * @param min the smallest value, inclusive.
+         * @param max the largest value, inclusive.
+         * @return this query.
+         * @throws IOException if the indexes cannot be read.
+         */
+        public Query whereBetween(Field field, int min, int max) throws IOException {
+            List<Cursor> values = new ArrayList<>();
+            for (int value = min; value <= max; value++) {
+                WegeMappedFile index = indexOf(field, value, false);
+                if (index != null) values.add(new IndexCursor(index));
+            }
+            conditions.add(values.size() == 1 ? values.get(0) : new UnionCursor(values));
+            return this;
+        }
+
+        /**
+         * Return the numbers of the matching games in ascending order. The games are
+         * found while the stream is consumed.
+         */
+        public IntStream stream() {
+            Cursor cursor = conditions.isEmpty() ? new AllCursor() : new IntersectionCursor(conditions);
+            PrimitiveIterator.OfInt iterator = new PrimitiveIterator.OfInt() {
+
+                /* The next matching game. */
+                private int next = cursor.advance(0);
+
+                @Override
+                public boolean hasNext() {
+                    return next < size;
+                }
+
+                @Override
+                public int nextInt() {
+                    if (!hasNext()) throw new NoSuchElementException();
+                    int number = next;
+                    next = cursor.advance(number + 1);
+                    return number;
+                }
+            };
+            int characteristics = Spliterator.ORDERED | Spliterator.SORTED | Spliterator.DISTINCT | Spliterator.NONNULL;
+            return StreamSupport.intStream(Spliterators.spliteratorUnknownSize(iterator, characteristics), false);
+        }
+
+        /**
+         * Return the number of matching games.
+         */
+        public long count() {
+            return stream().count();
+        }
+    }
+
+    /**
+     * A cursor over game numbers in ascending order.
+     */
+    private abstract static class Cursor {
+
+        /**
+         * Move to the first game number not less than a target, the cursor never moves back.
+         *
+         * @param target the smallest game number to return.
+         * @return the game number, or {@link #END} if there is none.
+         */
+        abstract int advance(int target);
+
+        /**
+         * Return the largest number of games this cursor can return.
+         */
+        abstract long estimate();
+    }
+
+    /**
+     * A cursor over all games.
+     */
+    private final class AllCursor extends Cursor {
+
+        @Override
+        int advance(int target) {
+            return target < size ? target : END;
+        }
+
+        @Override
+        long estimate() {
+            return size;
+        }
+    }
+
+    /**
+     * A cursor over the game numbers of an index file.
+     */
+    private final class IndexCursor extends Cursor {
+
+        /* The index file. */
+        private final WegeMappedFile index;
+
+        /* The number of game numbers in the index. */
+        private final long entries;
+
+        /* The position of the cursor in the index. */
+        private long position;
+
+        /* The mapped region of the index read last. */
+        private ByteBuffer region;
+
+        /* The first and the last entry of the region read last. */
+        private long regionStart = 0;
+        private long regionEnd = -1;
+
+        IndexCursor(WegeMappedFile index) {
+            this.index = index;
+            this.entries = index.size() / Integer.BYTES;
+        }
+
+        @Override
+        int advance(int target) {
+            if (position >= entries) return END;
+            if (entryAt(position) >= target) return entryAt(position);
+            // Gallop to a range which ends past the target, then search it.
+            long low = position;
+            long step = 1;
+            while (low + step < entries && entryAt(low + step) < target) {
+                low += step;
+                step <<= 1;
+            }
+            long high = Math.min(low + step, entries);
+            // The entry at low is less than the target, the entry at high is not.
+            while (high - low > 1) {
+                long middle = (low + high) >>> 1;
+                if (entryAt(middle) < target) low = middle;
+                else high = middle;
+            }
+            position = high;
+            return position < entries ? entryAt(position) : END;
+        }
+
+        @Override
+        long estimate() {
+            return entries;
+        }
+
+        /**
+         * Return the game number at a position of the index.
+         */
+        private int entryAt(long entry) {
+            if (entry < regionStart || entry > regionEnd) {
+                long position = entry * Integer.BYTES;
+                try {
+                    region = index.regionOf(position);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+                regionStart = (position - index.offsetOf(position)) / Integer.BYTES;
+                regionEnd = regionStart + region.capacity() / Integer.BYTES - 1;
+            }
+            return region.getInt((int) (entry - regionStart) * Integer.BYTES);
+        }
+    }
+
+    /**
+     * A cursor over the games of any of some cursors.
+     */
+    private static final class UnionCursor extends Cursor {
+
+        /* The cursors to merge. */
+        private final List<Cursor> cursors;
+
+        UnionCursor(List<Cursor> cursors) {
+            this.cursors = cursors;
+        }
+
+        @Override
+        int advance(int target) {
+            int next = END;
+            for (Cursor cursor : cursors) {
+                next = Math.min(next, cursor.advance(target));
+            }
+            return next;
+        }
+
+        @Override
+        long estimate() {
+            return cursors.stream().mapToLong(Cursor::estimate).sum();
+        }
+    }
+
+    /**
+     * A cursor over the games of all of some cursors. The cursor with the fewest games
+     * leads and the others skip to its games.
+     */
+    private static final class IntersectionCursor extends Cursor {
+
+        /* The cursors to intersect, the smallest first. */
+        private final List<Cursor> cursors;
+
+        IntersectionCursor(List<Cursor> cursors) {
+            this.cursors = new ArrayList<>(cursors);
+            this.cursors.sort(Comparator.comparingLong(Cursor::estimate));
+        }
+
+        @Override
+        int advance(int target) {
+            int candidate = target;
+            int matched = 0;
+            int current = 0;
+            while (matched < cursors.size()) {
+                int next = cursors.get(current).advance(candidate);
+                if (next == END) return END;
+                if (next == candidate) {
+                    matched++;
+                } else {
+                    candidate = next;
+                    matched = 1;
+                }
+                current = (current + 1) % cursors.size();
+            }
+            return candidate;
+        }
+
+        @Override
+        long estimate() {
+            return cursors.get(0).estimate();
+        }
+    }
+}
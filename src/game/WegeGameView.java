@@ -0,0 +1,173 @@
+package game;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * An immutable view of a running game of Wege for a bot, see {@link WegeBot}. It holds what
+ * both players can see: the board, the cards drawn and the moves played so far, the player to
+ * move, the cossack cards played, which cards are left but not their order, the legal moves of
+ * the drawn card and the time of the move.
+ */
+public final class WegeGameView {
+
+    /* The snapshot of the game board. */
+    private final WegeBoardSnapshot board;
+
+    /* Whether the land player plays the drawn card. */
+    private final boolean isLandTurn;
+
+    /* The number of cossack cards played by the land player. */
+    private final int landCossacks;
+
+    /* The number of cossack cards played by the water player. */
+    private final int waterCossacks;
+
+    /* The codes of the cards drawn before the drawn card, in the order they are drawn. */
+    private final byte[] playedCards;
+
+    /* The packed moves of the cards drawn before, PASS for a discarded card. */
+    private final int[] playedMoves;
+
+    /* The codes of the cards left after the drawn card, in ascending order. */
+    private final byte[] cardsLeft;
+
+    /* The legal moves of the drawn card, in row, column and orientation order. */
+    private final List<WegeMove> legalMoves;
+
+    /* The milliseconds the bot may take for the move. */
+    private final long moveMillis;
+
+    /* The milliseconds left on the clock of the bot for the rest of the game. */
+    private final long gameMillis;
+
+    /**
+     * Create a view of a game.
+     *
+     * @param board the snapshot of the game board.
+     * @param playedCards the codes of the cards drawn before the drawn card.
+     * @param playedMoves the packed moves of the cards drawn before.
+     * @param isLandTurn whether the land player plays the drawn card.
+     * @param landCossacks the number of cossack cards played by the land player.
+     * @param waterCossacks the number of cossack cards played by the water player.
+     * @param cardsLeft the codes of the cards left after the drawn card, in any order.
+     * @param legalMoves the legal moves of the drawn card.
+     * @param moveMillis the milliseconds the bot may take for the move.
+     * @param gameMillis the milliseconds left on the clock of the bot for the rest of the game.
+     */
+    public WegeGameView(WegeBoardSnapshot board, byte[] playedCards, int[] playedMoves, boolean isLandTurn,
+                        int landCossacks, int waterCossacks, byte[] cardsLeft, List<WegeMove> legalMoves,
+                        long moveMillis, long gameMillis) {
+        if (playedCards.length != playedMoves.length) throw new IllegalArgumentException("Invalid moves!");
+        this.board = board;
+        this.playedCards = playedCards.clone();
+        this.playedMoves = playedMoves.clone();
+        this.isLandTurn = isLandTurn;
+        this.landCossacks = landCossacks;
+        this.waterCossacks = waterCossacks;
+        // The order of the cards is hidden from the players.
+        this.cardsLeft = cardsLeft.clone();
+        Arrays.sort(this.cardsLeft);
+        this.legalMoves = List.copyOf(legalMoves);
+        this.moveMillis = moveMillis;
+        this.gameMillis = gameMillis;
+    }
+
+    /**
+     * Return the snapshot of the game board.
+     */
+    public WegeBoardSnapshot getBoard() {
+        return board;
+    }
+
+    /**
+     * Return the codes of the cards drawn before the drawn card, in the order they are drawn.
+     *
+     * @return a copy of the codes.
+     */
+    public byte[] getPlayedCards() {
+        return playedCards.clone();
+    }
+
+    /**
+     * Return the packed moves of the cards drawn before the drawn card, see {@link WegeMove#unpack(int)}.
+     *
+     * @return a copy of the moves, {@link WegeMove#PASS} for a discarded card.
+     */
+    public int[] getPlayedMoves() {
+        return playedMoves.clone();
+    }
+
+    /**
+     * Check if the land player plays the drawn card.
+     */
+    public boolean isLandTurn() {
+        return isLandTurn;
+    }
+
+    /**
+     * Return the number of cossack cards a player has played.
+     *
+     * @param isLandPlayer whether the player is the land player.
+     * @return the number of cossack cards.
+     */
+    public int getCossackCardsPlayed(boolean isLandPlayer) {
+        return isLandPlayer ? landCossacks : waterCossacks;
+    }
+
+    /**
+     * Return the codes of the cards left after the drawn card, in ascending order.
+     *
+     * @return a copy of the codes.
+     */
+    public byte[] getCardsLeft() {
+        return cardsLeft.clone();
+    }
+
+    /**
+     * Return the legal moves of the drawn card, in row, column and orientation order.
+     *
+     * @return the unmodifiable moves, empty if the card is discarded.
+     */
+    public List<WegeMove> getLegalMoves() {
+        return legalMoves;
+    }
+
+    /**
+     * Return the milliseconds the bot may take for the move.
+     */
+    public long getMoveMillis() {
+        return moveMillis;
+    }
+
+    /**
+     * Return the milliseconds left on the clock of the bot for the rest of the game.
+     */
+    public long getGameMillis() {
+        return gameMillis;
+    }
+
+    /**
+     * Create the position of the view before its next card is drawn, whose deck holds the cards
+     * left in any order.
+     *
+     * @return the position.
+     */
+    public WegePosition toPosition() {
+        return WegePosition.of(board, cardsLeft, isLandTurn, landCossacks, waterCossacks);
+    }
+
+    /**
+     * Create the position of the game for a search or a solver, see {@link WegePosition}.
+     * The cards left after the drawn card are in ascending order, not the order of the deck.
+     *
+     * @param card the drawn card.
+     * @return the position, whose next card is the drawn card.
+     */
+    public WegePosition toPosition(WegeBoardSnapshot.Card card) {
+        byte[] cards = new byte[cardsLeft.length + 1];
+        cards[0] = WegeRules.encodeCard(card);
+        System.arraycopy(cardsLeft, 0, cards, 1, cardsLeft.length);
+        return WegePosition.of(board, cards, isLandTurn, landCossacks, waterCossacks);
+    }
+}
@@ -0,0 +1,113 @@
+package game;
+
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A bot which plays the move with the best evaluation right after it, by default the score,
+ * see {@link WegeEvaluator}.
+ * On a small board it plays the endgames perfectly, with the best expected result of the game
+ * when the cards left are drawn in any order, see {@link WegeEndgameSolver}, as long as half of
+ * the time of its move is not used up. While the other player thinks, it solves the endgame of
+ * every card the other player can draw, so its own next move is found in the positions kept.
+ */
+public final class WegeGreedyBot implements WegeBot {
+
+    /* The evaluator of the positions after a move which is not solved. */
+    private final WegeEvaluator evaluator;
+
+    /* The solver of the endgames of the board size, or null. */
+    private WegeEndgameSolver solver;
+
+    /* What the bot found while it chose its last move. */
+    private volatile Info lastInfo;
+
+    /**
+     * Create a bot which plays the move with the best score.
+     */
+    public WegeGreedyBot() {
+        this(WegeEvaluator.SCORE);
+    }
+
+    /**
+     * Create a bot which plays the move with the best evaluation.
+     *
+     * @param evaluator the evaluator, for example of tuned weights, see {@link WegeEvaluator#load(java.nio.file.Path)}.
+     */
+    public WegeGreedyBot(WegeEvaluator evaluator) {
+        this.evaluator = evaluator;
+    }
+
+    @Override
+    public String getName() {
+        return "greedy";
+    }
+
+    @Override
+    public synchronized WegeMove chooseMove(WegeGameView view, WegeBoardSnapshot.Card card)
+            throws InterruptedException {
+        long start = System.nanoTime();
+        long solveNanos = TimeUnit.MILLISECONDS.toNanos(Math.min(view.getMoveMillis(), view.getGameMillis())) / 2;
+        List<WegeMove> moves = view.getLegalMoves();
+        if (moves.isEmpty()) return null;
+        WegePosition position = view.toPosition(card);
+        WegeEndgameSolver solver = findSolver(position);
+        // The solver plays the endgame on the position, where keeping the frontier only costs.
+        if (solver == null && evaluator.usesFrontier()) position.trackFrontier();
+        int sign = position.isLandTurn() ? 1 : -1;
+        WegeMove bestMove = moves.get(0);
+        double bestValue = Double.NEGATIVE_INFINITY;
+        boolean isSolved = true;
+        for (WegeMove move : moves) {
+            if (Thread.interrupted()) throw new InterruptedException();
+            position.play(move.pack());
+            boolean hasTime = System.nanoTime() - start < solveNanos;
+            double value;
+            try {
+                value = solver == null || !hasTime ? Double.NaN : solver.solve(position);
+            } catch (CancellationException e) {
+                throw new InterruptedException();
+            }
+            if (Double.isNaN(value)) {
+                value = evaluator.evaluate(position);
+                isSolved = false;
+            }
+            position.undo();
+            if (sign * value > bestValue) {
+                bestValue = sign * value;
+                bestMove = move;
+            }
+        }
+        // A solved move looks ahead to the end of the game, an evaluated move one card.
+        int depth = isSolved ? position.getMaxTurnsLeft() : 1;
+        lastInfo = new Info(depth, moves.size(), (System.nanoTime() - start) / 1_000_000, List.of(bestMove));
+        return bestMove;
+    }
+
+    @Override
+    public synchronized void ponder(WegeGameView view) {
+        WegePosition position = view.toPosition();
+        WegeEndgameSolver solver = findSolver(position);
+        if (solver != null && !position.isGameEnded()) solver.ponder(position);
+    }
+
+    @Override
+    public Info getLastInfo() {
+        return lastInfo;
+    }
+
+    /**
+     * Return the solver of the board size of a position, or <code>null</code> if the board is
+     * too large to solve its endgames.
+     */
+    private WegeEndgameSolver findSolver(WegePosition position) {
+        int rows = position.getRows();
+        int cols = position.getCols();
+        if (rows * cols > WegeEndgameSolver.MAX_BOARD_TILES) return null;
+        if (solver == null || solver.getRows() != rows || solver.getCols() != cols) {
+            solver = new WegeEndgameSolver(rows, cols, null, WegeEndgameSolver.LIVE_EMPTY_CELLS);
+        }
+        return solver;
+    }
+}
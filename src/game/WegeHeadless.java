@@ -0,0 +1,126 @@
+package game;
+
+import javafx.geometry.Pos;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.net.URISyntaxException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+import java.util.StringJoiner;
+import java.util.stream.Stream;
+
+/**
+ * The headless launch mode, which plays a round-robin tournament of engines without a window,
+ * see {@link WegeCLI#parseHeadlessArguments(List)} and {@link WegeTournament}. Each engine
+ * runs in its own processes from a pool, one for each game played at once, see
+ * {@link WegeEnginePool}.
+ *
+ * <p>An engine command <code>greedy</code> is the engine of {@link WegeGreedyBot} run on the
+ * class path of this application, and <code>greedy weights</code> is the same engine with the
+ * weights of a file, see {@link WegeTuner}.</p>
+ */
+public final class WegeHeadless {
+
+    /* The engine command of the greedy bot. */
+    public static final String GREEDY_ENGINE = "greedy";
+
+    private WegeHeadless() {}
+
+    /**
+     * Play a tournament of engines. The arguments are those of the headless launch mode of the
+     * game, where {@link WegeCLI#HEADLESS_OPTION} may be left out, so the engines can also be
+     * played on a box without a display, where the game window cannot start.
+     *
+     * @param args <code>--engine "command" --engine "command"... [--board rows cols] [--games n]
+     *             [--movetime ms] [--gametime ms] [--threads n] [--seed n] [--sprt elo0 elo1]
+     *             [--results file] [--ponder]</code>.
+     * @throws IOException if an engine cannot be started or the results cannot be written.
+     * @throws InterruptedException if the thread is interrupted.
+     */
+    public static void main(String[] args) throws IOException, InterruptedException {
+        List<String> applicationArguments = new ArrayList<>(Arrays.asList(args));
+        if (!WegeCLI.isHeadless(applicationArguments)) applicationArguments.add(0, WegeCLI.HEADLESS_OPTION);
+        WegeCLI.HeadlessArguments arguments;
+        try {
+            arguments = WegeCLI.parseHeadlessArguments(applicationArguments);
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            System.err.println("Usage: java game.WegeHeadless --engine \"command\" --engine \"command\"... "
+                    + "[--board rows cols] [--games n] [--movetime ms] [--gametime ms] [--threads n] [--seed n] "
+                    + "[--sprt elo0 elo1] [--results file] [--ponder]");
+            System.exit(2);
+            return;
+        }
+        run(arguments, System.out);
+    }
+
+    /**
+     * Play the tournament of the headless arguments and print the pairings and the standings.
+     *
+     * @param arguments the headless arguments.
+     * @param out the stream of the report.
+     * @return the report of the tournament.
+     * @throws IOException if an engine cannot be started or the results cannot be written.
+     * @throws InterruptedException if the thread is interrupted.
+     */
+    public static WegeTournament.Report run(WegeCLI.HeadlessArguments arguments, PrintStream out)
+            throws IOException, InterruptedException {
+        WegeTournament tournament = new WegeTournament(arguments.rows(), arguments.cols(), arguments.moveMillis(),
+                arguments.gameMillis(), arguments.seed(), arguments.sprt(), arguments.isPondering());
+        List<WegeEnginePool> pools = new ArrayList<>();
+        try {
+            for (List<String> command : arguments.engines()) {
+                WegeEnginePool pool = new WegeEnginePool(resolveCommand(command), arguments.threads());
+                pools.add(pool);
+                // The same command may be registered twice, so the entrants are numbered.
+                tournament.register(WegeTournament.Entrant.of(pools.size() + ":" + String.join(" ", command), pool));
+            }
+            WegeTournament.Report report = tournament.run(arguments.threads(), (arguments.games() + 1) / 2,
+                    arguments.results());
+            for (WegeTournament.Pairing pairing : report.pairings()) {
+                out.printf("%s vs %s: %d games, score %.3f, elo %+.1f +/- %.1f, llr %.2f %s%n",
+                        pairing.first(), pairing.second(), 2 * pairing.rounds(), pairing.score(), pairing.elo(),
+                        pairing.eloError(), pairing.llr(), pairing.decision());
+            }
+            for (WegeTournament.Standing standing : report.standings()) {
+                out.printf("%s: elo %+.1f +/- %.1f, %.1f/%d points, +%d =%d -%d, margin %+d, %d fallbacks, "
+                                + "%d ms per game%n", standing.name(), standing.elo(), standing.eloError(),
+                        standing.points(), standing.games(), standing.wins(), standing.draws(), standing.losses(),
+                        standing.margin(), standing.fallbacks(), standing.millis() / Math.max(standing.games(), 1));
+            }
+            return report;
+        } finally {
+            pools.forEach(WegeEnginePool::close);
+        }
+    }
+
+    /**
+     * Return the command of an engine, with {@link #GREEDY_ENGINE} and its weight file run on
+     * the class path of this application.
+     */
+    static List<String> resolveCommand(List<String> command) {
+        if (command.isEmpty() || !command.get(0).equals(GREEDY_ENGINE) || command.size() > 2) return command;
+        String java = Path.of(System.getProperty("java.home"), "bin", "java").toString();
+        // The locations of the game and of JavaFX, which is not on the class path of a JDK with JavaFX.
+        StringJoiner classPath = new StringJoiner(File.pathSeparator);
+        Stream.of(WegeEngine.class, Pos.class).map(type -> type.getProtectionDomain().getCodeSource())
+                .filter(Objects::nonNull)
+                .map(source -> {
+                    try {
+                        return Path.of(source.getLocation().toURI()).toString();
+                    } catch (URISyntaxException e) {
+                        throw new IllegalStateException("Invalid class location!", e);
+                    }
+                })
+                .distinct()
+                .forEach(classPath::add);
+        List<String> resolved = new ArrayList<>(List.of(java, "-cp", classPath.toString(), WegeEngine.class.getName()));
+        resolved.addAll(command.subList(1, command.size()));
+        return resolved;
+    }
+}
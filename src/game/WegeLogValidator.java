@@ -0,0 +1,268 @@
+package game;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * A validator of the logs of games submitted by clients, before they are trusted by the
+ * statistics or the ratings. Each game is replayed with the rules of {@link WegeRules}, the same
+ * rules as {@link WegeGameMaster#isLegalPlace(WegePlayingCard)} and
+ * {@link WegeGameMaster#isLegalSwap(WegePlayingCard)}, and its claimed scores are checked
+ * against the scores of the replayed board.
+ *
+ * <p>A game is rejected if:</p>
+ * <ul>
+ *     <li>{@link Status#MALFORMED}: its board size, its moves or its cards cannot be read, or it
+ *     draws a card which is not in its deck variant, see {@link WegeGameRecord#deckVariant()}.</li>
+ *     <li>{@link Status#ILLEGAL_MOVE}: a move breaks the rules, a turn is passed while the card
+ *     can be played, a card is played after the end of the game, or the card played after a
+ *     swap is not the replaced card, which the next player plays instead of drawing one.</li>
+ *     <li>{@link Status#UNFINISHED}: the game ends before the board is full or the deck is empty
+ *     and no replaced card is left to play.</li>
+ *     <li>{@link Status#WRONG_SCORE}: the claimed scores are not the scores of the board.</li>
+ * </ul>
+ *
+ * <p>The games of a {@link WegeGameStore} are read from its memory mapped files and validated
+ * by a parallel stream on a pool of threads of its own, which splits the games into chunks and
+ * steals chunks from busy threads. A game is replayed on a few small arrays of card codes, so
+ * it takes a few microseconds.</p>
+ */
+public final class WegeLogValidator {
+
+    /**
+     * The verdict of a game.
+     */
+    public enum Status {
+        VALID,
+        MALFORMED,
+        ILLEGAL_MOVE,
+        UNFINISHED,
+        WRONG_SCORE
+    }
+
+    /**
+     * The verdict of a game.
+     *
+     * @param game the number of the game.
+     * @param status the verdict.
+     * @param ply the index of the first move which is not valid, or -1 if every move is valid.
+     * @param landScore the land score of the replayed board, or -1 if the game is not replayed to the end.
+     * @param waterScore the water score of the replayed board, or -1 if the game is not replayed to the end.
+     */
+    public record Verdict(int game, Status status, int ply, int landScore, int waterScore) {}
+
+    /**
+     * The verdicts of the games of a store.
+     *
+     * @param games the number of games validated.
+     * @param valid the number of valid games.
+     * @param rejected the verdicts of the games which are not valid, by game number.
+     * @param millis the milliseconds of the validation.
+     */
+    public record Report(int games, int valid, List<Verdict> rejected, long millis) {
+
+        /**
+         * Return the number of games with a verdict.
+         */
+        public long count(Status status) {
+            if (status == Status.VALID) return valid;
+            return rejected.stream().filter(verdict -> verdict.status() == status).count();
+        }
+    }
+
+    /* The number of card codes, without the orientation. */
+    private static final int CARD_CODES = 1 << 6;
+
+    /* The number of cards of each code of the deck of each board size and deck variant, or an empty array if there is none. */
+    private final Map<Long, int[]> deckCounts = new ConcurrentHashMap<>();
+
+    /**
+     * Validate the games of a store and print the rejected games and the throughput.
+     *
+     * @param args <code>directory [threads]</code>, the directory of the store and the number of
+     *             threads, by default the number of processors.
+     * @throws IOException if the store cannot be read.
+     * @throws InterruptedException if the thread is interrupted.
+     */
+    public static void main(String[] args) throws IOException, InterruptedException {
+        if (args.length < 1 || args.length > 2) {
+            System.err.println("Usage: java game.WegeLogValidator directory [threads]");
+            System.exit(2);
+            return;
+        }
+        int threads = args.length > 1 ? Integer.parseInt(args[1]) : Runtime.getRuntime().availableProcessors();
+        try (WegeGameStore store = WegeGameStore.open(Path.of(args[0]))) {
+            Report report = new WegeLogValidator().validate(store, threads);
+            for (Verdict verdict : report.rejected()) {
+                System.out.printf("game %d: %s at ply %d%n", verdict.game(), verdict.status(), verdict.ply());
+            }
+            for (Status status : Status.values()) {
+                System.out.printf("%s: %d%n", status, report.count(status));
+            }
+            System.out.printf("%d games in %d ms, %.0f games per minute%n", report.games(), report.millis(),
+                    report.games() * 60_000.0 / Math.max(report.millis(), 1));
+        }
+    }
+
+    /**
+     * Validate all games of a store.
+     *
+     * @param store the store, to which no game is added during the validation. A game which
+     *              cannot be read is {@link Status#MALFORMED}.
+     * @param threads the number of threads.
+     * @return the report of the games.
+     * @throws InterruptedException if the thread is interrupted while waiting for the games.
+     */
+    public Report validate(WegeGameStore store, int threads) throws InterruptedException {
+        long start = System.nanoTime();
+        int games = store.size();
+        ForkJoinPool pool = new ForkJoinPool(threads);
+        try {
+            List<Verdict> rejected = pool.submit(() -> IntStream.range(0, games).parallel()
+                    .mapToObj(game -> {
+                        try {
+                            return validate(game, store.read(game));
+                        } catch (IOException e) {
+                            return new Verdict(game, Status.MALFORMED, -1, -1, -1);
+                        }
+                    })
+                    .filter(verdict -> verdict.status() != Status.VALID)
+                    .sorted(Comparator.comparingInt(Verdict::game))
+                    .collect(Collectors.toUnmodifiableList())).get();
+            return new Report(games, games - rejected.size(), rejected, (System.nanoTime() - start) / 1_000_000);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Validation failed!", e.getCause());
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    /**
+     * Validate a game. It can be called by many threads at once.
+     *
+     * @param game the number of the game.
+     * @param record the record of the game.
+     * @return the verdict of the game.
+     */
+    public Verdict validate(int game, WegeGameRecord record) {
+        int rows = record.rows();
+        int cols = record.cols();
+        int[] moves = record.moves();
+        byte[] drawn = record.cards();
+        if (rows < 1 || cols < 1 || moves.length != drawn.length) return new Verdict(game, Status.MALFORMED, -1, -1, -1);
+        int[] counts = findDeckCounts(rows, cols, record.deckVariant());
+        if (counts.length == 0) return new Verdict(game, Status.MALFORMED, -1, -1, -1);
+        counts = counts.clone();
+        int deckSize = IntStream.of(counts).sum();
+        byte[] cards = new byte[rows * cols];
+        byte[] points = new byte[(rows + 1) * (cols + 1)];
+        int cardsPlayed = 0;
+        int cardsDrawn = 0;
+        int held = WegeRules.EMPTY;
+        int[] cossacks = new int[2];
+        for (int ply = 0; ply < moves.length; ply++) {
+            int code = drawn[ply];
+            if (code <= WegeRules.EMPTY || code > CARD_CODES) return new Verdict(game, Status.MALFORMED, ply, -1, -1);
+            int normalized = WegeRules.rotate(code, WegeRules.TOP_LEFT);
+            if (held != WegeRules.EMPTY) {
+                // After a swap the next player plays the replaced card instead of drawing one.
+                if (normalized != held) return new Verdict(game, Status.ILLEGAL_MOVE, ply, -1, -1);
+                held = WegeRules.EMPTY;
+            } else {
+                if (--counts[normalized - 1] < 0) return new Verdict(game, Status.MALFORMED, ply, -1, -1);
+                cardsDrawn++;
+            }
+            if (cardsPlayed == rows * cols) return new Verdict(game, Status.ILLEGAL_MOVE, ply, -1, -1);
+            int move = moves[ply];
+            if (move == WegeMove.PASS) {
+                if (hasLegalMove(cards, points, rows, cols, cardsPlayed, code)) {
+                    return new Verdict(game, Status.ILLEGAL_MOVE, ply, -1, -1);
+                }
+                continue;
+            }
+            int row = move >>> 12;
+            int col = (move >>> 4) & 0xFF;
+            int orientation = (move >>> 2) & 3;
+            boolean isSwap = (move & 2) != 0;
+            if (move != WegeMove.pack(row, col, orientation, isSwap) || row >= rows || col >= cols) {
+                return new Verdict(game, Status.ILLEGAL_MOVE, ply, -1, -1);
+            }
+            int oriented = WegeRules.rotate(code, orientation);
+            boolean isLegal;
+            if (isSwap) {
+                isLegal = WegeRules.isLegalSwap(cards, points, 0, 1, cols, row, col, oriented);
+            } else {
+                isLegal = cards[row * cols + col] == WegeRules.EMPTY
+                        && (cardsPlayed == 0 || WegeRules.isLegalPlace(points, 0, 1, cols, row, col, oriented));
+            }
+            if (!isLegal) return new Verdict(game, Status.ILLEGAL_MOVE, ply, -1, -1);
+            if (isSwap) held = WegeRules.rotate(cards[row * cols + col], WegeRules.TOP_LEFT);
+            WegeRules.placeCard(cards, points, 0, 1, cols, row, col, oriented);
+            if (!isSwap) {
+                cardsPlayed++;
+                // The players take turns from the first card, land first.
+                if (WegeRules.cardTypeOf(code) == WegeRules.COSSACK) cossacks[ply & 1]++;
+            }
+        }
+        if (cardsPlayed < rows * cols && (cardsDrawn < deckSize || held != WegeRules.EMPTY)) {
+            return new Verdict(game, Status.UNFINISHED, moves.length, -1, -1);
+        }
+        int[] scores = new int[2];
+        WegeRules.score(cards, points, 0, 1, rows, cols, cossacks[0], cossacks[1],
+                new int[WegeRules.scratchSize(rows, cols)], scores);
+        Status status = scores[0] == record.landScore() && scores[1] == record.waterScore()
+                ? Status.VALID : Status.WRONG_SCORE;
+        return new Verdict(game, status, -1, scores[0], scores[1]);
+    }
+
+    /**
+     * Check if a card can be played anywhere on the board in any orientation.
+     *
+     * @see WegeArenaGame#hasLegalMove() the same rule on an arena game.
+     */
+    private static boolean hasLegalMove(byte[] cards, byte[] points, int rows, int cols, int cardsPlayed, int code) {
+        if (cardsPlayed == 0) return true;
+        boolean isBridge = WegeRules.cardTypeOf(code) == WegeRules.BRIDGE;
+        for (int row = 0; row < rows; row++) {
+            for (int col = 0; col < cols; col++) {
+                // A card can be rotated to match any contact point, and a played card always has one.
+                if (cards[row * cols + col] == WegeRules.EMPTY) {
+                    if (WegeRules.findContactCorner(points, 0, 1, cols, row, col) >= 0) return true;
+                } else if (isBridge && WegeRules.isSwappable(cards, points, 0, 1, cols, row, col)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Return the number of cards of each code of the deck of a board size and deck variant, by
+     * the code minus 1, or an empty array if the game cannot have such a deck.
+     */
+    private int[] findDeckCounts(int rows, int cols, int deckVariant) {
+        long key = (long) rows << 32 | (long) cols << 16 | deckVariant & 0xFFFF;
+        return deckCounts.computeIfAbsent(key, ignored -> {
+            int[] counts = new int[CARD_CODES];
+            try {
+                List<Integer> arguments = deckVariant == 0 ? List.of(rows, cols) : List.of(rows, cols, deckVariant);
+                // The order of the deck does not matter, only the number of cards of each code.
+                for (byte code : WegeRules.encodeDeck(WegeGameSetting.createGame(arguments, new SplittableRandom(0)).deck())) {
+                    counts[WegeRules.rotate(code, WegeRules.TOP_LEFT) - 1]++;
+                }
+            } catch (RuntimeException e) {
+                return new int[0];
+            }
+            return counts;
+        });
+    }
+}
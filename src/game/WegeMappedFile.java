@@ -0,0 +1,164 @@
+package game;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * An append-only file which is read through memory mapped regions. The file is
+ * split into regions of the same size, each mapped when it is first read and mapped
+ * again when it has grown since. A value written by {@link #append(ByteBuffer)} never
+ * crosses two regions, the rest of a region is left empty instead. Many threads may read a
+ * file at once while nothing is appended.
+ */
+final class WegeMappedFile implements Closeable {
+
+    /* The number of bytes of a region. */
+    private final int regionSize;
+
+    /* The channel of the file. */
+    private final FileChannel channel;
+
+    /*
+     * The mapped regions of the file, null until a region is read. The array is replaced and
+     * never changed once published, so readers take a region without a lock.
+     */
+    private volatile MappedByteBuffer[] regions = new MappedByteBuffer[0];
+
+    /* The number of bytes of the file. */
+    private long size;
+
+    /**
+     * Open a file, which is created if it does not exist.
+     *
+     * @param file the file to open.
+     * @param regionSize the number of bytes of a region, a multiple of 8.
+     * @throws IOException if the file cannot be opened.
+     */
+    WegeMappedFile(Path file, int regionSize) throws IOException {
+        this.regionSize = regionSize;
+        this.channel = FileChannel.open(file, StandardOpenOption.CREATE,
+                StandardOpenOption.READ, StandardOpenOption.WRITE);
+        this.size = channel.size();
+    }
+
+    /**
+     * Return the number of bytes of the file.
+     */
+    long size() {
+        return size;
+    }
+
+    /**
+     * Append the remaining bytes of a buffer to the end of the file. If they do not fit
+     * into the last region, they are written at the start of the next region.
+     *
+     * @param buffer the bytes to append, no more than the region size.
+     * @return the position of the bytes in the file.
+     * @throws IOException if the file cannot be written.
+     */
+    long append(ByteBuffer buffer) throws IOException {
+        long position = size;
+        long regionEnd = (position / regionSize + 1) * regionSize;
+        if (position + buffer.remaining() > regionEnd) position = regionEnd;
+        long start = position;
+        while (buffer.hasRemaining()) {
+            position += channel.write(buffer, position);
+        }
+        size = position;
+        return start;
+    }
+
+    /**
+     * Cut the file to a smaller size.
+     *
+     * @param newSize the new number of bytes of the file.
+     * @throws IOException if the file cannot be truncated.
+     */
+    void truncate(long newSize) throws IOException {
+        channel.truncate(newSize);
+        size = newSize;
+        // The mapped regions past the new end are stale.
+        regions = new MappedByteBuffer[0];
+    }
+
+    /**
+     * Return the mapped region which holds a position of the file. The region covers
+     * at least the bytes written so far.
+     *
+     * @param position a position before the end of the file.
+     * @return the region, its index 0 is at a multiple of the region size.
+     * @throws IOException if the region cannot be mapped.
+     */
+    ByteBuffer regionOf(long position) throws IOException {
+        int index = (int) (position / regionSize);
+        MappedByteBuffer[] mapped = regions;
+        long length = Math.min(regionSize, size - (long) index * regionSize);
+        if (isMapped(mapped, index, length)) return mapped[index];
+        return mapRegion(index, length);
+    }
+
+    /**
+     * Map a region which is not mapped yet or has grown, and publish it in a new array of the
+     * regions. Only the mapping takes a lock.
+     */
+    private synchronized MappedByteBuffer mapRegion(int index, long length) throws IOException {
+        MappedByteBuffer[] mapped = regions;
+        if (isMapped(mapped, index, length)) return mapped[index];
+        MappedByteBuffer region = channel.map(FileChannel.MapMode.READ_ONLY, (long) index * regionSize, length);
+        region.order(ByteOrder.LITTLE_ENDIAN);
+        mapped = Arrays.copyOf(mapped, Math.max(mapped.length, index + 1));
+        mapped[index] = region;
+        regions = mapped;
+        return region;
+    }
+
+    /**
+     * Check if a region is mapped with at least a length.
+     */
+    private static boolean isMapped(MappedByteBuffer[] mapped, int index, long length) {
+        return index < mapped.length && mapped[index] != null && mapped[index].capacity() >= length;
+    }
+
+    /**
+     * Return the offset of a position in its region.
+     */
+    int offsetOf(long position) {
+        return (int) (position % regionSize);
+    }
+
+    /**
+     * Read an <code>int</code> at a position.
+     */
+    int getInt(long position) throws IOException {
+        return regionOf(position).getInt(offsetOf(position));
+    }
+
+    /**
+     * Read a <code>long</code> at a position.
+     */
+    long getLong(long position) throws IOException {
+        return regionOf(position).getLong(offsetOf(position));
+    }
+
+    /**
+     * Force the written bytes to the storage device.
+     *
+     * @throws IOException if the file cannot be written.
+     */
+    void force() throws IOException {
+        channel.force(false);
+    }
+
+    @Override
+    public void close() throws IOException {
+        regions = new MappedByteBuffer[0];
+        channel.close();
+    }
+}
@@ -0,0 +1,67 @@
+package game;
+
+import javafx.geometry.Pos;
+
+/**
+ * A move of the game Wege: a card placed or swapped at a location with an orientation.
+ * A move can be packed into an <code>int</code>, so engines can store moves in primitive
+ * arrays, where {@link #PASS} stands for a turn passed because the card could not be played.
+ *
+ * @param row the row on the game board, less than 256.
+ * @param col the column on the game board, less than 256.
+ * @param orientation the orientation of the card.
+ * @param isSwap whether the card replaces the card at this location.
+ */
+public record WegeMove(int row, int col, Pos orientation, boolean isSwap) {
+
+    /* The packed value of a passed turn. */
+    public static final int PASS = 0;
+
+    /**
+     * Pack a move into an <code>int</code> which is never {@link #PASS}.
+     *
+     * @param row the row on the game board.
+     * @param col the column on the game board.
+     * @param orientation the orientation of the card, see {@link WegeRules#cornerOf(Pos)}.
+     * @param isSwap whether the card replaces the card at this location.
+     * @return the packed move.
+     */
+    public static int pack(int row, int col, int orientation, boolean isSwap) {
+        return row << 12 | col << 4 | orientation << 2 | (isSwap ? 2 : 0) | 1;
+    }
+
+    /**
+     * Unpack a move.
+     *
+     * @param packed the packed move.
+     * @return the move or <code>null</code> if the turn is passed.
+     */
+    public static WegeMove unpack(int packed) {
+        if (packed == PASS) return null;
+        return new WegeMove(packed >>> 12, (packed >>> 4) & 0xFF,
+                WegeRules.positionOf((packed >>> 2) & 3), (packed & 2) != 0);
+    }
+
+    /**
+     * Pack this move.
+     *
+     * @return the packed move.
+     */
+    public int pack() {
+        return pack(row, col, WegeRules.cornerOf(orientation), isSwap);
+    }
+
+    /**
+     * Play this move with a card on a game master.
+     *
+     * @param gameMaster the game master.
+     * @param card the card to play, its location and orientation are changed.
+     * @return <code>true</code> if the card is placed or swapped successfully.
+     */
+    public boolean play(WegeGameMaster gameMaster, WegePlayingCard card) {
+        card.setRow(row);
+        card.setCol(col);
+        card.setOrientation(orientation);
+        return isSwap ? gameMaster.trySwapCard(card) : gameMaster.tryPlaceCard(card);
+    }
+}
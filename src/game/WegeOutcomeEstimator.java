@@ -0,0 +1,292 @@
+package game;
+
+import java.util.*;
+
+/**
+ * Estimate the range of the final score of both players from the cards played so far
+ * on the game board and the cards left to play.
+ * <p>
+ * An intersection is sealed when every card around it is played and can no longer be
+ * replaced by a bridge card. A group of intersections joined by trails, which cannot
+ * be joined by any other intersection, is final when all of its intersections are sealed.
+ * The score of final groups never changes, so it is counted exactly as the lower bound.
+ * The upper bound adds the most that the rest of the game board and the cards left
+ * could still score.
+ */
+final class WegeOutcomeEstimator {
+
+    /* The game master who knows the rules of the game. */
+    private final WegeGameMaster gameMaster;
+
+    /* The playing board to estimate. */
+    private final WegePlayingBoard gameBoard;
+
+    /* The maximum x of the intersection grid on the game board. */
+    private final int maxX;
+
+    /* The maximum y of the intersection grid on the game board. */
+    private final int maxY;
+
+    /* Whether an intersection is in a final group of intersections. */
+    private final boolean[][] finalIntersections;
+
+    /**
+     * Create an estimator for the current state of a game.
+     *
+     * @param gameMaster the game master of the game.
+     * @param gameBoard the playing board of the game.
+     */
+    WegeOutcomeEstimator(WegeGameMaster gameMaster, WegePlayingBoard gameBoard) {
+        this.gameMaster = gameMaster;
+        this.gameBoard = gameBoard;
+        this.maxX = gameBoard.getRows();
+        this.maxY = gameBoard.getCols();
+        this.finalIntersections = new boolean[maxX + 1][maxY + 1];
+    }
+
+    /**
+     * Estimate the score bounds of both players.
+     *
+     * @param landPlayer the land player of the game.
+     * @param waterPlayer the water player of the game.
+     * @param cossacksLeft the cossack cards left to play.
+     * @param bridgesLeft the bridge cards left to play.
+     * @param gnomeCardsLeft the cards with a gnome left to play.
+     * @param gameEnded <code>true</code> if no card can be played anymore.
+     * @return the outcome of the game.
+     */
+    GameOutcome estimate(Player landPlayer,
+                         Player waterPlayer,
+                         int cossacksLeft,
+                         int bridgesLeft,
+                         int gnomeCardsLeft,
+                         boolean gameEnded) {
+        Player finalLand = new Player(true);
+        Player finalWater = new Player(false);
+        boolean[][] sealed = findSealedIntersections(gameEnded, bridgesLeft > 0);
+        boolean[][] grouped = new boolean[maxX + 1][maxY + 1];
+        for (int x = 0; x <= maxX; x++) {
+            for (int y = 0; y <= maxY; y++) {
+                Intersection intersection = gameBoard.findIntersection(x, y);
+                if (intersection == null || grouped[x][y]) continue;
+                List<Intersection> group = findJoinedIntersections(intersection, sealed, grouped);
+                if (group.stream().allMatch(i -> sealed[i.getX()][i.getY()])) {
+                    group.forEach(i -> finalIntersections[i.getX()][i.getY()] = true);
+                    collectFinalGroup(group, finalLand, finalWater);
+                }
+            }
+        }
+        // Everything which is not final can still score.
+        int openGnomes = 0;
+        int openInteriors = 0;
+        List<Intersection> openBoundary = new ArrayList<>();
+        if (!gameEnded) {
+            // A swapped card is played again, so it could bring its gnome once more.
+            int gnomesLeft = gnomeCardsLeft + bridgesLeft;
+            int singleGnomes = 0;
+            for (int x = 0; x <= maxX; x++) {
+                for (int y = 0; y <= maxY; y++) {
+                    if (finalIntersections[x][y]) continue;
+                    Intersection intersection = gameBoard.findIntersection(x, y);
+                    int gnomeCount = intersection == null ? 0 : intersection.getFacingGnomeCount();
+                    // A single gnome needs another gnome card, which is only placed on an empty location.
+                    if (gnomeCount > 1) openGnomes += gnomeCount;
+                    else if (gnomeCount == 1 && hasEmptyLocation(x, y)) singleGnomes++;
+                    if (x == 0 || x == maxX || y == 0 || y == maxY) openBoundary.add(new Intersection(x, y));
+                    else if (!sealed[x][y]) openInteriors++;
+                }
+            }
+            openGnomes += Math.min(singleGnomes, gnomesLeft) + gnomesLeft;
+        }
+        int reachableEdges = gameBoard.countEdgeTouch(openBoundary);
+        int futureCossacks = gameEnded ? 0 : cossacksLeft;
+        // The central ground of a player is made of trails of the other player.
+        int waterCentralGrounds = openInteriors + countSealedCentralGrounds(sealed, false);
+        int landCentralGrounds = openInteriors + countSealedCentralGrounds(sealed, true);
+        return new GameOutcome(
+                createBound(landPlayer, finalLand, reachableEdges, waterCentralGrounds, openGnomes, futureCossacks),
+                createBound(waterPlayer, finalWater, reachableEdges, landCentralGrounds, openGnomes, futureCossacks));
+    }
+
+    /**
+     * Create the score bound of a player.
+     *
+     * @param player the player of the game.
+     * @param finalPlayer the statistic of final groups for this player.
+     * @param reachableEdges the edges which can still be touched by a trail.
+     * @param openCentralGrounds the central grounds which could still be created.
+     * @param openGnomes the gnomes which can still face together.
+     * @param futureCossacks the cossack cards left to play.
+     * @return the score bound of the player.
+     */
+    private ScoreBound createBound(Player player,
+                                   Player finalPlayer,
+                                   int reachableEdges,
+                                   int openCentralGrounds,
+                                   int openGnomes,
+                                   int futureCossacks) {
+        for (int i = 0; i < player.getCossackCardsPlayed(); i++) {
+            finalPlayer.increaseCossackCardPlayed();
+        }
+        Score finalScore = finalPlayer.getGameScore();
+        int lowerBound = finalScore.total();
+        int maximumEdges = Math.max(finalPlayer.getMaximumEdgesTouched(), reachableEdges);
+        // A central ground needs at least one intersection not on the edges, and
+        // a gnome in a facing group is scored the same way as a central ground.
+        int upperBound = lowerBound
+                - finalScore.getSideConnectedScore()
+                + Score.scoreSideConnected(maximumEdges)
+                + Score.scoreCentralGround(openCentralGrounds)
+                + Score.scoreCentralGround(openGnomes)
+                + futureCossacks;
+        return new ScoreBound(player, lowerBound, upperBound);
+    }
+
+    /**
+     * Find intersections which can no longer change. When the game is ended, all
+     * intersections are sealed.
+     *
+     * @param gameEnded <code>true</code> if no card can be played anymore.
+     * @param canSwap <code>true</code> if there is a bridge card left to play.
+     * @return whether the intersection at each coordinate is sealed.
+     */
+    private boolean[][] findSealedIntersections(boolean gameEnded, boolean canSwap) {
+        boolean[][] sealed = new boolean[maxX + 1][maxY + 1];
+        for (int x = 0; x <= maxX; x++) {
+            for (int y = 0; y <= maxY; y++) {
+                if (gameBoard.findIntersection(x, y) == null) continue;
+                sealed[x][y] = gameEnded || isSurroundedByFinalCards(x, y, canSwap);
+            }
+        }
+        return sealed;
+    }
+
+    /**
+     * Check if every card around an intersection is played and cannot be replaced.
+     */
+    private boolean isSurroundedByFinalCards(int x, int y, boolean canSwap) {
+        for (int row = Math.max(x - 1, 0); row <= Math.min(x, maxX - 1); row++) {
+            for (int col = Math.max(y - 1, 0); col <= Math.min(y, maxY - 1); col++) {
+                if (gameBoard.findPlayedCard(row, col) == null) return false;
+                if (canSwap && gameMaster.isSwappable(row, col)) return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Count the groups of sealed intersections, which are not final, connecting land or water
+     * and not touching the edges. Sealed intersections of the same kind joined by a trail are
+     * always on the same trail, so each group could become at most one central ground.
+     *
+     * @param sealed whether the intersection at each coordinate is sealed.
+     * @param connectLand <code>true</code> to count groups connecting land.
+     * @return the number of central grounds the sealed intersections could still create.
+     */
+    private int countSealedCentralGrounds(boolean[][] sealed, boolean connectLand) {
+        boolean[][] grouped = new boolean[maxX + 1][maxY + 1];
+        int centralGrounds = 0;
+        for (int x = 0; x <= maxX; x++) {
+            for (int y = 0; y <= maxY; y++) {
+                if (!isOpenSealed(x, y, sealed, connectLand) || grouped[x][y]) continue;
+                boolean touchEdge = false;
+                Deque<Intersection> intersectionStack = new ArrayDeque<>();
+                intersectionStack.push(gameBoard.findIntersection(x, y));
+                grouped[x][y] = true;
+                while (!intersectionStack.isEmpty()) {
+                    Intersection nextPoint = intersectionStack.pop();
+                    int pointX = nextPoint.getX();
+                    int pointY = nextPoint.getY();
+                    touchEdge |= pointX == 0 || pointX == maxX || pointY == 0 || pointY == maxY;
+                    for (WegePlayingCard card : gameBoard.findSurroundCards(nextPoint)) {
+                        if (!WegeGameMaster.isValidTrail(nextPoint, card)) continue;
+                        Intersection oppositePoint = gameMaster.findOppositeIntersection(nextPoint, card);
+                        int oppositeX = oppositePoint.getX();
+                        int oppositeY = oppositePoint.getY();
+                        if (isOpenSealed(oppositeX, oppositeY, sealed, connectLand) && !grouped[oppositeX][oppositeY]) {
+                            grouped[oppositeX][oppositeY] = true;
+                            intersectionStack.push(oppositePoint);
+                        }
+                    }
+                }
+                if (!touchEdge) centralGrounds++;
+            }
+        }
+        return centralGrounds;
+    }
+
+    /**
+     * Check if an intersection is sealed, not final and connects land or water.
+     */
+    private boolean isOpenSealed(int x, int y, boolean[][] sealed, boolean connectLand) {
+        return sealed[x][y] && !finalIntersections[x][y]
+                && gameBoard.findIntersection(x, y).isConnectLand() == connectLand;
+    }
+
+    /**
+     * Check if a card can still be placed around an intersection.
+     */
+    private boolean hasEmptyLocation(int x, int y) {
+        for (int row = Math.max(x - 1, 0); row <= Math.min(x, maxX - 1); row++) {
+            for (int col = Math.max(y - 1, 0); col <= Math.min(y, maxY - 1); col++) {
+                if (gameBoard.findPlayedCard(row, col) == null) return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Find the group of intersections joined to an intersection by trails in any direction.
+     * An intersection which is not sealed may still become a trail, so it is joined to every
+     * card around it except a cossack card.
+     *
+     * @param start the intersection to start the group.
+     * @param sealed whether the intersection at each coordinate is sealed.
+     * @param grouped whether the intersection at each coordinate is in a group already.
+     * @return the intersections of the group.
+     */
+    private List<Intersection> findJoinedIntersections(Intersection start,
+                                                       boolean[][] sealed,
+                                                       boolean[][] grouped) {
+        List<Intersection> group = new ArrayList<>();
+        Deque<Intersection> intersectionStack = new ArrayDeque<>();
+        intersectionStack.push(start);
+        grouped[start.getX()][start.getY()] = true;
+        while (!intersectionStack.isEmpty()) {
+            Intersection nextPoint = intersectionStack.pop();
+            group.add(nextPoint);
+            for (WegePlayingCard card : gameBoard.findSurroundCards(nextPoint)) {
+                if (card.getCardType() == WegeCard.CardType.COSSACK) continue;
+                Intersection oppositePoint = gameMaster.findOppositeIntersection(nextPoint, card);
+                boolean joined = WegeGameMaster.isValidTrail(nextPoint, card)
+                        || WegeGameMaster.isValidTrail(oppositePoint, card)
+                        || !sealed[oppositePoint.getX()][oppositePoint.getY()];
+                if (joined && !grouped[oppositePoint.getX()][oppositePoint.getY()]) {
+                    grouped[oppositePoint.getX()][oppositePoint.getY()] = true;
+                    intersectionStack.push(oppositePoint);
+                }
+            }
+        }
+        return group;
+    }
+
+    /**
+     * Collect the statistic of a final group the same way the game master does
+     * at the end of the game, starting trails in the order of the intersection grid.
+     *
+     * @param group the intersections of the final group.
+     * @param finalLand the statistic of final groups for the land player.
+     * @param finalWater the statistic of final groups for the water player.
+     */
+    private void collectFinalGroup(List<Intersection> group, Player finalLand, Player finalWater) {
+        group.sort(Comparator.comparingInt(Intersection::getX).thenComparingInt(Intersection::getY));
+        Set<Intersection> visited = new HashSet<>();
+        for (Intersection intersection : group) {
+            if (visited.contains(intersection)) continue;
+            Player player = intersection.isConnectLand() ? finalLand : finalWater;
+            Player otherPlayer = intersection.isConnectLand() ? finalWater : finalLand;
+            List<Intersection> trail = gameMaster.travelTrail(intersection, player, visited::contains, visited::add);
+            gameMaster.collectEdges(trail, player, otherPlayer);
+        }
+    }
+}
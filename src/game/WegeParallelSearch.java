@@ -0,0 +1,223 @@
+package game;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * An alpha-beta search of a game of Wege on many threads which share one transposition table,
+ * see {@link WegeSearch} and {@link WegeTranspositionTable}.
+ *
+ * <ul>
+ *     <li>{@link Mode#LAZY_SMP} runs the main search on the calling thread and helper searches of
+ *     the same root on the other threads, with other depths and move orders. The threads do not
+ *     talk to each other: the helpers fill the table, and the main search finds their results
+ *     there. The result is the result of the main search.</li>
+ *     <li>{@link Mode#YOUNG_BROTHERS_WAIT} splits the moves of the root at each depth. The first
+ *     move, the eldest brother, is searched alone with the full window, then the other moves
+ *     are searched by all threads at the same time with a null window on the best value so far,
+ *     and searched again with a full window when they beat it.</li>
+ * </ul>
+ */
+public final class WegeParallelSearch {
+
+    /**
+     * The way the threads share the search.
+     */
+    public enum Mode {
+        LAZY_SMP,
+        YOUNG_BROTHERS_WAIT
+    }
+
+    /* A value larger than the value of any position. */
+    private static final int INFINITY = 30000;
+
+    /* The shared transposition table. */
+    private final WegeTranspositionTable table;
+
+    /* The number of threads. */
+    private final int threads;
+
+    /* The way the threads share the search. */
+    private final Mode mode;
+
+    /**
+     * Create a parallel search.
+     *
+     * @param table the shared transposition table.
+     * @param threads the number of threads, including the calling thread.
+     * @param mode the way the threads share the search.
+     */
+    public WegeParallelSearch(WegeTranspositionTable table, int threads, Mode mode) {
+        if (threads < 1) throw new IllegalArgumentException("Invalid number of threads!");
+        this.table = table;
+        this.threads = threads;
+        this.mode = mode;
+    }
+
+    /**
+     * Search a position to the end of the game.
+     *
+     * @param position the position, which is the same when the search returns.
+     * @return the result, which is solved.
+     */
+    public WegeSearch.Result solve(WegePosition position) {
+        return search(position, position.getMaxTurnsLeft());
+    }
+
+    /**
+     * Search a position one depth at a time, until a depth or the end of the game.
+     *
+     * @param position the position, which is the same when the search returns.
+     * @param maxDepth the largest number of moves searched ahead.
+     * @return the result of the deepest search, with the positions searched by all threads.
+     * @throws IllegalStateException if the game is ended.
+     */
+    public WegeSearch.Result search(WegePosition position, int maxDepth) {
+        if (position.isGameEnded()) throw new IllegalStateException("Game is ended!");
+        if (threads == 1) return new WegeSearch(table).search(position, maxDepth);
+        ExecutorService executor = Executors.newFixedThreadPool(threads - 1);
+        try {
+            return mode == Mode.LAZY_SMP
+                    ? searchLazy(executor, position, maxDepth)
+                    : searchYoungBrothers(executor, position, maxDepth);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Search is interrupted!", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Search failed!", e.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Run the main search on this thread and the helper searches on the executor, and stop the
+     * helpers when the main search is done.
+     */
+    private WegeSearch.Result searchLazy(ExecutorService executor, WegePosition position, int maxDepth)
+            throws InterruptedException, ExecutionException {
+        List<WegeSearch> helpers = new ArrayList<>();
+        List<Future<WegeSearch.Result>> futures = new ArrayList<>();
+        for (int helper = 1; helper < threads; helper++) {
+            WegeSearch search = new WegeSearch(table, helper);
+            WegePosition copy = position.copy();
+            helpers.add(search);
+            futures.add(executor.submit(() -> search.search(copy, maxDepth)));
+        }
+        WegeSearch.Result result = new WegeSearch(table).search(position, maxDepth);
+        long nodes = result.nodes();
+        for (int i = 0; i < helpers.size(); i++) {
+            helpers.get(i).stop();
+            nodes += futures.get(i).get().nodes();
+        }
+        return new WegeSearch.Result(result.move(), result.value(), result.depth(), result.isSolved(), nodes);
+    }
+
+    /**
+     * Search each depth by searching the eldest move of the root alone, then the younger moves
+     * on all threads.
+     */
+    private WegeSearch.Result searchYoungBrothers(ExecutorService executor, WegePosition position, int maxDepth)
+            throws InterruptedException, ExecutionException {
+        WegeSearch[] searches = new WegeSearch[threads];
+        WegePosition[] positions = new WegePosition[threads];
+        for (int i = 0; i < threads; i++) {
+            searches[i] = new WegeSearch(table);
+            searches[i].prepare(position);
+            positions[i] = i == 0 ? position : position.copy();
+        }
+        int[] moves = new int[position.maxMoves()];
+        int count = position.generateMoves(moves);
+        WegeSearch.Result result = null;
+        for (int depth = 1; depth <= Math.max(maxDepth, 1); depth++) {
+            moveFirst(moves, count, WegeTranspositionTable.moveOf(table.probe(position.getHash())));
+            Split split = new Split(searches[0].searchMove(position, moves[0], depth, -INFINITY, INFINITY),
+                    moves[0], !searches[0].isHorizonReached());
+            AtomicInteger next = new AtomicInteger(1);
+            List<Future<?>> futures = new ArrayList<>();
+            for (int i = 1; i < threads; i++) {
+                WegeSearch search = searches[i];
+                WegePosition copy = positions[i];
+                int splitDepth = depth;
+                futures.add(executor.submit(() -> searchYoungerMoves(search, copy, moves, count, next, splitDepth, split)));
+            }
+            searchYoungerMoves(searches[0], position, moves, count, next, depth, split);
+            for (Future<?> future : futures) {
+                future.get();
+            }
+            table.store(position.getHash(), split.isSolved ? WegeTranspositionTable.SOLVED : depth,
+                    split.value, WegeTranspositionTable.EXACT, split.move);
+            long nodes = 0;
+            for (WegeSearch search : searches) {
+                nodes += search.getNodes();
+            }
+            result = new WegeSearch.Result(split.move, split.value, depth, split.isSolved, nodes);
+            if (split.isSolved) break;
+        }
+        return result;
+    }
+
+    /**
+     * Take the younger moves of the root one by one and search them, until all are taken.
+     */
+    private static void searchYoungerMoves(WegeSearch search, WegePosition position, int[] moves, int count,
+                                           AtomicInteger next, int depth, Split split) {
+        for (int i = next.getAndIncrement(); i < count; i = next.getAndIncrement()) {
+            int alpha = split.getValue();
+            int value = search.searchMove(position, moves[i], depth, alpha, alpha + 1);
+            if (value > alpha) value = search.searchMove(position, moves[i], depth, alpha, INFINITY);
+            split.update(moves[i], value, !search.isHorizonReached());
+        }
+    }
+
+    /**
+     * Move a move to the front of the moves, if it is one of them.
+     */
+    private static void moveFirst(int[] moves, int count, int move) {
+        for (int i = 1; i < count; i++) {
+            if (moves[i] == move) {
+                moves[i] = moves[0];
+                moves[0] = move;
+                return;
+            }
+        }
+    }
+
+    /**
+     * The best move and value found so far by the threads which share the moves of the root.
+     */
+    private static final class Split {
+
+        /* The best value. */
+        private int value;
+
+        /* The best move. */
+        private int move;
+
+        /* Whether every move searched so far is searched to the end of the game. */
+        private boolean isSolved;
+
+        Split(int value, int move, boolean isSolved) {
+            this.value = value;
+            this.move = move;
+            this.isSolved = isSolved;
+        }
+
+        synchronized int getValue() {
+            return value;
+        }
+
+        synchronized void update(int move, int value, boolean isSolved) {
+            this.isSolved &= isSolved;
+            if (value > this.value) {
+                this.value = value;
+                this.move = move;
+            }
+        }
+    }
+}
@@ -0,0 +1,210 @@
+package game;
+
+import javafx.geometry.Pos;
+
+import java.util.Arrays;
+
+/**
+ * A pattern of 3 x 3 locations of the game board to search in archived games. Each location
+ * of the pattern is empty, has a card of a type in an orientation, or is not part of the pattern.
+ *
+ * <p>A board shows the orientation of a card by the diagonal its colours run along, so an
+ * orientation matches the same orientation rotated twice, and gnomes are not part of a pattern.
+ * Each matching location is a symbol of 4 bits, and a 3 x 3 window of the board is a key of
+ * 36 bits with the symbol of location <code>(row, col)</code> at bit <code>4 * (row * 3 + col)</code>.
+ * A pattern matches a window in any of the 8 rotations and reflections of the board.</p>
+ */
+public final class WegePattern {
+
+    /* The number of rows and columns of a pattern. */
+    public static final int SIZE = 3;
+
+    /* The symbol of an empty location. */
+    static final int EMPTY = 0;
+
+    /* The symbol of a location which is not part of the pattern. */
+    static final int ANY = -1;
+
+    /* The number of bits of a symbol. */
+    static final int SYMBOL_BITS = 4;
+
+    /*
+     * The location of a window which moves to each location under each symmetry,
+     * and whether the symmetry swaps the two diagonals of a card.
+     */
+    private static final int[][] SYMMETRY_CELLS = new int[8][SIZE * SIZE];
+    private static final boolean[] SYMMETRY_FLIPS = new boolean[8];
+
+    static {
+        for (int symmetry = 0; symmetry < 8; symmetry++) {
+            for (int row = 0; row < SIZE; row++) {
+                for (int col = 0; col < SIZE; col++) {
+                    // Reflect on the main diagonal first, then rotate clockwise.
+                    int r = (symmetry & 4) != 0 ? col : row;
+                    int c = (symmetry & 4) != 0 ? row : col;
+                    for (int turn = 0; turn < (symmetry & 3); turn++) {
+                        int rotated = c;
+                        c = SIZE - 1 - r;
+                        r = rotated;
+                    }
+                    SYMMETRY_CELLS[symmetry][r * SIZE + c] = row * SIZE + col;
+                }
+            }
+            // A quarter turn swaps the diagonals, the reflection on the main diagonal keeps them.
+            SYMMETRY_FLIPS[symmetry] = (symmetry & 1) != 0;
+        }
+    }
+
+    /* The symbol of each location, or ANY. */
+    private final int[] symbols = new int[SIZE * SIZE];
+
+    /**
+     * Create a pattern without any location.
+     */
+    public WegePattern() {
+        Arrays.fill(symbols, ANY);
+    }
+
+    /**
+     * Add a card to the pattern.
+     *
+     * @param row the row in the pattern.
+     * @param col the column in the pattern.
+     * @param cardType the type of the card.
+     * @param orientation the orientation of the card.
+     * @return this pattern.
+     */
+    public WegePattern card(int row, int col, WegeCard.CardType cardType, Pos orientation) {
+        symbols[row * SIZE + col] = symbolOf(WegeRules.encodeCard(cardType.ordinal(),
+                WegeRules.cornerOf(orientation), WegeRules.NO_GNOME));
+        return this;
+    }
+
+    /**
+     * Add an empty location to the pattern.
+     *
+     * @param row the row in the pattern.
+     * @param col the column in the pattern.
+     * @return this pattern.
+     */
+    public WegePattern empty(int row, int col) {
+        symbols[row * SIZE + col] = EMPTY;
+        return this;
+    }
+
+    /**
+     * Check if every location is part of the pattern.
+     */
+    boolean isExact() {
+        return Arrays.stream(symbols).noneMatch(symbol -> symbol == ANY);
+    }
+
+    /**
+     * Return the key of the pattern.
+     *
+     * @throws IllegalStateException if the pattern is not exact.
+     */
+    long key() {
+        if (!isExact()) throw new IllegalStateException("Pattern is not exact!");
+        long key = 0;
+        for (int cell = 0; cell < symbols.length; cell++) {
+            key |= (long) symbols[cell] << SYMBOL_BITS * cell;
+        }
+        return key;
+    }
+
+    /**
+     * Check if the pattern matches a window in any symmetry.
+     *
+     * @param key the key of the window.
+     */
+    boolean matches(long key) {
+        for (int symmetry = 0; symmetry < 8; symmetry++) {
+            if (matchesAsIs(transform(key, symmetry))) return true;
+        }
+        return false;
+    }
+
+    /**
+     * Return the symbols of the pattern turned by a symmetry, which match a window as it is
+     * if and only if the pattern matches the window turned by that symmetry.
+     *
+     * @param symmetry the symmetry, from 0 to 7.
+     * @return the symbol of each location, or {@link #ANY}.
+     */
+    int[] symbolsOf(int symmetry) {
+        int[] transformed = new int[symbols.length];
+        for (int cell = 0; cell < symbols.length; cell++) {
+            int symbol = symbols[cell];
+            if (SYMMETRY_FLIPS[symmetry] && symbol != ANY && symbol != EMPTY) symbol = ((symbol - 1) ^ 1) + 1;
+            transformed[SYMMETRY_CELLS[symmetry][cell]] = symbol;
+        }
+        return transformed;
+    }
+
+    /**
+     * Check if the pattern matches a window as it is.
+     */
+    private boolean matchesAsIs(long key) {
+        for (int cell = 0; cell < symbols.length; cell++) {
+            int symbol = (int) (key >>> SYMBOL_BITS * cell) & 0xF;
+            if (symbols[cell] != ANY && symbols[cell] != symbol) return false;
+        }
+        return true;
+    }
+
+    /**
+     * Return the symbol of a location.
+     *
+     * @param code the code of the card at the location, or {@link WegeRules#EMPTY}.
+     * @return {@link #EMPTY} or the card type and the diagonal of its colours, from 1 to 8.
+     */
+    static int symbolOf(int code) {
+        if (code == WegeRules.EMPTY) return EMPTY;
+        return 1 + (WegeRules.cardTypeOf(code) << 1 | WegeRules.orientationOf(code) & 1);
+    }
+
+    /**
+     * Return the key of a window of the game board.
+     *
+     * @param cards the location codes of the board.
+     * @param cols the number of columns of the board.
+     * @param row the top row of the window.
+     * @param col the left column of the window.
+     */
+    static long keyOf(byte[] cards, int cols, int row, int col) {
+        long key = 0;
+        for (int r = 0; r < SIZE; r++) {
+            for (int c = 0; c < SIZE; c++) {
+                key |= (long) symbolOf(cards[(row + r) * cols + col + c]) << SYMBOL_BITS * (r * SIZE + c);
+            }
+        }
+        return key;
+    }
+
+    /**
+     * Return the smallest key of a window in all symmetries, which is the same for all
+     * windows which are rotations or reflections of each other.
+     */
+    static long canonicalKeyOf(long key) {
+        long canonical = key;
+        for (int symmetry = 1; symmetry < 8; symmetry++) {
+            canonical = Math.min(canonical, transform(key, symmetry));
+        }
+        return canonical;
+    }
+
+    /**
+     * Rotate or reflect a window.
+     */
+    private static long transform(long key, int symmetry) {
+        long transformed = 0;
+        for (int cell = 0; cell < SIZE * SIZE; cell++) {
+            int symbol = (int) (key >>> SYMBOL_BITS * SYMMETRY_CELLS[symmetry][cell]) & 0xF;
+            // The other diagonal of the same card type.
+            if (SYMMETRY_FLIPS[symmetry] && symbol != EMPTY) symbol = ((symbol - 1) ^ 1) + 1;
+            transformed |= (long) symbol << SYMBOL_BITS * cell;
+        }
+        return transformed;
+    }
+}
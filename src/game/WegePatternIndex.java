@@ -0,0 +1,352 @@
+package game;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * An inverted index of the 3 x 3 windows reached in archived games, to find the games which
+ * reached a {@link WegePattern} without replaying them. The games are replayed once when they
+ * are added: after the first move every window of the board, and after each later move the
+ * windows around the location of the card, are keyed by their canonical key, see
+ * {@link WegePattern#canonicalKeyOf(long)}. The first move of each game which reached a key
+ * is added to the posting list of that key.
+ *
+ * <p>A posting list holds pairs of a game number and a move number, in ascending game order.
+ * Each pair is compressed as the difference to the previous game number and the move number,
+ * both as variable length integers of 7 bits per byte. A pattern with locations which are not
+ * part of it matches all keys it matches in any symmetry, and their posting lists are merged.
+ * The keys are also listed by the symbol at each location, so such a pattern only checks the
+ * keys of the shortest list of its locations in each symmetry instead of all keys.</p>
+ */
+public final class WegePatternIndex {
+
+    /* The first bytes of an index file. */
+    private static final int FILE_MAGIC = 0x57455049;
+
+    /* The posting list of each canonical key. */
+    private final Map<Long, PostingList> postings = new HashMap<>();
+
+    /* The canonical keys with each symbol at each location, at location << SYMBOL_BITS | symbol. */
+    private final List<List<Long>> keysByLocation = new ArrayList<>();
+
+    /* The number of the last game added. */
+    private int lastGame = -1;
+
+    /**
+     * A game and the first move after which the game reached a pattern.
+     *
+     * @param game the number of the game.
+     * @param move the number of the move, from 0.
+     */
+    public record Match(int game, int move) {}
+
+    /**
+     * Create an index without any game.
+     */
+    public WegePatternIndex() {
+        for (int i = 0; i < WegePattern.SIZE * WegePattern.SIZE << WegePattern.SYMBOL_BITS; i++) {
+            keysByLocation.add(new ArrayList<>());
+        }
+    }
+
+    /**
+     * Create an index of all games of a store.
+     *
+     * @param store the store with the games.
+     * @return the index.
+     * @throws IOException if a game cannot be read.
+     */
+    public static WegePatternIndex build(WegeGameStore store) throws IOException {
+        WegePatternIndex index = new WegePatternIndex();
+        for (int game = 0; game < store.size(); game++) {
+            index.addGame(game, store.read(game));
+        }
+        return index;
+    }
+
+    /**
+     * Replay a game and add the windows it reached.
+     *
+     * @param number the number of the game, larger than the games added so far.
+     * @param game the record of the game.
+     * @throws IllegalArgumentException if the game is not added after the last game.
+     */
+    public void addGame(int number, WegeGameRecord game) {
+        if (number <= lastGame) throw new IllegalArgumentException("Game " + number + " is already indexed!");
+        lastGame = number;
+        int rows = game.rows();
+        int cols = game.cols();
+        if (rows < WegePattern.SIZE || cols < WegePattern.SIZE) return;
+        byte[] cards = new byte[rows * cols];
+        Map<Long, Boolean> reached = new HashMap<>();
+        for (int move = 0; move < game.moves().length; move++) {
+            int packed = game.moves()[move];
+            int minTop = 0;
+            int maxTop = rows - WegePattern.SIZE;
+            int minLeft = 0;
+            int maxLeft = cols - WegePattern.SIZE;
+            if (packed != WegeMove.PASS) {
+                WegeMove played = WegeMove.unpack(packed);
+                int row = played.row();
+                int col = played.col();
+                cards[row * cols + col] = WegeRules.rotate(game.cards()[move], WegeRules.cornerOf(played.orientation()));
+                // After the first move, only the windows which cover the location changed.
+                if (move > 0) {
+                    minTop = Math.max(row - 2, 0);
+                    maxTop = Math.min(row, maxTop);
+                    minLeft = Math.max(col - 2, 0);
+                    maxLeft = Math.min(col, maxLeft);
+                }
+            } else if (move > 0) {
+                continue;
+            }
+            for (int top = minTop; top <= maxTop; top++) {
+                for (int left = minLeft; left <= maxLeft; left++) {
+                    long key = WegePattern.canonicalKeyOf(WegePattern.keyOf(cards, cols, top, left));
+                    if (reached.putIfAbsent(key, Boolean.TRUE) == null) {
+                        postingListOf(key).add(number, move);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Find the games which reached a pattern.
+     *
+     * @param pattern the pattern.
+     * @return the games in ascending order, with the first move which reached the pattern.
+     */
+    public List<Match> find(WegePattern pattern) {
+        List<PostingList> lists = new ArrayList<>();
+        if (pattern.isExact()) {
+            PostingList list = postings.get(WegePattern.canonicalKeyOf(pattern.key()));
+            if (list != null) lists.add(list);
+        } else {
+            for (long key : findKeys(pattern)) {
+                lists.add(postings.get(key));
+            }
+        }
+        // Merge the lists, keeping the first move of each game.
+        Map<Integer, Integer> firstMoves = new HashMap<>();
+        for (PostingList list : lists) {
+            list.forEach((game, move) -> firstMoves.merge(game, move, Math::min));
+        }
+        return firstMoves.entrySet().stream()
+                .map(e -> new Match(e.getKey(), e.getValue()))
+                .sorted((a, b) -> Integer.compare(a.game(), b.game()))
+                .toList();
+    }
+
+    /**
+     * Find the games which reached all of some patterns, not necessarily at the same time.
+     *
+     * @param patterns the patterns.
+     * @return the numbers of the games in ascending order.
+     */
+    public int[] findGames(WegePattern... patterns) {
+        int[] games = null;
+        for (WegePattern pattern : patterns) {
+            int[] found = find(pattern).stream().mapToInt(Match::game).toArray();
+            games = games == null ? found : intersect(games, found);
+        }
+        return games == null ? new int[0] : games;
+    }
+
+    /**
+     * Return the number of distinct windows reached in the games.
+     */
+    public int size() {
+        return postings.size();
+    }
+
+    /**
+     * Write the index to a file, which is replaced if it exists.
+     *
+     * @param file the file to write.
+     * @throws IOException if the file cannot be written.
+     */
+    public void write(Path file) throws IOException {
+        try (DataOutputStream output = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(file)))) {
+            output.writeInt(FILE_MAGIC);
+            output.writeInt(lastGame);
+            output.writeInt(postings.size());
+            for (Map.Entry<Long, PostingList> entry : postings.entrySet()) {
+                PostingList list = entry.getValue();
+                output.writeLong(entry.getKey());
+                output.writeInt(list.lastGame);
+                output.writeInt(list.length);
+                output.write(list.bytes, 0, list.length);
+            }
+        }
+    }
+
+    /**
+     * Read an index written by {@link #write(Path)}.
+     *
+     * @param file the file to read.
+     * @return the index.
+     * @throws IOException if the file cannot be read or is not a pattern index.
+     */
+    public static WegePatternIndex read(Path file) throws IOException {
+        try (DataInputStream input = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            if (input.readInt() != FILE_MAGIC) throw new IOException("File is not a pattern index!");
+            WegePatternIndex index = new WegePatternIndex();
+            index.lastGame = input.readInt();
+            int keys = input.readInt();
+            for (int i = 0; i < keys; i++) {
+                long key = input.readLong();
+                PostingList list = new PostingList();
+                list.lastGame = input.readInt();
+                list.length = input.readInt();
+                list.bytes = new byte[list.length];
+                input.readFully(list.bytes);
+                index.postings.put(key, list);
+                index.addKey(key);
+            }
+            return index;
+        }
+    }
+
+    /**
+     * Return the posting list of a canonical key, which is created if the key is new.
+     */
+    private PostingList postingListOf(long key) {
+        PostingList list = postings.get(key);
+        if (list == null) {
+            list = new PostingList();
+            postings.put(key, list);
+            addKey(key);
+        }
+        return list;
+    }
+
+    /**
+     * List a new canonical key by the symbol at each of its locations.
+     */
+    private void addKey(long key) {
+        for (int cell = 0; cell < WegePattern.SIZE * WegePattern.SIZE; cell++) {
+            int symbol = (int) (key >>> WegePattern.SYMBOL_BITS * cell) & 0xF;
+            keysByLocation.get(cell << WegePattern.SYMBOL_BITS | symbol).add(key);
+        }
+    }
+
+    /**
+     * Find the canonical keys which a pattern with locations not part of it matches.
+     */
+    private Set<Long> findKeys(WegePattern pattern) {
+        Set<Long> keys = new HashSet<>();
+        for (int symmetry = 0; symmetry < 8; symmetry++) {
+            // The keys of the location of the pattern with the fewest keys in this symmetry.
+            int[] symbols = pattern.symbolsOf(symmetry);
+            List<Long> candidates = null;
+            for (int cell = 0; cell < symbols.length; cell++) {
+                if (symbols[cell] == WegePattern.ANY) continue;
+                List<Long> list = keysByLocation.get(cell << WegePattern.SYMBOL_BITS | symbols[cell]);
+                if (candidates == null || list.size() < candidates.size()) candidates = list;
+            }
+            if (candidates == null) return postings.keySet();
+            for (long key : candidates) {
+                if (!keys.contains(key) && pattern.matches(key)) keys.add(key);
+            }
+        }
+        return keys;
+    }
+
+    /**
+     * Return the games in both of two ascending arrays.
+     */
+    private static int[] intersect(int[] first, int[] second) {
+        int[] games = new int[Math.min(first.length, second.length)];
+        int count = 0;
+        for (int i = 0, j = 0; i < first.length && j < second.length; ) {
+            if (first[i] < second[j]) i++;
+            else if (first[i] > second[j]) j++;
+            else {
+                games[count++] = first[i];
+                i++;
+                j++;
+            }
+        }
+        return Arrays.copyOf(games, count);
+    }
+
+    /**
+     * A compressed list of games and moves in ascending game order.
+     */
+    private static final class PostingList {
+
+        /* The compressed pairs. */
+        private byte[] bytes = new byte[8];
+
+        /* The number of bytes used. */
+        private int length;
+
+        /* The number of the last game in the list. */
+        private int lastGame;
+
+        /**
+         * Add a game after the last game of the list.
+         */
+        void add(int game, int move) {
+            writeVarint(length == 0 ? game : game - lastGame);
+            writeVarint(move);
+            lastGame = game;
+        }
+
+        /**
+         * Pass every game and move of the list to a consumer.
+         */
+        void forEach(MatchConsumer consumer) {
+            int game = 0;
+            int position = 0;
+            while (position < length) {
+                int value = 0;
+                for (int shift = 0; ; shift += 7) {
+                    byte b = bytes[position++];
+                    value |= (b & 0x7F) << shift;
+                    if (b >= 0) break;
+                }
+                game += value;
+                int move = 0;
+                for (int shift = 0; ; shift += 7) {
+                    byte b = bytes[position++];
+                    move |= (b & 0x7F) << shift;
+                    if (b >= 0) break;
+                }
+                consumer.accept(game, move);
+            }
+        }
+
+        /**
+         * Write a value with 7 bits per byte, the high bit set on all bytes but the last.
+         */
+        private void writeVarint(int value) {
+            if (bytes.length - length < 5) bytes = Arrays.copyOf(bytes, bytes.length * 2);
+            while ((value & ~0x7F) != 0) {
+                bytes[length++] = (byte) (value & 0x7F | 0x80);
+                value >>>= 7;
+            }
+            bytes[length++] = (byte) value;
+        }
+    }
+
+    /**
+     * A consumer of a game and a move.
+     */
+    private interface MatchConsumer {
+        void accept(int game, int move);
+    }
+}
@@ -0,0 +1,335 @@
+package game;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.stream.LongStream;
+
+/**
+ * A table of the prior quality of moves by their local pattern, for rollout policies which
+ * play a game to its end without a search. Unlike {@link WegePattern}, which searches archived
+ * games, the pattern of a move is the neighbourhood of its location alone: the colour of the
+ * 2 x 2 intersections around the location, which of them face a single gnome, which sides of
+ * the location are on the edge of the board, and the player to move. The pattern and the card
+ * code with its orientation make the index of a <code>short</code> in a flat array, so the
+ * quality of a move takes four loads of intersection codes and one load of the table.
+ *
+ * <p>The table is built offline from games of self-play of greedy bots, see
+ * {@link WegeEvaluator}: the quality of an index is how often a move of that index was chosen
+ * of the times it was legal, smoothed towards the rate of all moves. A rollout chooses each
+ * move at random with a chance proportional to its quality, so it plays like the greedy bots
+ * without evaluating a position. A table never changes, so it can be shared by threads.</p>
+ */
+public final class WegePatternTable {
+
+    /* The number of indexes of the table: 17 bits of pattern and 6 bits of card. */
+    public static final int SIZE = 1 << 23;
+
+    /* The quality of a move which is always chosen. */
+    public static final int MAX_QUALITY = 1 << 14;
+
+    /* The first bytes of a table file. */
+    private static final int FILE_MAGIC = 0x57455054;
+
+    /* The number of bits of the card of an index. */
+    private static final int CARD_BITS = 6;
+
+    /* The bits of the card of a swap, whose gnome bits are never used by a card. */
+    private static final int SWAP_CARD = 3 << 4;
+
+    /* The number of moves of the rate of all moves added to the statistics of each index. */
+    private static final int PRIOR_MOVES = 4;
+
+    /* The quality of each index. */
+    private final short[] qualities;
+
+    /**
+     * Create a table.
+     *
+     * @param qualities the quality of each index, from 1 to {@link #MAX_QUALITY}.
+     * @throws IllegalArgumentException if there is not one quality for each index, or a quality is not positive.
+     */
+    public WegePatternTable(short[] qualities) {
+        if (qualities.length != SIZE) throw new IllegalArgumentException("Invalid size of pattern table!");
+        for (short quality : qualities) {
+            if (quality <= 0) throw new IllegalArgumentException("Invalid quality!");
+        }
+        this.qualities = qualities.clone();
+    }
+
+    /**
+     * Build a table from games of self-play and write it to a file.
+     *
+     * @param args <code>rows cols games file [threads] [seed] [weights]</code>, the board size,
+     *             the number of games, the table file, the number of threads, by default the
+     *             number of processors, the seed and the weight file of the greedy bots, by
+     *             default the score alone.
+     * @throws IOException if the weight file cannot be read or the table cannot be written.
+     * @throws InterruptedException if the thread is interrupted.
+     */
+    public static void main(String[] args) throws IOException, InterruptedException {
+        if (args.length < 4 || args.length > 7) {
+            System.err.println("Usage: java game.WegePatternTable rows cols games file [threads] [seed] [weights]");
+            System.exit(2);
+            return;
+        }
+        int rows = Integer.parseInt(args[0]);
+        int cols = Integer.parseInt(args[1]);
+        long games = Long.parseLong(args[2]);
+        Path file = Path.of(args[3]);
+        int threads = args.length > 4 ? Integer.parseInt(args[4]) : Runtime.getRuntime().availableProcessors();
+        long seed = args.length > 5 ? Long.parseLong(args[5]) : 0;
+        WegeEvaluator evaluator = args.length > 6 ? WegeEvaluator.load(Path.of(args[6])) : WegeEvaluator.SCORE;
+        long start = System.nanoTime();
+        Builder builder = new Builder();
+        builder.addSelfPlay(new WegeSimulator(rows, cols, 0, seed), evaluator, games, threads);
+        WegePatternTable table = builder.build();
+        table.write(file);
+        System.out.printf("Wrote %d patterns seen in %d games to %s in %d ms%n", builder.countSeen(), games, file,
+                (System.nanoTime() - start) / 1_000_000);
+    }
+
+    /**
+     * Read a table from a file.
+     *
+     * @param file the file.
+     * @return the table.
+     * @throws IOException if the file cannot be read or is not a pattern table.
+     */
+    public static WegePatternTable read(Path file) throws IOException {
+        try (DataInputStream input = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            if (input.readInt() != FILE_MAGIC || input.readInt() != SIZE) {
+                throw new IOException("File is not a pattern table!");
+            }
+            byte[] bytes = new byte[2 * SIZE];
+            input.readFully(bytes);
+            short[] qualities = new short[SIZE];
+            ByteBuffer.wrap(bytes).asShortBuffer().get(qualities);
+            return new WegePatternTable(qualities);
+        }
+    }
+
+    /**
+     * Write this table to a file.
+     *
+     * @param file the file.
+     * @throws IOException if the file cannot be written.
+     */
+    public void write(Path file) throws IOException {
+        try (DataOutputStream output = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(file)))) {
+            output.writeInt(FILE_MAGIC);
+            output.writeInt(SIZE);
+            ByteBuffer bytes = ByteBuffer.allocate(2 * SIZE);
+            bytes.asShortBuffer().put(qualities);
+            output.write(bytes.array());
+        }
+    }
+
+    /**
+     * Return the index of a move of a card in the table.
+     *
+     * @param position the position before the move.
+     * @param move the packed move, not {@link WegeMove#PASS}.
+     * @param card the code of the card, its orientation does not matter.
+     * @return the index.
+     */
+    public static int indexOf(WegePosition position, int move, int card) {
+        int row = move >>> 12;
+        int col = (move >>> 4) & 0xFF;
+        int pattern = 0;
+        for (int corner = WegeRules.TOP_LEFT; corner <= WegeRules.BOTTOM_LEFT; corner++) {
+            // The corners clockwise from top left: (row, col), (row, col + 1), (row + 1, col + 1), (row + 1, col).
+            int x = row + (corner >>> 1);
+            int y = col + (((corner + 1) >>> 1) & 1);
+            int code = position.findPoint(x, y);
+            if ((code & WegeRules.POINT_EXISTS) == 0) continue;
+            pattern |= ((code & WegeRules.POINT_LAND) != 0 ? 2 : 1) << (2 * corner);
+            if ((code & 0xFF) >>> WegeRules.POINT_GNOME_SHIFT == 1) pattern |= 1 << (8 + corner);
+        }
+        if (row == 0) pattern |= 1 << 12;
+        if (col == position.getCols() - 1) pattern |= 1 << 13;
+        if (row == position.getRows() - 1) pattern |= 1 << 14;
+        if (col == 0) pattern |= 1 << 15;
+        if (position.isLandTurn()) pattern |= 1 << 16;
+        int cardBits = WegeRules.rotate(card, (move >>> 2) & 3) - 1;
+        if ((move & 2) != 0) cardBits |= SWAP_CARD;
+        return pattern << CARD_BITS | cardBits;
+    }
+
+    /**
+     * Return the quality of a move of a card.
+     *
+     * @param position the position before the move.
+     * @param move the packed move, not {@link WegeMove#PASS}.
+     * @param card the code of the card.
+     * @return the quality, from 1 to {@link #MAX_QUALITY}.
+     */
+    public int quality(WegePosition position, int move, int card) {
+        return qualities[indexOf(position, move, card)];
+    }
+
+    /**
+     * Choose a move of the next card at random, with a chance proportional to its quality.
+     *
+     * @param position the position.
+     * @param moves the legal moves of the next card.
+     * @param count the number of legal moves.
+     * @param random the generator of the rollout.
+     * @return the packed move.
+     */
+    public int chooseMove(WegePosition position, int[] moves, int count, SplittableRandom random) {
+        if (count == 1) return moves[0];
+        int card = position.peekCard();
+        int[] weights = new int[count];
+        int sum = 0;
+        for (int i = 0; i < count; i++) {
+            sum += quality(position, moves[i], card);
+            weights[i] = sum;
+        }
+        int chosen = random.nextInt(sum);
+        int i = 0;
+        while (weights[i] <= chosen) {
+            i++;
+        }
+        return moves[i];
+    }
+
+    /**
+     * Play a position to the end of the game with the moves of this table, and take the moves back.
+     *
+     * @param position the position, which is the same when the rollout returns.
+     * @param random the generator of the rollout, see {@link WegeRandom.Purpose#ROLLOUT}.
+     * @return the land score minus the water score at the end of the game.
+     */
+    public int rollout(WegePosition position, SplittableRandom random) {
+        int[] moves = new int[position.maxMoves()];
+        int played = 0;
+        while (!position.isGameEnded()) {
+            int count = position.generateMoves(moves);
+            position.play(chooseMove(position, moves, count, random));
+            played++;
+        }
+        int value = position.evaluate();
+        for (int i = 0; i < played; i++) {
+            position.undo();
+        }
+        return value;
+    }
+
+    /**
+     * The statistics of the moves of games of self-play. Games can be added by many threads at once.
+     */
+    public static final class Builder {
+
+        /* The number of times a move of each index was legal. */
+        private final AtomicIntegerArray seen = new AtomicIntegerArray(SIZE);
+
+        /* The number of times a move of each index was chosen. */
+        private final AtomicIntegerArray chosen = new AtomicIntegerArray(SIZE);
+
+        /**
+         * Add games of self-play of greedy bots with an evaluator on the decks of a simulator.
+         *
+         * @param simulator the simulator of the decks.
+         * @param evaluator the evaluator of both bots.
+         * @param games the number of games.
+         * @param threads the number of threads to play the games.
+         * @throws InterruptedException if the thread is interrupted while waiting for the games.
+         */
+        public void addSelfPlay(WegeSimulator simulator, WegeEvaluator evaluator, long games, int threads)
+                throws InterruptedException {
+            ForkJoinPool pool = new ForkJoinPool(threads);
+            try {
+                pool.submit(() -> LongStream.range(0, games).parallel()
+                        .forEach(game -> addGame(WegeRules.encodeDeck(simulator.createDeck(game)),
+                                simulator.getRows(), simulator.getCols(), evaluator))).get();
+            } catch (ExecutionException e) {
+                throw new IllegalStateException("Self-play failed!", e.getCause());
+            } finally {
+                pool.shutdown();
+            }
+        }
+
+        /**
+         * Add a game of self-play of greedy bots.
+         *
+         * @param deck the card codes of the deck in the order they are drawn.
+         * @param rows the number of rows of the game board.
+         * @param cols the number of columns of the game board.
+         * @param evaluator the evaluator of both bots.
+         */
+        public void addGame(byte[] deck, int rows, int cols, WegeEvaluator evaluator) {
+            WegePosition position = new WegePosition(rows, cols, deck);
+            if (evaluator.usesFrontier()) position.trackFrontier();
+            int[] moves = new int[position.maxMoves()];
+            while (!position.isGameEnded()) {
+                int count = position.generateMoves(moves);
+                int move = WegeTuner.chooseMove(evaluator, position, moves, count);
+                // A move without a choice tells nothing about its quality.
+                if (count > 1) add(position, moves, count, move);
+                position.play(move);
+            }
+        }
+
+        /**
+         * Add a choice of a move of the next card.
+         *
+         * @param position the position before the move.
+         * @param moves the legal moves.
+         * @param count the number of legal moves.
+         * @param move the move chosen.
+         */
+        public void add(WegePosition position, int[] moves, int count, int move) {
+            int card = position.peekCard();
+            for (int i = 0; i < count; i++) {
+                int index = indexOf(position, moves[i], card);
+                seen.incrementAndGet(index);
+                if (moves[i] == move) chosen.incrementAndGet(index);
+            }
+        }
+
+        /**
+         * Return the number of indexes of the moves which were legal at least once.
+         */
+        public int countSeen() {
+            int count = 0;
+            for (int i = 0; i < SIZE; i++) {
+                if (seen.get(i) > 0) count++;
+            }
+            return count;
+        }
+
+        /**
+         * Build the table of the statistics added so far. The quality of an index is its rate of
+         * moves chosen, with {@link #PRIOR_MOVES} moves of the rate of all moves added, so an
+         * index seen a few times does not get an extreme quality and an index never seen gets
+         * the rate of all moves.
+         *
+         * @return the table.
+         */
+        public WegePatternTable build() {
+            long allSeen = 0;
+            long allChosen = 0;
+            for (int i = 0; i < SIZE; i++) {
+                allSeen += seen.get(i);
+                allChosen += chosen.get(i);
+            }
+            double prior = allSeen == 0 ? 0.5 : (double) allChosen / allSeen;
+            short[] qualities = new short[SIZE];
+            for (int i = 0; i < SIZE; i++) {
+                double rate = (chosen.get(i) + PRIOR_MOVES * prior) / (seen.get(i) + PRIOR_MOVES);
+                qualities[i] = (short) Math.max(1, Math.round(rate * MAX_QUALITY));
+            }
+            return new WegePatternTable(qualities);
+        }
+    }
+}
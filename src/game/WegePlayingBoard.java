@@ -21,6 +21,21 @@ public class WegePlayingBoard {
     /* The maximum y of the intersection grid on the game board. */
     private final int maxY;
 
+    /* The number of locations on the game board which have a card. */
+    private int cardsPlayed;
+
+    /*
+     * The number of locations on the frontier of the game board. An empty location is on
+     * the frontier when it has a first contact point, where any card can be rotated to fit.
+     */
+    private int frontierCount;
+
+    /* Whether each location is on the frontier. */
+    private final boolean[][] onFrontier;
+
+    /* The latest snapshot of this board, published for readers on other threads. */
+    private volatile WegeBoardSnapshot snapshot;
+
     /**
      * Create a new game board for the game Wege.
      *
@@ -32,6 +47,8 @@ public class WegePlayingBoard {
         this.intersectionGrid = new Intersection[rows + 1][cols + 1];
         this.maxX = intersectionGrid.length - 1;
         this.maxY = intersectionGrid[0].length - 1;
+        this.onFrontier = new boolean[rows][cols];
+        this.snapshot = WegeBoardSnapshot.createEmpty(rows, cols);
     }
 
     /**
@@ -44,6 +61,9 @@ public class WegePlayingBoard {
     public void placeCardOnBoard(WegePlayingCard card) {
         int row = card.getRow();
         int col = card.getCol();
+        if (cardsOnBoard[row][col] == null) {
+            cardsPlayed++;
+        }
         cardsOnBoard[row][col] = card;
         List<Intersection> surroundIntersections = getAssociateIntersections(card);
         for (Intersection intersection : surroundIntersections) {
@@ -52,6 +72,56 @@ public class WegePlayingBoard {
                 intersection.increaseFacingGnomeCount();
             }
         }
+        updateFrontier(row, col);
+        snapshot = snapshot.placeCard(card, surroundIntersections, cardsPlayed);
+    }
+
+    /**
+     * Get the latest snapshot of this board. The snapshot never changes, so it can be
+     * read from any thread while cards are placed on this board.
+     *
+     * @return the snapshot taken after the last card was placed.
+     */
+    public WegeBoardSnapshot getSnapshot() {
+        return snapshot;
+    }
+
+    /**
+     * Return the number of rows of the game board.
+     */
+    public int getRows() {
+        return cardsOnBoard.length;
+    }
+
+    /**
+     * Return the number of columns of the game board.
+     */
+    public int getCols() {
+        return cardsOnBoard[0].length;
+    }
+
+    /**
+     * Return the number of locations on the game board which have a card.
+     */
+    public int getCardsPlayed() {
+        return cardsPlayed;
+    }
+
+    /**
+     * Return <code>true</code> if every location on the game board has a card.
+     */
+    public boolean isFull() {
+        return cardsPlayed == getRows() * getCols();
+    }
+
+    /**
+     * Count the empty locations on the game board which have a first contact point.
+     *
+     * @return the number of empty locations where a card can be placed.
+     * @see #findFirstConnection(int, int) the first contact point of a location.
+     */
+    public int countFrontier() {
+        return frontierCount;
     }
 
     /**
@@ -70,6 +140,22 @@ public class WegePlayingBoard {
         }
     }
 
+    /**
+     * Find an intersection on the intersection grid of the game board.
+     *
+     * @param x the x coordinate on the intersection grid.
+     * @param y the y coordinate on the intersection grid.
+     * @return the intersection or <code>null</code> if no card is played
+     * around the given coordinate.
+     */
+    public Intersection findIntersection(int x, int y) {
+        try {
+            return intersectionGrid[x][y];
+        } catch (IndexOutOfBoundsException ignored) {
+            return null;
+        }
+    }
+
     /**
      * Find the first intersection which can be used for card connection
      * around a location on the game board.
@@ -265,6 +351,25 @@ public class WegePlayingBoard {
         return intersections;
     }
 
+    /**
+     * Refresh the frontier of the locations around a card just placed.
+     * Only the locations sharing an intersection with that card can change.
+     *
+     * @param row the row of the placed card.
+     * @param col the column of the placed card.
+     */
+    private void updateFrontier(int row, int col) {
+        int lastRow = Math.min(row + 1, cardsOnBoard.length - 1);
+        int lastCol = Math.min(col + 1, cardsOnBoard[0].length - 1);
+        for (int r = Math.max(row - 1, 0); r <= lastRow; r++) {
+            for (int c = Math.max(col - 1, 0); c <= lastCol; c++) {
+                boolean isFrontier = cardsOnBoard[r][c] == null && findFirstConnection(r, c) != null;
+                if (isFrontier != onFrontier[r][c]) frontierCount += isFrontier ? 1 : -1;
+                onFrontier[r][c] = isFrontier;
+            }
+        }
+    }
+
     /**
      * Get the coordinate within the game board boundary.
      */
@@ -0,0 +1,870 @@
+package game;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+/**
+ * A position of a game of Wege with a known deck, for engines which search the game tree.
+ * The board is stored as card and intersection codes, see {@link WegeRules}, and the cards
+ * are drawn from the deck in order, except that after a swap the next player plays the
+ * replaced card instead of drawing one, see {@link #getHeldCard()}. A move is played with
+ * {@link #play(int)} and taken back with {@link #undo()}, so a search walks the tree on one
+ * position without creating objects.
+ *
+ * <p>The position keeps a Zobrist hash of everything which decides the rest of the game: the
+ * card codes, the intersection codes, the cards left in the deck in their order, the card held
+ * after a swap, the player to move and the cossacks of each player.
+ * The intersections are part of the hash because their facing gnome counts are not undone when
+ * a bridge replaces a card, so they do not follow from the cards. Positions of the same board
+ * size use the same keys, so their hashes can share a transposition table, even when their
+ * decks are not the same.</p>
+ *
+ * <p>The position counts a few things of the frontier of the board for {@link WegeEvaluator}:
+ * the empty locations whose first contact point connects land or water, the intersections
+ * facing a single gnome next to an empty location, and the intersections next to a cossack
+ * card. By default they are counted over the whole board when they are asked for after a move.
+ * A position evaluated after every move can track them instead, see {@link #trackFrontier()},
+ * and then updates them from the locations and intersections around each move, like the
+ * frontier counters of {@link WegePlayingBoard}. Searches and solvers which only score do not
+ * pay for them. The position also counts the cards left of each type.</p>
+ *
+ * <p>The moves are packed, see {@link WegeMove#pack(int, int, int, boolean)}, and
+ * {@link WegeMove#PASS} discards a card which cannot be played. A position must only be used
+ * by one thread.</p>
+ */
+public final class WegePosition {
+
+    /* The seed of the Zobrist keys, the same for all positions. */
+    private static final long KEY_SEED = 0x5745474550L;
+
+    /* The number of key slots of a location, more than the largest card code. */
+    private static final int CARD_KEYS = 64;
+
+    /* The number of key slots of an intersection, one for each byte value. */
+    private static final int POINT_KEYS = 256;
+
+    /* The indexes of the frontier counts, each for land and then water. */
+    private static final int OPEN_CORNERS = 0;
+    private static final int OPEN_GNOMES = 2;
+    private static final int COSSACK_POINTS = 4;
+    private static final int FRONTIER_COUNTS = 6;
+
+    /* The index of the count of the cards with a gnome left, after the counts of the card types. */
+    private static final int GNOME_CARDS = 4;
+
+    /* The number of rows of the game board. */
+    private final int rows;
+
+    /* The number of columns of the game board. */
+    private final int cols;
+
+    /* The card codes of the deck in the order they are drawn. */
+    private final byte[] deck;
+
+    /* The location codes. */
+    private final byte[] cards;
+
+    /* The intersection codes. */
+    private final byte[] points;
+
+    /* The keys of each card code at each location. */
+    private final long[] cardKeys;
+
+    /* The keys of each intersection code at each intersection. */
+    private final long[] pointKeys;
+
+    /* The keys of the cards left after each number of cards drawn, in their order. */
+    private final long[] deckKeys;
+
+    /* The keys of each number of cossacks, at twice the number for the land player and one more for water. */
+    private final long[] cossackKeys;
+
+    /* The keys of each card code held after a swap, 0 for no card held. */
+    private final long[] heldKeys;
+
+    /* The key of the water player to move. */
+    private final long sideKey;
+
+    /* The location changed by each move played, or -1 for a pass. */
+    private final int[] undoCells;
+
+    /* The card code replaced by each move played. */
+    private final byte[] undoCards;
+
+    /* The card code played by each move. */
+    private final byte[] playedCards;
+
+    /* The card code held before each move played. */
+    private final byte[] undoHeldCards;
+
+    /* The four intersection codes around the location of each move played, as an int. */
+    private final int[] undoPoints;
+
+    /* The hash before each move played. */
+    private final long[] undoHashes;
+
+    /* The frontier counts before each move played, or null if the frontier is not tracked. */
+    private int[] undoFrontier;
+
+    /* The moves played. */
+    private final int[] playedMoves;
+
+    /* The number of moves played on this position. */
+    private int ply;
+
+    /* The number of cards drawn from the deck. */
+    private int deckPosition;
+
+    /* The number of turns taken, by the cards drawn before this position and the moves played. */
+    private int turn;
+
+    /* The card code replaced by the last move if it was a swap, which the next player plays instead of drawing. */
+    private byte heldCard;
+
+    /* The number of locations which have a card. */
+    private int cardsPlayed;
+
+    /* The number of cossack cards played by the land player. */
+    private int landCossacks;
+
+    /* The number of cossack cards played by the water player. */
+    private int waterCossacks;
+
+    /* The Zobrist hash. */
+    private long hash;
+
+    /* The frontier counts of the board. */
+    private final int[] frontier = new int[FRONTIER_COUNTS];
+
+    /* Whether the frontier counts are updated by each move, see trackFrontier(). */
+    private boolean isTrackingFrontier;
+
+    /* Whether the frontier counts are the counts of the board, which a move not tracked changes. */
+    private boolean isFrontierCounted = true;
+
+    /* The number of cards left in the deck and held of each card type, then of the cards with a gnome. */
+    private final int[] cardsLeftCounts = new int[GNOME_CARDS + 1];
+
+    /* The scratch array to score the board. */
+    private final int[] scoreScratch;
+
+    /* The land score and the water score of the board just scored. */
+    private final int[] scores = new int[2];
+
+    /**
+     * Create the position of a new game with an empty board.
+     *
+     * @param rows the number of rows of the game board.
+     * @param cols the number of columns of the game board.
+     * @param deck the card codes of the deck in the order they are drawn.
+     */
+    public WegePosition(int rows, int cols, byte[] deck) {
+        this(rows, cols, deck, 0);
+    }
+
+    /**
+     * Create a position with an empty board and some cards already drawn.
+     */
+    private WegePosition(int rows, int cols, byte[] deck, int deckPosition) {
+        this(rows, cols, deck, deckPosition, null);
+    }
+
+    /**
+     * Create a position with an empty board and some cards already drawn, with the keys of
+     * another position of the same board size and deck, or new keys if it is <code>null</code>.
+     */
+    private WegePosition(int rows, int cols, byte[] deck, int deckPosition, WegePosition keys) {
+        if (rows <= 0 || cols <= 0 || rows > 255 || cols > 255) throw new IllegalArgumentException("Invalid board size!");
+        this.rows = rows;
+        this.cols = cols;
+        this.deck = keys == null ? deck.clone() : deck;
+        this.cards = new byte[rows * cols];
+        this.points = new byte[(rows + 1) * (cols + 1)];
+        if (keys != null) {
+            this.cardKeys = keys.cardKeys;
+            this.pointKeys = keys.pointKeys;
+            this.deckKeys = keys.deckKeys;
+            this.cossackKeys = keys.cossackKeys;
+            this.heldKeys = keys.heldKeys;
+            this.sideKey = keys.sideKey;
+        } else {
+            // Each kind of key has its own generator, so the keys only depend on the board size.
+            this.cardKeys = new SplittableRandom(KEY_SEED).longs((long) cards.length * CARD_KEYS).toArray();
+            this.pointKeys = new SplittableRandom(KEY_SEED + 1).longs((long) points.length * POINT_KEYS).toArray();
+            // A card code has a key for each number of cards after it, so the same cards left share a key.
+            long[] orderKeys = new SplittableRandom(KEY_SEED + 2).longs((long) deck.length * CARD_KEYS).toArray();
+            this.deckKeys = new long[deck.length + 1];
+            for (int i = deck.length - 1; i >= 0; i--) {
+                deckKeys[i] = deckKeys[i + 1] ^ orderKeys[(deck.length - 1 - i) * CARD_KEYS + deck[i]];
+            }
+            this.cossackKeys = new SplittableRandom(KEY_SEED + 3).longs(2L * (cards.length + 1)).toArray();
+            this.heldKeys = new SplittableRandom(KEY_SEED + 4).longs(CARD_KEYS).toArray();
+            this.sideKey = new SplittableRandom(KEY_SEED + 5).nextLong();
+            heldKeys[WegeRules.EMPTY] = 0;
+            for (int i = 0; i < cards.length; i++) {
+                cardKeys[i * CARD_KEYS] = 0;
+            }
+            for (int i = 0; i < points.length; i++) {
+                pointKeys[i * POINT_KEYS] = 0;
+            }
+        }
+        // A card of the deck takes two turns at most, when it is replaced and played again.
+        int maxPly = 2 * (deck.length - deckPosition) + 1;
+        this.undoCells = new int[maxPly];
+        this.undoCards = new byte[maxPly];
+        this.playedCards = new byte[maxPly];
+        this.undoHeldCards = new byte[maxPly];
+        this.undoPoints = new int[maxPly];
+        this.undoHashes = new long[maxPly];
+        this.playedMoves = new int[maxPly];
+        this.scoreScratch = new int[WegeRules.scratchSize(rows, cols)];
+        this.deckPosition = deckPosition;
+        this.turn = deckPosition;
+        this.hash = deckKeys[deckPosition] ^ cossackKeys[0] ^ cossackKeys[1] ^ (isLandTurn() ? 0 : sideKey);
+        for (int i = deckPosition; i < deck.length; i++) {
+            countCardLeft(deck[i], 1);
+        }
+    }
+
+    /**
+     * Create the position of a game on a game board.
+     *
+     * @param board the snapshot of the game board.
+     * @param cardsLeft the card codes left in the deck, starting with the card to play next.
+     * @param isLandTurn whether the land player plays the next card.
+     * @param landCossacks the number of cossack cards played by the land player.
+     * @param waterCossacks the number of cossack cards played by the water player.
+     * @return the position, where no move can be undone.
+     * @see WegeGameMaster#getBoardSnapshot()
+     */
+    public static WegePosition of(WegeBoardSnapshot board, byte[] cardsLeft, boolean isLandTurn,
+                                  int landCossacks, int waterCossacks) {
+        // Cards drawn before are not known, only the parity of their number.
+        int cardsDrawn = isLandTurn ? 0 : 1;
+        byte[] deck = new byte[cardsDrawn + cardsLeft.length];
+        System.arraycopy(cardsLeft, 0, deck, cardsDrawn, cardsLeft.length);
+        WegePosition position = new WegePosition(board.getRows(), board.getCols(), deck, cardsDrawn);
+        for (int row = 0; row < position.rows; row++) {
+            for (int col = 0; col < position.cols; col++) {
+                WegeBoardSnapshot.Card card = board.findCard(row, col);
+                if (card == null) continue;
+                position.setCard(row * position.cols + col, WegeRules.encodeCard(card));
+                position.cardsPlayed++;
+            }
+        }
+        for (int x = 0; x <= position.rows; x++) {
+            for (int y = 0; y <= position.cols; y++) {
+                if (!board.hasIntersection(x, y)) continue;
+                int code = board.getFacingGnomeCount(x, y) << WegeRules.POINT_GNOME_SHIFT
+                        | (board.isConnectLand(x, y) ? WegeRules.POINT_LAND : 0) | WegeRules.POINT_EXISTS;
+                position.setPoint(WegeRules.pointIndex(position.cols, x, y), code);
+            }
+        }
+        position.setCossacks(landCossacks, waterCossacks);
+        position.isFrontierCounted = false;
+        return position;
+    }
+
+    /**
+     * Create a copy of this position with the same board, deck, held card and hash, for another thread.
+     * The moves played on this position cannot be undone on the copy. The deck and the keys,
+     * which never change, are shared with the copy.
+     *
+     * @return the copy.
+     */
+    public WegePosition copy() {
+        WegePosition copy = new WegePosition(rows, cols, deck, deckPosition, this);
+        for (int cell = 0; cell < cards.length; cell++) {
+            if (cards[cell] != WegeRules.EMPTY) copy.setCard(cell, cards[cell]);
+        }
+        for (int point = 0; point < points.length; point++) {
+            if (points[point] != 0) copy.setPoint(point, points[point]);
+        }
+        copy.cardsPlayed = cardsPlayed;
+        if (copy.isLandTurn() != isLandTurn()) copy.hash ^= sideKey;
+        copy.turn = turn;
+        copy.setHeldCard(heldCard);
+        copy.setCossacks(landCossacks, waterCossacks);
+        copy.isFrontierCounted = false;
+        if (isTrackingFrontier) copy.trackFrontier();
+        return copy;
+    }
+
+    /**
+     * Find the legal moves of the next card, see {@link #peekCard()}. A card without a gnome looks the same when it is
+     * rotated twice, so only one of the two orientations is returned for it. If the card cannot
+     * be played, the only move is {@link WegeMove#PASS}.
+     *
+     * @param moves the array which receives the packed moves, of at least {@link #maxMoves()} elements.
+     * @return the number of moves, or 0 if the game is ended.
+     */
+    public int generateMoves(int[] moves) {
+        if (isGameEnded()) return 0;
+        return generateMoves(moves, peekCard());
+    }
+
+    /**
+     * Find the legal moves of a card instead of the next card of the deck, for searches where
+     * the order of the cards left is not known, see {@link #play(int, int)}.
+     *
+     * @param moves the array which receives the packed moves, of at least {@link #maxMoves()} elements.
+     * @param card the code of the card.
+     * @return the number of moves.
+     */
+    public int generateMoves(int[] moves, int card) {
+        boolean hasGnome = WegeRules.gnomeOf(card) != WegeRules.NO_GNOME;
+        int count = 0;
+        if (cardsPlayed == 0) {
+            int orientations = hasGnome ? 4 : 2;
+            for (int row = 0; row < rows; row++) {
+                for (int col = 0; col < cols; col++) {
+                    for (int orientation = 0; orientation < orientations; orientation++) {
+                        moves[count++] = WegeMove.pack(row, col, orientation, false);
+                    }
+                }
+            }
+            return count;
+        }
+        boolean isBridge = WegeRules.cardTypeOf(card) == WegeRules.BRIDGE;
+        for (int row = 0; row < rows; row++) {
+            for (int col = 0; col < cols; col++) {
+                boolean isSwap = cards[row * cols + col] != WegeRules.EMPTY;
+                if (isSwap && !(isBridge && WegeRules.isSwappable(cards, points, 0, 1, cols, row, col))) continue;
+                int orientation = WegeRules.findMatchingOrientation(points, 0, 1, cols, row, col, card);
+                if (orientation < 0) continue;
+                moves[count++] = WegeMove.pack(row, col, orientation, isSwap);
+                if (hasGnome) moves[count++] = WegeMove.pack(row, col, orientation + 2, isSwap);
+            }
+        }
+        if (count == 0) moves[count++] = WegeMove.PASS;
+        return count;
+    }
+
+    /**
+     * Return the largest number of moves {@link #generateMoves(int[])} can find.
+     */
+    public int maxMoves() {
+        return rows * cols * 4;
+    }
+
+    /**
+     * Play the next card with a move, see {@link #peekCard()}. The move is not checked, it must
+     * be one of the moves found by {@link #generateMoves(int[])}.
+     *
+     * @param move the packed move.
+     */
+    public void play(int move) {
+        if (isGameEnded()) throw new IllegalStateException("Game is ended!");
+        play(move, peekCard());
+    }
+
+    /**
+     * Play a card instead of the next card of the deck. The card still takes the place of the
+     * next card, so the players take turns and the game ends as if the card was drawn. If a card
+     * is held after a swap, the held card is played and the card must be the held card.
+     *
+     * @param move the packed move, one of the moves found by {@link #generateMoves(int[], int)}.
+     * @param card the code of the card.
+     */
+    public void play(int move, int card) {
+        if (isGameEnded()) throw new IllegalStateException("Game is ended!");
+        undoHashes[ply] = hash;
+        if (isTrackingFrontier) System.arraycopy(frontier, 0, undoFrontier, ply * FRONTIER_COUNTS, FRONTIER_COUNTS);
+        else isFrontierCounted = false;
+        playedMoves[ply] = move;
+        playedCards[ply] = (byte) card;
+        undoHeldCards[ply] = heldCard;
+        byte replaced = WegeRules.EMPTY;
+        if (move == WegeMove.PASS) {
+            undoCells[ply] = -1;
+        } else {
+            int row = move >>> 12;
+            int col = (move >>> 4) & 0xFF;
+            int cell = row * cols + col;
+            undoCells[ply] = cell;
+            undoCards[ply] = cards[cell];
+            int saved = 0;
+            for (int corner = WegeRules.TOP_LEFT; corner <= WegeRules.BOTTOM_LEFT; corner++) {
+                saved |= (points[WegeRules.cornerPointIndex(cols, row, col, corner)] & 0xFF) << (corner << 3);
+            }
+            undoPoints[ply] = saved;
+            int code = WegeRules.rotate(card, (move >>> 2) & 3);
+            hash ^= cardKeys[cell * CARD_KEYS + cards[cell]] ^ cardKeys[cell * CARD_KEYS + code];
+            // Only the locations and intersections around the card can change their counts.
+            if (isTrackingFrontier) updateFrontier(row, col, -1);
+            WegeRules.placeCard(cards, points, 0, 1, cols, row, col, code);
+            if (isTrackingFrontier) updateFrontier(row, col, 1);
+            for (int corner = WegeRules.TOP_LEFT; corner <= WegeRules.BOTTOM_LEFT; corner++) {
+                int point = WegeRules.cornerPointIndex(cols, row, col, corner);
+                hash ^= pointKeys[point * POINT_KEYS + ((saved >>> (corner << 3)) & 0xFF)]
+                        ^ pointKeys[point * POINT_KEYS + (points[point] & 0xFF)];
+            }
+            if (undoCards[ply] == WegeRules.EMPTY) {
+                cardsPlayed++;
+                if (WegeRules.cardTypeOf(card) == WegeRules.COSSACK) {
+                    if (isLandTurn()) setCossacks(landCossacks + 1, waterCossacks);
+                    else setCossacks(landCossacks, waterCossacks + 1);
+                }
+            } else {
+                replaced = WegeRules.rotate(undoCards[ply], WegeRules.TOP_LEFT);
+            }
+        }
+        if (heldCard == WegeRules.EMPTY) {
+            hash ^= deckKeys[deckPosition] ^ deckKeys[deckPosition + 1];
+            countCardLeft(deck[deckPosition], -1);
+            deckPosition++;
+        }
+        // The next player plays the replaced card instead of drawing one.
+        setHeldCard(replaced);
+        hash ^= sideKey;
+        turn++;
+        ply++;
+    }
+
+    /**
+     * Take back the last move played.
+     *
+     * @throws IllegalStateException if no move is played on this position.
+     */
+    public void undo() {
+        if (ply == 0) throw new IllegalStateException("No move to undo!");
+        ply--;
+        turn--;
+        countCardLeft(heldCard, -1);
+        heldCard = undoHeldCards[ply];
+        if (heldCard == WegeRules.EMPTY) {
+            deckPosition--;
+            countCardLeft(deck[deckPosition], 1);
+        } else {
+            countCardLeft(heldCard, 1);
+        }
+        if (isTrackingFrontier) System.arraycopy(undoFrontier, ply * FRONTIER_COUNTS, frontier, 0, FRONTIER_COUNTS);
+        else isFrontierCounted = false;
+        int cell = undoCells[ply];
+        if (cell >= 0) {
+            int row = cell / cols;
+            int col = cell % cols;
+            if (undoCards[ply] == WegeRules.EMPTY) {
+                cardsPlayed--;
+                if (WegeRules.cardTypeOf(playedCards[ply]) == WegeRules.COSSACK) {
+                    if (isLandTurn()) landCossacks--;
+                    else waterCossacks--;
+                }
+            }
+            cards[cell] = undoCards[ply];
+            int saved = undoPoints[ply];
+            for (int corner = WegeRules.TOP_LEFT; corner <= WegeRules.BOTTOM_LEFT; corner++) {
+                points[WegeRules.cornerPointIndex(cols, row, col, corner)] = (byte) (saved >>> (corner << 3));
+            }
+        }
+        hash = undoHashes[ply];
+    }
+
+    /**
+     * Check if the game is ended. The game ends when the game board is filled up
+     * or when there is no card left to be played, neither in the deck nor held.
+     */
+    public boolean isGameEnded() {
+        return cardsPlayed == cards.length || deckPosition == deck.length && heldCard == WegeRules.EMPTY;
+    }
+
+    /**
+     * Check if the land player plays the next card. The players take turns from the first card.
+     */
+    public boolean isLandTurn() {
+        return (turn & 1) == 0;
+    }
+
+    /**
+     * Return the next card, the card held after a swap if any, or else the next card of the deck.
+     *
+     * @return the card code, or {@link WegeRules#EMPTY} if no card is left.
+     */
+    public byte peekCard() {
+        if (heldCard != WegeRules.EMPTY) return heldCard;
+        return deckPosition < deck.length ? deck[deckPosition] : WegeRules.EMPTY;
+    }
+
+    /**
+     * Return the card replaced by the last move if it was a swap, which the next player plays
+     * instead of drawing a card.
+     *
+     * @return the card code, or {@link WegeRules#EMPTY} if no card is held.
+     * @see WegeGameMaster#getReplacedCard() the same card on the game master.
+     */
+    public byte getHeldCard() {
+        return heldCard;
+    }
+
+    /**
+     * Return the land score minus the water score, as if the game ended now.
+     *
+     * @see WegeGameMaster#collectLiveStatistic() the same score on the game master.
+     */
+    public int evaluate() {
+        score(scores);
+        return scores[0] - scores[1];
+    }
+
+    /**
+     * Score the game as if it ended now.
+     *
+     * @param scores the array which receives the land score and then the water score.
+     */
+    public void score(int[] scores) {
+        WegeRules.score(cards, points, 0, 1, rows, cols, landCossacks, waterCossacks, scoreScratch, scores);
+    }
+
+    /**
+     * Count the edges of the board touched by the trails which can still grow, see
+     * {@link WegeRules#countOpenEdges(byte[], byte[], int, int, int, int, int[], int[])}.
+     *
+     * @param edges the array which receives the edges of the open land trails and then of the
+     *              open water trails.
+     */
+    public void countOpenEdges(int[] edges) {
+        WegeRules.countOpenEdges(cards, points, 0, 1, rows, cols, scoreScratch, edges);
+    }
+
+    /**
+     * Count the central grounds which can no longer change, see
+     * {@link WegeRules#countSealedCentralGrounds(byte[], byte[], int, int, int, int, int[], int[])}.
+     *
+     * @param centralGrounds the array which receives the sealed central grounds of the land
+     *                       player and then of the water player.
+     */
+    public void countSealedCentralGrounds(int[] centralGrounds) {
+        WegeRules.countSealedCentralGrounds(cards, points, 0, 1, rows, cols, scoreScratch, centralGrounds);
+    }
+
+    /**
+     * Update the frontier counts with each move played and taken back from now on, instead of
+     * counting them over the whole board when they are asked for after a move. It pays off
+     * when the position is evaluated after most moves, see {@link WegeEvaluator#usesFrontier()}.
+     *
+     * @return this position.
+     * @throws IllegalStateException if a move is played on this position.
+     */
+    public WegePosition trackFrontier() {
+        if (isTrackingFrontier) return this;
+        if (ply > 0) throw new IllegalStateException("Moves are played!");
+        countFrontierIfChanged();
+        undoFrontier = new int[undoHashes.length * FRONTIER_COUNTS];
+        isTrackingFrontier = true;
+        return this;
+    }
+
+    /**
+     * Return the number of empty locations whose first contact point connects land or water,
+     * where a card of that colour can be placed.
+     *
+     * @param isLand <code>true</code> for land, <code>false</code> for water.
+     * @see WegePlayingBoard#countFrontier() the empty locations with a contact point on the game board.
+     */
+    public int countOpenCorners(boolean isLand) {
+        countFrontierIfChanged();
+        return frontier[OPEN_CORNERS + (isLand ? 0 : 1)];
+    }
+
+    /**
+     * Return the number of land or water intersections which face a single gnome and are next
+     * to an empty location, where a card with a gnome can still make a pair.
+     *
+     * @param isLand <code>true</code> for land, <code>false</code> for water.
+     */
+    public int countOpenGnomes(boolean isLand) {
+        countFrontierIfChanged();
+        return frontier[OPEN_GNOMES + (isLand ? 0 : 1)];
+    }
+
+    /**
+     * Return the number of land or water intersections next to a cossack card, where a trail
+     * of that colour is blocked.
+     *
+     * @param isLand <code>true</code> for land, <code>false</code> for water.
+     */
+    public int countCossackPoints(boolean isLand) {
+        countFrontierIfChanged();
+        return frontier[COSSACK_POINTS + (isLand ? 0 : 1)];
+    }
+
+    /**
+     * Return the number of cards of a type left in the deck or held.
+     *
+     * @param cardType the card type, see {@link WegeRules#WATER}.
+     */
+    public int countCardsLeft(int cardType) {
+        return cardsLeftCounts[cardType];
+    }
+
+    /**
+     * Return the number of cards with a gnome left in the deck or held.
+     */
+    public int countGnomeCardsLeft() {
+        return cardsLeftCounts[GNOME_CARDS];
+    }
+
+    /**
+     * Return the Zobrist hash.
+     */
+    public long getHash() {
+        return hash;
+    }
+
+    /**
+     * Return the Zobrist hash of the board alone, without the cards drawn, the card held, the
+     * player to move and the cossacks.
+     */
+    public long getBoardHash() {
+        return hash ^ deckKeys[deckPosition] ^ heldKeys[heldCard] ^ (isLandTurn() ? 0 : sideKey)
+                ^ cossackKeys[2 * landCossacks] ^ cossackKeys[2 * waterCossacks + 1];
+    }
+
+    /**
+     * Return the number of cossack cards played by the land player.
+     */
+    public int getLandCossacks() {
+        return landCossacks;
+    }
+
+    /**
+     * Return the number of cossack cards played by the water player.
+     */
+    public int getWaterCossacks() {
+        return waterCossacks;
+    }
+
+    /**
+     * Return the number of rows of the game board.
+     */
+    public int getRows() {
+        return rows;
+    }
+
+    /**
+     * Return the number of columns of the game board.
+     */
+    public int getCols() {
+        return cols;
+    }
+
+    /**
+     * Return the number of cards drawn from the deck, which were played or discarded.
+     */
+    public int getDeckPosition() {
+        return deckPosition;
+    }
+
+    /**
+     * Return the number of turns taken, by the cards drawn before this position and the moves
+     * played. It is the number of cards drawn plus the number of swaps.
+     */
+    public int getTurn() {
+        return turn;
+    }
+
+    /**
+     * Return the number of cards left to play, in the deck and held.
+     */
+    public int getCardsLeft() {
+        return deck.length - deckPosition + (heldCard == WegeRules.EMPTY ? 0 : 1);
+    }
+
+    /**
+     * Return the largest number of turns left. Each bridge card left can replace a card which
+     * the next player plays again.
+     */
+    public int getMaxTurnsLeft() {
+        return getCardsLeft() + cardsLeftCounts[WegeRules.BRIDGE];
+    }
+
+    /**
+     * Return the cards left in the deck in the order they are drawn.
+     *
+     * @return a copy of the card codes.
+     */
+    public byte[] getDeckLeft() {
+        return Arrays.copyOfRange(deck, deckPosition, deck.length);
+    }
+
+    /**
+     * Return the cards left to play in the order they are played, the card held after a swap
+     * first if any, and then the cards left in the deck.
+     *
+     * @return a new array of card codes.
+     */
+    public byte[] getNextCards() {
+        if (heldCard == WegeRules.EMPTY) return getDeckLeft();
+        byte[] nextCards = new byte[deck.length - deckPosition + 1];
+        nextCards[0] = heldCard;
+        System.arraycopy(deck, deckPosition, nextCards, 1, deck.length - deckPosition);
+        return nextCards;
+    }
+
+    /**
+     * Return the number of locations which have a card.
+     */
+    public int getCardsPlayed() {
+        return cardsPlayed;
+    }
+
+    /**
+     * Return the number of moves played on this position which can be undone.
+     */
+    public int getPly() {
+        return ply;
+    }
+
+    /**
+     * Return a move played on this position.
+     *
+     * @param ply the number of moves played before that move.
+     * @return the packed move.
+     */
+    public int getPlayedMove(int ply) {
+        if (ply < 0 || ply >= this.ply) throw new IndexOutOfBoundsException("Move " + ply + " is not played!");
+        return playedMoves[ply];
+    }
+
+    /**
+     * Return the card played at a location.
+     *
+     * @param row the row on the game board.
+     * @param col the column on the game board.
+     * @return the card code, or {@link WegeRules#EMPTY} if there is no card.
+     */
+    public byte findCard(int row, int col) {
+        return cards[row * cols + col];
+    }
+
+    /**
+     * Return the code of an intersection, see {@link WegeRules#POINT_EXISTS}.
+     *
+     * @param x the row of the intersection.
+     * @param y the column of the intersection.
+     */
+    public byte findPoint(int x, int y) {
+        return points[WegeRules.pointIndex(cols, x, y)];
+    }
+
+    /**
+     * Put a card code at a location and update the hash.
+     */
+    private void setCard(int cell, int code) {
+        hash ^= cardKeys[cell * CARD_KEYS + cards[cell]] ^ cardKeys[cell * CARD_KEYS + code];
+        cards[cell] = (byte) code;
+    }
+
+    /**
+     * Put an intersection code at an intersection and update the hash.
+     */
+    private void setPoint(int point, int code) {
+        hash ^= pointKeys[point * POINT_KEYS + (points[point] & 0xFF)] ^ pointKeys[point * POINT_KEYS + (code & 0xFF)];
+        points[point] = (byte) code;
+    }
+
+    /**
+     * Count the frontier of the whole board if a move not tracked changed it.
+     */
+    private void countFrontierIfChanged() {
+        if (isFrontierCounted) return;
+        countFrontier();
+        isFrontierCounted = true;
+    }
+
+    /**
+     * Count the frontier of the whole board.
+     */
+    private void countFrontier() {
+        Arrays.fill(frontier, 0);
+        for (int row = 0; row < rows; row++) {
+            for (int col = 0; col < cols; col++) {
+                countLocation(row, col, 1);
+            }
+        }
+        for (int x = 0; x <= rows; x++) {
+            for (int y = 0; y <= cols; y++) {
+                countIntersection(x, y, 1);
+            }
+        }
+    }
+
+    /**
+     * Remove or add the counts of the locations next to a location and of its intersections.
+     *
+     * @param sign -1 to remove the counts before a card is placed, 1 to add them after.
+     */
+    private void updateFrontier(int row, int col, int sign) {
+        for (int r = Math.max(row - 1, 0); r <= Math.min(row + 1, rows - 1); r++) {
+            for (int c = Math.max(col - 1, 0); c <= Math.min(col + 1, cols - 1); c++) {
+                countLocation(r, c, sign);
+            }
+        }
+        for (int x = row; x <= row + 1; x++) {
+            for (int y = col; y <= col + 1; y++) {
+                countIntersection(x, y, sign);
+            }
+        }
+    }
+
+    /**
+     * Count an empty location with a first contact point.
+     */
+    private void countLocation(int row, int col, int sign) {
+        if (cards[row * cols + col] != WegeRules.EMPTY) return;
+        int corner = WegeRules.findContactCorner(points, 0, 1, cols, row, col);
+        if (corner < 0) return;
+        boolean isLand = (points[WegeRules.cornerPointIndex(cols, row, col, corner)] & WegeRules.POINT_LAND) != 0;
+        frontier[OPEN_CORNERS + (isLand ? 0 : 1)] += sign;
+    }
+
+    /**
+     * Count an intersection which faces a single gnome next to an empty location, and an
+     * intersection next to a cossack card.
+     */
+    private void countIntersection(int x, int y, int sign) {
+        int code = points[WegeRules.pointIndex(cols, x, y)];
+        if ((code & WegeRules.POINT_EXISTS) == 0) return;
+        int color = (code & WegeRules.POINT_LAND) != 0 ? 0 : 1;
+        boolean hasEmpty = false;
+        boolean hasCossack = false;
+        for (int row = Math.max(x - 1, 0); row <= Math.min(x, rows - 1); row++) {
+            for (int col = Math.max(y - 1, 0); col <= Math.min(y, cols - 1); col++) {
+                int card = cards[row * cols + col];
+                if (card == WegeRules.EMPTY) hasEmpty = true;
+                else if (WegeRules.cardTypeOf(card) == WegeRules.COSSACK) hasCossack = true;
+            }
+        }
+        if (hasEmpty && (code & 0xFF) >>> WegeRules.POINT_GNOME_SHIFT == 1) frontier[OPEN_GNOMES + color] += sign;
+        if (hasCossack) frontier[COSSACK_POINTS + color] += sign;
+    }
+
+    /**
+     * Remove or add a card of the deck to the counts of the cards left.
+     */
+    private void countCardLeft(byte code, int sign) {
+        if (code == WegeRules.EMPTY) return;
+        cardsLeftCounts[WegeRules.cardTypeOf(code)] += sign;
+        if (WegeRules.gnomeOf(code) != WegeRules.NO_GNOME) cardsLeftCounts[GNOME_CARDS] += sign;
+    }
+
+    /**
+     * Hold a card for the next player, or no card, and update the counts and the hash.
+     */
+    private void setHeldCard(byte code) {
+        countCardLeft(heldCard, -1);
+        countCardLeft(code, 1);
+        hash ^= heldKeys[heldCard] ^ heldKeys[code];
+        heldCard = code;
+    }
+
+    /**
+     * Change the cossacks of both players and update the hash.
+     */
+    private void setCossacks(int land, int water) {
+        hash ^= cossackKeys[2 * landCossacks] ^ cossackKeys[2 * land]
+                ^ cossackKeys[2 * waterCossacks + 1] ^ cossackKeys[2 * water + 1];
+        landCossacks = land;
+        waterCossacks = water;
+    }
+}
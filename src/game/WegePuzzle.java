@@ -0,0 +1,197 @@
+package game;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedList;
+import java.util.List;
+
+/**
+ * A puzzle of a game of Wege: a position and its card drawn, where exactly one move keeps a
+ * winning expected result for the player to move, when the cards left after it are drawn in
+ * any order, see {@link WegeEndgameSolver}. Puzzles are mined from games by
+ * {@link WegePuzzleGenerator} and kept in pack files, which the game window opens.
+ *
+ * <p>A puzzle keeps the deck and the moves of its game up to the card drawn, so the window
+ * replays them on a game master, see {@link #replay(WegeGameMaster)}, and the player goes on
+ * from there with the cards left in the order of the game. After a swap the card of the puzzle
+ * is the replaced card, which the player plays instead of drawing one.</p>
+ *
+ * @param rows the number of rows of the game board.
+ * @param cols the number of columns of the game board.
+ * @param cards the codes of the cards of the deck of the game in the order they are drawn,
+ *              see {@link WegeGameRecord#drawnCards()}.
+ * @param moves the packed moves played before the puzzle.
+ * @param solution the packed winning move of the card drawn.
+ * @param margin the expected score margin of the player to move after the solution, above 0.
+ * @param secondMargin the best expected score margin of the player to move after another move,
+ *                     not above 0.
+ */
+public record WegePuzzle(int rows, int cols, byte[] cards, int[] moves, int solution,
+                         double margin, double secondMargin) {
+
+    /* The first int of a pack file, "WEPZ". */
+    private static final int FILE_MAGIC = 0x5745505A;
+
+    /**
+     * Create a puzzle.
+     *
+     * @throws IllegalArgumentException if the card of the puzzle is neither held nor in the
+     * cards, or the solution is a passed turn.
+     */
+    public WegePuzzle {
+        int drawn = 0;
+        for (int ply = 0; ply < moves.length; ply++) {
+            if (ply == 0 || (moves[ply - 1] & 2) == 0) drawn++;
+        }
+        boolean isHeld = moves.length > 0 && (moves[moves.length - 1] & 2) != 0;
+        if (drawn + (isHeld ? 0 : 1) > cards.length || solution == WegeMove.PASS) {
+            throw new IllegalArgumentException("Invalid puzzle!");
+        }
+    }
+
+    /**
+     * Read the puzzles of a pack file.
+     *
+     * @param file the file.
+     * @return the puzzles in the order they were written.
+     * @throws IOException if the file cannot be read or is not a puzzle pack.
+     */
+    public static List<WegePuzzle> readPack(Path file) throws IOException {
+        try (DataInputStream input = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            if (input.readInt() != FILE_MAGIC) throw new IOException("File is not a puzzle pack!");
+            int size = input.readInt();
+            List<WegePuzzle> puzzles = new ArrayList<>();
+            for (int i = 0; i < size; i++) {
+                int rows = input.readUnsignedByte();
+                int cols = input.readUnsignedByte();
+                byte[] cards = new byte[input.readUnsignedShort()];
+                input.readFully(cards);
+                int[] moves = new int[input.readUnsignedShort()];
+                for (int ply = 0; ply < moves.length; ply++) {
+                    moves[ply] = input.readInt();
+                }
+                int solution = input.readInt();
+                double margin = input.readDouble();
+                double secondMargin = input.readDouble();
+                try {
+                    puzzles.add(new WegePuzzle(rows, cols, cards, moves, solution, margin, secondMargin));
+                } catch (IllegalArgumentException e) {
+                    throw new IOException("Puzzle " + i + " is not valid!", e);
+                }
+            }
+            return puzzles;
+        }
+    }
+
+    /**
+     * Write puzzles to a pack file.
+     *
+     * @param file the file.
+     * @param puzzles the puzzles.
+     * @throws IOException if the file cannot be written.
+     */
+    public static void writePack(Path file, List<WegePuzzle> puzzles) throws IOException {
+        try (DataOutputStream output = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(file)))) {
+            output.writeInt(FILE_MAGIC);
+            output.writeInt(puzzles.size());
+            for (WegePuzzle puzzle : puzzles) {
+                output.writeByte(puzzle.rows());
+                output.writeByte(puzzle.cols());
+                output.writeShort(puzzle.cards().length);
+                output.write(puzzle.cards());
+                output.writeShort(puzzle.moves().length);
+                for (int move : puzzle.moves()) {
+                    output.writeInt(move);
+                }
+                output.writeInt(puzzle.solution());
+                output.writeDouble(puzzle.margin());
+                output.writeDouble(puzzle.secondMargin());
+            }
+        }
+    }
+
+    /**
+     * Return the code of the card drawn of the puzzle, or of the card held after a swap.
+     */
+    public byte getCard() {
+        return createPosition().peekCard();
+    }
+
+    /**
+     * Create the position of the puzzle, whose next card is the card drawn.
+     *
+     * @return a new position.
+     */
+    public WegePosition createPosition() {
+        WegePosition position = new WegePosition(rows, cols, cards);
+        for (int move : moves) {
+            position.play(move);
+        }
+        return position;
+    }
+
+    /**
+     * Check if a move of the card drawn solves the puzzle. A move which gives the same board
+     * as the solution, such as another orientation of a symmetric card, also solves it.
+     *
+     * @param move the packed move.
+     * @return <code>true</code> if the move is legal and gives the position of the solution.
+     */
+    public boolean isSolution(int move) {
+        WegePosition position = createPosition();
+        // A card without a gnome looks the same rotated twice, and only the first two orientations are generated.
+        if (move != WegeMove.PASS && WegeRules.gnomeOf(position.peekCard()) == WegeRules.NO_GNOME) {
+            move &= ~(2 << 2);
+        }
+        int[] legalMoves = new int[position.maxMoves()];
+        int count = position.generateMoves(legalMoves);
+        boolean isLegal = false;
+        for (int i = 0; i < count; i++) {
+            isLegal |= legalMoves[i] == move;
+        }
+        if (!isLegal || move == WegeMove.PASS) return false;
+        position.play(solution);
+        long solutionHash = position.getHash();
+        position.undo();
+        position.play(move);
+        return position.getHash() == solutionHash;
+    }
+
+    /**
+     * Play the moves before the puzzle on a game master of a new game of the board size.
+     *
+     * @param gameMaster the game master.
+     * @throws IllegalStateException if a move cannot be played.
+     */
+    public void replay(WegeGameMaster gameMaster) {
+        int drawn = 0;
+        for (int ply = 0; ply < moves.length; ply++) {
+            // After a swap the replaced card is played instead of a card of the deck.
+            WegePlayingCard card = gameMaster.getReplacedCard();
+            if (card == null) card = WegeRules.decodeCard(cards[drawn++], 0, 0);
+            WegeMove move = WegeMove.unpack(moves[ply]);
+            boolean isPlayed = move == null ? gameMaster.passTurn(card) : move.play(gameMaster, card);
+            if (!isPlayed) throw new IllegalStateException("Puzzle cannot be replayed!");
+        }
+    }
+
+    /**
+     * Create the deck of the card drawn of the puzzle and the cards left after it, in the order
+     * of the game, so the card of the puzzle is drawn first, even if it is held after a swap.
+     *
+     * @return a new deck.
+     */
+    public WegeDeck createDeck() {
+        LinkedList<WegePlayingCard> cardsLeft = new LinkedList<>();
+        for (byte card : createPosition().getNextCards()) {
+            cardsLeft.add(WegeRules.decodeCard(card, 0, 0));
+        }
+        return new WegeDeck(cardsLeft);
+    }
+}
@@ -0,0 +1,318 @@
+package game;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.LongFunction;
+import java.util.stream.LongStream;
+
+/**
+ * A generator of puzzles, see {@link WegePuzzle}, which scans the endgames of simulated or
+ * archived games. A position of a game whose card drawn has more than one move is a candidate
+ * when the positions after all its moves can be solved exactly, see {@link WegeEndgameSolver}.
+ * It is a puzzle when exactly one of them keeps a winning expected result for the player to
+ * move. Moves which give the same board, such as the orientations of a symmetric card, count
+ * as one.
+ *
+ * <p>Puzzles are deduplicated by their canonical position: the key of the position in a
+ * tablebase, see {@link WegeTablebase}, with the card drawn and the difference of the cossacks
+ * played, which give the same values of the moves. Like in the tablebase, positions which only
+ * differ by a rotation or a mirror are kept apart. A puzzle found again in a later game is
+ * dropped.</p>
+ *
+ * <p>The games are mined by a parallel stream on a pool of threads of the generator. Each game
+ * has a solver of its own, since a solver is only used by one thread, and the endgame solved for
+ * the first candidate of a game holds its later candidates. The puzzles are deduplicated in the
+ * order of the games afterwards, so a generation has the same result on any number of
+ * threads.</p>
+ */
+public final class WegePuzzleGenerator {
+
+    /**
+     * The result of a generation.
+     *
+     * @param games the number of games scanned.
+     * @param candidates the number of positions verified with the solver.
+     * @param puzzles the puzzles, without duplicates, in the order of the games.
+     * @param millis the milliseconds of the generation.
+     */
+    public record Report(long games, long candidates, List<WegePuzzle> puzzles, long millis) {}
+
+    /**
+     * The puzzles of a game.
+     *
+     * @param candidates the number of positions verified with the solver.
+     * @param puzzles the puzzles in the order of the game.
+     * @param keys the canonical key of each puzzle.
+     */
+    private record Mined(int candidates, List<WegePuzzle> puzzles, List<Long> keys) {}
+
+    /* The largest number of empty locations of an endgame computed by default, one more takes ten times longer. */
+    public static final int EMPTY_CELLS = 4;
+
+    /* The mix of the card drawn and the cossacks into the canonical key. */
+    private static final long GOLDEN_GAMMA = 0x9E3779B97F4A7C15L;
+
+    /* The number of rows of the game boards. */
+    private final int rows;
+
+    /* The number of columns of the game boards. */
+    private final int cols;
+
+    /* The tablebase of the board size, or null. */
+    private final WegeTablebase tablebase;
+
+    /* The largest number of empty locations of an endgame computed. */
+    private final int emptyCells;
+
+    /* The largest number of empty locations of a position which can be solved. */
+    private final int solvedEmptyCells;
+
+    /**
+     * Create a generator of the puzzles of a board size.
+     *
+     * @param rows the number of rows of the game boards.
+     * @param cols the number of columns of the game boards.
+     * @param tablebase the tablebase of the board size, or <code>null</code>.
+     * @param emptyCells the largest number of empty locations of an endgame computed.
+     */
+    public WegePuzzleGenerator(int rows, int cols, WegeTablebase tablebase, int emptyCells) {
+        this.rows = rows;
+        this.cols = cols;
+        this.tablebase = tablebase;
+        this.emptyCells = emptyCells;
+        this.solvedEmptyCells = tablebase == null ? emptyCells : Math.max(emptyCells, tablebase.getEmptyCells());
+    }
+
+    /**
+     * Generate the puzzles of simulated games or of the games of a game store and write them
+     * to a pack file. The tablebase of the board size in the working directory is used if there
+     * is one, see {@link WegeTablebase#main(String[])}.
+     *
+     * @param args <code>rows cols games|store file [threads] [seed]</code>, the board size, the
+     *             number of games to simulate or the directory of a game store, the pack file,
+     *             the number of threads, by default the number of processors, and the seed of
+     *             the simulation.
+     * @throws IOException if the games cannot be read or the pack cannot be written.
+     * @throws InterruptedException if the thread is interrupted.
+     */
+    public static void main(String[] args) throws IOException, InterruptedException {
+        if (args.length < 4 || args.length > 6) {
+            System.err.println("Usage: java game.WegePuzzleGenerator rows cols games|store file [threads] [seed]");
+            System.exit(2);
+            return;
+        }
+        int rows = Integer.parseInt(args[0]);
+        int cols = Integer.parseInt(args[1]);
+        Path file = Path.of(args[3]);
+        int threads = args.length > 4 ? Integer.parseInt(args[4]) : Runtime.getRuntime().availableProcessors();
+        long seed = args.length > 5 ? Long.parseLong(args[5]) : 0;
+        Path tablebaseFile = Path.of(WegeEndgameSolver.fileName(rows, cols));
+        WegeTablebase tablebase = Files.exists(tablebaseFile) ? WegeTablebase.open(tablebaseFile) : null;
+        try {
+            WegePuzzleGenerator generator = new WegePuzzleGenerator(rows, cols, tablebase, EMPTY_CELLS);
+            Report report;
+            if (args[2].chars().allMatch(Character::isDigit)) {
+                report = generator.generate(new WegeSimulator(rows, cols, 0, seed), Long.parseLong(args[2]), threads);
+            } else {
+                try (WegeGameStore store = WegeGameStore.open(Path.of(args[2]))) {
+                    report = generator.generate(store, threads);
+                }
+            }
+            WegePuzzle.writePack(file, report.puzzles());
+            System.out.printf("Wrote %d puzzles of %d candidates of %d games to %s in %d ms, %.0f puzzles per hour%n",
+                    report.puzzles().size(), report.candidates(), report.games(), file, report.millis(),
+                    report.puzzles().size() * 3_600_000.0 / Math.max(report.millis(), 1));
+        } finally {
+            if (tablebase != null) tablebase.close();
+        }
+    }
+
+    /**
+     * Generate the puzzles of simulated games.
+     *
+     * @param simulator the simulator of the board size.
+     * @param games the number of games, from game 0.
+     * @param threads the number of threads to scan the games.
+     * @return the report of the generation.
+     * @throws InterruptedException if the thread is interrupted while waiting for the games.
+     */
+    public Report generate(WegeSimulator simulator, long games, int threads) throws InterruptedException {
+        if (simulator.getRows() != rows || simulator.getCols() != cols) {
+            throw new IllegalArgumentException("Invalid board size!");
+        }
+        return generate(games, threads, simulator::recordGame);
+    }
+
+    /**
+     * Generate the puzzles of the games of a game store. The games of another board size are
+     * skipped.
+     *
+     * @param store the game store.
+     * @param threads the number of threads to scan the games.
+     * @return the report of the generation.
+     * @throws IOException if a game cannot be read.
+     * @throws InterruptedException if the thread is interrupted while waiting for the games.
+     */
+    public Report generate(WegeGameStore store, int threads) throws IOException, InterruptedException {
+        try {
+            return generate(store.size(), threads, game -> {
+                try {
+                    return store.read((int) game);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (IllegalStateException e) {
+            if (e.getCause() instanceof UncheckedIOException unchecked) throw unchecked.getCause();
+            throw e;
+        }
+    }
+
+    /**
+     * Generate the puzzles of games.
+     *
+     * @param games the number of games.
+     * @param threads the number of threads to scan the games.
+     * @param records the record of each game, called by many threads at once.
+     * @return the report of the generation.
+     * @throws InterruptedException if the thread is interrupted while waiting for the games.
+     */
+    private Report generate(long games, int threads, LongFunction<WegeGameRecord> records) throws InterruptedException {
+        long start = System.nanoTime();
+        ForkJoinPool pool = new ForkJoinPool(threads);
+        List<Mined> mined;
+        try {
+            mined = pool.submit(() -> LongStream.range(0, games).parallel()
+                    .mapToObj(game -> mine(records.apply(game))).toList()).get();
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Generation failed!", e.getCause());
+        } finally {
+            pool.shutdown();
+        }
+        long candidates = 0;
+        List<WegePuzzle> puzzles = new ArrayList<>();
+        Set<Long> keys = new HashSet<>();
+        for (Mined game : mined) {
+            candidates += game.candidates();
+            for (int i = 0; i < game.puzzles().size(); i++) {
+                if (keys.add(game.keys().get(i))) puzzles.add(game.puzzles().get(i));
+            }
+        }
+        return new Report(games, candidates, puzzles, (System.nanoTime() - start) / 1_000_000);
+    }
+
+    /**
+     * Find the puzzles of a game, with a solver of its own.
+     *
+     * @param record the record of the game.
+     * @return the puzzles of the game, which may have duplicates.
+     */
+    private Mined mine(WegeGameRecord record) {
+        List<WegePuzzle> puzzles = new ArrayList<>();
+        List<Long> keys = new ArrayList<>();
+        if (record.rows() != rows || record.cols() != cols) return new Mined(0, puzzles, keys);
+        WegeEndgameSolver solver = new WegeEndgameSolver(rows, cols, tablebase, emptyCells);
+        byte[] deck = record.drawnCards();
+        WegePosition position = new WegePosition(rows, cols, deck);
+        int[] moves = new int[position.maxMoves()];
+        double[] values = new double[moves.length];
+        int[] boards = new int[moves.length];
+        int candidates = 0;
+        for (int ply = 0; ply < record.moves().length && !position.isGameEnded(); ply++) {
+            int count = position.generateMoves(moves);
+            // The positions after the moves of a card far from the end cannot be solved.
+            if (count > 1 && rows * cols - position.getCardsPlayed() <= solvedEmptyCells + 1
+                    && verify(solver, position, moves, count, values, boards)) {
+                candidates++;
+                int solution = findSolution(moves, count, values, boards);
+                if (solution != WegeMove.PASS) {
+                    double secondMargin = Double.NEGATIVE_INFINITY;
+                    double margin = 0;
+                    for (int i = 0; i < count; i++) {
+                        if (values[i] > 0) margin = values[i];
+                        else secondMargin = Math.max(secondMargin, values[i]);
+                    }
+                    puzzles.add(new WegePuzzle(rows, cols, deck, Arrays.copyOf(record.moves(), ply),
+                            solution, margin, secondMargin));
+                    keys.add(keyOf(position));
+                }
+            }
+            position.play(record.moves()[ply]);
+        }
+        return new Mined(candidates, puzzles, keys);
+    }
+
+    /**
+     * Solve the positions after the moves of the card drawn.
+     *
+     * @param solver the solver.
+     * @param position the position, which is the same when this returns.
+     * @param moves the moves of the card drawn.
+     * @param count the number of moves.
+     * @param values the expected score margin of the player to move after each move.
+     * @param boards the index of the board after each move, the same for moves which give the same board.
+     * @return <code>true</code> if the positions after all moves are solved.
+     */
+    private static boolean verify(WegeEndgameSolver solver, WegePosition position, int[] moves, int count,
+                                  double[] values, int[] boards) {
+        long[] hashes = new long[count];
+        int boardCount = 0;
+        int sign = position.isLandTurn() ? 1 : -1;
+        for (int i = 0; i < count; i++) {
+            position.play(moves[i]);
+            values[i] = sign * solver.solve(position);
+            long hash = position.getHash();
+            position.undo();
+            if (Double.isNaN(values[i])) return false;
+            int board = 0;
+            while (board < boardCount && hashes[board] != hash) {
+                board++;
+            }
+            if (board == boardCount) hashes[boardCount++] = hash;
+            boards[i] = board;
+        }
+        return true;
+    }
+
+    /**
+     * Find the move of the only winning board after the moves, when another board is not winning.
+     *
+     * @return the packed move, or {@link WegeMove#PASS} if the position is not a puzzle.
+     */
+    private static int findSolution(int[] moves, int count, double[] values, int[] boards) {
+        int winningBoard = -1;
+        int solution = WegeMove.PASS;
+        boolean hasLosingMove = false;
+        for (int i = 0; i < count; i++) {
+            if (values[i] <= 0) {
+                hasLosingMove = true;
+            } else if (winningBoard < 0) {
+                winningBoard = boards[i];
+                solution = moves[i];
+            } else if (boards[i] != winningBoard) {
+                return WegeMove.PASS;
+            }
+        }
+        return hasLosingMove ? solution : WegeMove.PASS;
+    }
+
+    /**
+     * Return the canonical key of the position of a puzzle.
+     */
+    static long keyOf(WegePosition position) {
+        int card = position.peekCard();
+        int kind = WegeRules.cardTypeOf(card) | WegeRules.gnomeOf(card) << 2;
+        int cossacks = position.getLandCossacks() - position.getWaterCossacks();
+        // The tablebase leaves out the card drawn, which is one of the cards left, and the cossacks.
+        return WegeTablebase.keyOf(position) ^ ((long) kind << 16 | cossacks & 0xFFFF) * GOLDEN_GAMMA;
+    }
+}
@@ -0,0 +1,65 @@
+package game;
+
+import java.util.SplittableRandom;
+
+/**
+ * The random generators of simulated games of Wege. Every game gets its own generators,
+ * derived only from the seed of the simulation, the number of the game and what the
+ * generator is used for. No generator is shared between games, so a game plays the
+ * same whichever thread plays it and however many games run at the same time.
+ */
+public final class WegeRandom {
+
+    /**
+     * What a generator of a game is used for. Each purpose has its own generator, so drawing
+     * more numbers for one purpose does not change the numbers of another.
+     */
+    public enum Purpose {
+        /* Shuffling the deck. */
+        DECK,
+        /* Choosing the moves of the players. */
+        POLICY,
+        /* Playing out games to the end to evaluate a move. */
+        ROLLOUT
+    }
+
+    /* The increment of the SplitMix64 sequence, the same as SplittableRandom. */
+    private static final long GOLDEN_GAMMA = 0x9E3779B97F4A7C15L;
+
+    private WegeRandom() {}
+
+    /**
+     * Create the generator of a game for a purpose.
+     *
+     * @param seed the seed of the simulation.
+     * @param game the number of the game in the simulation.
+     * @param purpose what the generator is used for.
+     * @return a new generator, which is the same for the same arguments.
+     */
+    public static SplittableRandom forGame(long seed, long game, Purpose purpose) {
+        return new SplittableRandom(seedOf(seed, game, purpose));
+    }
+
+    /**
+     * Return the seed of the generator of a game for a purpose. The arguments are mixed
+     * like a counter in the SplitMix64 sequence, so nearby games get unrelated seeds.
+     *
+     * @param seed the seed of the simulation.
+     * @param game the number of the game in the simulation.
+     * @param purpose what the generator is used for.
+     * @return the seed.
+     */
+    public static long seedOf(long seed, long game, Purpose purpose) {
+        long counter = mix(seed) + game * Purpose.values().length + purpose.ordinal();
+        return mix(counter * GOLDEN_GAMMA);
+    }
+
+    /**
+     * Mix the bits of a value, the finalizer of SplitMix64.
+     */
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+}
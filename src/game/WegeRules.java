@@ -0,0 +1,579 @@
+package game;
+
+import javafx.geometry.Pos;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * The rules of the game Wege on primitive arrays, for engines which play many games
+ * without creating objects. A board is stored as two byte arrays, one with a code for
+ * each location and one with a code for each intersection. The code of location
+ * <code>row * cols + col</code> is at <code>base + index * stride</code>, the same for
+ * intersection <code>x * (cols + 1) + y</code>. A single board uses base 0 and stride 1,
+ * boards interleaved for many games use the game as base and the number of games as stride.
+ *
+ * <p>The rules mirror {@link WegeGameMaster} and {@link WegePlayingBoard} exactly,
+ * including how the first contact point of a location is found.</p>
+ */
+public final class WegeRules {
+
+    /* The code of a location without a card. */
+    public static final byte EMPTY = 0;
+
+    /* The card types, the same as the ordinals of WegeCard.CardType. */
+    public static final int WATER = 0;
+    public static final int LAND = 1;
+    public static final int BRIDGE = 2;
+    public static final int COSSACK = 3;
+
+    /* The corners of a card and the orientations of a card, clockwise from top left. */
+    public static final int TOP_LEFT = 0;
+    public static final int TOP_RIGHT = 1;
+    public static final int BOTTOM_RIGHT = 2;
+    public static final int BOTTOM_LEFT = 3;
+
+    /* The gnome of a card. */
+    public static final int NO_GNOME = 0;
+    public static final int PATH_GNOME = 1;
+    public static final int CORNER_GNOME = 2;
+
+    /* The bit of an intersection code which is set when a card is played around it. */
+    public static final int POINT_EXISTS = 1;
+
+    /* The bit of an intersection code which is set when it connects land. */
+    public static final int POINT_LAND = 2;
+
+    /* The shift of the facing gnome count in an intersection code. */
+    public static final int POINT_GNOME_SHIFT = 2;
+
+    /* The largest facing gnome count an intersection code can hold, plus one. */
+    private static final int GNOME_COUNTS = 64;
+
+    /* The edges touched by a trail and its flags, see walkTrail. */
+    private static final int TRAIL_EDGES = 0xF;
+    private static final int TRAIL_OPEN = 1 << 4;
+    private static final int TRAIL_SWAPPABLE = 1 << 5;
+
+    /* The positions of the corners, indexed by corner. */
+    private static final Pos[] CORNERS = {Pos.TOP_LEFT, Pos.TOP_RIGHT, Pos.BOTTOM_RIGHT, Pos.BOTTOM_LEFT};
+
+    private WegeRules() {}
+
+    ////////////////////////// Card codes //////////////////////
+
+    /**
+     * Encode a card. The code is never {@link #EMPTY}.
+     *
+     * @param cardType the type of the card.
+     * @param orientation the orientation of the card.
+     * @param gnome {@link #NO_GNOME}, {@link #PATH_GNOME} or {@link #CORNER_GNOME}.
+     * @return the code of the card.
+     */
+    public static byte encodeCard(int cardType, int orientation, int gnome) {
+        return (byte) (1 + (cardType | orientation << 2 | gnome << 4));
+    }
+
+    /**
+     * Encode a card with its orientation.
+     *
+     * @param card the card.
+     * @return the code of the card.
+     */
+    public static byte encodeCard(WegeCard card) {
+        int gnome = !card.hasGnome() ? NO_GNOME : card.isPathGnome() ? PATH_GNOME : CORNER_GNOME;
+        return encodeCard(card.getCardType().ordinal(), cornerOf(card.getOrientation()), gnome);
+    }
+
+    /**
+     * Encode a card of a board snapshot with its orientation.
+     *
+     * @param card the card.
+     * @return the code of the card.
+     */
+    public static byte encodeCard(WegeBoardSnapshot.Card card) {
+        int gnome = !card.hasGnome() ? NO_GNOME : card.isPathGnome() ? PATH_GNOME : CORNER_GNOME;
+        return encodeCard(card.cardType().ordinal(), cornerOf(card.orientation()), gnome);
+    }
+
+    /**
+     * Encode all cards of a deck in the order they are drawn.
+     *
+     * @param deck the deck.
+     * @return the codes of the cards.
+     */
+    public static byte[] encodeDeck(WegeDeck deck) {
+        List<WegePlayingCard> cards = deck.getAllCards();
+        byte[] codes = new byte[cards.size()];
+        for (int i = 0; i < codes.length; i++) {
+            codes[i] = encodeCard(cards.get(i));
+        }
+        return codes;
+    }
+
+    /**
+     * Decode a card to place it at the given location.
+     *
+     * @param code the code of the card.
+     * @param row the row on the game board.
+     * @param col the column on the game board.
+     * @return a new playing card.
+     */
+    public static WegePlayingCard decodeCard(int code, int row, int col) {
+        int gnome = gnomeOf(code);
+        WegePlayingCard card = new WegePlayingCard(WegeCard.CardType.values()[cardTypeOf(code)],
+                gnome != NO_GNOME, gnome == PATH_GNOME);
+        card.setOrientation(positionOf(orientationOf(code)));
+        card.setRow(row);
+        card.setCol(col);
+        return card;
+    }
+
+    /**
+     * Return the type of card.
+     */
+    public static int cardTypeOf(int code) {
+        return (code - 1) & 3;
+    }
+
+    /**
+     * Return the orientation of a card.
+     */
+    public static int orientationOf(int code) {
+        return ((code - 1) >>> 2) & 3;
+    }
+
+    /**
+     * Return {@link #NO_GNOME}, {@link #PATH_GNOME} or {@link #CORNER_GNOME}.
+     */
+    public static int gnomeOf(int code) {
+        return (code - 1) >>> 4;
+    }
+
+    /**
+     * Change the orientation of a card.
+     *
+     * @param code the code of the card.
+     * @param orientation the new orientation.
+     * @return the code of the rotated card.
+     */
+    public static byte rotate(int code, int orientation) {
+        return (byte) (((code - 1) & ~0xC | orientation << 2) + 1);
+    }
+
+    /**
+     * Check if a corner of a card has land.
+     *
+     * @param code the code of the card.
+     * @param corner the corner of the card.
+     * @return <code>true</code> if that corner displays land or a bridge.
+     * @see WegeCard#isWater(Pos, Pos) the same rule on a card object.
+     */
+    public static boolean isLandCorner(int code, int corner) {
+        boolean waterOnMainDiagonal = (cardTypeOf(code) == WATER) == ((orientationOf(code) & 1) == 0);
+        return ((corner & 1) == 0) != waterOnMainDiagonal;
+    }
+
+    /**
+     * Find the corner where the gnome of a card is.
+     *
+     * @param code the code of the card.
+     * @return the corner of the gnome or -1 if the card has no gnome.
+     * @see WegeCard#getGnomePosition() the same rule on a card object.
+     */
+    public static int gnomeCornerOf(int code) {
+        return switch (gnomeOf(code)) {
+            case PATH_GNOME -> orientationOf(code);
+            case CORNER_GNOME -> (orientationOf(code) + 1) & 3;
+            default -> -1;
+        };
+    }
+
+    /**
+     * Convert a position to a corner or an orientation.
+     */
+    public static int cornerOf(Pos position) {
+        return switch (position) {
+            case TOP_LEFT -> TOP_LEFT;
+            case TOP_RIGHT -> TOP_RIGHT;
+            case BOTTOM_RIGHT -> BOTTOM_RIGHT;
+            case BOTTOM_LEFT -> BOTTOM_LEFT;
+            default -> throw new IllegalArgumentException("Position is not a corner!");
+        };
+    }
+
+    /**
+     * Convert a corner or an orientation to a position.
+     */
+    public static Pos positionOf(int corner) {
+        return CORNERS[corner];
+    }
+
+    ////////////////////////// Board rules //////////////////////
+
+    /**
+     * Return the index of an intersection.
+     *
+     * @param cols the number of columns of the board.
+     * @param x the x coordinate on the intersection grid.
+     * @param y the y coordinate on the intersection grid.
+     */
+    public static int pointIndex(int cols, int x, int y) {
+        return x * (cols + 1) + y;
+    }
+
+    /**
+     * Return the index of the intersection at a corner of a location.
+     *
+     * @param cols the number of columns of the board.
+     * @param row the row on the board.
+     * @param col the column on the board.
+     * @param corner the corner of the location.
+     */
+    public static int cornerPointIndex(int cols, int row, int col, int corner) {
+        return pointIndex(cols, row + (corner >>> 1), col + (((corner + 1) >>> 1) & 1));
+    }
+
+    /**
+     * Find the corner of the first contact point of a location. Like
+     * {@link WegePlayingBoard#findFirstConnection(int, int)}, it is the last intersection
+     * found in row order, and at least two intersections must be found.
+     *
+     * @param points the intersection codes.
+     * @param base the index of the first intersection of the board.
+     * @param stride the distance between two intersections of the board.
+     * @param cols the number of columns of the board.
+     * @param row the row on the board.
+     * @param col the column on the board.
+     * @return the corner of the first contact point or -1 if there is none.
+     */
+    public static int findContactCorner(byte[] points, int base, int stride, int cols, int row, int col) {
+        int topLeft = base + pointIndex(cols, row, col) * stride;
+        int bottomLeft = base + pointIndex(cols, row + 1, col) * stride;
+        // Row order of the corners.
+        int contacts = 0;
+        int contactCorner = -1;
+        if ((points[topLeft] & POINT_EXISTS) != 0) {
+            contactCorner = TOP_LEFT;
+            contacts++;
+        }
+        if ((points[topLeft + stride] & POINT_EXISTS) != 0) {
+            contactCorner = TOP_RIGHT;
+            contacts++;
+        }
+        if ((points[bottomLeft] & POINT_EXISTS) != 0) {
+            contactCorner = BOTTOM_LEFT;
+            contacts++;
+        }
+        if ((points[bottomLeft + stride] & POINT_EXISTS) != 0) {
+            contactCorner = BOTTOM_RIGHT;
+            contacts++;
+        }
+        return contacts >= 2 ? contactCorner : -1;
+    }
+
+    /**
+     * Check if a card can be placed at a location after the first card is played.
+     * Like the game master, the location itself is not checked.
+     *
+     * @param points the intersection codes.
+     * @param base the index of the first intersection of the board.
+     * @param stride the distance between two intersections of the board.
+     * @param cols the number of columns of the board.
+     * @param row the row on the board.
+     * @param col the column on the board.
+     * @param code the code of the card with its orientation.
+     * @return <code>true</code> if the card matches the first contact point.
+     * @see WegeGameMaster#isLegalPlace(WegePlayingCard) the same rule on the game master.
+     */
+    public static boolean isLegalPlace(byte[] points, int base, int stride, int cols, int row, int col, int code) {
+        int corner = findContactCorner(points, base, stride, cols, row, col);
+        if (corner < 0) return false;
+        int point = points[base + cornerPointIndex(cols, row, col, corner) * stride];
+        return isLandCorner(code, corner) == ((point & POINT_LAND) != 0);
+    }
+
+    /**
+     * Find the orientation which places a card on the first contact point of a location.
+     * The card can also be placed with that orientation rotated twice.
+     *
+     * @param points the intersection codes.
+     * @param base the index of the first intersection of the board.
+     * @param stride the distance between two intersections of the board.
+     * @param cols the number of columns of the board.
+     * @param row the row on the board.
+     * @param col the column on the board.
+     * @param code the code of the card.
+     * @return {@link #TOP_LEFT} or {@link #TOP_RIGHT}, or -1 if there is no contact point.
+     */
+    public static int findMatchingOrientation(byte[] points, int base, int stride, int cols, int row, int col, int code) {
+        int corner = findContactCorner(points, base, stride, cols, row, col);
+        if (corner < 0) return -1;
+        int point = points[base + cornerPointIndex(cols, row, col, corner) * stride];
+        boolean connectLand = (point & POINT_LAND) != 0;
+        return isLandCorner(rotate(code, TOP_LEFT), corner) == connectLand ? TOP_LEFT : TOP_RIGHT;
+    }
+
+    /**
+     * Check if a card played on the board can be replaced by a bridge card.
+     *
+     * @param cards the location codes.
+     * @param points the intersection codes.
+     * @param base the index of the first location and intersection of the board.
+     * @param stride the distance between two locations or intersections of the board.
+     * @param cols the number of columns of the board.
+     * @param row the row on the board.
+     * @param col the column on the board.
+     * @return <code>true</code> if a bridge card can replace the card at this location.
+     * @see WegeGameMaster#isSwappable(int, int) the same rule on the game master.
+     */
+    public static boolean isSwappable(byte[] cards, byte[] points, int base, int stride, int cols, int row, int col) {
+        int played = cards[base + (row * cols + col) * stride];
+        if (played == EMPTY || cardTypeOf(played) == COSSACK || cardTypeOf(played) == BRIDGE) return false;
+        if (gnomeOf(played) == NO_GNOME) return true;
+        // The same intersections as WegePlayingBoard#findSurroundIntersections.
+        for (int x = 0; x <= row + 1; x++) {
+            for (int y = 0; y <= col + 1; y++) {
+                if (points[base + pointIndex(cols, x, y) * stride] >>> POINT_GNOME_SHIFT > 1) return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Check if a card can replace the card at a location.
+     *
+     * @param cards the location codes.
+     * @param points the intersection codes.
+     * @param base the index of the first location and intersection of the board.
+     * @param stride the distance between two locations or intersections of the board.
+     * @param cols the number of columns of the board.
+     * @param row the row on the board.
+     * @param col the column on the board.
+     * @param code the code of the card with its orientation.
+     * @return <code>true</code> if the card is a bridge which can be swapped in.
+     * @see WegeGameMaster#isLegalSwap(WegePlayingCard) the same rule on the game master.
+     */
+    public static boolean isLegalSwap(byte[] cards, byte[] points, int base, int stride, int cols,
+                                      int row, int col, int code) {
+        return cardTypeOf(code) == BRIDGE
+                && isSwappable(cards, points, base, stride, cols, row, col)
+                && isLegalPlace(points, base, stride, cols, row, col, code);
+    }
+
+    /**
+     * Place a card on the board, replacing the card at that location if any.
+     * The intersections around the card take the colour of its corners, and
+     * the facing gnome count of the gnome corner increases.
+     *
+     * @param cards the location codes.
+     * @param points the intersection codes.
+     * @param base the index of the first location and intersection of the board.
+     * @param stride the distance between two locations or intersections of the board.
+     * @param cols the number of columns of the board.
+     * @param row the row on the board.
+     * @param col the column on the board.
+     * @param code the code of the card with its orientation.
+     * @see WegePlayingBoard#placeCardOnBoard(WegePlayingCard) the same rule on the game board.
+     */
+    public static void placeCard(byte[] cards, byte[] points, int base, int stride, int cols,
+                                 int row, int col, int code) {
+        cards[base + (row * cols + col) * stride] = (byte) code;
+        int gnomeCorner = gnomeCornerOf(code);
+        for (int corner = TOP_LEFT; corner <= BOTTOM_LEFT; corner++) {
+            int index = base + cornerPointIndex(cols, row, col, corner) * stride;
+            int gnomes = (points[index] >>> POINT_GNOME_SHIFT) + (corner == gnomeCorner ? 1 : 0);
+            points[index] = (byte) (gnomes << POINT_GNOME_SHIFT
+                    | (isLandCorner(code, corner) ? POINT_LAND : 0) | POINT_EXISTS);
+        }
+    }
+
+    ////////////////////////// Player Score evaluation //////////////////////
+
+    /**
+     * Return the size of the scratch array needed to score a board.
+     *
+     * @param rows the number of rows of the board.
+     * @param cols the number of columns of the board.
+     */
+    public static int scratchSize(int rows, int cols) {
+        return 2 * (rows + 1) * (cols + 1) + 2 * GNOME_COUNTS;
+    }
+
+    /**
+     * Score a board at the end of the game. The trails are followed in the same order
+     * and with the same rules as {@link WegeGameMaster#collectPlayerStatistic()}.
+     *
+     * @param cards the location codes.
+     * @param points the intersection codes.
+     * @param base the index of the first location and intersection of the board.
+     * @param stride the distance between two locations or intersections of the board.
+     * @param rows the number of rows of the board.
+     * @param cols the number of columns of the board.
+     * @param landCossacks the cossack cards played by the land player.
+     * @param waterCossacks the cossack cards played by the water player.
+     * @param scratch an array of at least {@link #scratchSize(int, int)} elements.
+     * @param scores the array which receives the land score and then the water score.
+     */
+    public static void score(byte[] cards, byte[] points, int base, int stride, int rows, int cols,
+                             int landCossacks, int waterCossacks, int[] scratch, int[] scores) {
+        int pointCount = (rows + 1) * (cols + 1);
+        // Scratch layout: visited flags, trail stack, facing gnome occurrences of each player.
+        int gnomeStart = 2 * pointCount;
+        Arrays.fill(scratch, 0, pointCount, 0);
+        Arrays.fill(scratch, gnomeStart, gnomeStart + 2 * GNOME_COUNTS, 0);
+        int[] centralGrounds = new int[2];
+        int[] maximumEdges = new int[2];
+        for (int start = 0; start < pointCount; start++) {
+            int startCode = points[base + start * stride];
+            if ((startCode & POINT_EXISTS) == 0 || scratch[start] != 0) continue;
+            int player = (startCode & POINT_LAND) != 0 ? 0 : 1;
+            int edgeCount = Integer.bitCount(walkTrail(cards, points, base, stride, rows, cols, start, scratch,
+                    gnomeStart, false) & TRAIL_EDGES);
+            if (edgeCount == 0) centralGrounds[1 - player]++;
+            else maximumEdges[player] = Math.max(maximumEdges[player], edgeCount);
+        }
+        int[] cossacks = {landCossacks, waterCossacks};
+        for (int player = 0; player < 2; player++) {
+            int gnomeScore = 0;
+            for (int gnomes = 2; gnomes < GNOME_COUNTS; gnomes++) {
+                // The first group of a size is not counted, see Player#increaseFacingGnomeGroup.
+                int groups = scratch[gnomeStart + player * GNOME_COUNTS + gnomes] - 1;
+                if (groups > 0) gnomeScore += Score.scoreCentralGround(gnomes) * groups;
+            }
+            scores[player] = Score.scoreSideConnected(maximumEdges[player])
+                    + Score.scoreCentralGround(centralGrounds[player])
+                    + gnomeScore
+                    + cossacks[player];
+        }
+    }
+
+    /**
+     * Count the edges of the board touched by the trails which can still grow, for the evaluation
+     * of a game before its end. A trail can grow when one of its intersections is next to an
+     * empty location. The trails are followed like {@link #score(byte[], byte[], int, int, int, int, int, int, int[], int[])}.
+     *
+     * @param cards the location codes.
+     * @param points the intersection codes.
+     * @param base the index of the first location and intersection of the board.
+     * @param stride the distance between two locations or intersections of the board.
+     * @param rows the number of rows of the board.
+     * @param cols the number of columns of the board.
+     * @param scratch an array of at least {@link #scratchSize(int, int)} elements.
+     * @param edges the array which receives the edges of the open land trails and then of the
+     *              open water trails, summed over the trails.
+     */
+    public static void countOpenEdges(byte[] cards, byte[] points, int base, int stride, int rows, int cols,
+                                      int[] scratch, int[] edges) {
+        int pointCount = (rows + 1) * (cols + 1);
+        Arrays.fill(scratch, 0, pointCount, 0);
+        edges[0] = 0;
+        edges[1] = 0;
+        for (int start = 0; start < pointCount; start++) {
+            int startCode = points[base + start * stride];
+            if ((startCode & POINT_EXISTS) == 0 || scratch[start] != 0) continue;
+            int player = (startCode & POINT_LAND) != 0 ? 0 : 1;
+            int trail = walkTrail(cards, points, base, stride, rows, cols, start, scratch, -1, false);
+            if ((trail & TRAIL_OPEN) != 0) edges[player] += Integer.bitCount(trail & TRAIL_EDGES);
+        }
+    }
+
+    /**
+     * Count the central grounds which can no longer change. A central ground is sealed when
+     * every card around each intersection of its trail is played and cannot be replaced by a
+     * bridge card, like a final group of {@link WegeOutcomeEstimator}. The trails are followed
+     * like {@link #score(byte[], byte[], int, int, int, int, int, int, int[], int[])}.
+     *
+     * @param cards the location codes.
+     * @param points the intersection codes.
+     * @param base the index of the first location and intersection of the board.
+     * @param stride the distance between two locations or intersections of the board.
+     * @param rows the number of rows of the board.
+     * @param cols the number of columns of the board.
+     * @param scratch an array of at least {@link #scratchSize(int, int)} elements.
+     * @param centralGrounds the array which receives the sealed central grounds of the land
+     *                       player and then of the water player.
+     */
+    public static void countSealedCentralGrounds(byte[] cards, byte[] points, int base, int stride, int rows,
+                                                 int cols, int[] scratch, int[] centralGrounds) {
+        int pointCount = (rows + 1) * (cols + 1);
+        Arrays.fill(scratch, 0, pointCount, 0);
+        centralGrounds[0] = 0;
+        centralGrounds[1] = 0;
+        for (int start = 0; start < pointCount; start++) {
+            int startCode = points[base + start * stride];
+            if ((startCode & POINT_EXISTS) == 0 || scratch[start] != 0) continue;
+            int player = (startCode & POINT_LAND) != 0 ? 0 : 1;
+            // A trail which touches an edge or has an empty or replaceable card around it is not sealed.
+            int trail = walkTrail(cards, points, base, stride, rows, cols, start, scratch, -1, true);
+            // The central ground of a player is made of a trail of the other player.
+            if (trail == 0) centralGrounds[1 - player]++;
+        }
+    }
+
+    /**
+     * Follow the trail of an intersection which is not visited yet, and mark its intersections
+     * as visited.
+     *
+     * @param start the first intersection of the trail.
+     * @param scratch the visited flags of the intersections, then the stack of the trail.
+     * @param gnomeStart the index in the scratch array where the facing gnome occurrences of
+     *                   each player are counted, or -1 to not count them.
+     * @param findSwappable whether to look for a card around the trail which a bridge card can replace.
+     * @return the edges touched by the trail, in the edge order of
+     * {@link WegePlayingBoard#countEdgeTouch}, with {@link #TRAIL_OPEN} if an intersection is
+     * next to an empty location and {@link #TRAIL_SWAPPABLE} if a card around it can be replaced.
+     */
+    private static int walkTrail(byte[] cards, byte[] points, int base, int stride, int rows, int cols, int start,
+                                 int[] scratch, int gnomeStart, boolean findSwappable) {
+        int pointCount = (rows + 1) * (cols + 1);
+        int player = (points[base + start * stride] & POINT_LAND) != 0 ? 0 : 1;
+        int trail = 0;
+        int top = pointCount;
+        scratch[start] = 1;
+        scratch[top++] = start;
+        while (top > pointCount) {
+            int point = scratch[--top];
+            int pointCode = points[base + point * stride];
+            if (gnomeStart >= 0) scratch[gnomeStart + player * GNOME_COUNTS + (pointCode >>> POINT_GNOME_SHIFT)]++;
+            int x = point / (cols + 1);
+            int y = point % (cols + 1);
+            if (x == 0) trail |= 1;
+            else if (x == rows) trail |= 2;
+            else if (y == 0) trail |= 4;
+            else if (y == cols) trail |= 8;
+            boolean connectLand = (pointCode & POINT_LAND) != 0;
+            for (int row = Math.max(x - 1, 0); row <= Math.min(x, rows - 1); row++) {
+                for (int col = Math.max(y - 1, 0); col <= Math.min(y, cols - 1); col++) {
+                    int card = cards[base + (row * cols + col) * stride];
+                    if (card == EMPTY) {
+                        trail |= TRAIL_OPEN;
+                        continue;
+                    }
+                    if (findSwappable && isSwappable(cards, points, base, stride, cols, row, col)) {
+                        trail |= TRAIL_SWAPPABLE;
+                    }
+                    if (!isValidTrail(connectLand, cardTypeOf(card))) continue;
+                    // Go to the opposite corner of the card.
+                    int opposite = pointIndex(cols, 2 * row + 1 - x, 2 * col + 1 - y);
+                    if (scratch[opposite] == 0) {
+                        scratch[opposite] = 1;
+                        scratch[top++] = opposite;
+                    }
+                }
+            }
+        }
+        return trail;
+    }
+
+    /**
+     * Check if a trail can go through a card from an intersection.
+     *
+     * @see WegeGameMaster#isValidTrail(Intersection, WegePlayingCard) the same rule on card objects.
+     */
+    private static boolean isValidTrail(boolean connectLand, int cardType) {
+        if (cardType == COSSACK) return false;
+        if (cardType == BRIDGE) return true;
+        return connectLand ? cardType == LAND : cardType == WATER;
+    }
+}
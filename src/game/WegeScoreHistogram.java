@@ -0,0 +1,174 @@
+package game;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * An exact histogram of integer values, such as a score or a win margin. The scores of Wege
+ * lie within a few hundred points, so the histogram keeps one counter per value between the
+ * smallest and the largest value added, and its memory does not grow with the number of values.
+ * Two histograms can be merged, so each thread can fill its own and merge them at the end.
+ */
+public final class WegeScoreHistogram {
+
+    /* The number of values added for each value from the offset. */
+    private long[] counts = new long[0];
+
+    /* The value of the first counter. */
+    private int offset;
+
+    /* The number of values added. */
+    private long count;
+
+    /* The sum of the values added. */
+    private long sum;
+
+    /**
+     * Add a value.
+     *
+     * @param value the value.
+     */
+    public void add(int value) {
+        add(value, 1);
+    }
+
+    /**
+     * Add a value a number of times.
+     *
+     * @param value the value.
+     * @param times the number of times, not negative.
+     */
+    public void add(int value, long times) {
+        if (times == 0) return;
+        ensureRange(value);
+        counts[value - offset] += times;
+        count += times;
+        sum += value * times;
+    }
+
+    /**
+     * Add all values of another histogram to this histogram.
+     *
+     * @param other the other histogram, which is not changed.
+     */
+    public void merge(WegeScoreHistogram other) {
+        for (int i = 0; i < other.counts.length; i++) {
+            add(other.offset + i, other.counts[i]);
+        }
+    }
+
+    /**
+     * Return the number of values added.
+     */
+    public long getCount() {
+        return count;
+    }
+
+    /**
+     * Return the number of times a value is added.
+     *
+     * @param value the value.
+     */
+    public long getCount(int value) {
+        int index = value - offset;
+        return index >= 0 && index < counts.length ? counts[index] : 0;
+    }
+
+    /**
+     * Return the smallest value added, or 0 if the histogram is empty.
+     */
+    public int getMin() {
+        for (int i = 0; i < counts.length; i++) {
+            if (counts[i] != 0) return offset + i;
+        }
+        return 0;
+    }
+
+    /**
+     * Return the largest value added, or 0 if the histogram is empty.
+     */
+    public int getMax() {
+        for (int i = counts.length - 1; i >= 0; i--) {
+            if (counts[i] != 0) return offset + i;
+        }
+        return 0;
+    }
+
+    /**
+     * Return the mean of the values added, or 0 if the histogram is empty.
+     */
+    public double getMean() {
+        return count == 0 ? 0 : (double) sum / count;
+    }
+
+    /**
+     * Return the quantile of the values added, which is the smallest value such that at least
+     * the fraction <code>q</code> of all values are not larger.
+     *
+     * @param q the fraction, from 0 to 1.
+     * @return the value, or 0 if the histogram is empty.
+     */
+    public int quantile(double q) {
+        if (count == 0) return 0;
+        long rank = Math.max(1, (long) Math.ceil(q * count));
+        long seen = 0;
+        for (int i = 0; i < counts.length; i++) {
+            seen += counts[i];
+            if (seen >= rank) return offset + i;
+        }
+        return getMax();
+    }
+
+    /**
+     * Write the histogram in a compact form: the range, then the non-zero counters.
+     *
+     * @param output the output to write to.
+     * @throws IOException if the histogram cannot be written.
+     */
+    public void write(DataOutput output) throws IOException {
+        output.writeInt(offset);
+        output.writeInt(counts.length);
+        for (int i = 0; i < counts.length; i++) {
+            if (counts[i] == 0) continue;
+            output.writeInt(i);
+            output.writeLong(counts[i]);
+        }
+        output.writeInt(-1);
+    }
+
+    /**
+     * Read a histogram written by {@link #write(DataOutput)}.
+     *
+     * @param input the input to read from.
+     * @return the histogram.
+     * @throws IOException if the histogram cannot be read.
+     */
+    public static WegeScoreHistogram read(DataInput input) throws IOException {
+        WegeScoreHistogram histogram = new WegeScoreHistogram();
+        int offset = input.readInt();
+        input.readInt();
+        for (int index = input.readInt(); index >= 0; index = input.readInt()) {
+            histogram.add(offset + index, input.readLong());
+        }
+        return histogram;
+    }
+
+    /**
+     * Grow the counters so they cover a value.
+     */
+    private void ensureRange(int value) {
+        if (counts.length == 0) {
+            counts = new long[1];
+            offset = value;
+        } else if (value < offset) {
+            long[] grown = new long[counts.length + offset - value];
+            System.arraycopy(counts, 0, grown, offset - value, counts.length);
+            counts = grown;
+            offset = value;
+        } else if (value - offset >= counts.length) {
+            counts = Arrays.copyOf(counts, value - offset + 1);
+        }
+    }
+}
@@ -0,0 +1,204 @@
+package game;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.List;
+import java.util.stream.Collector;
+
+/**
+ * The statistic of the scores of many games of Wege. It keeps a histogram of each score
+ * component and of the total of both players, a histogram of the win margins of the land
+ * player and the number of wins. Only the histograms are kept, so the memory does not grow
+ * with the number of games.
+ *
+ * <p>A statistic is not thread safe. To score games on many threads, use {@link #collector()}
+ * with a parallel stream: each thread fills its own statistic and they are combined once
+ * the games are done, without any lock.</p>
+ */
+public final class WegeScoreStatistics {
+
+    /**
+     * The parts of the score of a player.
+     *
+     * @see Score
+     */
+    public enum Component {
+        SIDE_CONNECTED,
+        CENTRAL_GROUND,
+        GNOME_GROUP,
+        COSSACK,
+        TOTAL
+    }
+
+    /* The histograms of the land player by component. */
+    private final WegeScoreHistogram[] landHistograms = createHistograms();
+
+    /* The histograms of the water player by component. */
+    private final WegeScoreHistogram[] waterHistograms = createHistograms();
+
+    /* The histogram of the land total minus the water total. */
+    private final WegeScoreHistogram margins = new WegeScoreHistogram();
+
+    /* The number of games. */
+    private long games;
+
+    /* The number of games won by the land player. */
+    private long landWins;
+
+    /* The number of games won by the water player. */
+    private long waterWins;
+
+    /**
+     * Create a collector of the players of finished games into a statistic.
+     *
+     * @return the collector.
+     * @see WegeGameMaster#collectPlayerStatistic()
+     */
+    public static Collector<List<Player>, ?, WegeScoreStatistics> collector() {
+        return Collector.of(WegeScoreStatistics::new, WegeScoreStatistics::accept, WegeScoreStatistics::combine,
+                Collector.Characteristics.IDENTITY_FINISH, Collector.Characteristics.UNORDERED);
+    }
+
+    /**
+     * Add the scores of a finished game.
+     *
+     * @param players the land player and then the water player.
+     */
+    public void accept(List<Player> players) {
+        int landTotal = addScore(landHistograms, players.get(0).getGameScore());
+        int waterTotal = addScore(waterHistograms, players.get(1).getGameScore());
+        margins.add(landTotal - waterTotal);
+        games++;
+        if (landTotal > waterTotal) landWins++;
+        else if (waterTotal > landTotal) waterWins++;
+    }
+
+    /**
+     * Add all games of another statistic to this statistic.
+     *
+     * @param other the other statistic, which is not changed.
+     * @return this statistic.
+     */
+    public WegeScoreStatistics combine(WegeScoreStatistics other) {
+        for (int i = 0; i < landHistograms.length; i++) {
+            landHistograms[i].merge(other.landHistograms[i]);
+            waterHistograms[i].merge(other.waterHistograms[i]);
+        }
+        margins.merge(other.margins);
+        games += other.games;
+        landWins += other.landWins;
+        waterWins += other.waterWins;
+        return this;
+    }
+
+    /**
+     * Write the statistic, so it can be sent to another process and combined there.
+     *
+     * @param output the output to write to.
+     * @throws IOException if the statistic cannot be written.
+     */
+    public void write(DataOutput output) throws IOException {
+        output.writeLong(games);
+        output.writeLong(landWins);
+        output.writeLong(waterWins);
+        for (int i = 0; i < landHistograms.length; i++) {
+            landHistograms[i].write(output);
+            waterHistograms[i].write(output);
+        }
+        margins.write(output);
+    }
+
+    /**
+     * Read a statistic written by {@link #write(DataOutput)}.
+     *
+     * @param input the input to read from.
+     * @return the statistic.
+     * @throws IOException if the statistic cannot be read.
+     */
+    public static WegeScoreStatistics read(DataInput input) throws IOException {
+        WegeScoreStatistics statistics = new WegeScoreStatistics();
+        statistics.games = input.readLong();
+        statistics.landWins = input.readLong();
+        statistics.waterWins = input.readLong();
+        for (int i = 0; i < statistics.landHistograms.length; i++) {
+            statistics.landHistograms[i].merge(WegeScoreHistogram.read(input));
+            statistics.waterHistograms[i].merge(WegeScoreHistogram.read(input));
+        }
+        statistics.margins.merge(WegeScoreHistogram.read(input));
+        return statistics;
+    }
+
+    /**
+     * Return the histogram of a score component of a player.
+     *
+     * @param isLandPlayer <code>true</code> for the land player.
+     * @param component the score component.
+     */
+    public WegeScoreHistogram getHistogram(boolean isLandPlayer, Component component) {
+        return (isLandPlayer ? landHistograms : waterHistograms)[component.ordinal()];
+    }
+
+    /**
+     * Return the histogram of the land total minus the water total.
+     */
+    public WegeScoreHistogram getMargins() {
+        return margins;
+    }
+
+    /**
+     * Return the number of games.
+     */
+    public long getGames() {
+        return games;
+    }
+
+    /**
+     * Return the number of games won by the land player.
+     */
+    public long getLandWins() {
+        return landWins;
+    }
+
+    /**
+     * Return the number of games won by the water player.
+     */
+    public long getWaterWins() {
+        return waterWins;
+    }
+
+    /**
+     * Return the number of games which ended in a draw.
+     */
+    public long getDraws() {
+        return games - landWins - waterWins;
+    }
+
+    /**
+     * Add each component of a score to its histogram.
+     *
+     * @return the total of the score.
+     */
+    private static int addScore(WegeScoreHistogram[] histograms, Score score) {
+        int gnomeGroup = score.getIntersectionOfGnomeScore().values().stream()
+                .mapToInt(pair -> pair.getValue()).sum();
+        int total = score.total();
+        histograms[Component.SIDE_CONNECTED.ordinal()].add(score.getSideConnectedScore());
+        histograms[Component.CENTRAL_GROUND.ordinal()].add(score.getCentralGroundScore());
+        histograms[Component.GNOME_GROUP.ordinal()].add(gnomeGroup);
+        histograms[Component.COSSACK.ordinal()].add(score.getCossackScore());
+        histograms[Component.TOTAL.ordinal()].add(total);
+        return total;
+    }
+
+    /**
+     * Create an empty histogram for each component.
+     */
+    private static WegeScoreHistogram[] createHistograms() {
+        WegeScoreHistogram[] histograms = new WegeScoreHistogram[Component.values().length];
+        for (int i = 0; i < histograms.length; i++) {
+            histograms[i] = new WegeScoreHistogram();
+        }
+        return histograms;
+    }
+}
@@ -0,0 +1,360 @@
+package game;
+
+import java.util.SplittableRandom;
+
+/**
+ * An alpha-beta search of a game of Wege with a known deck, for the analysis of replays and
+ * puzzles where the order of the cards is known. Both players see every card to come, so the
+ * game is a two player game of perfect information and the search finds the best moves of both.
+ *
+ * <p>The value of a position is the land score minus the water score of the board, see
+ * {@link WegePosition#evaluate()}, from the side of the player to move. At the end of the game
+ * it is the final result, before that the live score. The search deepens one move at a time
+ * and starts each depth with a small window around the value of the depth before. The moves
+ * are tried in the order of the best move stored in the transposition table, then the killer
+ * moves which refuted other moves at the same depth, then the moves with the most cutoffs in
+ * the history, so most cutoffs happen at the first move.</p>
+ *
+ * <p>A subtree which reaches the end of the game on every line is stored as solved, and is
+ * valid at any depth. Once the whole tree is solved the deepening stops, so an endgame is
+ * solved exactly without searching to the number of cards left. A search must only be used
+ * by one thread, except {@link #stop()}, and many searches can share a transposition table,
+ * see {@link WegeParallelSearch}.</p>
+ */
+public final class WegeSearch {
+
+    /**
+     * The result of a search.
+     *
+     * @param move the best packed move of the player to move, see {@link WegeMove#unpack(int)}.
+     * @param value the value of the position for the player to move.
+     * @param depth the depth of the last search.
+     * @param isSolved whether the value is the exact result of the game with the best moves.
+     * @param nodes the number of positions searched.
+     */
+    public record Result(int move, int value, int depth, boolean isSolved, long nodes) {
+
+        /**
+         * Return the best move, or <code>null</code> if the card must be discarded.
+         */
+        public WegeMove bestMove() {
+            return WegeMove.unpack(move);
+        }
+    }
+
+    /* A value larger than the value of any position. */
+    private static final int INFINITY = 30000;
+
+    /* The half width of the first window of a depth. */
+    private static final int ASPIRATION_WINDOW = 2;
+
+    /* The order of the best move of the transposition table and the killer moves. */
+    private static final int HASH_MOVE_ORDER = 1 << 30;
+    private static final int KILLER_ORDER = 1 << 29;
+
+    /* The largest history of a move, which halves all history when reached. */
+    private static final int HISTORY_LIMIT = 1 << 28;
+
+    /* The largest random history of a move of a helper search. */
+    private static final int HELPER_HISTORY_NOISE = 16;
+
+    /* The transposition table. */
+    private final WegeTranspositionTable table;
+
+    /* 0 for a main search, or the number of a helper search which varies its depths and order. */
+    private final int helper;
+
+    /* Whether the search is asked to stop. */
+    private volatile boolean stopped;
+
+    /* The moves of each ply. */
+    private int[][] moveLists = new int[0][];
+
+    /* The order of the moves of each ply. */
+    private int[][] moveOrders = new int[0][];
+
+    /* The two killer moves of each ply. */
+    private int[] killers = new int[0];
+
+    /* The number of cutoffs weighted by depth of each location, orientation and swap. */
+    private int[] history = new int[0];
+
+    /* The number of columns of the board searched. */
+    private int cols;
+
+    /* The number of positions searched. */
+    private long nodes;
+
+    /* Whether the subtree searched so far stopped at a position before the end of the game. */
+    private boolean horizonReached;
+
+    /* The best move at the root found by the last search. */
+    private int rootMove;
+
+    /**
+     * Create a search.
+     *
+     * @param table the transposition table, which can be kept between searches of the same game.
+     */
+    public WegeSearch(WegeTranspositionTable table) {
+        this(table, 0);
+    }
+
+    /**
+     * Create a helper search of a parallel search. An odd helper starts one depth deeper, and
+     * every helper starts with a random history, so helpers search the tree in other orders
+     * than the main search and fill the shared table with other positions.
+     *
+     * @param table the shared transposition table.
+     * @param helper 0 for the main search, or the number of the helper.
+     */
+    WegeSearch(WegeTranspositionTable table, int helper) {
+        this.table = table;
+        this.helper = helper;
+    }
+
+    /**
+     * Ask the search running on another thread to stop. The search returns the result of its
+     * last complete depth, and the position is the same as before the search.
+     */
+    public void stop() {
+        stopped = true;
+    }
+
+    /**
+     * Search a position to the end of the game.
+     *
+     * @param position the position, which is the same when the search returns.
+     * @return the result, which is solved.
+     */
+    public Result solve(WegePosition position) {
+        return search(position, position.getMaxTurnsLeft());
+    }
+
+    /**
+     * Search a position one depth at a time, until a depth or the end of the game.
+     *
+     * @param position the position, which is the same when the search returns.
+     * @param maxDepth the largest number of moves searched ahead.
+     * @return the result of the deepest search.
+     * @throws IllegalStateException if the game is ended.
+     */
+    public Result search(WegePosition position, int maxDepth) {
+        if (position.isGameEnded()) throw new IllegalStateException("Game is ended!");
+        prepare(position);
+        try {
+            Result result = null;
+            int value = 0;
+            int lastDepth = Math.max(maxDepth, 1);
+            // An odd helper starts a depth ahead, but never past the last depth, so it always has a result.
+            for (int depth = Math.min(1 + (helper & 1), lastDepth); depth <= lastDepth; depth++) {
+                int window = ASPIRATION_WINDOW;
+                int alpha = result == null ? -INFINITY : value - window;
+                int beta = result == null ? INFINITY : value + window;
+                while (true) {
+                    horizonReached = false;
+                    value = alphaBeta(position, depth, 0, alpha, beta);
+                    if (stopped) break;
+                    // Widen the side of the window the value falls out of and search again.
+                    window *= 4;
+                    if (value <= alpha && alpha > -INFINITY) alpha = Math.max(value - window, -INFINITY);
+                    else if (value >= beta && beta < INFINITY) beta = Math.min(value + window, INFINITY);
+                    else break;
+                }
+                if (stopped) {
+                    // Only a depth which is not complete is lost, unless it is the first.
+                    if (result == null) result = new Result(rootMove, value, 0, false, nodes);
+                    break;
+                }
+                result = new Result(rootMove, value, depth, !horizonReached, nodes);
+                if (!horizonReached) break;
+            }
+            return result;
+        } finally {
+            stopped = false;
+        }
+    }
+
+    /**
+     * Search the position after a move at the root with a window, for a search which splits
+     * the moves of the root between threads. The search must be prepared for the position.
+     *
+     * @param position the position at the root.
+     * @param move the move.
+     * @param depth the depth of the root.
+     * @param alpha the lower bound of the window.
+     * @param beta the upper bound of the window.
+     * @return the value of the move for the player to move at the root.
+     */
+    int searchMove(WegePosition position, int move, int depth, int alpha, int beta) {
+        horizonReached = false;
+        position.play(move);
+        int value = -alphaBeta(position, depth - 1, 1, -beta, -alpha);
+        position.undo();
+        return value;
+    }
+
+    /**
+     * Check if the search is asked to stop. A search of a move keeps the request, so a search
+     * which splits the moves of the root stops at every move after it.
+     */
+    boolean isStopped() {
+        return stopped;
+    }
+
+    /**
+     * Check if the last search of a move stopped at a position before the end of the game.
+     */
+    boolean isHorizonReached() {
+        return horizonReached;
+    }
+
+    /**
+     * Return the number of positions searched since the search was prepared.
+     */
+    long getNodes() {
+        return nodes;
+    }
+
+    /**
+     * Search a position with a window.
+     *
+     * @return the value of the position for the player to move, a bound if outside the window.
+     */
+    private int alphaBeta(WegePosition position, int depth, int ply, int alpha, int beta) {
+        nodes++;
+        int sign = position.isLandTurn() ? 1 : -1;
+        if (position.isGameEnded()) return sign * position.evaluate();
+        if (depth == 0) {
+            horizonReached = true;
+            return sign * position.evaluate();
+        }
+        long hash = position.getHash();
+        long entry = table.probe(hash);
+        int hashMove = WegeMove.PASS;
+        if (entry != 0) {
+            hashMove = WegeTranspositionTable.moveOf(entry);
+            int entryDepth = WegeTranspositionTable.depthOf(entry);
+            int entryValue = WegeTranspositionTable.valueOf(entry);
+            int bound = WegeTranspositionTable.boundOf(entry);
+            if (ply > 0 && entryDepth >= depth && (bound == WegeTranspositionTable.EXACT
+                    || bound == WegeTranspositionTable.LOWER && entryValue >= beta
+                    || bound == WegeTranspositionTable.UPPER && entryValue <= alpha)) {
+                if (entryDepth != WegeTranspositionTable.SOLVED) horizonReached = true;
+                return entryValue;
+            }
+        }
+        boolean outerHorizon = horizonReached;
+        horizonReached = false;
+        int[] moves = moveLists[ply];
+        int[] orders = moveOrders[ply];
+        int count = position.generateMoves(moves);
+        orderMoves(moves, orders, count, hashMove, ply);
+        int originalAlpha = alpha;
+        int best = -INFINITY;
+        int bestMove = moves[0];
+        for (int i = 0; i < count; i++) {
+            int move = selectMove(moves, orders, i, count);
+            position.play(move);
+            int value = -alphaBeta(position, depth - 1, ply + 1, -beta, -alpha);
+            position.undo();
+            // The values of a stopped search are not stored or used.
+            if (stopped) return 0;
+            if (value > best) {
+                best = value;
+                bestMove = move;
+                if (ply == 0) rootMove = move;
+            }
+            if (value > alpha) alpha = value;
+            if (alpha >= beta) {
+                recordCutoff(move, depth, ply);
+                break;
+            }
+        }
+        boolean isSolved = !horizonReached;
+        horizonReached |= outerHorizon;
+        int bound = best <= originalAlpha ? WegeTranspositionTable.UPPER
+                : best >= beta ? WegeTranspositionTable.LOWER : WegeTranspositionTable.EXACT;
+        table.store(hash, isSolved ? WegeTranspositionTable.SOLVED : depth, best, bound, bestMove);
+        return best;
+    }
+
+    /**
+     * Give each move its order: the best move of the table first, then the killer moves of the
+     * ply, then the moves by their history.
+     */
+    private void orderMoves(int[] moves, int[] orders, int count, int hashMove, int ply) {
+        for (int i = 0; i < count; i++) {
+            int move = moves[i];
+            if (move == hashMove && hashMove != WegeMove.PASS) orders[i] = HASH_MOVE_ORDER;
+            else if (move == killers[2 * ply]) orders[i] = KILLER_ORDER;
+            else if (move == killers[2 * ply + 1]) orders[i] = KILLER_ORDER - 1;
+            else orders[i] = history[historyIndex(move)];
+        }
+    }
+
+    /**
+     * Move the move with the highest order from the unsearched moves to a place and return it.
+     */
+    private static int selectMove(int[] moves, int[] orders, int place, int count) {
+        int best = place;
+        for (int i = place + 1; i < count; i++) {
+            if (orders[i] > orders[best]) best = i;
+        }
+        int move = moves[best];
+        moves[best] = moves[place];
+        moves[place] = move;
+        int order = orders[best];
+        orders[best] = orders[place];
+        orders[place] = order;
+        return move;
+    }
+
+    /**
+     * Remember a move which caused a cutoff as a killer move of its ply and in the history.
+     */
+    private void recordCutoff(int move, int depth, int ply) {
+        if (move == WegeMove.PASS) return;
+        if (killers[2 * ply] != move) {
+            killers[2 * ply + 1] = killers[2 * ply];
+            killers[2 * ply] = move;
+        }
+        int index = historyIndex(move);
+        history[index] += depth * depth;
+        if (history[index] >= HISTORY_LIMIT) {
+            for (int i = 0; i < history.length; i++) {
+                history[i] >>= 1;
+            }
+        }
+    }
+
+    /**
+     * Return the index of a move in the history: its location, orientation and swap.
+     */
+    private int historyIndex(int move) {
+        return ((move >>> 12) * cols + ((move >>> 4) & 0xFF)) << 3 | (move >>> 1) & 7;
+    }
+
+    /**
+     * Make the move lists, killer moves and history large enough for a position and clear them.
+     */
+    void prepare(WegePosition position) {
+        int plies = position.getMaxTurnsLeft() + 1;
+        int maxMoves = position.maxMoves();
+        if (moveLists.length < plies || moveLists[0].length < maxMoves) {
+            moveLists = new int[plies][maxMoves];
+            moveOrders = new int[plies][maxMoves];
+        }
+        killers = new int[2 * plies];
+        history = new int[position.getRows() * position.getCols() * 8];
+        if (helper > 0) {
+            SplittableRandom random = new SplittableRandom(helper);
+            for (int i = 0; i < history.length; i++) {
+                history[i] = random.nextInt(HELPER_HISTORY_NOISE);
+            }
+        }
+        cols = position.getCols();
+        nodes = 0;
+        rootMove = WegeMove.PASS;
+    }
+}
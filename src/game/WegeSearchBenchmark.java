@@ -0,0 +1,86 @@
+package game;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A benchmark of the scaling of the parallel search with the number of threads, see
+ * {@link WegeParallelSearch}. It searches positions of simulated games on the standard 6x6
+ * board and on a 9x9 board, with the decks of {@link WegeGameSetting}, with 1, 2, 4, ...
+ * threads in each mode, and prints the time, the positions searched and the speedup over
+ * one thread.
+ *
+ * <p>Run it with the largest number of threads as the only argument, by default the number of
+ * processors. Each search starts with an empty table, so the times of the modes compare.</p>
+ */
+public final class WegeSearchBenchmark {
+
+    /* The bytes of the transposition table of each search. */
+    private static final long TABLE_BYTES = 1L << 26;
+
+    /* The seed of the simulated games. */
+    private static final long SEED = 2024;
+
+    /* The number of positions of each board size. */
+    private static final int POSITIONS = 3;
+
+    private WegeSearchBenchmark() {}
+
+    /**
+     * Run the benchmark and print a line for each board size, mode and number of threads.
+     *
+     * @param args the largest number of threads, optional.
+     */
+    public static void main(String[] args) {
+        int maxThreads = args.length > 0 ? Integer.parseInt(args[0]) : Runtime.getRuntime().availableProcessors();
+        // The 6x6 endgames are solved, the 9x9 middle games are searched to a fixed depth.
+        benchmark("6x6 endgame", createPositions(6, 6, 10), Integer.MAX_VALUE, maxThreads);
+        benchmark("9x9 middle game", createPositions(9, 9, 45), 5, maxThreads);
+    }
+
+    /**
+     * Search positions with each mode and number of threads and print the results.
+     */
+    private static void benchmark(String name, List<WegePosition> positions, int depth, int maxThreads) {
+        // Search once without timing, so the compiler has warmed up for the first line.
+        for (WegePosition position : positions) {
+            new WegeSearch(new WegeTranspositionTable(TABLE_BYTES)).search(position, Math.min(depth, position.getMaxTurnsLeft()));
+        }
+        for (WegeParallelSearch.Mode mode : WegeParallelSearch.Mode.values()) {
+            long baseTime = 0;
+            for (int threads = 1; threads <= maxThreads; threads *= 2) {
+                long nodes = 0;
+                long start = System.nanoTime();
+                for (WegePosition position : positions) {
+                    WegeParallelSearch search = new WegeParallelSearch(new WegeTranspositionTable(TABLE_BYTES), threads, mode);
+                    nodes += search.search(position, Math.min(depth, position.getMaxTurnsLeft())).nodes();
+                }
+                long time = System.nanoTime() - start;
+                if (threads == 1) baseTime = time;
+                System.out.printf("%-16s %-20s threads %2d  %8d ms  %12d nodes  speedup %.2f%n",
+                        name, mode, threads, time / 1_000_000, nodes, (double) baseTime / time);
+            }
+        }
+    }
+
+    /**
+     * Create positions of simulated games with a number of locations left empty.
+     */
+    static List<WegePosition> createPositions(int rows, int cols, int emptyCells) {
+        List<WegePosition> positions = new ArrayList<>();
+        WegeSimulator simulator = new WegeSimulator(rows, cols, 0, SEED);
+        for (long game = 0; positions.size() < POSITIONS; game++) {
+            WegeGameRecord record = simulator.recordGame(game);
+            byte[] deck = WegeRules.encodeDeck(WegeGameSetting.createGame(List.of(rows, cols),
+                    WegeRandom.forGame(SEED, game, WegeRandom.Purpose.DECK)).deck());
+            WegePosition position = new WegePosition(rows, cols, deck);
+            for (int i = 0; i < record.moves().length && position.getCardsPlayed() < rows * cols - emptyCells; i++) {
+                position.play(record.moves()[i]);
+            }
+            if (!position.isGameEnded() && position.getCardsPlayed() == rows * cols - emptyCells) {
+                positions.add(position);
+            }
+        }
+        return positions;
+    }
+}
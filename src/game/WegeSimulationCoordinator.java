@@ -0,0 +1,276 @@
+package game;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * A coordinator of a simulation which is too large for one JVM. The games of the simulation
+ * are split into shards of consecutive game numbers, each shard is played by a worker, see
+ * {@link WegeSimulationWorker}, and the statistics of the shards are combined. Every game is
+ * derived from the seed and its number, see {@link WegeRandom}, so the result is the same as
+ * {@link WegeSimulator#simulate(long, int)} however the games are split.
+ *
+ * <p>The coordinator keeps its state in a directory:</p>
+ * <ul>
+ *     <li><code>simulation.properties</code> holds the settings of the simulation, so a
+ *     directory is never resumed with other settings.</li>
+ *     <li><code>shard-&lt;index&gt;.result</code> holds the statistic of a finished shard.
+ *     It is the checkpoint of the shard: a run only starts the shards without a result, so a
+ *     long run can resume after a crash without playing the finished shards again.</li>
+ *     <li><code>shard-&lt;index&gt;.log</code> holds the output of a worker process.</li>
+ * </ul>
+ */
+public final class WegeSimulationCoordinator {
+
+    /**
+     * A range of consecutive games of a simulation.
+     *
+     * @param index the index of the shard.
+     * @param firstGame the number of the first game.
+     * @param games the number of games.
+     */
+    public record Shard(int index, long firstGame, long games) {}
+
+    /**
+     * A way to play a shard and write its result file, see
+     * {@link WegeSimulationWorker#writeResult(Path, long, long, WegeScoreStatistics)}.
+     */
+    public interface ShardRunner {
+
+        /**
+         * Play a shard and write its result file. The shard is finished once this returns.
+         *
+         * @param coordinator the coordinator of the simulation.
+         * @param shard the shard.
+         * @param resultFile the result file of the shard.
+         * @throws IOException if the shard fails.
+         * @throws InterruptedException if the thread is interrupted while waiting for the shard.
+         */
+        void run(WegeSimulationCoordinator coordinator, Shard shard, Path resultFile)
+                throws IOException, InterruptedException;
+    }
+
+    /* The name of the file of the settings of the simulation. */
+    private static final String SETTINGS_FILE = "simulation.properties";
+
+    /* The directory of the state of the simulation. */
+    private final Path directory;
+
+    /* The number of rows of the game boards. */
+    private final int rows;
+
+    /* The number of columns of the game boards. */
+    private final int cols;
+
+    /* 0 for the deck created for the board size, or the number of each special card. */
+    private final int deckVariant;
+
+    /* The seed of the simulation. */
+    private final long seed;
+
+    /* The shards of all games of the simulation. */
+    private final List<Shard> shards = new ArrayList<>();
+
+    /**
+     * Create the coordinator of a simulation, or resume the simulation in a directory.
+     *
+     * @param directory the directory of the state of the simulation, created if absent.
+     * @param rows the number of rows of the game boards.
+     * @param cols the number of columns of the game boards.
+     * @param deckVariant 0 for the deck created for the board size, or the number of each
+     *                    special card of a special deck.
+     * @param seed the seed of the simulation.
+     * @param games the number of games.
+     * @param shardSize the largest number of games of a shard.
+     * @throws IOException if the directory cannot be created or read.
+     * @throws IllegalStateException if the directory holds a simulation with other settings.
+     */
+    public WegeSimulationCoordinator(Path directory, int rows, int cols, int deckVariant, long seed,
+                                     long games, long shardSize) throws IOException {
+        if (games < 0 || shardSize <= 0) throw new IllegalArgumentException("Invalid number of games!");
+        if ((games + shardSize - 1) / shardSize > Integer.MAX_VALUE) throw new IllegalArgumentException("Too many shards!");
+        this.directory = directory;
+        this.rows = rows;
+        this.cols = cols;
+        this.deckVariant = deckVariant;
+        this.seed = seed;
+        for (long first = 0; first < games; first += shardSize) {
+            shards.add(new Shard(shards.size(), first, Math.min(shardSize, games - first)));
+        }
+        Files.createDirectories(directory);
+        checkSettings(games, shardSize);
+    }
+
+    /**
+     * Play the unfinished shards with worker processes and combine the results of all shards.
+     *
+     * @param workers the number of worker processes at the same time.
+     * @param threadsPerWorker the number of threads of each worker.
+     * @return the statistic of all games.
+     * @throws IOException if a shard fails. The other shards are still played and checkpointed.
+     * @throws InterruptedException if the thread is interrupted while waiting for the workers.
+     */
+    public WegeScoreStatistics run(int workers, int threadsPerWorker) throws IOException, InterruptedException {
+        return run(workers, processRunner(System.getProperty("java.class.path"), threadsPerWorker));
+    }
+
+    /**
+     * Play the unfinished shards with a runner and combine the results of all shards.
+     *
+     * @param workers the number of shards played at the same time.
+     * @param runner the runner of the shards.
+     * @return the statistic of all games.
+     * @throws IOException if a shard fails. The other shards are still played and checkpointed.
+     * @throws InterruptedException if the thread is interrupted while waiting for the shards.
+     */
+    public WegeScoreStatistics run(int workers, ShardRunner runner) throws IOException, InterruptedException {
+        ExecutorService executor = Executors.newFixedThreadPool(workers);
+        List<Future<?>> futures = new ArrayList<>();
+        try {
+            for (Shard shard : getPendingShards()) {
+                futures.add(executor.submit(() -> {
+                    runner.run(this, shard, resultFileOf(shard));
+                    return null;
+                }));
+            }
+            IOException failure = null;
+            for (Future<?> future : futures) {
+                try {
+                    future.get();
+                } catch (ExecutionException e) {
+                    IOException cause = e.getCause() instanceof IOException io ? io : new IOException(e.getCause());
+                    if (failure == null) failure = cause;
+                    else failure.addSuppressed(cause);
+                }
+            }
+            if (failure != null) throw failure;
+        } finally {
+            executor.shutdownNow();
+        }
+        WegeScoreStatistics statistics = new WegeScoreStatistics();
+        for (Shard shard : shards) {
+            statistics.combine(WegeSimulationWorker.readResult(resultFileOf(shard), shard.firstGame(), shard.games()));
+        }
+        return statistics;
+    }
+
+    /**
+     * Create a runner which starts a worker JVM for each shard, with the same java command.
+     *
+     * @param classPath the class path of the workers.
+     * @param threads the number of threads of each worker.
+     * @return the runner.
+     */
+    public static ShardRunner processRunner(String classPath, int threads) {
+        String java = ProcessHandle.current().info().command().orElse("java");
+        return (coordinator, shard, resultFile) -> {
+            List<String> command = new ArrayList<>(List.of(java, "-cp", classPath,
+                    WegeSimulationWorker.class.getName()));
+            command.addAll(coordinator.workerArguments(shard, threads, resultFile));
+            Path log = resultFile.resolveSibling("shard-" + shard.index() + ".log");
+            Process process = new ProcessBuilder(command).redirectErrorStream(true)
+                    .redirectOutput(log.toFile()).start();
+            try {
+                int exitCode = process.waitFor();
+                if (exitCode != 0) {
+                    throw new IOException("Shard " + shard.index() + " failed with exit code " + exitCode + "!");
+                }
+            } finally {
+                process.destroy();
+            }
+        };
+    }
+
+    /**
+     * Create a runner which plays each shard in this JVM.
+     *
+     * @param threads the number of threads of each shard.
+     * @return the runner.
+     */
+    public static ShardRunner localRunner(int threads) {
+        return (coordinator, shard, resultFile) -> {
+            WegeSimulator simulator = new WegeSimulator(coordinator.rows, coordinator.cols,
+                    coordinator.deckVariant, coordinator.seed);
+            WegeSimulationWorker.writeResult(resultFile, shard.firstGame(), shard.games(),
+                    simulator.simulate(shard.firstGame(), shard.games(), threads));
+        };
+    }
+
+    /**
+     * Return the arguments of {@link WegeSimulationWorker#main(String[])} to play a shard, so
+     * a runner can start the worker on another node which shares the directory.
+     *
+     * @param shard the shard.
+     * @param threads the number of threads of the worker.
+     * @param resultFile the result file of the shard.
+     * @return the arguments.
+     */
+    public List<String> workerArguments(Shard shard, int threads, Path resultFile) {
+        return List.of(String.valueOf(rows), String.valueOf(cols), String.valueOf(deckVariant),
+                String.valueOf(seed), String.valueOf(shard.firstGame()), String.valueOf(shard.games()),
+                String.valueOf(threads), resultFile.toAbsolutePath().toString());
+    }
+
+    /**
+     * Return all shards of the simulation.
+     */
+    public List<Shard> getShards() {
+        return List.copyOf(shards);
+    }
+
+    /**
+     * Return the shards without a result file.
+     */
+    public List<Shard> getPendingShards() {
+        return shards.stream().filter(shard -> !Files.exists(resultFileOf(shard))).toList();
+    }
+
+    /**
+     * Return the result file of a shard.
+     *
+     * @param shard the shard.
+     */
+    public Path resultFileOf(Shard shard) {
+        return directory.resolve("shard-" + shard.index() + ".result");
+    }
+
+    /**
+     * Write the settings of the simulation, or check that they are the settings written before.
+     */
+    private void checkSettings(long games, long shardSize) throws IOException {
+        Properties settings = new Properties();
+        settings.setProperty("rows", String.valueOf(rows));
+        settings.setProperty("cols", String.valueOf(cols));
+        settings.setProperty("deckVariant", String.valueOf(deckVariant));
+        settings.setProperty("seed", String.valueOf(seed));
+        settings.setProperty("games", String.valueOf(games));
+        settings.setProperty("shardSize", String.valueOf(shardSize));
+        Path file = directory.resolve(SETTINGS_FILE);
+        if (Files.exists(file)) {
+            Properties written = new Properties();
+            try (InputStream input = Files.newInputStream(file)) {
+                written.load(input);
+            }
+            if (!written.equals(settings)) {
+                throw new IllegalStateException("Directory holds a simulation with other settings!");
+            }
+            return;
+        }
+        Path temporary = directory.resolve(SETTINGS_FILE + ".tmp");
+        try (OutputStream output = Files.newOutputStream(temporary)) {
+            settings.store(output, "Wege simulation");
+        }
+        Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+}
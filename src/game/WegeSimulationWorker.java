@@ -0,0 +1,94 @@
+package game;
+
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+
+/**
+ * A worker of a distributed simulation, see {@link WegeSimulationCoordinator}. A worker plays
+ * one shard of the games of a simulation and writes the statistic of their scores to a result
+ * file. The result is written to a temporary file which is moved into place once complete, so
+ * a result file is never seen half written, even when the worker is killed.
+ *
+ * <p>The worker is started as its own JVM with the arguments
+ * <code>rows cols deckVariant seed firstGame games threads resultFile</code>. It needs nothing
+ * but the classes of the game and the result directory, so it can run on another node which
+ * shares the directory.</p>
+ */
+public final class WegeSimulationWorker {
+
+    /* The first int of a result file, "WGSR". */
+    private static final int MAGIC = 0x57475352;
+
+    private WegeSimulationWorker() {}
+
+    /**
+     * Play a shard of a simulation and write its result file.
+     *
+     * @param args the rows, columns, deck variant, seed, first game, number of games,
+     *             number of threads and the result file.
+     * @throws Exception if the shard cannot be played or its result cannot be written.
+     */
+    public static void main(String[] args) throws Exception {
+        if (args.length != 8) {
+            System.err.println("Usage: WegeSimulationWorker rows cols deckVariant seed firstGame games threads resultFile");
+            System.exit(2);
+        }
+        WegeSimulator simulator = new WegeSimulator(Integer.parseInt(args[0]), Integer.parseInt(args[1]),
+                Integer.parseInt(args[2]), Long.parseLong(args[3]));
+        long firstGame = Long.parseLong(args[4]);
+        long games = Long.parseLong(args[5]);
+        WegeScoreStatistics statistics = simulator.simulate(firstGame, games, Integer.parseInt(args[6]));
+        writeResult(Path.of(args[7]), firstGame, games, statistics);
+    }
+
+    /**
+     * Write the result file of a shard, replacing it atomically.
+     *
+     * @param file the result file.
+     * @param firstGame the number of the first game of the shard.
+     * @param games the number of games of the shard.
+     * @param statistics the statistic of the games of the shard.
+     * @throws IOException if the result cannot be written.
+     */
+    public static void writeResult(Path file, long firstGame, long games, WegeScoreStatistics statistics)
+            throws IOException {
+        Path temporary = file.resolveSibling(file.getFileName() + ".tmp");
+        try (OutputStream stream = Files.newOutputStream(temporary);
+             DataOutputStream output = new DataOutputStream(new BufferedOutputStream(stream))) {
+            output.writeInt(MAGIC);
+            output.writeLong(firstGame);
+            output.writeLong(games);
+            statistics.write(output);
+        }
+        Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Read the result file of a shard.
+     *
+     * @param file the result file.
+     * @param firstGame the number of the first game of the shard.
+     * @param games the number of games of the shard.
+     * @return the statistic of the games of the shard.
+     * @throws IOException if the file cannot be read, or is not the result of the shard.
+     */
+    public static WegeScoreStatistics readResult(Path file, long firstGame, long games) throws IOException {
+        try (InputStream stream = Files.newInputStream(file);
+             DataInputStream input = new DataInputStream(stream)) {
+            if (input.readInt() != MAGIC) throw new IOException(file + " is not a simulation result!");
+            if (input.readLong() != firstGame || input.readLong() != games) {
+                throw new IOException(file + " is the result of another shard!");
+            }
+            WegeScoreStatistics statistics = WegeScoreStatistics.read(input);
+            if (statistics.getGames() != games) throw new IOException(file + " misses games!");
+            return statistics;
+        }
+    }
+}
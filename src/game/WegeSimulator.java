@@ -0,0 +1,204 @@
+package game;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.LongStream;
+
+/**
+ * A simulator which plays games of Wege on the game master with random legal moves.
+ * Each game shuffles its deck and chooses its moves with its own generators, see
+ * {@link WegeRandom}, so a game is the same whichever thread plays it, and a simulation
+ * has the same result on any number of threads.
+ */
+public final class WegeSimulator {
+
+    /* The number of games of a chunk of an export. */
+    private static final int EXPORT_CHUNK = 1024;
+
+    /* The number of rows of the game boards. */
+    private final int rows;
+
+    /* The number of columns of the game boards. */
+    private final int cols;
+
+    /* 0 for the deck created for the board size, or the number of each special card. */
+    private final int deckVariant;
+
+    /* The seed of the simulation. */
+    private final long seed;
+
+    /**
+     * Create a simulator.
+     *
+     * @param rows the number of rows of the game boards.
+     * @param cols the number of columns of the game boards.
+     * @param deckVariant 0 for the deck created for the board size, or the number of each
+     *                    special card of a special deck, see {@link WegeGameRecord#deckVariant()}.
+     * @param seed the seed of the simulation.
+     */
+    public WegeSimulator(int rows, int cols, int deckVariant, long seed) {
+        this.rows = rows;
+        this.cols = cols;
+        this.deckVariant = deckVariant;
+        this.seed = seed;
+    }
+
+    /**
+     * Return the number of rows of the game boards.
+     */
+    public int getRows() {
+        return rows;
+    }
+
+    /**
+     * Return the number of columns of the game boards.
+     */
+    public int getCols() {
+        return cols;
+    }
+
+    /**
+     * Play all games of the simulation and collect their scores.
+     *
+     * @param games the number of games.
+     * @param threads the number of threads to play the games.
+     * @return the statistic of the scores.
+     * @throws InterruptedException if the thread is interrupted while waiting for the games.
+     */
+    public WegeScoreStatistics simulate(long games, int threads) throws InterruptedException {
+        return simulate(0, games, threads);
+    }
+
+    /**
+     * Play a range of the games of the simulation and collect their scores.
+     *
+     * @param firstGame the number of the first game.
+     * @param games the number of games.
+     * @param threads the number of threads to play the games.
+     * @return the statistic of the scores.
+     * @throws InterruptedException if the thread is interrupted while waiting for the games.
+     */
+    public WegeScoreStatistics simulate(long firstGame, long games, int threads) throws InterruptedException {
+        ForkJoinPool pool = new ForkJoinPool(threads);
+        try {
+            return pool.submit(() -> LongStream.range(firstGame, firstGame + games).parallel()
+                    .mapToObj(game -> playGame(game, null))
+                    .collect(WegeScoreStatistics.collector())).get();
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Simulation failed!", e.getCause());
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    /**
+     * Play games of the simulation and add their positions to training data in the order of
+     * the games. Each chunk of games is played and encoded in parallel, and then added by the
+     * calling thread, which only compresses the columns.
+     *
+     * @param writer the writer of the training data, of the board size of the simulation.
+     * @param games the number of games.
+     * @param threads the number of threads to play the games.
+     * @throws IOException if the training data cannot be written.
+     * @throws InterruptedException if the thread is interrupted while waiting for the games.
+     */
+    public void export(WegeTrainingData.Writer writer, long games, int threads)
+            throws IOException, InterruptedException {
+        if (games > Integer.MAX_VALUE) throw new IllegalArgumentException("Too many games!");
+        ForkJoinPool pool = new ForkJoinPool(threads);
+        try {
+            for (long firstGame = 0; firstGame < games; firstGame += EXPORT_CHUNK) {
+                long chunkStart = firstGame;
+                long chunkEnd = Math.min(games, firstGame + EXPORT_CHUNK);
+                List<WegeTrainingData.Rows> chunk = pool.submit(() -> LongStream.range(chunkStart, chunkEnd).parallel()
+                        .mapToObj(game -> WegeTrainingData.Rows.ofGame((int) game, recordGame(game))).toList()).get();
+                for (WegeTrainingData.Rows rows : chunk) {
+                    writer.addRows(rows);
+                }
+            }
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Export failed!", e.getCause());
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    /**
+     * Play a game of the simulation and record it.
+     *
+     * @param game the number of the game.
+     * @return the record of the game.
+     */
+    public WegeGameRecord recordGame(long game) {
+        List<WegeMove> moves = new ArrayList<>();
+        List<Byte> cards = new ArrayList<>();
+        List<Player> players = playGame(game, (card, move) -> {
+            cards.add(card);
+            moves.add(move);
+        });
+        int[] packedMoves = moves.stream().mapToInt(move -> move == null ? WegeMove.PASS : move.pack()).toArray();
+        byte[] cardCodes = new byte[cards.size()];
+        for (int i = 0; i < cardCodes.length; i++) {
+            cardCodes[i] = cards.get(i);
+        }
+        return WegeGameRecord.of(rows, cols, deckVariant, players, packedMoves, cardCodes);
+    }
+
+    /**
+     * Play a game of the simulation.
+     *
+     * @param game the number of the game.
+     * @param listener the listener of the moves, or <code>null</code>.
+     * @return the land player and then the water player at the end of the game.
+     */
+    List<Player> playGame(long game, MoveListener listener) {
+        WegeDeck deck = createDeck(game);
+        SplittableRandom policy = WegeRandom.forGame(seed, game, WegeRandom.Purpose.POLICY);
+        WegeGameMaster gameMaster = new WegeGameMaster(new WegePlayingBoard(rows, cols));
+        while (!gameMaster.isGameEnded(deck.size() + (gameMaster.getReplacedCard() == null ? 0 : 1))) {
+            // After a swap the next player plays the replaced card instead of drawing one.
+            WegePlayingCard card = gameMaster.getReplacedCard();
+            if (card == null) card = deck.drawFromFront();
+            byte code = WegeRules.encodeCard(card);
+            List<WegeMove> moves = gameMaster.findLegalMoves(card);
+            WegeMove move = null;
+            if (moves.isEmpty()) {
+                gameMaster.passTurn(card);
+            } else {
+                move = moves.get(policy.nextInt(moves.size()));
+                move.play(gameMaster, card);
+            }
+            if (listener != null) listener.onMove(code, move);
+        }
+        return gameMaster.collectPlayerStatistic();
+    }
+
+    /**
+     * Create the shuffled deck of a game of the simulation.
+     *
+     * @param game the number of the game.
+     * @return the deck, the same for the same game.
+     */
+    WegeDeck createDeck(long game) {
+        List<Integer> arguments = deckVariant == 0 ? List.of(rows, cols) : List.of(rows, cols, deckVariant);
+        return WegeGameSetting.createGame(arguments, WegeRandom.forGame(seed, game, WegeRandom.Purpose.DECK)).deck();
+    }
+
+    /**
+     * A listener of the moves of a game.
+     */
+    interface MoveListener {
+
+        /**
+         * Receive a move.
+         *
+         * @param card the code of the card played, drawn or replaced by the swap before.
+         * @param move the move played, or <code>null</code> if the turn is passed.
+         */
+        void onMove(byte card, WegeMove move);
+    }
+}
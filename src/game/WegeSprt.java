@@ -0,0 +1,138 @@
+package game;
+
+/**
+ * A sequential probability ratio test of the Elo difference of two bots, which tells after
+ * each pair of games if the first bot is better by <code>elo1</code> (H1) or by no more than
+ * <code>elo0</code> (H0), with the error rates <code>alpha</code> and <code>beta</code>.
+ *
+ * <p>The samples are the scores of pairs of games on the same deck with the sides swapped,
+ * 0, 1/4, 1/2, 3/4 or 1 for the first bot, so the luck of the deck cancels out within a pair.
+ * The log likelihood ratio is the normal approximation of the generalized test, from the mean
+ * and the variance of the samples, so it needs no model of the draws.</p>
+ */
+public final class WegeSprt {
+
+    /**
+     * The decision of the test.
+     */
+    public enum Decision {
+        /* The first bot is better by elo1. */
+        H1,
+        /* The first bot is better by no more than elo0. */
+        H0,
+        /* More pairs of games are needed. */
+        CONTINUE
+    }
+
+    /* The smallest variance of a pair score, so bots which always draw are decided too. */
+    private static final double MIN_VARIANCE = 1e-3;
+
+    /* The Elo difference of H0. */
+    private final double elo0;
+
+    /* The Elo difference of H1. */
+    private final double elo1;
+
+    /* The chance to accept H1 when H0 is true. */
+    private final double alpha;
+
+    /* The chance to accept H0 when H1 is true. */
+    private final double beta;
+
+    /* The log likelihood ratio which accepts H0. */
+    private final double lowerBound;
+
+    /* The log likelihood ratio which accepts H1. */
+    private final double upperBound;
+
+    /* The number of samples. */
+    private long samples;
+
+    /* The sum of the samples. */
+    private double sum;
+
+    /* The sum of the squares of the samples. */
+    private double sumOfSquares;
+
+    /**
+     * Create a test.
+     *
+     * @param elo0 the Elo difference of H0.
+     * @param elo1 the Elo difference of H1, larger than elo0.
+     * @param alpha the chance to accept H1 when H0 is true.
+     * @param beta the chance to accept H0 when H1 is true.
+     * @throws IllegalArgumentException if elo1 is not larger than elo0 or an error rate is not
+     * between 0 and 1.
+     */
+    public WegeSprt(double elo0, double elo1, double alpha, double beta) {
+        if (!(elo1 > elo0)) throw new IllegalArgumentException("Elo1 must be larger than elo0!");
+        if (!(alpha > 0 && alpha < 1 && beta > 0 && beta < 1)) throw new IllegalArgumentException("Invalid error rate!");
+        this.elo0 = elo0;
+        this.elo1 = elo1;
+        this.alpha = alpha;
+        this.beta = beta;
+        this.lowerBound = Math.log(beta / (1 - alpha));
+        this.upperBound = Math.log((1 - beta) / alpha);
+    }
+
+    /**
+     * Create a test with the same hypotheses and error rates and no samples.
+     */
+    public WegeSprt copy() {
+        return new WegeSprt(elo0, elo1, alpha, beta);
+    }
+
+    /**
+     * Add the score of a pair of games.
+     *
+     * @param pairScore the score of the first bot, from 0 to 1.
+     */
+    public void add(double pairScore) {
+        samples++;
+        sum += pairScore;
+        sumOfSquares += pairScore * pairScore;
+    }
+
+    /**
+     * Return the log likelihood ratio of H1 against H0.
+     */
+    public double llr() {
+        if (samples < 2) return 0;
+        double mean = sum / samples;
+        double variance = Math.max(sumOfSquares / samples - mean * mean, MIN_VARIANCE);
+        double score0 = WegeEloRatings.scoreOf(elo0);
+        double score1 = WegeEloRatings.scoreOf(elo1);
+        return samples * (score1 - score0) * (2 * mean - score0 - score1) / (2 * variance);
+    }
+
+    /**
+     * Return the decision of the samples so far.
+     */
+    public Decision decide() {
+        double llr = llr();
+        if (llr >= upperBound) return Decision.H1;
+        if (llr <= lowerBound) return Decision.H0;
+        return Decision.CONTINUE;
+    }
+
+    /**
+     * Return the log likelihood ratio which accepts H0.
+     */
+    public double getLowerBound() {
+        return lowerBound;
+    }
+
+    /**
+     * Return the log likelihood ratio which accepts H1.
+     */
+    public double getUpperBound() {
+        return upperBound;
+    }
+
+    /**
+     * Return the number of pairs of games added.
+     */
+    public long getSamples() {
+        return samples;
+    }
+}
@@ -0,0 +1,486 @@
+package game;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.CancellationException;
+
+/**
+ * A tablebase of the endgames of Wege with a few empty locations left. Near the end of a game
+ * the order of the cards left is not known, but which cards are left is. The tablebase holds
+ * the exact expected land score minus water score of a position, when the cards left are drawn
+ * in a uniformly random order and both players play the best move for each card drawn.
+ *
+ * <p>An entry is keyed by the board, see {@link WegePosition#getBoardHash()}, the multiset of
+ * the cards left in the deck, without their orientation, the kind of the card held after a
+ * swap, which the next player plays instead of drawing, and the player to move. The cossacks played before
+ * do not change the rest of the game, so they are not part of the key and are added back when
+ * a position is probed. The board rules depend on the row order of the intersections, so
+ * positions which only differ by a rotation or a mirror are kept apart.</p>
+ *
+ * <p>A {@link Builder} expands the whole endgame of each position added and computes the values
+ * from the filled boards back to the position. The file holds an open addressing hash table of
+ * slots, each the whole 64 bit key and the index of its value, followed by the distinct values
+ * as <code>double</code>. An endgame has far fewer distinct values than positions, so a 16 bit
+ * index mostly suffices and a slot takes 10 bytes instead of 16, while a probe still gives the
+ * same value as the builder. The file is memory mapped, so a probe reads one or two slots and
+ * a value without loading the table.</p>
+ */
+public final class WegeTablebase implements Closeable {
+
+    /* The first int of a tablebase file, "WETB". */
+    private static final int MAGIC = 0x57455442;
+
+    /* The version of the file format, which a tablebase of another version is rejected for. */
+    private static final int FILE_VERSION = 3;
+
+    /* The bytes of the header: magic, rows, columns, empty cells, slot bits, entries, version, values. */
+    private static final int HEADER_SIZE = 32;
+
+    /* The largest number of distinct values whose index fits 16 bits. */
+    private static final int SHORT_VALUES = 1 << 16;
+
+    /* The number of kinds of cards: the card type and the gnome, without the orientation. */
+    private static final int CARD_KINDS = 12;
+
+    /* The largest number of cards of a kind the keys cover. */
+    private static final int MAX_COUNT = 64;
+
+    /* The largest number of slots, so the table fits one mapped buffer. */
+    private static final int MAX_SLOT_BITS = 26;
+
+    /* The keys of each number of cards of each kind, of the water player to move and of each kind of card held. */
+    private static final long[] COUNT_KEYS = new SplittableRandom(0x57455442L).longs(CARD_KINDS * MAX_COUNT + 1 + CARD_KINDS).toArray();
+
+    /* The mapped table. */
+    private final ByteBuffer table;
+
+    /* The file channel of the table. */
+    private final FileChannel channel;
+
+    /* The number of rows of the game boards. */
+    private final int rows;
+
+    /* The number of columns of the game boards. */
+    private final int cols;
+
+    /* The largest number of empty locations of a position. */
+    private final int emptyCells;
+
+    /* The mask of the index of a slot. */
+    private final int slotMask;
+
+    /* The number of entries. */
+    private final int entries;
+
+    /* The bytes of a slot: the key and the index of its value, 16 or 32 bits. */
+    private final int slotSize;
+
+    /* The offset of the distinct values after the slots. */
+    private final int valueBase;
+
+    private WegeTablebase(FileChannel channel, ByteBuffer table) {
+        this.channel = channel;
+        this.table = table;
+        if (table.getInt(0) != MAGIC) throw new IllegalArgumentException("File is not a tablebase!");
+        if (table.getInt(24) != FILE_VERSION) throw new IllegalArgumentException("Unknown tablebase version!");
+        this.rows = table.getInt(4);
+        this.cols = table.getInt(8);
+        this.emptyCells = table.getInt(12);
+        this.slotMask = (1 << table.getInt(16)) - 1;
+        this.entries = table.getInt(20);
+        this.slotSize = slotSizeOf(table.getInt(28));
+        this.valueBase = HEADER_SIZE + slotSize * (slotMask + 1);
+    }
+
+    /**
+     * Build the tablebase of a board size from the endgames of simulated games, and write it to
+     * the file of the board size in a directory, see {@link WegeEndgameSolver#fileName(int, int)}.
+     *
+     * @param args the rows, columns, largest number of empty locations, seed, number of games
+     *             and the directory.
+     * @throws IOException if the file cannot be written.
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length != 6) {
+            System.err.println("Usage: WegeTablebase rows cols emptyCells seed games directory");
+            System.exit(2);
+        }
+        int rows = Integer.parseInt(args[0]);
+        int cols = Integer.parseInt(args[1]);
+        int emptyCells = Integer.parseInt(args[2]);
+        WegeSimulator simulator = new WegeSimulator(rows, cols, 0, Long.parseLong(args[3]));
+        long games = Long.parseLong(args[4]);
+        Builder builder = builder(rows, cols, emptyCells);
+        for (long game = 0; game < games; game++) {
+            WegeGameRecord record = simulator.recordGame(game);
+            WegePosition position = new WegePosition(rows, cols, record.drawnCards());
+            for (int i = 0; i < record.moves().length && rows * cols - position.getCardsPlayed() > emptyCells; i++) {
+                position.play(record.moves()[i]);
+            }
+            // The endgame of a game which ends before is not reached.
+            if (!position.isGameEnded()) builder.add(position);
+        }
+        Path file = Path.of(args[5]).resolve(WegeEndgameSolver.fileName(rows, cols));
+        builder.write(file);
+        System.out.printf("Wrote %d positions to %s%n", builder.size(), file);
+    }
+
+    /**
+     * Open a tablebase file.
+     *
+     * @param file the file.
+     * @return the tablebase, which must be closed.
+     * @throws IOException if the file cannot be read.
+     */
+    public static WegeTablebase open(Path file) throws IOException {
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.READ);
+        try {
+            if (channel.size() > Integer.MAX_VALUE) throw new IOException("Tablebase is too large!");
+            MappedByteBuffer table = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            table.order(ByteOrder.LITTLE_ENDIAN);
+            return new WegeTablebase(channel, table);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Create a builder of a tablebase.
+     *
+     * @param rows the number of rows of the game boards.
+     * @param cols the number of columns of the game boards.
+     * @param emptyCells the largest number of empty locations of a position added.
+     * @return the builder.
+     */
+    public static Builder builder(int rows, int cols, int emptyCells) {
+        return new Builder(rows, cols, emptyCells);
+    }
+
+    /**
+     * Find the expected result of a position, with the cards left in its deck in any order.
+     *
+     * @param position the position.
+     * @return the expected land score minus water score at the end of the game,
+     * or {@link Double#NaN} if the position is not in the tablebase.
+     */
+    public double probe(WegePosition position) {
+        if (position.getRows() != rows || position.getCols() != cols) return Double.NaN;
+        int cossacks = position.getLandCossacks() - position.getWaterCossacks();
+        if (position.isGameEnded()) return position.evaluate();
+        if (rows * cols - position.getCardsPlayed() > emptyCells) return Double.NaN;
+        long key = keyOf(position);
+        for (int slot = (int) key & slotMask; ; slot = (slot + 1) & slotMask) {
+            int offset = HEADER_SIZE + slot * slotSize;
+            long stored = table.getLong(offset);
+            if (stored == 0) return Double.NaN;
+            if (stored == key) {
+                int index = slotSize == 10 ? table.getShort(offset + 8) & 0xFFFF : table.getInt(offset + 8);
+                return table.getDouble(valueBase + index * 8) + cossacks;
+            }
+        }
+    }
+
+    /**
+     * Find the move of the next card of a position with the best expected result for the player
+     * to move, when the cards left after it are drawn in any order.
+     *
+     * @param position the position, which is the same when this returns.
+     * @return the packed move, or {@link WegeMove#PASS} if the card cannot be played or the
+     * positions after the moves are not in the tablebase.
+     * @throws IllegalStateException if the game is ended.
+     */
+    public int findBestMove(WegePosition position) {
+        if (position.isGameEnded()) throw new IllegalStateException("Game is ended!");
+        int[] moves = new int[position.maxMoves()];
+        int count = position.generateMoves(moves);
+        int sign = position.isLandTurn() ? 1 : -1;
+        int bestMove = WegeMove.PASS;
+        double bestValue = Double.NEGATIVE_INFINITY;
+        for (int i = 0; i < count; i++) {
+            position.play(moves[i]);
+            double value = sign * probe(position);
+            position.undo();
+            if (value > bestValue) {
+                bestValue = value;
+                bestMove = moves[i];
+            }
+        }
+        return bestMove;
+    }
+
+    /**
+     * Return the number of positions in the tablebase.
+     */
+    public int size() {
+        return entries;
+    }
+
+    /**
+     * Return the largest number of empty locations of a position in the tablebase.
+     */
+    public int getEmptyCells() {
+        return emptyCells;
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    /**
+     * Return the bytes of a slot of a table with a number of distinct values.
+     */
+    private static int slotSizeOf(int valueCount) {
+        return valueCount <= SHORT_VALUES ? 10 : 12;
+    }
+
+    /**
+     * Count the cards of each kind.
+     */
+    private static int[] countCards(byte[] cards) {
+        int[] counts = new int[CARD_KINDS];
+        for (byte card : cards) {
+            counts[kindOf(card)]++;
+        }
+        return counts;
+    }
+
+    /**
+     * Return the kind of a card, its type and gnome.
+     */
+    private static int kindOf(int card) {
+        return WegeRules.cardTypeOf(card) | WegeRules.gnomeOf(card) << 2;
+    }
+
+    /**
+     * Return the key of a position in a tablebase: its board, the cards left in the deck in any
+     * order, the card held and the player to move, without the cossacks played.
+     */
+    static long keyOf(WegePosition position) {
+        return keyOf(position.getBoardHash(), countCards(position.getDeckLeft()), position.getHeldCard(),
+                position.isLandTurn());
+    }
+
+    /**
+     * Return the key of a board, the cards left in the deck, the card held and the player to move.
+     */
+    private static long keyOf(long boardHash, int[] counts, byte heldCard, boolean isLandTurn) {
+        long key = boardHash ^ (isLandTurn ? 0 : COUNT_KEYS[CARD_KINDS * MAX_COUNT]);
+        if (heldCard != WegeRules.EMPTY) key ^= COUNT_KEYS[CARD_KINDS * MAX_COUNT + 1 + kindOf(heldCard)];
+        for (int kind = 0; kind < CARD_KINDS; kind++) {
+            if (counts[kind] >= MAX_COUNT) throw new IllegalArgumentException("Too many cards of a kind!");
+            key ^= COUNT_KEYS[kind * MAX_COUNT + counts[kind]];
+        }
+        // 0 marks an empty slot of the builder.
+        return key == 0 ? 1 : key;
+    }
+
+    /**
+     * A builder which computes the endgames of positions and writes them to a tablebase file.
+     */
+    public static final class Builder {
+
+        /* The number of rows of the game boards. */
+        private final int rows;
+
+        /* The number of columns of the game boards. */
+        private final int cols;
+
+        /* The largest number of empty locations of a position added. */
+        private final int emptyCells;
+
+        /* The keys computed, in an open addressing table where 0 is an empty slot. */
+        private long[] keys = new long[1 << 10];
+
+        /* The expected result of each key, without the cossacks played before. */
+        private double[] values = new double[1 << 10];
+
+        /* The number of keys computed. */
+        private int size;
+
+        /* The moves of each depth of the endgame. */
+        private int[][] moveLists = new int[0][];
+
+        private Builder(int rows, int cols, int emptyCells) {
+            this.rows = rows;
+            this.cols = cols;
+            this.emptyCells = emptyCells;
+        }
+
+        /**
+         * Compute the endgame of a position and all positions after it.
+         *
+         * @param position the position, whose deck holds the cards left in any order.
+         *                 It is the same when this returns.
+         * @return the expected land score minus water score at the end of the game.
+         * @throws IllegalArgumentException if the position has another board size or too many empty locations.
+         * @throws CancellationException if the thread is interrupted. The positions computed
+         * before are kept, but the position is left in the middle of its endgame.
+         */
+        public double add(WegePosition position) {
+            if (position.getRows() != rows || position.getCols() != cols) {
+                throw new IllegalArgumentException("Position has another board size!");
+            }
+            if (rows * cols - position.getCardsPlayed() > emptyCells) {
+                throw new IllegalArgumentException("Position has too many empty locations!");
+            }
+            byte[] deckLeft = position.getDeckLeft();
+            int maxTurns = position.getMaxTurnsLeft();
+            if (moveLists.length <= maxTurns) moveLists = new int[maxTurns + 1][position.maxMoves()];
+            return expect(position, countCards(deckLeft), deckLeft.length, 0)
+                    + position.getLandCossacks() - position.getWaterCossacks();
+        }
+
+        /**
+         * Return the number of positions computed.
+         */
+        public int size() {
+            return size;
+        }
+
+        /**
+         * Write the tablebase file, replacing it atomically.
+         *
+         * @param file the file.
+         * @throws IOException if the file cannot be written.
+         */
+        public void write(Path file) throws IOException {
+            int slotBits = Math.max(1, 64 - Long.numberOfLeadingZeros(size * 10L / 7));
+            if (slotBits > MAX_SLOT_BITS) throw new IllegalStateException("Tablebase is too large!");
+            int slotMask = (1 << slotBits) - 1;
+            // The distinct values, by their bits so each value is kept exactly.
+            Map<Long, Integer> indexes = new HashMap<>();
+            for (int i = 0; i < keys.length; i++) {
+                if (keys[i] != 0) indexes.putIfAbsent(Double.doubleToLongBits(values[i]), indexes.size());
+            }
+            int slotSize = slotSizeOf(indexes.size());
+            int valueBase = HEADER_SIZE + (slotSize << slotBits);
+            ByteBuffer buffer = ByteBuffer.allocate(valueBase + indexes.size() * 8).order(ByteOrder.LITTLE_ENDIAN);
+            buffer.putInt(0, MAGIC).putInt(4, rows).putInt(8, cols).putInt(12, emptyCells)
+                    .putInt(16, slotBits).putInt(20, size).putInt(24, FILE_VERSION).putInt(28, indexes.size());
+            indexes.forEach((bits, index) -> buffer.putLong(valueBase + index * 8, bits));
+            for (int i = 0; i < keys.length; i++) {
+                long key = keys[i];
+                if (key == 0) continue;
+                int slot = (int) key & slotMask;
+                while (buffer.getLong(HEADER_SIZE + slot * slotSize) != 0) {
+                    slot = (slot + 1) & slotMask;
+                }
+                int offset = HEADER_SIZE + slot * slotSize;
+                int index = indexes.get(Double.doubleToLongBits(values[i]));
+                buffer.putLong(offset, key);
+                if (slotSize == 10) {
+                    buffer.putShort(offset + 8, (short) index);
+                } else {
+                    buffer.putInt(offset + 8, index);
+                }
+            }
+            Path temporary = file.resolveSibling(file.getFileName() + ".tmp");
+            try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.CREATE,
+                    StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+                buffer.rewind();
+                while (buffer.hasRemaining()) {
+                    channel.write(buffer);
+                }
+            }
+            Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        }
+
+        /**
+         * Return the expected result of a position without its cossacks, each card kind left in
+         * the deck being drawn next in proportion to its count, and the player to move choosing
+         * the best move. A card held after a swap is played next without a draw.
+         */
+        private double expect(WegePosition position, int[] counts, int cardsLeft, int depth) {
+            int cossacks = position.getLandCossacks() - position.getWaterCossacks();
+            if (position.isGameEnded()) return position.evaluate() - cossacks;
+            byte heldCard = position.getHeldCard();
+            long key = keyOf(position.getBoardHash(), counts, heldCard, position.isLandTurn());
+            int slot = findSlot(key);
+            if (keys[slot] != 0) return values[slot];
+            if (Thread.currentThread().isInterrupted()) throw new CancellationException("Endgame is interrupted!");
+            int sign = position.isLandTurn() ? 1 : -1;
+            int[] moves = moveLists[depth];
+            if (heldCard != WegeRules.EMPTY) {
+                int count = position.generateMoves(moves);
+                double best = Double.NEGATIVE_INFINITY;
+                for (int i = 0; i < count; i++) {
+                    position.play(moves[i]);
+                    double value = expect(position, counts, cardsLeft, depth + 1)
+                            + position.getLandCossacks() - position.getWaterCossacks() - cossacks;
+                    position.undo();
+                    best = Math.max(best, sign * value);
+                }
+                put(key, sign * best);
+                return sign * best;
+            }
+            double sum = 0;
+            for (int kind = 0; kind < CARD_KINDS; kind++) {
+                if (counts[kind] == 0) continue;
+                int card = WegeRules.encodeCard(kind & 3, WegeRules.TOP_LEFT, kind >>> 2);
+                int count = position.generateMoves(moves, card);
+                counts[kind]--;
+                double best = Double.NEGATIVE_INFINITY;
+                for (int i = 0; i < count; i++) {
+                    position.play(moves[i], card);
+                    double value = expect(position, counts, cardsLeft - 1, depth + 1)
+                            + position.getLandCossacks() - position.getWaterCossacks() - cossacks;
+                    position.undo();
+                    best = Math.max(best, sign * value);
+                }
+                counts[kind]++;
+                sum += counts[kind] * sign * best;
+            }
+            double value = sum / cardsLeft;
+            // The slot found before may have moved while the positions after this one were added.
+            put(key, value);
+            return value;
+        }
+
+        /**
+         * Find the slot of a key, or the empty slot where it belongs.
+         */
+        private int findSlot(long key) {
+            int mask = keys.length - 1;
+            int slot = (int) (key ^ key >>> 32) & mask;
+            while (keys[slot] != 0 && keys[slot] != key) {
+                slot = (slot + 1) & mask;
+            }
+            return slot;
+        }
+
+        /**
+         * Add the value of a key, and double the table when it is 70% full.
+         */
+        private void put(long key, double value) {
+            if (size * 10L >= keys.length * 7L) {
+                long[] oldKeys = keys;
+                double[] oldValues = values;
+                keys = new long[oldKeys.length * 2];
+                values = new double[oldKeys.length * 2];
+                for (int i = 0; i < oldKeys.length; i++) {
+                    if (oldKeys[i] == 0) continue;
+                    int slot = findSlot(oldKeys[i]);
+                    keys[slot] = oldKeys[i];
+                    values[slot] = oldValues[i];
+                }
+            }
+            int slot = findSlot(key);
+            keys[slot] = key;
+            values[slot] = value;
+            size++;
+        }
+    }
+}
@@ -0,0 +1,457 @@
+package game;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Supplier;
+
+/**
+ * A round-robin tournament of bots, played on a pool of threads. Each pairing of two bots
+ * plays rounds of two games on the same deck with the sides swapped, and every pairing of a
+ * round draws the same deck, see {@link WegeRandom}, so no bot has the luck of the deck or of
+ * the first move. The rounds of all pairings are played in order, so the pairings progress
+ * together.
+ *
+ * <p>Each game is written to a results file as soon as it ends, and the Elo ratings of the
+ * bots, see {@link WegeEloRatings}, and the test of each pairing, see {@link WegeSprt}, are
+ * updated with it. A pairing whose test is decided plays no more rounds, so a tournament with
+ * a test stops as soon as every pairing is decided.</p>
+ *
+ * <p>The results file has a header and a line for each game:</p>
+ * <pre>
+ * round,land,water,land_score,water_score,land_fallbacks,water_fallbacks,land_millis,water_millis
+ * </pre>
+ */
+public final class WegeTournament {
+
+    /**
+     * A bot registered in a tournament, which lends the tournament a bot for each round. A bot
+     * is only used by one round at a time.
+     */
+    public interface Entrant {
+
+        /**
+         * Return the name of the entrant.
+         */
+        String getName();
+
+        /**
+         * Take a bot which is not in use.
+         *
+         * @return the bot, which must be released.
+         * @throws IOException if the bot cannot be started.
+         * @throws InterruptedException if the thread is interrupted while it waits.
+         */
+        WegeBot acquire() throws IOException, InterruptedException;
+
+        /**
+         * Give back a bot taken from the entrant.
+         *
+         * @param bot the bot.
+         */
+        void release(WegeBot bot);
+
+        /**
+         * Create an entrant of bots in this application, which keeps the bots it created and
+         * creates another only when all are in use.
+         *
+         * @param name the name of the entrant.
+         * @param factory the factory of the bots.
+         * @return the entrant.
+         */
+        static Entrant of(String name, Supplier<WegeBot> factory) {
+            Deque<WegeBot> idle = new ArrayDeque<>();
+            return new Entrant() {
+                @Override
+                public String getName() {
+                    return name;
+                }
+
+                @Override
+                public WegeBot acquire() {
+                    synchronized (idle) {
+                        if (!idle.isEmpty()) return idle.pop();
+                    }
+                    return factory.get();
+                }
+
+                @Override
+                public void release(WegeBot bot) {
+                    synchronized (idle) {
+                        idle.push(bot);
+                    }
+                }
+            };
+        }
+
+        /**
+         * Create an entrant of the engines of a pool.
+         *
+         * @param name the name of the entrant.
+         * @param pool the pool of the engines.
+         * @return the entrant.
+         */
+        static Entrant of(String name, WegeEnginePool pool) {
+            return new Entrant() {
+                @Override
+                public String getName() {
+                    return name;
+                }
+
+                @Override
+                public WegeBot acquire() throws IOException, InterruptedException {
+                    return pool.acquire();
+                }
+
+                @Override
+                public void release(WegeBot bot) {
+                    pool.release((WegeEngineClient) bot);
+                }
+            };
+        }
+    }
+
+    /**
+     * The standing of a bot.
+     *
+     * @param name the name of the bot.
+     * @param wins the number of games won.
+     * @param draws the number of games drawn.
+     * @param losses the number of games lost.
+     * @param margin the sum of its score minus the score of the other bot.
+     * @param fallbacks the number of fallback moves played for it.
+     * @param millis the milliseconds it took for its moves.
+     * @param elo the Elo rating, with a mean of 0 over all bots.
+     * @param eloError half the width of the 95% confidence interval of the rating.
+     */
+    public record Standing(String name, int wins, int draws, int losses, long margin, int fallbacks, long millis,
+                           double elo, double eloError) {
+
+        /**
+         * Return the points, one for a win and half for a draw.
+         */
+        public double points() {
+            return wins + draws / 2.0;
+        }
+
+        /**
+         * Return the number of games played.
+         */
+        public int games() {
+            return wins + draws + losses;
+        }
+    }
+
+    /**
+     * The head-to-head result of two bots.
+     *
+     * @param first the name of the first bot.
+     * @param second the name of the second bot.
+     * @param rounds the number of rounds of two games played.
+     * @param score the share of the points of the first bot.
+     * @param elo the Elo difference of the first bot from its score.
+     * @param eloError half the width of the 95% confidence interval of the Elo difference.
+     * @param llr the log likelihood ratio of the test, or 0 without a test.
+     * @param decision the decision of the test, or {@link WegeSprt.Decision#CONTINUE} without a test.
+     */
+    public record Pairing(String first, String second, int rounds, double score, double elo, double eloError,
+                          double llr, WegeSprt.Decision decision) {}
+
+    /**
+     * The standings and the pairings of a tournament.
+     *
+     * @param standings the standings in the order the bots are registered.
+     * @param pairings the pairings in round-robin order.
+     */
+    public record Report(List<Standing> standings, List<Pairing> pairings) {}
+
+    /* The header of the results file. */
+    private static final String RESULTS_HEADER =
+            "round,land,water,land_score,water_score,land_fallbacks,water_fallbacks,land_millis,water_millis";
+
+    /* The z value of a 95% confidence interval. */
+    private static final double Z95 = 1.959964;
+
+    /* The number of rows of the game boards. */
+    private final int rows;
+
+    /* The number of columns of the game boards. */
+    private final int cols;
+
+    /* The milliseconds a bot may take for a move. */
+    private final long moveMillis;
+
+    /* The milliseconds a bot may take for all its moves of a game. */
+    private final long gameMillis;
+
+    /* The seed of the decks. */
+    private final long seed;
+
+    /* The test of each pairing, or null. */
+    private final WegeSprt sprt;
+
+    /* Whether the bots think on the time of the other bot. */
+    private final boolean isPondering;
+
+    /* The registered bots. */
+    private final List<Entrant> entrants = new ArrayList<>();
+
+    /* The state of each pairing of the running tournament. */
+    private List<PairingState> pairings = List.of();
+
+    /* The ratings of the running tournament. */
+    private WegeEloRatings ratings;
+
+    /* The wins, draws, losses, fallbacks of each bot. */
+    private int[][] counts;
+
+    /* The margin and the milliseconds of each bot. */
+    private long[][] sums;
+
+    /* The results file of the running tournament, or null. */
+    private BufferedWriter results;
+
+    /**
+     * Create a tournament.
+     *
+     * @param rows the number of rows of the game boards.
+     * @param cols the number of columns of the game boards.
+     * @param moveMillis the milliseconds a bot may take for a move.
+     * @param gameMillis the milliseconds a bot may take for all its moves of a game.
+     * @param seed the seed of the decks.
+     * @param sprt the test of each pairing, which is copied for each pairing, or <code>null</code>
+     *             to play all rounds.
+     * @param isPondering <code>true</code> if the bots think on the time of the other bot, see
+     *                    {@link WegeBot#ponder(WegeGameView)}.
+     */
+    public WegeTournament(int rows, int cols, long moveMillis, long gameMillis, long seed, WegeSprt sprt,
+                          boolean isPondering) {
+        this.rows = rows;
+        this.cols = cols;
+        this.moveMillis = moveMillis;
+        this.gameMillis = gameMillis;
+        this.seed = seed;
+        this.sprt = sprt;
+        this.isPondering = isPondering;
+    }
+
+    /**
+     * Register a bot.
+     *
+     * @param entrant the bot.
+     * @return this tournament.
+     */
+    public WegeTournament register(Entrant entrant) {
+        entrants.add(entrant);
+        return this;
+    }
+
+    /**
+     * Play the tournament.
+     *
+     * @param threads the number of rounds played at the same time.
+     * @param maxRounds the largest number of rounds of each pairing.
+     * @param resultsFile the file of the results of the games, or <code>null</code>.
+     * @return the report of the tournament.
+     * @throws IOException if a bot cannot be started or the results cannot be written.
+     * @throws InterruptedException if the thread is interrupted.
+     * @throws IllegalStateException if fewer than two bots are registered.
+     */
+    public Report run(int threads, int maxRounds, Path resultsFile) throws IOException, InterruptedException {
+        if (entrants.size() < 2) throw new IllegalStateException("Two bots are needed!");
+        List<PairingState> states = new ArrayList<>();
+        for (int first = 0; first < entrants.size(); first++) {
+            for (int second = first + 1; second < entrants.size(); second++) {
+                states.add(new PairingState(first, second, sprt == null ? null : sprt.copy()));
+            }
+        }
+        synchronized (this) {
+            pairings = states;
+            ratings = new WegeEloRatings(entrants.size());
+            counts = new int[entrants.size()][4];
+            sums = new long[entrants.size()][2];
+            if (resultsFile != null) {
+                results = Files.newBufferedWriter(resultsFile);
+                results.write(RESULTS_HEADER);
+                results.newLine();
+            }
+        }
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int round = 0; round < maxRounds; round++) {
+                for (PairingState pairing : states) {
+                    int number = round;
+                    futures.add(executor.submit(() -> {
+                        playRound(pairing, number);
+                        return null;
+                    }));
+                }
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+            return report();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException cause) throw cause;
+            throw new IllegalStateException("Round failed!", e.getCause());
+        } finally {
+            executor.shutdownNow();
+            synchronized (this) {
+                if (results != null) results.close();
+                results = null;
+            }
+        }
+    }
+
+    /**
+     * Return the report of the games played so far, which may be called while the tournament
+     * runs.
+     */
+    public synchronized Report report() {
+        double[] elo = ratings == null ? new double[entrants.size()] : ratings.getRatings();
+        double[] eloErrors = ratings == null ? new double[entrants.size()] : ratings.getErrors();
+        List<Standing> standings = new ArrayList<>();
+        for (int i = 0; i < entrants.size(); i++) {
+            int[] count = counts == null ? new int[4] : counts[i];
+            long[] sum = sums == null ? new long[2] : sums[i];
+            standings.add(new Standing(entrants.get(i).getName(), count[0], count[1], count[2], sum[0], count[3],
+                    sum[1], elo[i], eloErrors[i]));
+        }
+        List<Pairing> report = new ArrayList<>();
+        for (PairingState pairing : pairings) {
+            report.add(pairing.toPairing());
+        }
+        return new Report(standings, report);
+    }
+
+    /**
+     * Play a round of a pairing, unless its test is decided.
+     */
+    private void playRound(PairingState pairing, int round) throws IOException, InterruptedException {
+        synchronized (this) {
+            if (pairing.isDecided()) return;
+        }
+        Entrant first = entrants.get(pairing.first);
+        Entrant second = entrants.get(pairing.second);
+        WegeBot firstBot = first.acquire();
+        try {
+            WegeBot secondBot = second.acquire();
+            try {
+                WegeBotMatch.Result[] games = new WegeBotMatch.Result[2];
+                for (int game = 0; game < 2; game++) {
+                    // Both games draw the same deck.
+                    WegeGameSetting setting = WegeGameSetting.createGame(List.of(rows, cols),
+                            WegeRandom.forGame(seed, round, WegeRandom.Purpose.DECK));
+                    WegeBot land = game == 0 ? firstBot : secondBot;
+                    WegeBot water = game == 0 ? secondBot : firstBot;
+                    games[game] = new WegeBotMatch(land, water, moveMillis, gameMillis, isPondering).play(setting);
+                }
+                record(pairing, round, games);
+            } finally {
+                second.release(secondBot);
+            }
+        } finally {
+            first.release(firstBot);
+        }
+    }
+
+    /**
+     * Write the games of a round and add them to the standings, the ratings and the test.
+     */
+    private synchronized void record(PairingState pairing, int round, WegeBotMatch.Result[] games) throws IOException {
+        double pairScore = 0;
+        for (int game = 0; game < 2; game++) {
+            WegeBotMatch.Result result = games[game];
+            int land = game == 0 ? pairing.first : pairing.second;
+            int water = game == 0 ? pairing.second : pairing.first;
+            if (results != null) {
+                results.write(String.join(",", String.valueOf(round), entrants.get(land).getName(),
+                        entrants.get(water).getName(), String.valueOf(result.landScore()),
+                        String.valueOf(result.waterScore()), String.valueOf(result.landFallbacks()),
+                        String.valueOf(result.waterFallbacks()), String.valueOf(result.landMillis()),
+                        String.valueOf(result.waterMillis())));
+                results.newLine();
+            }
+            double landScore = Integer.compare(result.landScore(), result.waterScore()) / 2.0 + 0.5;
+            ratings.add(land, water, landScore);
+            addStanding(land, landScore, result.landScore() - result.waterScore(), result.landFallbacks(),
+                    result.landMillis());
+            addStanding(water, 1 - landScore, result.waterScore() - result.landScore(), result.waterFallbacks(),
+                    result.waterMillis());
+            pairScore += (game == 0 ? landScore : 1 - landScore) / 2;
+        }
+        if (results != null) results.flush();
+        pairing.add(pairScore);
+    }
+
+    /**
+     * Add a game to the standing of a bot.
+     */
+    private void addStanding(int player, double score, int margin, int fallbacks, long millis) {
+        counts[player][score == 1 ? 0 : score == 0 ? 2 : 1]++;
+        counts[player][3] += fallbacks;
+        sums[player][0] += margin;
+        sums[player][1] += millis;
+    }
+
+    /**
+     * The scores and the test of a pairing.
+     */
+    private final class PairingState {
+
+        /* The first bot. */
+        private final int first;
+
+        /* The second bot. */
+        private final int second;
+
+        /* The test, or null. */
+        private final WegeSprt test;
+
+        /* The number of rounds. */
+        private int rounds;
+
+        /* The sum of the pair scores of the first bot. */
+        private double sum;
+
+        /* The sum of the squares of the pair scores of the first bot. */
+        private double sumOfSquares;
+
+        private PairingState(int first, int second, WegeSprt test) {
+            this.first = first;
+            this.second = second;
+            this.test = test;
+        }
+
+        private void add(double pairScore) {
+            rounds++;
+            sum += pairScore;
+            sumOfSquares += pairScore * pairScore;
+            if (test != null) test.add(pairScore);
+        }
+
+        private boolean isDecided() {
+            return test != null && test.decide() != WegeSprt.Decision.CONTINUE;
+        }
+
+        private Pairing toPairing() {
+            double score = rounds == 0 ? 0.5 : sum / rounds;
+            double variance = rounds == 0 ? 0 : Math.max(sumOfSquares / rounds - score * score, 0);
+            double margin = rounds == 0 ? 0.5 : Z95 * Math.sqrt(variance / rounds);
+            double elo = WegeEloRatings.eloOf(score);
+            double eloError = (WegeEloRatings.eloOf(score + margin) - WegeEloRatings.eloOf(score - margin)) / 2;
+            return new Pairing(entrants.get(first).getName(), entrants.get(second).getName(), rounds, score, elo,
+                    eloError, test == null ? 0 : test.llr(), test == null ? WegeSprt.Decision.CONTINUE : test.decide());
+        }
+    }
+}
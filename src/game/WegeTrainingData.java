@@ -0,0 +1,718 @@
+package game;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * A columnar file of positions of games for offline training, one row for each card drawn.
+ * A row holds the board before the card is played as packed planes of one bit for each
+ * location, the card drawn, the cards left after it, the player to move, the move played and
+ * the final scores of the game, each in a {@link Column} of a fixed width for the board size
+ * of the file.
+ *
+ * <p>The rows are batched into blocks. Each column of a block is stored on its own, compressed
+ * with deflate when that makes it smaller, so a column which rarely changes, such as the
+ * planes of the cossack cards, takes a few bytes. All values are little endian. The file is:</p>
+ * <ul>
+ *     <li>A header of 5 <code>int</code>: the magic number, the rows and columns of the board,
+ *     the rows of a block and the number of columns.</li>
+ *     <li>The blocks: the number of rows of the block as an <code>int</code>, then for each
+ *     column a byte of its codec, 0 for raw and 1 for deflate, and two <code>int</code> of its
+ *     raw and stored length, then the stored bytes of each column.</li>
+ *     <li>A footer: the number of blocks as an <code>int</code> and the position of each block
+ *     as a <code>long</code>, then the position of the footer as a <code>long</code> and the
+ *     magic number as the last 12 bytes of the file.</li>
+ * </ul>
+ *
+ * <p>A header, a block or a footer never crosses a region of 1 GB, the rest of a region is left
+ * empty instead, see {@link WegeMappedFile}. The {@link Rows} of games can be encoded on many
+ * threads, while a {@link Writer} adds them in order and compresses the blocks. A {@link Reader}
+ * maps the file and decodes a block at a time, straight from the mapped bytes. Many threads may
+ * read blocks at once.</p>
+ */
+public final class WegeTrainingData {
+
+    /**
+     * A column of the rows. A plane has one bit for each location, the bit <code>i % 8</code>
+     * of byte <code>i / 8</code> for location <code>i = row * cols + col</code>.
+     */
+    public enum Column {
+        /* The number of the game, an int. */
+        GAME,
+        /* The number of turns taken before the card, a short. */
+        PLY,
+        /*
+         * The planes of the land, water, bridge and cossack cards, of the cards with a gnome and
+         * of the cards with a corner gnome, so a gnome of the GNOME plane only is a path gnome.
+         */
+        LAND,
+        WATER,
+        BRIDGE,
+        COSSACK,
+        GNOME,
+        CORNER_GNOME,
+        /* The orientation of the card at each location, 2 bits for each location. */
+        ORIENTATION,
+        /* The code of the card drawn, a byte, see WegeRules#encodeCard(int, int, int). */
+        CARD,
+        /* The cards left after the card drawn, 5 shorts: water, land, bridge, cossack and with a gnome. */
+        CARDS_LEFT,
+        /* 1 if the land player plays the card, 0 for water, a byte. */
+        SIDE,
+        /* The packed move played, an int, see WegeMove#pack(int, int, int, boolean). */
+        MOVE,
+        /* The final scores of the game, shorts. */
+        LAND_SCORE,
+        WATER_SCORE;
+
+        /**
+         * Return the number of bytes of this column in a row.
+         *
+         * @param cells the number of locations of the board.
+         */
+        public int widthOf(int cells) {
+            return switch (this) {
+                case GAME, MOVE -> Integer.BYTES;
+                case PLY, LAND_SCORE, WATER_SCORE -> Short.BYTES;
+                case LAND, WATER, BRIDGE, COSSACK, GNOME, CORNER_GNOME -> (cells + 7) / 8;
+                case ORIENTATION -> (cells + 3) / 4;
+                case CARD, SIDE -> 1;
+                case CARDS_LEFT -> 5 * Short.BYTES;
+            };
+        }
+    }
+
+    /* The first bytes and the last bytes of a file. */
+    private static final int FILE_MAGIC = 0x57455444;
+
+    /* The number of bytes of a mapped region of a file. */
+    private static final int REGION_SIZE = 1 << 30;
+
+    /* The number of rows of a block. */
+    private static final int BLOCK_ROWS = 1 << 16;
+
+    /* The number of bytes of the header of a file. */
+    private static final int HEADER_SIZE = 5 * Integer.BYTES;
+
+    /* The number of bytes of the entry of a column in a block. */
+    private static final int COLUMN_ENTRY_SIZE = 1 + 2 * Integer.BYTES;
+
+    /* The codecs of a column. */
+    private static final byte RAW = 0;
+    private static final byte DEFLATE = 1;
+
+    /* The columns, by ordinal. */
+    private static final Column[] COLUMNS = Column.values();
+
+    private WegeTrainingData() {}
+
+    /**
+     * Export the positions of games of the simulator to a file and print its size.
+     *
+     * @param args <code>rows cols games file [threads] [seed]</code>, the board size, the number
+     *             of games, the file, the number of threads, by default the number of
+     *             processors, and the seed.
+     * @throws IOException if the file cannot be written.
+     * @throws InterruptedException if the thread is interrupted.
+     */
+    public static void main(String[] args) throws IOException, InterruptedException {
+        if (args.length < 4 || args.length > 6) {
+            System.err.println("Usage: java game.WegeTrainingData rows cols games file [threads] [seed]");
+            System.exit(2);
+            return;
+        }
+        int rows = Integer.parseInt(args[0]);
+        int cols = Integer.parseInt(args[1]);
+        long games = Long.parseLong(args[2]);
+        Path file = Path.of(args[3]);
+        int threads = args.length > 4 ? Integer.parseInt(args[4]) : Runtime.getRuntime().availableProcessors();
+        long seed = args.length > 5 ? Long.parseLong(args[5]) : 0;
+        long start = System.nanoTime();
+        long positions;
+        try (Writer writer = new Writer(file, rows, cols)) {
+            new WegeSimulator(rows, cols, 0, seed).export(writer, games, threads);
+            positions = writer.size();
+        }
+        long millis = (System.nanoTime() - start) / 1_000_000;
+        try (Reader reader = new Reader(file)) {
+            System.out.printf("Wrote %d positions of %d games in %d blocks to %s in %d ms, %.1f bytes per position%n",
+                    positions, games, reader.blocks(), file, millis,
+                    (double) reader.fileSize() / Math.max(positions, 1));
+        }
+    }
+
+    /**
+     * Encoded rows of positions, a buffer for each column. The rows of a game can be encoded
+     * on any thread and then added to a {@link Writer}.
+     */
+    public static final class Rows {
+
+        /* The number of rows of the board. */
+        private final int rows;
+
+        /* The number of columns of the board. */
+        private final int cols;
+
+        /* The number of bytes of each column in a row. */
+        private final int[] widths = new int[COLUMNS.length];
+
+        /* The rows, a buffer for each column. */
+        private final ByteBuffer[] columns = new ByteBuffer[COLUMNS.length];
+
+        /* The number of rows. */
+        private int size;
+
+        /**
+         * Create empty rows.
+         *
+         * @param rows the number of rows of the board.
+         * @param cols the number of columns of the board.
+         * @param capacity the maximum number of rows.
+         */
+        public Rows(int rows, int cols, int capacity) {
+            this.rows = rows;
+            this.cols = cols;
+            for (Column column : COLUMNS) {
+                widths[column.ordinal()] = column.widthOf(rows * cols);
+                columns[column.ordinal()] = ByteBuffer.allocate(capacity * widths[column.ordinal()])
+                        .order(ByteOrder.LITTLE_ENDIAN);
+            }
+        }
+
+        /**
+         * Encode the positions of a game, one for each card drawn.
+         *
+         * @param game the number of the game.
+         * @param record the record of the game.
+         * @return the rows of the game.
+         */
+        public static Rows ofGame(int game, WegeGameRecord record) {
+            Rows rows = new Rows(record.rows(), record.cols(), record.moves().length);
+            WegePosition position = new WegePosition(record.rows(), record.cols(), record.drawnCards());
+            for (int move : record.moves()) {
+                rows.add(game, position, move, record.landScore(), record.waterScore());
+                position.play(move);
+            }
+            return rows;
+        }
+
+        /**
+         * Add a position before its next card is played.
+         *
+         * @param game the number of the game.
+         * @param position the position, of the board size of the rows.
+         * @param move the packed move of the next card.
+         * @param landScore the final land score of the game.
+         * @param waterScore the final water score of the game.
+         */
+        public void add(int game, WegePosition position, int move, int landScore, int waterScore) {
+            if (position.isGameEnded()) throw new IllegalStateException("Game is ended!");
+            if (size == capacity()) throw new IllegalStateException("Rows are full!");
+            int card = position.peekCard();
+            column(Column.GAME).putInt(game);
+            column(Column.PLY).putShort((short) position.getTurn());
+            putPlanes(position);
+            column(Column.CARD).put((byte) card);
+            // The counts of the position hold the card drawn.
+            int cardType = WegeRules.cardTypeOf(card);
+            ByteBuffer cardsLeft = column(Column.CARDS_LEFT);
+            for (int type = WegeRules.WATER; type <= WegeRules.COSSACK; type++) {
+                cardsLeft.putShort((short) (position.countCardsLeft(type) - (type == cardType ? 1 : 0)));
+            }
+            boolean hasGnome = WegeRules.gnomeOf(card) != WegeRules.NO_GNOME;
+            cardsLeft.putShort((short) (position.countGnomeCardsLeft() - (hasGnome ? 1 : 0)));
+            column(Column.SIDE).put((byte) (position.isLandTurn() ? 1 : 0));
+            column(Column.MOVE).putInt(move);
+            column(Column.LAND_SCORE).putShort((short) landScore);
+            column(Column.WATER_SCORE).putShort((short) waterScore);
+            size++;
+        }
+
+        /**
+         * Return the number of rows.
+         */
+        public int size() {
+            return size;
+        }
+
+        /**
+         * Return the maximum number of rows.
+         */
+        int capacity() {
+            return columns[0].capacity() / widths[0];
+        }
+
+        /**
+         * Copy rows of other rows of the same board size to the end of these rows.
+         *
+         * @param other the other rows.
+         * @param first the first row to copy.
+         * @param count the number of rows to copy.
+         */
+        void addAll(Rows other, int first, int count) {
+            for (int i = 0; i < COLUMNS.length; i++) {
+                columns[i].put(other.columns[i].array(), first * widths[i], count * widths[i]);
+            }
+            size += count;
+        }
+
+        /**
+         * Remove all rows.
+         */
+        void clear() {
+            for (ByteBuffer column : columns) {
+                column.clear();
+            }
+            size = 0;
+        }
+
+        /**
+         * Put the planes and the orientations of the board of a position.
+         */
+        private void putPlanes(WegePosition position) {
+            int cells = rows * cols;
+            for (int i = Column.LAND.ordinal(); i <= Column.ORIENTATION.ordinal(); i++) {
+                // The buffers are reused, so the bits of the row are cleared first.
+                int start = columns[i].position();
+                Arrays.fill(columns[i].array(), start, start + widths[i], (byte) 0);
+            }
+            for (int cell = 0; cell < cells; cell++) {
+                int code = position.findCard(cell / cols, cell % cols);
+                if (code == WegeRules.EMPTY) continue;
+                int type = WegeRules.cardTypeOf(code);
+                // The card types are in the order of the planes after land and water.
+                setBit(type == WegeRules.LAND ? Column.LAND : type == WegeRules.WATER ? Column.WATER
+                        : type == WegeRules.BRIDGE ? Column.BRIDGE : Column.COSSACK, cell);
+                if (WegeRules.gnomeOf(code) != WegeRules.NO_GNOME) setBit(Column.GNOME, cell);
+                if (WegeRules.gnomeOf(code) == WegeRules.CORNER_GNOME) setBit(Column.CORNER_GNOME, cell);
+                ByteBuffer orientations = column(Column.ORIENTATION);
+                int index = orientations.position() + (cell >>> 2);
+                orientations.array()[index] |= (byte) (WegeRules.orientationOf(code) << 2 * (cell & 3));
+            }
+            for (int i = Column.LAND.ordinal(); i <= Column.ORIENTATION.ordinal(); i++) {
+                columns[i].position(columns[i].position() + widths[i]);
+            }
+        }
+
+        /**
+         * Set the bit of a location in a plane of the row being added.
+         */
+        private void setBit(Column plane, int cell) {
+            ByteBuffer bytes = column(plane);
+            bytes.array()[bytes.position() + (cell >>> 3)] |= (byte) (1 << (cell & 7));
+        }
+
+        /**
+         * Return the buffer of a column.
+         */
+        private ByteBuffer column(Column column) {
+            return columns[column.ordinal()];
+        }
+    }
+
+    /**
+     * A writer of a file, which must be closed to write the last block and the footer.
+     * A writer must only be used by one thread.
+     */
+    public static final class Writer implements Closeable {
+
+        /* The file. */
+        private final WegeMappedFile file;
+
+        /* The number of rows of the board. */
+        private final int rows;
+
+        /* The number of columns of the board. */
+        private final int cols;
+
+        /* The rows of the block being written. */
+        private final Rows block;
+
+        /* The positions of the blocks written. */
+        private final List<Long> blockPositions = new ArrayList<>();
+
+        /* The compressor of the columns. */
+        private final Deflater deflater = new Deflater();
+
+        /* The buffer to compress a column. */
+        private byte[] compressed = new byte[0];
+
+        /* The number of rows written. */
+        private long size;
+
+        /**
+         * Create a file for a board size, replacing the file if it exists.
+         *
+         * @param file the file.
+         * @param rows the number of rows of the board.
+         * @param cols the number of columns of the board.
+         * @throws IOException if the file cannot be written.
+         */
+        public Writer(Path file, int rows, int cols) throws IOException {
+            this(file, rows, cols, BLOCK_ROWS, REGION_SIZE);
+        }
+
+        /**
+         * Create a file with a number of rows of a block and a size of the mapped regions.
+         * Use only for unit test.
+         */
+        Writer(Path file, int rows, int cols, int blockRows, int regionSize) throws IOException {
+            if (rows <= 0 || cols <= 0 || rows > 255 || cols > 255) throw new IllegalArgumentException("Invalid board size!");
+            int rowWidth = 0;
+            for (Column column : COLUMNS) {
+                rowWidth += column.widthOf(rows * cols);
+            }
+            // A column which does not compress is stored raw, so a block is never larger than its raw rows.
+            if ((long) blockRows * rowWidth + COLUMNS.length * COLUMN_ENTRY_SIZE + Integer.BYTES > regionSize) {
+                throw new IllegalArgumentException("Block is too large!");
+            }
+            this.rows = rows;
+            this.cols = cols;
+            this.block = new Rows(rows, cols, blockRows);
+            this.file = new WegeMappedFile(file, regionSize);
+            this.file.truncate(0);
+            this.file.append(ByteBuffer.allocate(HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN)
+                    .putInt(FILE_MAGIC).putInt(rows).putInt(cols).putInt(blockRows).putInt(COLUMNS.length).flip());
+        }
+
+        /**
+         * Add the positions of a game, one for each card drawn.
+         *
+         * @param game the number of the game.
+         * @param record the record of the game, of the board size of the file.
+         * @throws IOException if the file cannot be written.
+         */
+        public void addGame(int game, WegeGameRecord record) throws IOException {
+            if (record.rows() != rows || record.cols() != cols) throw new IllegalArgumentException("Invalid board size!");
+            addRows(Rows.ofGame(game, record));
+        }
+
+        /**
+         * Add a position before its next card is played.
+         *
+         * @param game the number of the game.
+         * @param position the position, of the board size of the file.
+         * @param move the packed move of the next card.
+         * @param landScore the final land score of the game.
+         * @param waterScore the final water score of the game.
+         * @throws IOException if the file cannot be written.
+         */
+        public void add(int game, WegePosition position, int move, int landScore, int waterScore) throws IOException {
+            block.add(game, position, move, landScore, waterScore);
+            size++;
+            if (block.size() == block.capacity()) writeBlock();
+        }
+
+        /**
+         * Add encoded rows, which may be split over blocks.
+         *
+         * @param other the rows, of the board size of the file.
+         * @throws IOException if the file cannot be written.
+         */
+        public void addRows(Rows other) throws IOException {
+            if (other.rows != rows || other.cols != cols) throw new IllegalArgumentException("Invalid board size!");
+            for (int first = 0; first < other.size(); ) {
+                int count = Math.min(other.size() - first, block.capacity() - block.size());
+                block.addAll(other, first, count);
+                first += count;
+                size += count;
+                if (block.size() == block.capacity()) writeBlock();
+            }
+        }
+
+        /**
+         * Return the number of rows added.
+         */
+        public long size() {
+            return size;
+        }
+
+        @Override
+        public void close() throws IOException {
+            try {
+                if (block.size() > 0) writeBlock();
+                ByteBuffer footer = ByteBuffer.allocate(Integer.BYTES + blockPositions.size() * Long.BYTES)
+                        .order(ByteOrder.LITTLE_ENDIAN).putInt(blockPositions.size());
+                for (long blockPosition : blockPositions) {
+                    footer.putLong(blockPosition);
+                }
+                long footerPosition = file.append(footer.flip());
+                file.append(ByteBuffer.allocate(Long.BYTES + Integer.BYTES).order(ByteOrder.LITTLE_ENDIAN)
+                        .putLong(footerPosition).putInt(FILE_MAGIC).flip());
+                file.force();
+            } finally {
+                deflater.end();
+                file.close();
+            }
+        }
+
+        /**
+         * Write the rows of the block, each column compressed if that makes it smaller.
+         */
+        private void writeBlock() throws IOException {
+            int entriesSize = Integer.BYTES + COLUMNS.length * COLUMN_ENTRY_SIZE;
+            byte[][] stored = new byte[COLUMNS.length][];
+            byte[] codecs = new byte[COLUMNS.length];
+            int blockBytes = entriesSize;
+            for (int i = 0; i < COLUMNS.length; i++) {
+                ByteBuffer column = block.columns[i];
+                int rawLength = column.position();
+                if (compressed.length < rawLength + 64) compressed = new byte[rawLength + 64];
+                deflater.reset();
+                deflater.setInput(column.array(), 0, rawLength);
+                deflater.finish();
+                int length = deflater.deflate(compressed);
+                if (deflater.finished() && length < rawLength) {
+                    codecs[i] = DEFLATE;
+                    stored[i] = Arrays.copyOf(compressed, length);
+                } else {
+                    codecs[i] = RAW;
+                    stored[i] = Arrays.copyOf(column.array(), rawLength);
+                }
+                blockBytes += stored[i].length;
+            }
+            ByteBuffer bytes = ByteBuffer.allocate(blockBytes).order(ByteOrder.LITTLE_ENDIAN).putInt(block.size());
+            for (int i = 0; i < COLUMNS.length; i++) {
+                bytes.put(codecs[i]).putInt(block.columns[i].position()).putInt(stored[i].length);
+            }
+            for (byte[] column : stored) {
+                bytes.put(column);
+            }
+            blockPositions.add(file.append(bytes.flip()));
+            block.clear();
+        }
+    }
+
+    /**
+     * A reader of a file through memory mapped regions.
+     */
+    public static final class Reader implements Closeable {
+
+        /* The file. */
+        private final WegeMappedFile file;
+
+        /* The number of rows of the board. */
+        private final int rows;
+
+        /* The number of columns of the board. */
+        private final int cols;
+
+        /* The position of each block. */
+        private final long[] blockPositions;
+
+        /**
+         * Open a file.
+         *
+         * @param file the file, written and closed by a {@link Writer}.
+         * @throws IOException if the file cannot be read or is not complete training data.
+         */
+        public Reader(Path file) throws IOException {
+            this(file, REGION_SIZE);
+        }
+
+        /**
+         * Open a file with a size of the mapped regions.
+         * Use only for unit test.
+         */
+        Reader(Path file, int regionSize) throws IOException {
+            this.file = new WegeMappedFile(file, regionSize);
+            try {
+                long size = this.file.size();
+                int trailer = Long.BYTES + Integer.BYTES;
+                if (size < HEADER_SIZE + trailer || this.file.getInt(0) != FILE_MAGIC
+                        || this.file.getInt(size - Integer.BYTES) != FILE_MAGIC
+                        || this.file.getInt(4 * Integer.BYTES) != COLUMNS.length) {
+                    throw new IOException("File is not complete training data!");
+                }
+                this.rows = this.file.getInt(Integer.BYTES);
+                this.cols = this.file.getInt(2 * Integer.BYTES);
+                long footerPosition = this.file.getLong(size - trailer);
+                this.blockPositions = new long[this.file.getInt(footerPosition)];
+                for (int i = 0; i < blockPositions.length; i++) {
+                    blockPositions[i] = this.file.getLong(footerPosition + Integer.BYTES + (long) i * Long.BYTES);
+                }
+            } catch (IOException | RuntimeException e) {
+                this.file.close();
+                throw e;
+            }
+        }
+
+        /**
+         * Return the number of rows of the board.
+         */
+        public int getRows() {
+            return rows;
+        }
+
+        /**
+         * Return the number of columns of the board.
+         */
+        public int getCols() {
+            return cols;
+        }
+
+        /**
+         * Return the number of blocks.
+         */
+        public int blocks() {
+            return blockPositions.length;
+        }
+
+        /**
+         * Return the number of bytes of the file.
+         */
+        public long fileSize() {
+            return file.size();
+        }
+
+        /**
+         * Decode a block. A raw column is read from the mapped bytes without a copy.
+         *
+         * @param index the index of the block.
+         * @return the block.
+         * @throws IOException if the block cannot be read or decoded.
+         */
+        public Block readBlock(int index) throws IOException {
+            long position = blockPositions[index];
+            ByteBuffer region = file.regionOf(position);
+            int offset = file.offsetOf(position);
+            int size = region.getInt(offset);
+            int data = offset + Integer.BYTES + COLUMNS.length * COLUMN_ENTRY_SIZE;
+            ByteBuffer[] columns = new ByteBuffer[COLUMNS.length];
+            Inflater inflater = null;
+            try {
+                for (int i = 0; i < COLUMNS.length; i++) {
+                    int entry = offset + Integer.BYTES + i * COLUMN_ENTRY_SIZE;
+                    int rawLength = region.getInt(entry + 1);
+                    int storedLength = region.getInt(entry + 1 + Integer.BYTES);
+                    if (rawLength != size * COLUMNS[i].widthOf(rows * cols)) {
+                        throw new IOException("Block " + index + " is not valid!");
+                    }
+                    ByteBuffer stored = region.slice(data, storedLength);
+                    if (region.get(entry) == RAW) {
+                        columns[i] = stored.order(ByteOrder.LITTLE_ENDIAN);
+                    } else {
+                        if (inflater == null) inflater = new Inflater();
+                        inflater.reset();
+                        inflater.setInput(stored);
+                        byte[] raw = new byte[rawLength];
+                        int length = 0;
+                        while (length < rawLength && !inflater.finished()) {
+                            int inflated = inflater.inflate(raw, length, rawLength - length);
+                            if (inflated == 0 && (inflater.needsInput() || inflater.needsDictionary())) break;
+                            length += inflated;
+                        }
+                        if (length != rawLength) throw new IOException("Block " + index + " is not valid!");
+                        columns[i] = ByteBuffer.wrap(raw).order(ByteOrder.LITTLE_ENDIAN);
+                    }
+                    data += storedLength;
+                }
+            } catch (DataFormatException e) {
+                throw new IOException("Block " + index + " is not valid!", e);
+            } finally {
+                if (inflater != null) inflater.end();
+            }
+            return new Block(rows * cols, size, columns);
+        }
+
+        @Override
+        public void close() throws IOException {
+            file.close();
+        }
+    }
+
+    /**
+     * The decoded rows of a block.
+     */
+    public static final class Block {
+
+        /* The number of locations of the board. */
+        private final int cells;
+
+        /* The number of rows. */
+        private final int size;
+
+        /* The bytes of each column. */
+        private final ByteBuffer[] columns;
+
+        private Block(int cells, int size, ByteBuffer[] columns) {
+            this.cells = cells;
+            this.size = size;
+            this.columns = columns;
+        }
+
+        /**
+         * Return the number of rows.
+         */
+        public int size() {
+            return size;
+        }
+
+        /**
+         * Return the bytes of a column, all rows one after the other, for a host which copies
+         * whole columns into its own arrays.
+         *
+         * @return a read-only little endian buffer.
+         */
+        public ByteBuffer column(Column column) {
+            return columns[column.ordinal()].asReadOnlyBuffer().order(ByteOrder.LITTLE_ENDIAN);
+        }
+
+        /**
+         * Return the value of a column of a byte, a short or an int in a row.
+         *
+         * @throws IllegalArgumentException if the column is a plane or the cards left.
+         */
+        public int getInt(Column column, int row) {
+            ByteBuffer bytes = columns[column.ordinal()];
+            return switch (column.widthOf(cells)) {
+                case 1 -> bytes.get(row);
+                case Short.BYTES -> bytes.getShort(row * Short.BYTES);
+                case Integer.BYTES -> bytes.getInt(row * Integer.BYTES);
+                default -> throw new IllegalArgumentException("Column is not a number!");
+            };
+        }
+
+        /**
+         * Check if a location is set in a plane of a row.
+         *
+         * @param plane one of the planes, {@link Column#LAND} to {@link Column#CORNER_GNOME}.
+         * @param row the row.
+         * @param cell the location, <code>row * cols + col</code> on the board.
+         */
+        public boolean isSet(Column plane, int row, int cell) {
+            if (plane.ordinal() < Column.LAND.ordinal() || plane.ordinal() > Column.CORNER_GNOME.ordinal()) {
+                throw new IllegalArgumentException("Column is not a plane!");
+            }
+            int width = plane.widthOf(cells);
+            return (columns[plane.ordinal()].get(row * width + (cell >>> 3)) >>> (cell & 7) & 1) != 0;
+        }
+
+        /**
+         * Return the orientation of the card at a location of a row, 0 if there is no card.
+         */
+        public int getOrientation(int row, int cell) {
+            int width = Column.ORIENTATION.widthOf(cells);
+            return columns[Column.ORIENTATION.ordinal()].get(row * width + (cell >>> 2)) >>> 2 * (cell & 3) & 3;
+        }
+
+        /**
+         * Return the number of cards left after the card drawn in a row.
+         *
+         * @param cardType the card type, see {@link WegeRules#WATER}, or 4 for the cards with a gnome.
+         */
+        public int getCardsLeft(int row, int cardType) {
+            return columns[Column.CARDS_LEFT.ordinal()].getShort(row * Column.CARDS_LEFT.widthOf(cells)
+                    + cardType * Short.BYTES);
+        }
+    }
+}
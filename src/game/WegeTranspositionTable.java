@@ -0,0 +1,159 @@
+package game;
+
+import java.util.Arrays;
+
+/**
+ * A transposition table of a game tree search, see {@link WegeSearch}. It maps the hash of a
+ * position, see {@link WegePosition#getHash()}, to the value found by an earlier search of
+ * that position, the depth of that search and its best move.
+ *
+ * <p>The entries are stored in two <code>long</code> arrays, the hashes and the packed data,
+ * in buckets of two entries. The first entry of a bucket keeps the deepest search and the
+ * second entry keeps the latest, so deep results survive while the table fills up.</p>
+ *
+ * <p>The table is shared by the threads of a parallel search without locks. The hash slot of
+ * an entry holds the hash XOR the data, so an entry is only found when both of its words were
+ * written by the same store. An entry torn by two threads storing at the same time does not
+ * match any hash and is treated as missing, which only costs a search.</p>
+ */
+public final class WegeTranspositionTable {
+
+    /* The bounds of a value. */
+    public static final int EXACT = 0;
+    public static final int LOWER = 1;
+    public static final int UPPER = 2;
+
+    /* The depth of an entry which is solved to the end of the game and valid at any depth. */
+    public static final int SOLVED = 255;
+
+    /* The bytes of an entry. */
+    private static final int ENTRY_BYTES = 16;
+
+    /* The shifts of the fields of the packed data. */
+    private static final int VALUE_SHIFT = 20;
+    private static final int DEPTH_SHIFT = 36;
+    private static final int BOUND_SHIFT = 44;
+
+    /* The bit of the packed data of an entry which is stored. */
+    private static final long STORED = 1L << 46;
+
+    /* The hashes of the entries XOR their data. */
+    private final long[] hashes;
+
+    /* The packed data of the entries. */
+    private final long[] data;
+
+    /* The mask of the index of a bucket. */
+    private final int bucketMask;
+
+    /**
+     * Create an empty table.
+     *
+     * @param bytes the largest number of bytes of the table, rounded down to a power of 2.
+     */
+    public WegeTranspositionTable(long bytes) {
+        long entries = Long.highestOneBit(Math.max(bytes / ENTRY_BYTES, 2));
+        if (entries > 1 << 30) throw new IllegalArgumentException("Table is too large!");
+        this.hashes = new long[(int) entries];
+        this.data = new long[(int) entries];
+        this.bucketMask = (int) (entries / 2 - 1);
+    }
+
+    /**
+     * Find the entry of a position.
+     *
+     * @param hash the hash of the position.
+     * @return the packed data of the entry, or 0 if there is none.
+     */
+    public long probe(long hash) {
+        int index = indexOf(hash);
+        // Read each word once, another thread may change them at any time.
+        long entry = data[index];
+        if (entry != 0 && (hashes[index] ^ entry) == hash) return entry;
+        entry = data[index + 1];
+        if (entry != 0 && (hashes[index + 1] ^ entry) == hash) return entry;
+        return 0;
+    }
+
+    /**
+     * Store the result of a search of a position.
+     *
+     * @param hash the hash of the position.
+     * @param depth the depth of the search, or {@link #SOLVED}.
+     * @param value the value of the position, from -32768 to 32767.
+     * @param bound {@link #EXACT}, {@link #LOWER} or {@link #UPPER}.
+     * @param move the best move found, or {@link WegeMove#PASS}.
+     */
+    public void store(long hash, int depth, int value, int bound, int move) {
+        long entry = STORED | (long) bound << BOUND_SHIFT | (long) Math.min(depth, SOLVED) << DEPTH_SHIFT
+                | (long) (value & 0xFFFF) << VALUE_SHIFT | move & 0xFFFFF;
+        int index = indexOf(hash);
+        long first = data[index];
+        if (first == 0 || (hashes[index] ^ first) == hash || depth >= depthOf(first)) {
+            hashes[index] = hash ^ entry;
+            data[index] = entry;
+        } else {
+            hashes[index + 1] = hash ^ entry;
+            data[index + 1] = entry;
+        }
+    }
+
+    /**
+     * Remove all entries.
+     */
+    public void clear() {
+        Arrays.fill(hashes, 0);
+        Arrays.fill(data, 0);
+    }
+
+    /**
+     * Overwrite the data of the first entry of the bucket of a hash without its hash,
+     * like a store torn by another thread.
+     * Use only for unit test.
+     */
+    void tearEntry(long hash, long entry) {
+        data[indexOf(hash)] = entry;
+    }
+
+    /**
+     * Return the number of entries the table can hold.
+     */
+    public int capacity() {
+        return hashes.length;
+    }
+
+    /**
+     * Return the best move of an entry.
+     */
+    public static int moveOf(long entry) {
+        return (int) (entry & 0xFFFFF);
+    }
+
+    /**
+     * Return the value of an entry.
+     */
+    public static int valueOf(long entry) {
+        return (short) (entry >>> VALUE_SHIFT);
+    }
+
+    /**
+     * Return the depth of an entry.
+     */
+    public static int depthOf(long entry) {
+        return (int) (entry >>> DEPTH_SHIFT) & 0xFF;
+    }
+
+    /**
+     * Return the bound of the value of an entry.
+     */
+    public static int boundOf(long entry) {
+        return (int) (entry >>> BOUND_SHIFT) & 3;
+    }
+
+    /**
+     * Return the index of the first entry of the bucket of a hash.
+     */
+    private int indexOf(long hash) {
+        return ((int) (hash ^ hash >>> 32) & bucketMask) << 1;
+    }
+}
@@ -0,0 +1,231 @@
+package game;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Consumer;
+import java.util.stream.LongStream;
+
+/**
+ * An offline tuner of the weights of {@link WegeEvaluator} by simultaneous perturbation
+ * stochastic approximation (SPSA) over games of self-play. Each iteration perturbs every
+ * weight at once by plus or minus a small step, and lets the two evaluators play pairs of
+ * games on the same decks of the simulator with the sides swapped, see
+ * {@link WegeSimulator}. The mean score margin of the first evaluator over the second estimates
+ * the gradient of every weight from just those games, and the weights take a step along it.
+ * The steps and perturbations shrink with the iterations by the standard gains of SPSA.
+ *
+ * <p>A game of self-play is played on a {@link WegePosition} by bots which look one move ahead
+ * and play the move of the best evaluation, like {@link WegeGreedyBot} without its endgame
+ * solver. The evaluation only counts the cards left, not their order, so the bots do not see
+ * the cards to come. The pairs of an iteration are played by a parallel stream on a pool of
+ * threads of the tuner, and a game is the same whichever thread plays it, so a tuning has the
+ * same result on any number of threads.</p>
+ *
+ * <p>The value of a greedy bot does not change when all weights are scaled, so the weight of
+ * {@link WegeEvaluator.Feature#SCORE} is kept and the other weights are tuned against it.</p>
+ */
+public final class WegeTuner {
+
+    /**
+     * The weights after an iteration.
+     *
+     * @param iteration the number of the iteration, from 0.
+     * @param evaluator the evaluator of the tuned weights.
+     * @param margin the mean score margin of the plus perturbation over the minus perturbation.
+     * @param games the number of games played so far.
+     * @param millis the milliseconds since the tuning started.
+     */
+    public record Iteration(int iteration, WegeEvaluator evaluator, double margin, long games, long millis) {}
+
+    /* The gain of the steps of the weights. */
+    private static final double STEP_GAIN = 0.1;
+
+    /* The size of the first perturbation of each weight. */
+    private static final double PERTURBATION = 0.5;
+
+    /* The exponents of the decay of the steps and the perturbations, the standard gains of SPSA. */
+    private static final double STEP_DECAY = 0.602;
+    private static final double PERTURBATION_DECAY = 0.101;
+
+    /* The share of the iterations which delays the decay of the steps. */
+    private static final double STEP_OFFSET_SHARE = 0.1;
+
+    /* The number of rows of the game boards. */
+    private final int rows;
+
+    /* The number of columns of the game boards. */
+    private final int cols;
+
+    /* The simulator which shuffles the decks of the games. */
+    private final WegeSimulator simulator;
+
+    /* The seed of the perturbations. */
+    private final long seed;
+
+    /**
+     * Create a tuner.
+     *
+     * @param rows the number of rows of the game boards.
+     * @param cols the number of columns of the game boards.
+     * @param deckVariant 0 for the deck created for the board size, or the number of each
+     *                    special card of a special deck, see {@link WegeGameRecord#deckVariant()}.
+     * @param seed the seed of the decks and the perturbations.
+     */
+    public WegeTuner(int rows, int cols, int deckVariant, long seed) {
+        this.rows = rows;
+        this.cols = cols;
+        this.simulator = new WegeSimulator(rows, cols, deckVariant, seed);
+        this.seed = seed;
+    }
+
+    /**
+     * Tune the weights of a file and write them back after each iteration. The weights start
+     * with those of the score alone when the file does not exist.
+     *
+     * @param args <code>rows cols iterations pairs file [threads] [seed]</code>, the board size,
+     *             the number of iterations, the number of pairs of games of each iteration,
+     *             the weight file, the number of threads, by default the number of processors,
+     *             and the seed.
+     * @throws IOException if the weight file cannot be read or written.
+     * @throws InterruptedException if the thread is interrupted.
+     */
+    public static void main(String[] args) throws IOException, InterruptedException {
+        if (args.length < 5 || args.length > 7) {
+            System.err.println("Usage: java game.WegeTuner rows cols iterations pairs file [threads] [seed]");
+            System.exit(2);
+            return;
+        }
+        int rows = Integer.parseInt(args[0]);
+        int cols = Integer.parseInt(args[1]);
+        int iterations = Integer.parseInt(args[2]);
+        int pairs = Integer.parseInt(args[3]);
+        Path file = Path.of(args[4]);
+        int threads = args.length > 5 ? Integer.parseInt(args[5]) : Runtime.getRuntime().availableProcessors();
+        long seed = args.length > 6 ? Long.parseLong(args[6]) : 0;
+        WegeEvaluator start = Files.exists(file) ? WegeEvaluator.load(file) : WegeEvaluator.SCORE;
+        new WegeTuner(rows, cols, 0, seed).tune(start, iterations, pairs, threads, iteration -> {
+            try {
+                iteration.evaluator().save(file);
+            } catch (IOException e) {
+                throw new IllegalStateException("Weights cannot be written!", e);
+            }
+            System.out.printf("iteration %d: margin %+.3f, %d games in %d ms, weights %s%n", iteration.iteration(),
+                    iteration.margin(), iteration.games(), iteration.millis(), iteration.evaluator());
+        });
+    }
+
+    /**
+     * Tune the weights of an evaluator.
+     *
+     * @param start the evaluator of the first weights.
+     * @param iterations the number of iterations.
+     * @param pairs the number of pairs of games of each iteration.
+     * @param threads the number of threads to play the games.
+     * @param listener the listener of the weights after each iteration, on the thread of the tuning.
+     * @return the evaluator of the tuned weights.
+     * @throws InterruptedException if the thread is interrupted while waiting for the games.
+     */
+    public WegeEvaluator tune(WegeEvaluator start, int iterations, int pairs, int threads,
+                              Consumer<Iteration> listener) throws InterruptedException {
+        if (iterations < 0 || pairs < 1) throw new IllegalArgumentException("Invalid number of games!");
+        long startNanos = System.nanoTime();
+        SplittableRandom random = new SplittableRandom(seed);
+        double[] weights = start.getWeights();
+        double stepOffset = STEP_OFFSET_SHARE * iterations;
+        ForkJoinPool pool = new ForkJoinPool(threads);
+        try {
+            for (int iteration = 0; iteration < iterations; iteration++) {
+                double step = STEP_GAIN / Math.pow(iteration + 1 + stepOffset, STEP_DECAY);
+                double perturbation = PERTURBATION / Math.pow(iteration + 1, PERTURBATION_DECAY);
+                double[] deltas = new double[weights.length];
+                double[] plus = weights.clone();
+                double[] minus = weights.clone();
+                for (int i = 0; i < weights.length; i++) {
+                    if (i == WegeEvaluator.Feature.SCORE.ordinal()) continue;
+                    deltas[i] = random.nextBoolean() ? 1 : -1;
+                    plus[i] += perturbation * deltas[i];
+                    minus[i] -= perturbation * deltas[i];
+                }
+                WegeEvaluator plusEvaluator = new WegeEvaluator(plus);
+                WegeEvaluator minusEvaluator = new WegeEvaluator(minus);
+                long firstGame = (long) iteration * pairs;
+                double margin = pool.submit(() -> LongStream.range(firstGame, firstGame + pairs).parallel()
+                        .mapToDouble(game -> playPair(plusEvaluator, minusEvaluator, game))
+                        .sum()).get() / (2.0 * pairs);
+                // The margin of plus over minus is the difference of their values over twice the perturbation.
+                for (int i = 0; i < weights.length; i++) {
+                    if (deltas[i] != 0) weights[i] += step * margin / (perturbation * deltas[i]);
+                }
+                listener.accept(new Iteration(iteration, new WegeEvaluator(weights), margin,
+                        2 * firstGame + 2L * pairs, (System.nanoTime() - startNanos) / 1_000_000));
+            }
+            return new WegeEvaluator(weights);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Tuning failed!", e.getCause());
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    /**
+     * Play a pair of games on the same deck, where each evaluator plays land once.
+     *
+     * @param first the first evaluator.
+     * @param second the second evaluator.
+     * @param game the number of the deck in the simulator.
+     * @return the sum of the score margins of the first evaluator over the second.
+     */
+    double playPair(WegeEvaluator first, WegeEvaluator second, long game) {
+        byte[] deck = WegeRules.encodeDeck(simulator.createDeck(game));
+        return playGame(first, second, deck) - playGame(second, first, deck);
+    }
+
+    /**
+     * Play a game where each player plays the move of the best evaluation after it.
+     *
+     * @param land the evaluator of the land player.
+     * @param water the evaluator of the water player.
+     * @param deck the card codes of the deck in the order they are drawn.
+     * @return the land score minus the water score at the end of the game.
+     */
+    int playGame(WegeEvaluator land, WegeEvaluator water, byte[] deck) {
+        WegePosition position = new WegePosition(rows, cols, deck);
+        if (land.usesFrontier() || water.usesFrontier()) position.trackFrontier();
+        int[] moves = new int[position.maxMoves()];
+        while (!position.isGameEnded()) {
+            int count = position.generateMoves(moves);
+            position.play(chooseMove(position.isLandTurn() ? land : water, position, moves, count));
+        }
+        return position.evaluate();
+    }
+
+    /**
+     * Find the move of the best evaluation after it for the player to move, the first of the
+     * moves with the same evaluation.
+     *
+     * @param evaluator the evaluator of the player to move.
+     * @param position the position, which is the same when the method returns.
+     * @param moves the legal moves.
+     * @param count the number of legal moves.
+     * @return the packed move.
+     */
+    static int chooseMove(WegeEvaluator evaluator, WegePosition position, int[] moves, int count) {
+        int sign = position.isLandTurn() ? 1 : -1;
+        int bestMove = moves[0];
+        double bestValue = Double.NEGATIVE_INFINITY;
+        for (int i = 0; i < count && count > 1; i++) {
+            position.play(moves[i]);
+            double value = sign * evaluator.evaluate(position);
+            position.undo();
+            if (value > bestValue) {
+                bestValue = value;
+                bestMove = moves[i];
+            }
+        }
+        return bestMove;
+    }
+}
@@ -0,0 +1,140 @@
+package ui;
+
+import game.WegeAnalysis;
+import game.WegeMove;
+import javafx.beans.value.ChangeListener;
+import javafx.geometry.Insets;
+import javafx.scene.control.CheckBox;
+import javafx.scene.control.Label;
+import javafx.scene.layout.VBox;
+import javafx.scene.text.Font;
+
+import java.util.List;
+
+/**
+ * The pane to display at the side, which shows the best moves of the next card and how the game
+ * goes on after them, see {@link WegeAnalysis}. The analysis knows the cards to come, so it is
+ * turned off until the player turns it on.
+ */
+public class WegeAnalysisPane extends VBox {
+
+    /* The check box which turns the analysis on and off. */
+    private CheckBox enabledBox;
+
+    /* The label display the depth of the analysis. */
+    private Label depthLabel;
+
+    /* The box of the labels of the lines. */
+    private VBox linesBox;
+
+    /**
+     * Create a new analysis pane for the game Wege.
+     */
+    public WegeAnalysisPane() {
+        createView();
+    }
+
+    /**
+     * Check if the player turned the analysis on.
+     *
+     * @return <code>true</code> if the analysis is on.
+     */
+    public boolean isEnabled() {
+        return enabledBox.isSelected();
+    }
+
+    /**
+     * Add a listener which handle the event when the analysis is turned on or off.
+     *
+     * @param enabledChangedListener the listener for the change.
+     */
+    public void addEnabledChangedListener(ChangeListener<Boolean> enabledChangedListener) {
+        enabledBox.selectedProperty().addListener(enabledChangedListener);
+    }
+
+    /**
+     * Show the lines of a depth of the analysis.
+     *
+     * @param report the report of the depth.
+     */
+    public void showReport(WegeAnalysis.Report report) {
+        depthLabel.setText(String.format("Depth %d, %d positions in %d ms", report.depth(), report.nodes(),
+                report.millis()));
+        Font font = Font.font("Arial", 14);
+        linesBox.getChildren().clear();
+        List<WegeAnalysis.Line> lines = report.lines();
+        for (int i = 0; i < lines.size(); i++) {
+            Label lineLabel = new Label(buildLineInfo(i + 1, lines.get(i)));
+            lineLabel.setFont(font);
+            lineLabel.setWrapText(true);
+            lineLabel.setPrefWidth(300);
+            linesBox.getChildren().add(lineLabel);
+        }
+    }
+
+    /**
+     * Clear the lines shown.
+     */
+    public void clear() {
+        depthLabel.setText(null);
+        linesBox.getChildren().clear();
+    }
+
+    /**
+     * Create the view for this pane.
+     */
+    private void createView() {
+        setPadding(new Insets(10));
+        setSpacing(10);
+        Font font = Font.font("Arial", 14);
+        enabledBox = new CheckBox("Analyze with the cards to come");
+        enabledBox.setFont(font);
+        depthLabel = new Label();
+        depthLabel.setFont(font);
+        linesBox = new VBox();
+        linesBox.setSpacing(10);
+        getChildren().addAll(enabledBox, depthLabel, linesBox);
+    }
+
+    /**
+     * Build the information of a line: its value for the player to move, its move and the moves
+     * after it.
+     *
+     * @param rank the rank of the line, 1 for the best line.
+     * @param line the line.
+     * @return the String contains information about the given line.
+     */
+    private String buildLineInfo(int rank, WegeAnalysis.Line line) {
+        StringBuilder builder = new StringBuilder();
+        builder.append(rank).append(". ")
+                .append(String.format("%+d", line.value()))
+                .append(line.isSolved() ? " final" : "")
+                .append(": ")
+                .append(buildMoveInfo(line.bestMove()));
+        List<WegeMove> pv = line.pv();
+        if (pv.size() > 1) {
+            builder.append(", then");
+            for (WegeMove move : pv.subList(1, pv.size())) {
+                builder.append(' ');
+                if (move == null) {
+                    builder.append("discard");
+                } else {
+                    builder.append(move.isSwap() ? "swap " : "").append(move.row() + 1).append(',').append(move.col() + 1);
+                }
+            }
+        }
+        return builder.toString();
+    }
+
+    /**
+     * Build the information of a move.
+     *
+     * @param move the move, or <code>null</code> for a discarded card.
+     * @return the String contains information about the given move.
+     */
+    private String buildMoveInfo(WegeMove move) {
+        if (move == null) return "discard the card";
+        return String.format("%s row %d, column %d turned to %s", move.isSwap() ? "swap at" : "place at",
+                move.row() + 1, move.col() + 1, move.orientation());
+    }
+}
@@ -3,6 +3,7 @@ package ui;
 import game.WegeCard;
 import game.WegeDeck;
 import game.WegePlayingCard;
+import javafx.beans.value.ChangeListener;
 import javafx.event.EventHandler;
 import javafx.geometry.Insets;
 import javafx.geometry.Orientation;
@@ -21,6 +22,9 @@ public class WegeBottomPane extends FlowPane {
     /* The button display the next card for the player */
     private WegeNextCardButton nextCardButton;
 
+    /* The label display the best move of the next card, if it is known. */
+    private Label hintLabel;
+
     /**
      * Create a new bottom pane for the game Wege.
      *
@@ -48,6 +52,24 @@ public class WegeBottomPane extends FlowPane {
         return (WegePlayingCard) nextCardButton.getCard();
     }
 
+    /**
+     * Set the hint of the best move of the next card.
+     *
+     * @param hint the hint, or <code>null</code> to clear it.
+     */
+    public void setHint(String hint) {
+        hintLabel.setText(hint);
+    }
+
+    /**
+     * Add a listener which handle the event when the next card changes.
+     *
+     * @param nextCardChangedListener the listener for the next card change event.
+     */
+    public void addNextCardChangedListener(ChangeListener<WegePlayingCard> nextCardChangedListener) {
+        nextCardButton.addCardChangedListener(nextCardChangedListener);
+    }
+
     /**
      * Create the view for this pane.
      *
@@ -70,7 +92,10 @@ public class WegeBottomPane extends FlowPane {
         descriptionLabel.setPrefWidth(500);
         descriptionLabel.setWrapText(true);
         descriptionLabel.setFont(font);
-        gameInfoBox.getChildren().addAll(cardLabel, descriptionLabel);
+        hintLabel = new Label();
+        hintLabel.setFont(font);
+        hintLabel.setPadding(labelPadding);
+        gameInfoBox.getChildren().addAll(cardLabel, hintLabel, descriptionLabel);
         nextCardButton = createNextCardButton(statingDeck, cardLabel);
         Separator separator = new Separator(Orientation.VERTICAL);
         getChildren().addAll(nextCardButton, separator, gameInfoBox);
@@ -94,6 +119,7 @@ public class WegeBottomPane extends FlowPane {
         });
         button.addMouseClickedListener(mouseClickedEvent -> {
             if (button.getCard() == null) {
+                if (startingDeck.isEmpty()) return;
                 WegePlayingCard nextCard = startingDeck.drawFromFront();
                 button.setCard(nextCard);
             } else {
@@ -1,34 +1,64 @@
 package ui;
 
 import game.*;
+import javafx.application.Platform;
 import javafx.collections.ObservableList;
 import javafx.event.EventHandler;
 import javafx.geometry.Insets;
 import javafx.scene.Node;
 import javafx.scene.control.*;
 import javafx.scene.input.MouseEvent;
+import javafx.scene.layout.HBox;
 import javafx.scene.layout.VBox;
 import javafx.scene.text.Font;
 import javafx.scene.text.FontWeight;
 
 import java.util.List;
+import java.util.concurrent.CancellationException;
 
 /**
  * The view of a Wege game and UI interactions for the game.
  */
 public class WegeGameBox extends VBox {
 
-    /* Maximum cards that can be placed on the game board. */
-    private final int maximumCards;
+    /* The bytes of the transposition table of the analysis. */
+    private static final long ANALYSIS_TABLE_BYTES = 16 << 20;
+
+    /* The number of best moves the analysis shows. */
+    private static final int ANALYSIS_LINES = 3;
 
     /* The game master for the Game Wege. He helps checking the game rule and collect player statistic */
-    private final WegeGameMaster wegeGameMaster;
+    private WegeGameMaster wegeGameMaster;
 
-    /* The number of cards had been played so far. */
-    private int cardsPlayed;
+    /* The deck to draw cards from for the current game. */
+    private WegeDeck wegeDeck;
 
     private Dialog<String> gameScoreDialog;
 
+    /* The solver of the endgames which gives hints, or null. */
+    private final WegeEndgameSolver solver;
+
+    /* The thread which solves the endgame for a hint or while the next card is not drawn, or null. */
+    private Thread solverThread;
+
+    /* The number of hints asked for, so the hint of a card which is not shown anymore is dropped. */
+    private long hintRequests;
+
+    /* The side pane which shows the analysis of the next card. */
+    private WegeAnalysisPane analysisPane;
+
+    /* The transposition table of the analysis, or null before the first analysis. */
+    private WegeTranspositionTable analysisTable;
+
+    /* The running analysis of the next card, or null. */
+    private WegeAnalysis analysis;
+
+    /* The thread of the running analysis, or null. */
+    private Thread analysisThread;
+
+    /* The puzzle whose card drawn is not played yet, or null. */
+    private WegePuzzle puzzle;
+
     /**
      * Create a new Wege Game.
      *
@@ -37,9 +67,19 @@ public class WegeGameBox extends VBox {
      * @param wegeDeck the dek contains wege cards for this game.
      */
     public WegeGameBox(int rows, int cols, WegeDeck wegeDeck) {
-        this.maximumCards = rows * cols;
-        WegePlayingBoard wegePlayingBoard = new WegePlayingBoard(rows, cols);
-        wegeGameMaster = new WegeGameMaster(wegePlayingBoard);
+        this(rows, cols, wegeDeck, null);
+    }
+
+    /**
+     * Create a new Wege Game which shows the best move of each card when the solver knows it.
+     *
+     * @param rows     the number of row for the playing board for this game.
+     * @param cols     the number of column for the playing board for this game.
+     * @param wegeDeck the dek contains wege cards for this game.
+     * @param solver   the solver of the endgames of the board size, or <code>null</code>.
+     */
+    public WegeGameBox(int rows, int cols, WegeDeck wegeDeck, WegeEndgameSolver solver) {
+        this.solver = solver;
         createView(rows, cols, wegeDeck);
     }
 
@@ -49,7 +89,29 @@ public class WegeGameBox extends VBox {
      * @param wegeGameSetting The setting of Wege game.
      */
     public WegeGameBox(WegeGameSetting wegeGameSetting) {
-        this(wegeGameSetting.rows(), wegeGameSetting.cols(), wegeGameSetting.deck());
+        this(wegeGameSetting, null);
+    }
+
+    /**
+     * Create a new box to display the ui of the Wege game with hints.
+     *
+     * @param wegeGameSetting The setting of Wege game.
+     * @param solver the solver of the endgames of the board size, or <code>null</code>.
+     */
+    public WegeGameBox(WegeGameSetting wegeGameSetting, WegeEndgameSolver solver) {
+        this(wegeGameSetting.rows(), wegeGameSetting.cols(), wegeGameSetting.deck(), solver);
+    }
+
+    /**
+     * Create a new Wege Game from the position of a puzzle. The player finds the only winning
+     * move of the card drawn, and the game goes on with the cards left of the game of the puzzle.
+     *
+     * @param puzzle the puzzle, see {@link WegePuzzle#readPack(java.nio.file.Path)}.
+     */
+    public WegeGameBox(WegePuzzle puzzle) {
+        this.solver = null;
+        this.puzzle = puzzle;
+        createView(puzzle.rows(), puzzle.cols(), puzzle.createDeck());
     }
 
     /**
@@ -60,15 +122,33 @@ public class WegeGameBox extends VBox {
      * @param startingDeck the Wege deck to start the game.
      */
     private void createView(int rows, int cols, WegeDeck startingDeck) {
+        stopSolving();
+        stopAnalysis();
         getChildren().clear();
+        wegeDeck = startingDeck;
+        WegePlayingBoard gameBoard = new WegePlayingBoard(rows, cols);
+        wegeGameMaster = new WegeGameMaster(gameBoard);
         /* The bottom pane of this box */
         WegeBottomPane bottomPane = new WegeBottomPane(startingDeck);
         /* The top playing board of this box */
         WegePlayingBoardPane playingBoard = new WegePlayingBoardPane(rows, cols);
+        if (puzzle != null) replayPuzzle(gameBoard, playingBoard);
         // UI Interactions when a player click a button on the playing board.
         playingBoard.setBoardButtonClickedHandler(getBoardButtonClickedHandler(bottomPane));
+        // Show the best move of each card drawn when the endgame is solved.
+        bottomPane.addNextCardChangedListener((observable, oldCard, newCard) -> showHint(bottomPane, newCard));
+        showHint(bottomPane, bottomPane.getNextCard());
+        if (puzzle != null) {
+            bottomPane.setHint(String.format("Puzzle: find the only winning move of %s",
+                    wegeGameMaster.isLandTurn() ? "land" : "water"));
+        }
+        // Analyze each card drawn while the analysis is on.
+        analysisPane = new WegeAnalysisPane();
+        bottomPane.addNextCardChangedListener((observable, oldCard, newCard) -> showAnalysis(newCard));
+        analysisPane.addEnabledChangedListener((observable, wasEnabled, isEnabled) ->
+                showAnalysis(bottomPane.getNextCard()));
         ObservableList<Node> children = getChildren();
-        children.add(playingBoard);
+        children.add(new HBox(playingBoard, analysisPane));
         children.add(bottomPane);
         // Create the game score dialog
         createGameScoreDialog();
@@ -87,15 +167,20 @@ public class WegeGameBox extends VBox {
 
     private EventHandler<MouseEvent> getBoardButtonClickedHandler(WegeBottomPane bottomPane) {
         return mouseClickedEvent -> {
-            if (isGameEnded()) {
+            if (isGameEnded(bottomPane)) {
                 List<Player> playerStatistics = wegeGameMaster.collectPlayerStatistic();
                 playerStatistics.forEach(System.out::println);
                 showGameScore(playerStatistics);
                 return;
             }
-            if (bottomPane.getNextCard() == null) return;
-            WegeBoardButton boardButton = (WegeBoardButton) mouseClickedEvent.getSource();
             WegePlayingCard nextCard = bottomPane.getNextCard();
+            if (nextCard == null) return;
+            if (wegeGameMaster.passTurn(nextCard)) {
+                // The card cannot be played anywhere, discard it.
+                bottomPane.setNextCard(null);
+                return;
+            }
+            WegeBoardButton boardButton = (WegeBoardButton) mouseClickedEvent.getSource();
             int row = boardButton.getRow();
             int col = boardButton.getCol();
             nextCard.setRow(row);
@@ -103,19 +188,185 @@ public class WegeGameBox extends VBox {
             if (boardButton.getCard() == null
                     && wegeGameMaster.tryPlaceCard(nextCard)) {
                 placeCard(boardButton, bottomPane);
+                checkPuzzle(new WegeMove(row, col, nextCard.getOrientation(), false), bottomPane);
             } else if (boardButton.getCard() != null
                     && wegeGameMaster.trySwapCard(nextCard)){
                 swapCard(boardButton, bottomPane);
+                checkPuzzle(new WegeMove(row, col, nextCard.getOrientation(), true), bottomPane);
             }
         };
     }
 
+    /**
+     * Play the moves before the puzzle on the game master and show their cards on the board.
+     *
+     * @param gameBoard    the board of the game master.
+     * @param playingBoard the playing board pane.
+     */
+    private void replayPuzzle(WegePlayingBoard gameBoard, WegePlayingBoardPane playingBoard) {
+        puzzle.replay(wegeGameMaster);
+        for (int row = 0; row < gameBoard.getRows(); row++) {
+            for (int col = 0; col < gameBoard.getCols(); col++) {
+                WegePlayingCard card = gameBoard.findPlayedCard(row, col);
+                if (card != null) playingBoard.setCard(row, col, card);
+            }
+        }
+    }
+
+    /**
+     * Tell if the move of the card drawn of the puzzle solves it, then go on as a game.
+     *
+     * @param move       the move played.
+     * @param bottomPane contains next card button.
+     */
+    private void checkPuzzle(WegeMove move, WegeBottomPane bottomPane) {
+        if (puzzle == null) return;
+        if (puzzle.isSolution(move.pack())) {
+            bottomPane.setHint(String.format("Solved! Expected margin %+.2f, the best other move %+.2f",
+                    puzzle.margin(), puzzle.secondMargin()));
+        } else {
+            WegeMove solution = WegeMove.unpack(puzzle.solution());
+            bottomPane.setHint(String.format("Not solved: %s row %d, column %d turned to %s wins by %+.2f",
+                    solution.isSwap() ? "swap at" : "place at", solution.row() + 1, solution.col() + 1,
+                    solution.orientation(), puzzle.margin()));
+        }
+        puzzle = null;
+    }
+
+    /**
+     * Solve the best move of the next card on another thread and show it with the expected
+     * result of the game after it, if the solver knows them. Otherwise, clear the hint.
+     *
+     * @param bottomPane contains next card button.
+     * @param nextCard   the next card, or <code>null</code>.
+     */
+    private void showHint(WegeBottomPane bottomPane, WegePlayingCard nextCard) {
+        bottomPane.setHint(null);
+        long request = ++hintRequests;
+        if (solver == null) return;
+        // The solver is used by one thread at a time, and its positions solved so far are kept.
+        stopSolving();
+        if (nextCard == null) {
+            startPondering();
+            return;
+        }
+        WegePosition position = wegeGameMaster.createPosition(wegeDeck, nextCard);
+        if (position.isGameEnded()) return;
+        solverThread = new Thread(() -> {
+            String hint;
+            try {
+                hint = findHint(position);
+            } catch (CancellationException e) {
+                return;
+            }
+            Platform.runLater(() -> {
+                // The prompt of a puzzle stays until its card is played.
+                if (hint != null && hintRequests == request && puzzle == null) bottomPane.setHint(hint);
+            });
+        }, "wege-hint");
+        solverThread.setDaemon(true);
+        solverThread.start();
+    }
+
+    /**
+     * Find the best move of the next card of a position and the expected result of the game
+     * after it, once the card drawn is played.
+     *
+     * @param position the position, whose next card is drawn.
+     * @return the hint, or <code>null</code> if the solver does not know the best move.
+     * @throws CancellationException if the thread is interrupted.
+     */
+    private String findHint(WegePosition position) {
+        int[] moves = new int[position.maxMoves()];
+        position.generateMoves(moves);
+        int best = solver.findBestMove(position);
+        // A pass of a card which can be played means the moves cannot be solved.
+        if (best == WegeMove.PASS && moves[0] != WegeMove.PASS) return null;
+        position.play(best);
+        double value = solver.solve(position);
+        position.undo();
+        if (Double.isNaN(value)) return null;
+        String expected = String.format("expected land minus water %+.2f", value);
+        WegeMove move = WegeMove.unpack(best);
+        if (move == null) return "Hint: the card cannot be played, " + expected;
+        return String.format("Hint: %s row %d, column %d turned to %s, %s",
+                move.isSwap() ? "swap at" : "place at", move.row() + 1, move.col() + 1,
+                move.orientation(), expected);
+    }
+
+    /**
+     * Solve the endgame on another thread while the player has not drawn the next card, so the
+     * hint of the card drawn is shown at once.
+     */
+    private void startPondering() {
+        WegePosition position = wegeGameMaster.createPosition(wegeDeck, null);
+        if (position.isGameEnded()) return;
+        solverThread = new Thread(() -> solver.ponder(position), "wege-hint-ponder");
+        solverThread.setDaemon(true);
+        solverThread.start();
+    }
+
+    /**
+     * Interrupt the solving of the endgame for a hint or before the next card is drawn and wait
+     * until it stops, if it is running.
+     */
+    private void stopSolving() {
+        if (solverThread == null) return;
+        solverThread.interrupt();
+        try {
+            solverThread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        solverThread = null;
+    }
+
+    /**
+     * Analyze the next card on another thread and show the best moves of each depth while the
+     * analysis deepens, if the analysis is on. Otherwise, clear the analysis.
+     *
+     * @param nextCard the next card, or <code>null</code>.
+     */
+    private void showAnalysis(WegePlayingCard nextCard) {
+        stopAnalysis();
+        analysisPane.clear();
+        if (!analysisPane.isEnabled() || nextCard == null) return;
+        WegePosition position = wegeGameMaster.createPosition(wegeDeck, nextCard);
+        if (position.isGameEnded()) return;
+        if (analysisTable == null) analysisTable = new WegeTranspositionTable(ANALYSIS_TABLE_BYTES);
+        WegeAnalysis running = new WegeAnalysis(analysisTable, ANALYSIS_LINES);
+        analysis = running;
+        analysisThread = new Thread(() -> running.analyze(position, position.getMaxTurnsLeft(), Long.MAX_VALUE,
+                report -> Platform.runLater(() -> {
+                    // A report of an analysis stopped before it is shown is dropped.
+                    if (analysis == running) analysisPane.showReport(report);
+                })), "wege-analysis");
+        analysisThread.setDaemon(true);
+        analysisThread.start();
+    }
+
+    /**
+     * Stop the running analysis and wait until it stops, if it is running.
+     */
+    private void stopAnalysis() {
+        if (analysisThread == null) return;
+        analysis.stop();
+        try {
+            analysisThread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        analysis = null;
+        analysisThread = null;
+    }
+
     private void showGameScore(List<Player> playerStatistics) {
         VBox statistic = new VBox();
         playerStatistics.forEach(p -> statistic.getChildren().add(createPlayerStatistic(p)));
         Button newGameButton = new Button("New game");
         statistic.getChildren().add(newGameButton);
         newGameButton.setOnAction(event -> {
+            puzzle = null;
             WegeGameSetting defaultGame = WegeGameSetting.createStandardGame();
             createView(defaultGame.rows(), defaultGame.cols(), defaultGame.deck());
             gameScoreDialog.close();
@@ -185,13 +436,16 @@ public class WegeGameBox extends VBox {
     }
 
     /**
-     * Check if the game is ended when all cards have been played on the board.
+     * Check if the game is ended when all cards have been played on the board
+     * or there is no card left to play.
      *
-     * @return <code>true</code> if the board is filled up with all Wege card.
-     * Otherwise, return <code>false</code>.
+     * @param bottomPane contains next card button.
+     * @return <code>true</code> if the game is ended. Otherwise, return <code>false</code>.
      */
-    private boolean isGameEnded() {
-        return cardsPlayed == maximumCards;
+    private boolean isGameEnded(WegeBottomPane bottomPane) {
+        int cardsLeftToPlay = wegeDeck.size();
+        if (bottomPane.getNextCard() != null) cardsLeftToPlay++;
+        return wegeGameMaster.isGameEnded(cardsLeftToPlay);
     }
 
     /**
@@ -203,7 +457,6 @@ public class WegeGameBox extends VBox {
     private void placeCard(WegeButton boardButton, WegeBottomPane bottomPane) {
         setCardOnBoard(boardButton, bottomPane.getNextCard());
         bottomPane.setNextCard(null);
-        cardsPlayed++;
     }
 
     /**
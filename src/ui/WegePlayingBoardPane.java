@@ -1,6 +1,8 @@
 package ui;
 
+import game.WegeCard;
 import javafx.event.EventHandler;
+import javafx.scene.Node;
 import javafx.scene.input.MouseEvent;
 import javafx.scene.layout.GridPane;
 
@@ -26,6 +28,22 @@ public class WegePlayingBoardPane extends GridPane {
         this.boardButtonHandler = boardButtonHandler;
     }
 
+    /**
+     * Show a card on the button at a location of the playing board.
+     *
+     * @param row  the row of the button.
+     * @param col  the column of the button.
+     * @param card the card to show.
+     */
+    public void setCard(int row, int col, WegeCard card) {
+        for (Node child : getChildren()) {
+            if (child instanceof WegeBoardButton boardButton
+                    && boardButton.getRow() == row && boardButton.getCol() == col) {
+                boardButton.setCard(card);
+            }
+        }
+    }
+
     /**
      * Create a playing board for this Wege Game.
      *
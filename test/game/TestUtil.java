@@ -4,12 +4,20 @@ import game.WegeCard;
 import game.WegeDeck;
 import game.WegePlayingCard;
 
+import javafx.geometry.Pos;
+
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.Random;
 import java.util.function.Function;
 import java.util.function.Predicate;
 
 public class TestUtil {
 
+    /* The four orientations a card can be rotated to. */
+    private static final Pos[] ORIENTATIONS = {Pos.TOP_LEFT, Pos.TOP_RIGHT, Pos.BOTTOM_RIGHT, Pos.BOTTOM_LEFT};
+
     private TestUtil() {}
 
     /**
@@ -82,6 +90,44 @@ public class TestUtil {
         };
     }
 
+    /**
+     * Play a card at a random location and orientation, the same way a player does on
+     * the user interface. A bridge card sometimes replaces a card on the game board.
+     *
+     * @param gameMaster the game master of the game.
+     * @param gameBoard the playing board of the game.
+     * @param card the card to play, which must have a legal move.
+     * @param random the source of randomness.
+     * @return the card replaced by a bridge card, or <code>null</code> if the card is placed.
+     */
+    public static WegePlayingCard playRandomMove(WegeGameMaster gameMaster,
+                                                 WegePlayingBoard gameBoard,
+                                                 WegePlayingCard card,
+                                                 Random random) {
+        List<int[]> moves = new ArrayList<>();
+        for (int row = 0; row < gameBoard.getRows(); row++) {
+            for (int col = 0; col < gameBoard.getCols(); col++) {
+                for (int orientation = 0; orientation < ORIENTATIONS.length; orientation++) {
+                    moves.add(new int[]{row, col, orientation});
+                }
+            }
+        }
+        Collections.shuffle(moves, random);
+        boolean isBridge = card.getCardType() == WegeCard.CardType.BRIDGE;
+        // Try to swap first sometimes, then fall back to any legal move.
+        for (boolean allowSwap : new boolean[]{isBridge && random.nextInt(4) == 0, isBridge}) {
+            for (int[] move : moves) {
+                card.setRow(move[0]);
+                card.setCol(move[1]);
+                card.setOrientation(ORIENTATIONS[move[2]]);
+                WegePlayingCard playedCard = gameBoard.findPlayedCard(move[0], move[1]);
+                if (playedCard == null && gameMaster.tryPlaceCard(card)) return null;
+                if (playedCard != null && allowSwap && gameMaster.trySwapCard(card)) return playedCard;
+            }
+        }
+        throw new IllegalStateException("Card has no legal move");
+    }
+
     /**
      * Match a wege card based on the given characteristic.
      *
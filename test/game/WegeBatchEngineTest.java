@@ -0,0 +1,151 @@
+package game;
+
+import javafx.geometry.Pos;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Test cases for the batch engine and the rules on primitive arrays")
+class WegeBatchEngineTest {
+
+    @ParameterizedTest(name = "{0}x{1} board")
+    @CsvSource({"3,3", "4,4", "6,6", "5,7"})
+    @DisplayName("Test play the same legal moves and scores as the game master")
+    void shouldMatchGameMaster(int rows, int cols) {
+        int games = 40;
+        WegeDeck deck = WegeDeck.createWegeDeck(rows, cols);
+        WegeBatchEngine engine = new WegeBatchEngine(new WegeGameSetting(rows, cols, deck), games, 31L * rows + cols);
+        WegePlayingBoard[] gameBoards = new WegePlayingBoard[games];
+        WegeGameMaster[] gameMasters = new WegeGameMaster[games];
+        for (int game = 0; game < games; game++) {
+            gameBoards[game] = new WegePlayingBoard(rows, cols);
+            gameMasters[game] = new WegeGameMaster(gameBoards[game]);
+        }
+        while (engine.getGamesRunning() > 0) {
+            byte[] drawnCards = new byte[games];
+            boolean[] wasRunning = new boolean[games];
+            for (int game = 0; game < games; game++) {
+                wasRunning[game] = engine.isRunning(game);
+                drawnCards[game] = engine.peekCard(game);
+                if (wasRunning[game]) assertLegalMovesMatch(engine, gameMasters[game], game, drawnCards[game], rows, cols);
+            }
+            engine.step();
+            for (int game = 0; game < games; game++) {
+                if (!wasRunning[game]) continue;
+                WegePlayingCard card = WegeRules.decodeCard(drawnCards[game], 0, 0);
+                WegeMove move = WegeMove.unpack(engine.getLastMove(game));
+                if (move == null) assertTrue(gameMasters[game].passTurn(card));
+                else assertTrue(move.play(gameMasters[game], card));
+                assertBoardsMatch(engine, gameBoards[game], game, rows, cols);
+                // After a swap the next player plays the replaced card instead of drawing one.
+                WegePlayingCard replaced = gameMasters[game].getReplacedCard();
+                if (replaced != null) {
+                    assertEquals(WegeRules.rotate(WegeRules.encodeCard(replaced), WegeRules.TOP_LEFT), engine.peekCard(game));
+                }
+                assertEquals(gameMasters[game].isGameEnded(engine.getCardsLeft(game)), !engine.isRunning(game));
+            }
+        }
+        for (int game = 0; game < games; game++) {
+            List<Player> players = gameMasters[game].collectPlayerStatistic();
+            assertEquals(players.get(0).getGameScore().total(), engine.getLandScore(game));
+            assertEquals(players.get(1).getGameScore().total(), engine.getWaterScore(game));
+        }
+    }
+
+    @Test
+    @DisplayName("Test play all games to the end with the same result for the same seed")
+    void shouldPlayGamesToEnd() {
+        WegeBatchEngine engine = new WegeBatchEngine(WegeGameSetting.createStandardGame(), 1000, 42);
+        WegeBatchEngine sameEngine = new WegeBatchEngine(WegeGameSetting.createStandardGame(), 1000, 42);
+        engine.playToEnd();
+        sameEngine.playToEnd();
+        assertEquals(0, engine.getGamesRunning());
+        // A card replaced by a bridge is played again.
+        assertTrue(engine.getTurn() <= 40 + WegeGameSetting.createStandardGame().deck().countCards(WegeCard.CardType.BRIDGE));
+        for (int game = 0; game < engine.getGames(); game++) {
+            assertFalse(engine.isRunning(game));
+            assertEquals(sameEngine.getLandScore(game), engine.getLandScore(game));
+            assertEquals(sameEngine.getWaterScore(game), engine.getWaterScore(game));
+            assertEquals(sameEngine.getCardsPlayed(game), engine.getCardsPlayed(game));
+        }
+    }
+
+    @ParameterizedTest
+    @CsvSource({"0,0,TOP_LEFT,false", "5,5,BOTTOM_RIGHT,true", "255,255,BOTTOM_LEFT,false", "3,200,TOP_RIGHT,true"})
+    @DisplayName("Test pack and unpack a move")
+    void shouldPackMove(int row, int col, Pos orientation, boolean isSwap) {
+        WegeMove move = new WegeMove(row, col, orientation, isSwap);
+        assertNotEquals(WegeMove.PASS, move.pack());
+        assertEquals(move, WegeMove.unpack(move.pack()));
+        assertNull(WegeMove.unpack(WegeMove.PASS));
+    }
+
+    @ParameterizedTest
+    @CsvSource({"WATER,false,false", "LAND,true,true", "LAND,true,false", "BRIDGE,false,false", "COSSACK,false,false"})
+    @DisplayName("Test encode the corners and the gnome of a card")
+    void shouldEncodeCard(WegeCard.CardType cardType, boolean hasGnome, boolean isPathGnome) {
+        WegePlayingCard card = new WegePlayingCard(cardType, hasGnome, isPathGnome);
+        for (Pos orientation : new Pos[]{Pos.TOP_LEFT, Pos.TOP_RIGHT, Pos.BOTTOM_RIGHT, Pos.BOTTOM_LEFT}) {
+            card.setOrientation(orientation);
+            byte code = WegeRules.encodeCard(card);
+            assertNotEquals(WegeRules.EMPTY, code);
+            for (int corner = WegeRules.TOP_LEFT; corner <= WegeRules.BOTTOM_LEFT; corner++) {
+                assertEquals(card.isLand(WegeRules.positionOf(corner)), WegeRules.isLandCorner(code, corner));
+            }
+            int gnomeCorner = hasGnome ? WegeRules.cornerOf(card.getGnomePosition()) : -1;
+            assertEquals(gnomeCorner, WegeRules.gnomeCornerOf(code));
+            assertEquals(code, WegeRules.encodeCard(WegeRules.decodeCard(code, 0, 0)));
+        }
+    }
+
+    /**
+     * Assert the rules on primitive arrays find the same legal moves as the game master
+     * for a card at every location in every orientation.
+     */
+    private void assertLegalMovesMatch(WegeBatchEngine engine, WegeGameMaster gameMaster, int game,
+                                       byte card, int rows, int cols) {
+        byte[] cardCodes = engine.getCardCodes();
+        byte[] pointCodes = engine.getPointCodes();
+        int games = engine.getGames();
+        for (int row = 0; row < rows; row++) {
+            for (int col = 0; col < cols; col++) {
+                for (int orientation = WegeRules.TOP_LEFT; orientation <= WegeRules.BOTTOM_LEFT; orientation++) {
+                    byte rotated = WegeRules.rotate(card, orientation);
+                    WegePlayingCard playingCard = WegeRules.decodeCard(rotated, row, col);
+                    assertEquals(gameMaster.isLegalPlace(playingCard),
+                            WegeRules.isLegalPlace(pointCodes, game, games, cols, row, col, rotated));
+                    assertEquals(gameMaster.isLegalSwap(playingCard) && gameMaster.isLegalPlace(playingCard),
+                            WegeRules.isLegalSwap(cardCodes, pointCodes, game, games, cols, row, col, rotated));
+                }
+            }
+        }
+    }
+
+    /**
+     * Assert the board of a game in the engine has the same cards and intersections as a game board.
+     */
+    private void assertBoardsMatch(WegeBatchEngine engine, WegePlayingBoard gameBoard, int game, int rows, int cols) {
+        for (int row = 0; row < rows; row++) {
+            for (int col = 0; col < cols; col++) {
+                WegePlayingCard card = gameBoard.findPlayedCard(row, col);
+                byte expected = card == null ? WegeRules.EMPTY : WegeRules.encodeCard(card);
+                assertEquals(expected, engine.findCard(game, row, col));
+            }
+        }
+        byte[] pointCodes = engine.getPointCodes();
+        for (int x = 0; x <= rows; x++) {
+            for (int y = 0; y <= cols; y++) {
+                Intersection intersection = gameBoard.findIntersection(x, y);
+                int expected = intersection == null ? 0 : WegeRules.POINT_EXISTS
+                        | (intersection.isConnectLand() ? WegeRules.POINT_LAND : 0)
+                        | intersection.getFacingGnomeCount() << WegeRules.POINT_GNOME_SHIFT;
+                assertEquals(expected, pointCodes[WegeRules.pointIndex(cols, x, y) * engine.getGames() + game]);
+            }
+        }
+    }
+}
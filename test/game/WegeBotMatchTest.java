@@ -0,0 +1,149 @@
+package game;
+
+import javafx.geometry.Pos;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Test cases for the bots, the game clock and the bot matches")
+class WegeBotMatchTest {
+
+    /* A bot which plays the last legal move. */
+    private static final WegeBot LAST_MOVE_BOT = (view, card) -> view.getLegalMoves().get(view.getLegalMoves().size() - 1);
+
+    @Test
+    @DisplayName("Test play a match of bots which answer in time")
+    void shouldPlayMatch() {
+        SplittableRandom random = new SplittableRandom(5);
+        WegeBot randomBot = (view, card) -> view.getLegalMoves().get(random.nextInt(view.getLegalMoves().size()));
+        WegeBotMatch.Result result = new WegeBotMatch(randomBot, LAST_MOVE_BOT, 1000, 60000).play(createSetting(7));
+        assertEquals(0, result.landFallbacks());
+        assertEquals(0, result.waterFallbacks());
+        assertTrue(result.landScore() + result.waterScore() > 0);
+    }
+
+    @Test
+    @DisplayName("Test give the same fallback moves to a late bot as the first legal moves")
+    void shouldFallBackForLateBot() {
+        WegeBot firstMoveBot = (view, card) -> view.getLegalMoves().get(0);
+        WegeBot lateBot = (view, card) -> {
+            Thread.sleep(10_000);
+            return view.getLegalMoves().get(0);
+        };
+        long start = System.nanoTime();
+        WegeBotMatch.Result late = new WegeBotMatch(LAST_MOVE_BOT, lateBot, 20, 60000).play(createSetting(3));
+        assertTrue((System.nanoTime() - start) / 1_000_000 < 5000);
+        WegeBotMatch.Result expected = new WegeBotMatch(LAST_MOVE_BOT, firstMoveBot, 20, 60000).play(createSetting(3));
+        assertEquals(0, late.landFallbacks());
+        assertTrue(late.waterFallbacks() > 0);
+        assertEquals(expected.landScore(), late.landScore());
+        assertEquals(expected.waterScore(), late.waterScore());
+    }
+
+    @Test
+    @DisplayName("Test give fallback moves to bots which throw or answer illegal moves")
+    void shouldFallBackForBrokenBot() {
+        WegeBot throwingBot = (view, card) -> {
+            throw new IllegalStateException("Broken bot!");
+        };
+        WegeBot illegalBot = (view, card) -> new WegeMove(-1, -1, Pos.TOP_LEFT, false);
+        WegeBotMatch.Result result = new WegeBotMatch(throwingBot, illegalBot, 1000, 60000).play(createSetting(4));
+        assertTrue(result.landFallbacks() > 0);
+        assertTrue(result.waterFallbacks() > 0);
+    }
+
+    @Test
+    @DisplayName("Test stop asking a bot whose game time is over")
+    void shouldStopAskingBotOutOfTime() {
+        AtomicInteger calls = new AtomicInteger();
+        WegeBot slowBot = (view, card) -> {
+            calls.incrementAndGet();
+            Thread.sleep(40);
+            return view.getLegalMoves().get(0);
+        };
+        WegeBotMatch.Result result = new WegeBotMatch(slowBot, LAST_MOVE_BOT, 100, 100).play(createSetting(6));
+        assertTrue(calls.get() <= 3);
+        assertTrue(result.landFallbacks() > 0);
+        assertEquals(0, result.waterFallbacks());
+    }
+
+    @Test
+    @DisplayName("Test let a bot ponder on the time of the other bot and interrupt it before its turn")
+    void shouldPonderOnOtherTurn() throws InterruptedException {
+        AtomicInteger ponders = new AtomicInteger();
+        AtomicInteger interrupts = new AtomicInteger();
+        WegeBot ponderingBot = new WegeBot() {
+            @Override
+            public WegeMove chooseMove(WegeGameView view, WegeBoardSnapshot.Card card) {
+                return view.getLegalMoves().get(0);
+            }
+
+            @Override
+            public void ponder(WegeGameView view) throws InterruptedException {
+                ponders.incrementAndGet();
+                assertTrue(view.getLegalMoves().isEmpty());
+                assertFalse(view.isLandTurn());
+                try {
+                    Thread.sleep(10_000);
+                } catch (InterruptedException e) {
+                    interrupts.incrementAndGet();
+                    throw e;
+                }
+            }
+        };
+        long start = System.nanoTime();
+        WegeBotMatch.Result result = new WegeBotMatch(ponderingBot, LAST_MOVE_BOT, 1000, 60000, true)
+                .play(createSetting(8));
+        assertTrue((System.nanoTime() - start) / 1_000_000 < 5000);
+        assertEquals(0, result.landFallbacks());
+        assertTrue(ponders.get() > 0);
+        for (int i = 0; i < 100 && interrupts.get() < ponders.get(); i++) {
+            Thread.sleep(10);
+        }
+        assertEquals(ponders.get(), interrupts.get());
+    }
+
+    @Test
+    @DisplayName("Test limit the time of a move by the time left of the game")
+    void shouldChargeClock() {
+        WegeGameClock clock = new WegeGameClock(100, 250);
+        assertEquals(100, clock.getMoveMillis(true));
+        clock.charge(true, 200);
+        assertEquals(50, clock.getMoveMillis(true));
+        assertEquals(100, clock.getMoveMillis(false));
+        clock.charge(true, 80);
+        assertEquals(0, clock.getMoveMillis(true));
+        assertEquals(0, clock.getMillisLeft(true));
+        assertTrue(clock.isOver(true));
+        assertFalse(clock.isOver(false));
+        assertThrows(IllegalArgumentException.class, () -> new WegeGameClock(-1, 100));
+    }
+
+    @Test
+    @DisplayName("Test hide the order of the cards left from the view")
+    void shouldHideOrderOfCardsLeft() {
+        WegeGameMaster gameMaster = new WegeGameMaster(new WegePlayingBoard(4, 4));
+        WegePlayingCard card = new WegePlayingCard(WegeCard.CardType.BRIDGE, false, false);
+        byte[] cardsLeft = {9, 1, 5, 2};
+        WegeGameView view = new WegeGameView(gameMaster.getBoardSnapshot(), new byte[0], new int[0], true, 0, 0, cardsLeft,
+                gameMaster.findLegalMoves(card), 10, 100);
+        assertArrayEquals(new byte[]{1, 2, 5, 9}, view.getCardsLeft());
+        view.getCardsLeft()[0] = 7;
+        assertEquals(1, view.getCardsLeft()[0]);
+        assertEquals(16 * 4, view.getLegalMoves().size());
+        assertThrows(UnsupportedOperationException.class, () -> view.getLegalMoves().clear());
+        WegePosition position = view.toPosition(WegeBoardSnapshot.Card.of(card));
+        assertEquals(WegeRules.encodeCard(card), position.peekCard());
+        assertEquals(5, position.getCardsLeft());
+        assertTrue(position.isLandTurn());
+    }
+
+    private static WegeGameSetting createSetting(long seed) {
+        return WegeGameSetting.createGame(List.of(4, 4), new SplittableRandom(seed));
+    }
+}
@@ -2,6 +2,8 @@ package game;
 
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
 
 import java.util.List;
 
@@ -105,4 +107,40 @@ class WegeCLITest {
         assertNotNull(gameSetting);
     }
 
-}
\ No newline at end of file
+    @Test
+    @DisplayName("Test parse headless arguments of two engines")
+    void shouldParseHeadlessArguments() {
+        List<String> arguments = List.of("--headless", "--engine", "java -jar a.jar", "--engine", "greedy",
+                "--board", "4", "5", "--games", "8", "--movetime", "200", "--threads", "2", "--sprt", "0", "10",
+                "--results", "results.csv", "--ponder");
+        assertTrue(WegeCLI.isHeadless(arguments));
+        assertFalse(WegeCLI.isHeadless(List.of("6", "6")));
+        WegeCLI.HeadlessArguments actual = WegeCLI.parseHeadlessArguments(arguments);
+        assertEquals(List.of(List.of("java", "-jar", "a.jar"), List.of("greedy")), actual.engines());
+        assertEquals(4, actual.rows());
+        assertEquals(5, actual.cols());
+        assertEquals(8, actual.games());
+        assertEquals(200, actual.moveMillis());
+        assertEquals(60_000, actual.gameMillis());
+        assertEquals(2, actual.threads());
+        assertNotNull(actual.sprt());
+        assertEquals("results.csv", actual.results().toString());
+        assertTrue(actual.isPondering());
+        assertNull(WegeCLI.parseHeadlessArguments(arguments.subList(0, 5)).sprt());
+    }
+
+    @ParameterizedTest
+    @CsvSource(delimiter = '|', value = {
+            "--headless --engine greedy",
+            "--headless --engine greedy --engine greedy --games 0",
+            "--headless --engine greedy --engine greedy --board 2 6",
+            "--headless --engine greedy --engine greedy --movetime",
+            "--headless --engine greedy --engine greedy --think",
+            "--headless --engine greedy --engine greedy --sprt 5 0",
+    })
+    @DisplayName("Test throw exception for invalid headless arguments")
+    void shouldThrowException_whenParseInvalidHeadlessArguments(String arguments) {
+        List<String> fakeArguments = List.of(arguments.split(" "));
+        assertThrows(IllegalArgumentException.class, () -> WegeCLI.parseHeadlessArguments(fakeArguments));
+    }
+}
@@ -0,0 +1,162 @@
+package game;
+
+import javafx.geometry.Pos;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PipedInputStream;
+import java.io.PipedOutputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Test cases for the engine protocol, the engines and their clients")
+class WegeEngineTest {
+
+    @Test
+    @DisplayName("Test format and parse the moves and the info of the protocol")
+    void shouldFormatAndParseProtocol() {
+        WegeMove swap = new WegeMove(2, 3, Pos.BOTTOM_RIGHT, true);
+        WegeMove move = new WegeMove(0, 5, Pos.TOP_LEFT, false);
+        assertEquals("2,3,2s", WegeEngineProtocol.formatMove(swap));
+        assertEquals(swap, WegeEngineProtocol.parseMove("2,3,2s"));
+        assertEquals(move, WegeEngineProtocol.parseMove(WegeEngineProtocol.formatMove(move)));
+        assertNull(WegeEngineProtocol.parseMove(WegeEngineProtocol.formatMove(null)));
+        assertThrows(IllegalArgumentException.class, () -> WegeEngineProtocol.parseMove("2,3,4"));
+        assertThrows(IllegalArgumentException.class, () -> WegeEngineProtocol.parseMove("2,3"));
+
+        WegeBot.Info info = new WegeBot.Info(3, 1500, 250, List.of(swap, move));
+        String text = WegeEngineProtocol.formatInfo(info);
+        assertEquals("info depth 3 time 250 nodes 1500 nps 6000 pv 2,3,2s 0,5,0", text);
+        assertEquals(info, WegeEngineProtocol.parseInfo(text.split(" ")));
+        assertNull(WegeEngineProtocol.parseInfo("info string Unknown command".split(" ")));
+        WegeAnalysis.Line line = new WegeAnalysis.Line(swap.pack(), -3, true, Arrays.asList(swap, null, move));
+        String lineText = WegeEngineProtocol.formatLine(2, new WegeAnalysis.Report(4, List.of(line), 1500, 250), line);
+        assertEquals("info multipv 2 depth 4 score -3 solved time 250 nodes 1500 nps 6000 pv 2,3,2s pass 0,5,0", lineText);
+        assertEquals(line, WegeEngineProtocol.parseLine(lineText.split(" ")));
+        assertThrows(IllegalArgumentException.class, () -> WegeEngineProtocol.parseLine(text.split(" ")));
+        assertEquals("position moves 5:pass 2:1,1,0",
+                WegeEngineProtocol.formatPosition(new byte[]{5, 2}, new int[]{WegeMove.PASS, WegeMove.pack(1, 1, 0, false)}));
+    }
+
+    @Test
+    @DisplayName("Test answer the commands of a host in the engine")
+    void shouldAnswerCommands() throws IOException, InterruptedException {
+        PipedOutputStream commandStream = new PipedOutputStream();
+        PipedInputStream engineInput = new PipedInputStream(commandStream);
+        BlockingQueue<String> answers = new LinkedBlockingQueue<>();
+        // The answers come from the threads of the goes too, which end before they are read.
+        OutputStream engineOutput = new OutputStream() {
+            private final ByteArrayOutputStream line = new ByteArrayOutputStream();
+
+            @Override
+            public synchronized void write(int b) {
+                if (b != '\n') {
+                    line.write(b);
+                    return;
+                }
+                answers.add(line.toString(StandardCharsets.UTF_8).trim());
+                line.reset();
+            }
+        };
+        WegeEngine engine = new WegeEngine((view, card) -> view.getLegalMoves().get(view.getLegalMoves().size() - 1),
+                engineInput, engineOutput);
+        Thread thread = new Thread(() -> {
+            try {
+                engine.run();
+            } catch (IOException e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        thread.start();
+        PrintStream commands = new PrintStream(commandStream, true, StandardCharsets.UTF_8);
+
+        commands.println("wege");
+        assertTrue(answers.poll(5, TimeUnit.SECONDS).startsWith("id name "));
+        assertEquals("wegeok", answers.poll(5, TimeUnit.SECONDS));
+        commands.println("isready");
+        assertEquals("readyok", answers.poll(5, TimeUnit.SECONDS));
+        commands.println("go card 1 movetime 100");
+        assertTrue(answers.poll(5, TimeUnit.SECONDS).startsWith("info string "));
+        commands.println("newgame 3 3 1 1 2 2 3 3 4 4 10");
+        commands.println("position moves");
+        commands.println("go card 1 movetime 1000 gametime 10000");
+        assertEquals("bestmove 2,2,3", answers.poll(5, TimeUnit.SECONDS));
+        commands.println("position moves 1:2,2,3");
+        commands.println("ponder");
+        commands.println("go card 3 movetime 1000 gametime 10000");
+        String bestMove = answers.poll(5, TimeUnit.SECONDS);
+        // The last legal move of the bridge is a swap, so the water card is handed to the land player.
+        assertEquals("bestmove 2,2,2s", bestMove);
+        commands.println("position moves 1:2,2,3 3:" + bestMove.substring("bestmove ".length()));
+        commands.println("isready");
+        assertEquals("readyok", answers.poll(5, TimeUnit.SECONDS));
+        commands.println("analyze lines 2 cards 2 1 4");
+        assertTrue(answers.poll(5, TimeUnit.SECONDS).startsWith("info string "));
+        commands.println("analyze lines 2 depth 2 movetime 5000 cards 1 2 1 4 2 3 4 10");
+        List<String> lines = new ArrayList<>();
+        String answer = answers.poll(5, TimeUnit.SECONDS);
+        while (!answer.startsWith("bestmove ")) {
+            lines.add(answer);
+            answer = answers.poll(5, TimeUnit.SECONDS);
+        }
+        assertTrue(lines.stream().anyMatch(line -> line.startsWith("info multipv 2 depth 2 ")));
+        String analyzed = lines.stream().filter(line -> line.startsWith("info multipv 1 depth 2 ")).findFirst().orElseThrow();
+        assertEquals(2, WegeEngineProtocol.parseLine(analyzed.split(" ")).pv().size());
+        commands.println("position moves 1:5,5,0");
+        commands.println("isready");
+        assertTrue(answers.poll(5, TimeUnit.SECONDS).startsWith("info string "));
+        assertEquals("readyok", answers.poll(5, TimeUnit.SECONDS));
+        commands.println("quit");
+        thread.join(5000);
+        assertFalse(thread.isAlive());
+    }
+
+    @Test
+    @DisplayName("Test play a match of engine processes from a pool")
+    void shouldPlayMatchOfEngineProcesses() throws IOException, InterruptedException {
+        List<String> command = WegeHeadless.resolveCommand(List.of(WegeHeadless.GREEDY_ENGINE));
+        try (WegeEnginePool pool = new WegeEnginePool(command, 2)) {
+            WegeEngineClient land = pool.acquire();
+            WegeEngineClient water = pool.acquire();
+            assertNotSame(land, water);
+            assertEquals("greedy", land.getName());
+            WegeGameSetting setting = WegeGameSetting.createGame(List.of(4, 4), new SplittableRandom(1));
+            WegeBotMatch.Result result = new WegeBotMatch(land, water, 5000, 60000).play(setting);
+            assertEquals(0, result.landFallbacks());
+            assertEquals(0, result.waterFallbacks());
+            assertNotNull(land.getLastInfo());
+            pool.release(land);
+            assertSame(land, pool.acquire());
+            pool.release(land);
+            pool.release(water);
+        }
+    }
+
+    @Test
+    @DisplayName("Test give fallback moves to an engine which exits")
+    void shouldFallBackForExitedEngine() throws IOException {
+        List<String> command = WegeHeadless.resolveCommand(List.of(WegeHeadless.GREEDY_ENGINE));
+        try (WegeEngineClient engine = WegeEngineClient.start(command)) {
+            ProcessHandle.current().children().forEach(ProcessHandle::destroyForcibly);
+            WegeBot firstMoveBot = (view, card) -> view.getLegalMoves().get(0);
+            WegeGameSetting setting = WegeGameSetting.createGame(List.of(4, 4), new SplittableRandom(2));
+            long start = System.nanoTime();
+            WegeBotMatch.Result result = new WegeBotMatch(engine, firstMoveBot, 5000, 60000).play(setting);
+            assertTrue((System.nanoTime() - start) / 1_000_000 < 5000);
+            assertTrue(result.landFallbacks() > 0);
+            assertFalse(engine.isAlive());
+        }
+    }
+}
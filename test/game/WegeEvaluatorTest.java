@@ -0,0 +1,120 @@
+package game;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Test cases for the evaluator and the tuner of its weights")
+class WegeEvaluatorTest {
+
+    @ParameterizedTest
+    @CsvSource({"4, 4, 0, 3", "6, 6, 0, 7", "5, 5, 2, 9"})
+    @DisplayName("Test count the frontier as moves are played and taken back, tracked or not")
+    void shouldCountFrontierIncrementally(int rows, int cols, int deckVariant, long seed) {
+        WegeSimulator simulator = new WegeSimulator(rows, cols, deckVariant, seed);
+        for (int game = 0; game < 20; game++) {
+            WegeGameRecord record = simulator.recordGame(game);
+            WegePosition position = new WegePosition(rows, cols, record.drawnCards()).trackFrontier();
+            // Without tracking, the frontier is counted over the whole board after each move.
+            WegePosition counted = new WegePosition(rows, cols, record.drawnCards());
+            List<int[]> counts = new ArrayList<>();
+            for (int move : record.moves()) {
+                counts.add(countsOf(position));
+                position.play(move);
+                counted.play(move);
+                assertArrayEquals(countsOf(counted), countsOf(position));
+                assertArrayEquals(countsOf(position.copy()), countsOf(position));
+            }
+            assertThrows(IllegalStateException.class, counted::trackFrontier);
+            int[] edges = new int[2];
+            position.countOpenEdges(edges);
+            if (position.getCardsPlayed() == rows * cols) assertArrayEquals(new int[2], edges);
+            for (int i = counts.size() - 1; i >= 0; i--) {
+                position.undo();
+                counted.undo();
+                assertArrayEquals(counts.get(i), countsOf(position));
+                assertArrayEquals(counts.get(i), countsOf(counted));
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("Test evaluate the score alone as the position")
+    void shouldEvaluateScore() {
+        WegeGameRecord record = new WegeSimulator(5, 5, 0, 4).recordGame(1);
+        WegePosition position = new WegePosition(5, 5, record.drawnCards());
+        double[] features = new double[WegeEvaluator.Feature.values().length];
+        for (int move : record.moves()) {
+            position.play(move);
+            assertEquals(position.evaluate(), WegeEvaluator.SCORE.evaluate(position));
+            WegeEvaluator.extractFeatures(position, features);
+            assertEquals(position.countOpenCorners(true) - position.countOpenCorners(false),
+                    features[WegeEvaluator.Feature.OPEN_CORNERS.ordinal()]);
+        }
+    }
+
+    @Test
+    @DisplayName("Test save and load the weights of an evaluator")
+    void shouldSaveAndLoadWeights(@TempDir Path directory) throws IOException {
+        WegeEvaluator evaluator = new WegeEvaluator(new double[] {1, 0.25, -0.5, 0.75, -1.5, 2, 0, -0.125});
+        Path file = directory.resolve("weights.properties");
+        evaluator.save(file);
+        assertArrayEquals(evaluator.getWeights(), WegeEvaluator.load(file).getWeights());
+        Files.writeString(file, "OPEN_CORNERS=0.5\n");
+        WegeEvaluator loaded = WegeEvaluator.load(file);
+        assertEquals(0.5, loaded.getWeight(WegeEvaluator.Feature.OPEN_CORNERS));
+        assertEquals(0, loaded.getWeight(WegeEvaluator.Feature.SCORE));
+        assertTrue(loaded.usesFrontier());
+        assertFalse(WegeEvaluator.SCORE.usesFrontier());
+        Files.writeString(file, "MOBILITY=1\n");
+        assertThrows(IllegalArgumentException.class, () -> WegeEvaluator.load(file));
+        Files.writeString(file, "SCORE=high\n");
+        assertThrows(IllegalArgumentException.class, () -> WegeEvaluator.load(file));
+        assertThrows(IllegalArgumentException.class, () -> new WegeEvaluator(new double[2]));
+    }
+
+    @Test
+    @DisplayName("Test tune the same weights on any number of threads")
+    void shouldTuneWeights() throws InterruptedException {
+        List<WegeTuner.Iteration> iterations = new ArrayList<>();
+        WegeEvaluator tuned = new WegeTuner(3, 3, 0, 5).tune(WegeEvaluator.SCORE, 3, 4, 2, iterations::add);
+        assertEquals(List.of(8L, 16L, 24L), iterations.stream().map(WegeTuner.Iteration::games).toList());
+        assertArrayEquals(tuned.getWeights(), iterations.get(2).evaluator().getWeights());
+        assertEquals(1, tuned.getWeight(WegeEvaluator.Feature.SCORE));
+        assertArrayEquals(tuned.getWeights(),
+                new WegeTuner(3, 3, 0, 5).tune(WegeEvaluator.SCORE, 3, 4, 1, iteration -> {}).getWeights());
+    }
+
+    @Test
+    @DisplayName("Test play the same games with the sides swapped")
+    void shouldPlayPairOfGames() {
+        WegeTuner tuner = new WegeTuner(4, 4, 0, 6);
+        for (int game = 0; game < 10; game++) {
+            assertEquals(0, tuner.playPair(WegeEvaluator.SCORE, WegeEvaluator.SCORE, game));
+        }
+    }
+
+    /**
+     * Return the frontier counts and the cards left of a position.
+     */
+    private static int[] countsOf(WegePosition position) {
+        return new int[] {
+                position.countOpenCorners(true), position.countOpenCorners(false),
+                position.countOpenGnomes(true), position.countOpenGnomes(false),
+                position.countCossackPoints(true), position.countCossackPoints(false),
+                position.countCardsLeft(WegeRules.WATER), position.countCardsLeft(WegeRules.LAND),
+                position.countCardsLeft(WegeRules.BRIDGE), position.countCardsLeft(WegeRules.COSSACK),
+                position.countGnomeCardsLeft()
+        };
+    }
+}
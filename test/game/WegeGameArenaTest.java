@@ -0,0 +1,186 @@
+package game;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Test cases for the games stored in an arena outside the heap")
+class WegeGameArenaTest {
+
+    @ParameterizedTest(name = "{0}x{1} board")
+    @CsvSource({"3,3", "4,4", "6,6"})
+    @DisplayName("Test play the same moves and scores as the game master")
+    void shouldMatchGameMaster(int rows, int cols) {
+        int games = 20;
+        WegeDeck deck = WegeDeck.createWegeDeck(rows, cols);
+        WegeGameArena arena = new WegeGameArena(rows, cols, deck.size(), games, 3);
+        byte[] deckCodes = WegeRules.encodeDeck(deck);
+        Random random = new Random(rows * 31L + cols);
+        WegeArenaGame game = arena.view(arena.addGame(deckCodes));
+        for (int slot = 1; slot < games; slot++) {
+            arena.addGame(deckCodes);
+        }
+        for (int slot = 0; slot < games; slot++) {
+            WegePlayingBoard gameBoard = new WegePlayingBoard(rows, cols);
+            WegeGameMaster gameMaster = new WegeGameMaster(gameBoard);
+            game.moveTo(slot);
+            while (!game.isGameEnded()) {
+                byte card = game.peekCard();
+                List<WegeMove> moves = findLegalMoves(game, rows, cols);
+                assertEquals(!moves.isEmpty(), game.hasLegalMove());
+                if (moves.isEmpty()) {
+                    assertTrue(gameMaster.passTurn(WegeRules.decodeCard(card, 0, 0)));
+                    assertTrue(game.passTurn());
+                } else {
+                    WegeMove move = moves.get(random.nextInt(moves.size()));
+                    assertTrue(move.play(gameMaster, WegeRules.decodeCard(card, 0, 0)));
+                    int orientation = WegeRules.cornerOf(move.orientation());
+                    assertTrue(move.isSwap() ? game.trySwapCard(move.row(), move.col(), orientation)
+                            : game.tryPlaceCard(move.row(), move.col(), orientation));
+                }
+                // After a swap the next player plays the replaced card instead of drawing one.
+                WegePlayingCard replaced = gameMaster.getReplacedCard();
+                assertEquals(replaced == null ? WegeRules.EMPTY
+                        : WegeRules.rotate(WegeRules.encodeCard(replaced), WegeRules.TOP_LEFT), game.getHeldCard());
+                assertBoardsMatch(game, gameBoard, rows, cols);
+            }
+            assertTrue(gameMaster.isGameEnded(game.getCardsLeft()));
+            assertEquals(gameMaster.getCardsDiscarded(), game.getCardsDiscarded());
+            int[] scores = new int[2];
+            game.score(scores);
+            List<Player> players = gameMaster.collectPlayerStatistic();
+            assertEquals(players.get(0).getGameScore().total(), scores[0]);
+            assertEquals(players.get(1).getGameScore().total(), scores[1]);
+        }
+    }
+
+    @Test
+    @DisplayName("Test reject illegal moves without changing the slot")
+    void shouldRejectIllegalMoves() {
+        WegeDeck deck = WegeDeck.createWegeDeck(3, 3);
+        WegeGameArena arena = new WegeGameArena(3, 3, deck.size(), 1);
+        WegeArenaGame game = arena.view(arena.addGame(WegeRules.encodeDeck(deck)));
+        assertFalse(game.trySwapCard(0, 0, WegeRules.TOP_LEFT));
+        assertTrue(game.tryPlaceCard(1, 1, WegeRules.TOP_LEFT));
+        assertFalse(game.tryPlaceCard(1, 1, WegeRules.TOP_LEFT));
+        // A location touching the first card at one corner has no first contact point.
+        assertFalse(game.tryPlaceCard(0, 0, WegeRules.TOP_LEFT));
+        assertFalse(game.passTurn());
+        assertEquals(1, game.getCardsPlayed());
+        assertFalse(game.isLandTurn());
+    }
+
+    @Test
+    @DisplayName("Test write and read a snapshot with the same games")
+    void shouldReadSnapshot(@TempDir Path directory) throws IOException {
+        WegeDeck deck = WegeDeck.createWegeDeck(4, 4);
+        WegeGameArena arena = new WegeGameArena(4, 4, deck.size(), 10, 4);
+        byte[] deckCodes = WegeRules.encodeDeck(deck);
+        for (int slot = 0; slot < 7; slot++) {
+            WegeArenaGame game = arena.view(arena.addGame(deckCodes));
+            for (int turn = 0; turn < slot; turn++) {
+                playFirstLegalMove(game, 4, 4);
+            }
+        }
+        Path file = directory.resolve("arena.bin");
+        arena.writeSnapshot(file);
+        WegeGameArena readArena = WegeGameArena.readSnapshot(file);
+
+        assertEquals(7, readArena.size());
+        assertEquals(10, readArena.getCapacity());
+        WegeArenaGame game = arena.view(0);
+        WegeArenaGame readGame = readArena.view(0);
+        for (int slot = 0; slot < 7; slot++) {
+            game.moveTo(slot);
+            readGame.moveTo(slot);
+            assertEquals(game.getDeckPosition(), readGame.getDeckPosition());
+            assertEquals(game.getTurn(), readGame.getTurn());
+            assertEquals(game.getCardsPlayed(), readGame.getCardsPlayed());
+            for (int cell = 0; cell < 16; cell++) {
+                assertEquals(game.findCard(cell / 4, cell % 4), readGame.findCard(cell / 4, cell % 4));
+            }
+            assertEquals(game.peekCard(), readGame.peekCard());
+        }
+        readArena.addGame(deckCodes);
+        assertEquals(0, readArena.view(7).getDeckPosition());
+    }
+
+    @Test
+    @DisplayName("Test reject a game when the arena is full")
+    void shouldRejectGameWhenFull() {
+        WegeGameArena arena = new WegeGameArena(3, 3, 4, 2);
+        byte[] deck = new byte[4];
+        arena.addGame(deck);
+        arena.addGame(deck);
+        assertEquals(0, arena.getSlotSize() % 8);
+        assertThrows(IllegalStateException.class, () -> arena.addGame(deck));
+        assertThrows(IllegalArgumentException.class, () -> new WegeGameArena(3, 3, 4, 3).addGame(new byte[5]));
+        assertThrows(IndexOutOfBoundsException.class, () -> arena.view(2));
+    }
+
+    /**
+     * Find the legal moves of the next card at every location in every orientation.
+     */
+    private List<WegeMove> findLegalMoves(WegeArenaGame game, int rows, int cols) {
+        List<WegeMove> moves = new ArrayList<>();
+        for (int row = 0; row < rows; row++) {
+            for (int col = 0; col < cols; col++) {
+                for (int orientation = WegeRules.TOP_LEFT; orientation <= WegeRules.BOTTOM_LEFT; orientation++) {
+                    if (game.isLegalPlace(row, col, orientation)) {
+                        moves.add(new WegeMove(row, col, WegeRules.positionOf(orientation), false));
+                    }
+                    if (game.isLegalSwap(row, col, orientation)) {
+                        moves.add(new WegeMove(row, col, WegeRules.positionOf(orientation), true));
+                    }
+                }
+            }
+        }
+        return moves;
+    }
+
+    /**
+     * Play the first legal move of the next card, or pass the turn.
+     */
+    private void playFirstLegalMove(WegeArenaGame game, int rows, int cols) {
+        List<WegeMove> moves = findLegalMoves(game, rows, cols);
+        if (moves.isEmpty()) {
+            assertTrue(game.passTurn());
+            return;
+        }
+        WegeMove move = moves.get(0);
+        int orientation = WegeRules.cornerOf(move.orientation());
+        assertTrue(move.isSwap() ? game.trySwapCard(move.row(), move.col(), orientation)
+                : game.tryPlaceCard(move.row(), move.col(), orientation));
+    }
+
+    /**
+     * Assert the slot has the same cards and intersections as a game board.
+     */
+    private void assertBoardsMatch(WegeArenaGame game, WegePlayingBoard gameBoard, int rows, int cols) {
+        for (int row = 0; row < rows; row++) {
+            for (int col = 0; col < cols; col++) {
+                WegePlayingCard card = gameBoard.findPlayedCard(row, col);
+                assertEquals(card == null ? WegeRules.EMPTY : WegeRules.encodeCard(card), game.findCard(row, col));
+            }
+        }
+        for (int x = 0; x <= rows; x++) {
+            for (int y = 0; y <= cols; y++) {
+                Intersection intersection = gameBoard.findIntersection(x, y);
+                int expected = intersection == null ? 0 : WegeRules.POINT_EXISTS
+                        | (intersection.isConnectLand() ? WegeRules.POINT_LAND : 0)
+                        | intersection.getFacingGnomeCount() << WegeRules.POINT_GNOME_SHIFT;
+                assertEquals(expected, game.findPoint(x, y));
+            }
+        }
+    }
+}
@@ -0,0 +1,195 @@
+package game;
+
+import javafx.geometry.Pos;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Flow;
+
+import static game.TestUtil.createCardWithoutGnome;
+import static game.TestUtil.createLandCard;
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Test cases for the events published by the game master")
+class WegeGameEventPublisherTest {
+
+    /* The game master publishing events. */
+    private WegeGameMaster gameMaster;
+
+    /* The publisher of the game master, which delivers events on the publishing thread. */
+    private WegeGameEventPublisher eventPublisher;
+
+    @BeforeEach
+    void initGameMaster() {
+        eventPublisher = new WegeGameEventPublisher(Runnable::run, 4);
+        gameMaster = new WegeGameMaster(new WegePlayingBoard(3, 3), eventPublisher);
+    }
+
+    @Test
+    @DisplayName("Test publish nothing without subscribers")
+    void shouldNotPublishWithoutSubscribers() {
+        assertFalse(eventPublisher.hasSubscribers());
+        assertTrue(gameMaster.tryPlaceCard(createLandCard(0, 0)));
+        assertEquals(0, eventPublisher.getDroppedEvents());
+    }
+
+    @Test
+    @DisplayName("Test publish placed and swapped cards in order")
+    void shouldPublishPlacedAndSwappedCards() {
+        RecordingSubscriber subscriber = new RecordingSubscriber(Long.MAX_VALUE);
+        eventPublisher.subscribe(subscriber);
+        gameMaster.tryPlaceCard(createLandCard(0, 0));
+        assertTrue(playInAnyOrientation(createCardWithoutGnome(WegeCard.CardType.WATER, 0, 1), false));
+        assertTrue(playInAnyOrientation(createCardWithoutGnome(WegeCard.CardType.BRIDGE, 0, 1), true));
+
+        List<WegeGameEvent> cardEvents = subscriber.events.stream()
+                .filter(e -> !(e instanceof WegeGameEvent.ScoreChanged))
+                .toList();
+        assertEquals(3, cardEvents.size());
+        WegeGameEvent.CardPlaced first = (WegeGameEvent.CardPlaced) cardEvents.get(0);
+        assertTrue(first.isLandPlayer());
+        assertEquals(1, first.version());
+        WegeGameEvent.CardPlaced second = (WegeGameEvent.CardPlaced) cardEvents.get(1);
+        assertFalse(second.isLandPlayer());
+        assertEquals(WegeCard.CardType.WATER, second.card().cardType());
+        WegeGameEvent.CardSwapped swapped = (WegeGameEvent.CardSwapped) cardEvents.get(2);
+        assertEquals(WegeCard.CardType.BRIDGE, swapped.card().cardType());
+        assertEquals(WegeCard.CardType.WATER, swapped.replacedCard().cardType());
+        assertEquals(3, swapped.version());
+    }
+
+    @Test
+    @DisplayName("Test publish game ended and complete subscribers")
+    void shouldPublishGameEnded() {
+        RecordingSubscriber subscriber = new RecordingSubscriber(Long.MAX_VALUE);
+        eventPublisher.subscribe(subscriber);
+        gameMaster.tryPlaceCard(createLandCard(0, 0));
+        List<Player> players = gameMaster.collectPlayerStatistic();
+
+        WegeGameEvent lastEvent = subscriber.events.get(subscriber.events.size() - 1);
+        WegeGameEvent.GameEnded gameEnded = assertInstanceOf(WegeGameEvent.GameEnded.class, lastEvent);
+        assertEquals(players.get(0).getGameScore().total(), gameEnded.landScore());
+        assertEquals(players.get(1).getGameScore().total(), gameEnded.waterScore());
+        assertTrue(subscriber.completed);
+    }
+
+    @Test
+    @DisplayName("Test publish a closed component only when the central ground is sealed")
+    void shouldPublishSealedComponentsOnly() {
+        int grownOnly = 0;
+        int closed = 0;
+        for (long game = 0; game < 50; game++) {
+            WegeGameRecord record = new WegeSimulator(4, 4, 0, 1).recordGame(game);
+            WegeGameEventPublisher publisher = new WegeGameEventPublisher(Runnable::run, 1024);
+            WegeGameMaster master = new WegeGameMaster(new WegePlayingBoard(4, 4), publisher);
+            RecordingSubscriber subscriber = new RecordingSubscriber(Long.MAX_VALUE);
+            publisher.subscribe(subscriber);
+            WegePosition position = new WegePosition(4, 4, record.drawnCards());
+            List<WegeGameEvent> expected = new ArrayList<>();
+            int[] sealed = new int[2];
+            int[] live = new int[2];
+            for (int ply = 0; ply < record.moves().length; ply++) {
+                WegePlayingCard card = WegeRules.decodeCard(record.cards()[ply], 0, 0);
+                WegeMove move = WegeMove.unpack(record.moves()[ply]);
+                assertTrue(move == null ? master.passTurn(card) : move.play(master, card));
+                position.play(record.moves()[ply]);
+                if (move == null) continue;
+                long version = master.getBoardSnapshot().getVersion();
+                int[] nowSealed = new int[2];
+                position.countSealedCentralGrounds(nowSealed);
+                List<Player> livePlayers = master.collectLiveStatistic();
+                for (int index = 0; index < 2; index++) {
+                    int centralGround = livePlayers.get(index).getCentralGround();
+                    if (nowSealed[index] > sealed[index]) {
+                        expected.add(new WegeGameEvent.ComponentClosed(version, index == 0, nowSealed[index]));
+                    } else if (centralGround > live[index]) {
+                        grownOnly++;
+                    }
+                    live[index] = centralGround;
+                }
+                sealed = nowSealed;
+            }
+            List<WegeGameEvent> actual = subscriber.events.stream()
+                    .filter(e -> e instanceof WegeGameEvent.ComponentClosed)
+                    .toList();
+            assertEquals(expected, actual);
+            closed += actual.size();
+        }
+        // A central ground which a bridge could still open is not published as closed.
+        assertTrue(grownOnly > 0);
+        assertTrue(closed > 0);
+    }
+
+    @Test
+    @DisplayName("Test drop events for a slow subscriber without blocking the game")
+    void shouldDropEventsForSlowSubscriber() {
+        RecordingSubscriber slowSubscriber = new RecordingSubscriber(0);
+        eventPublisher.subscribe(slowSubscriber);
+        gameMaster.tryPlaceCard(createLandCard(0, 0));
+        for (int col = 1; col < 3; col++) {
+            gameMaster.tryPlaceCard(createCardWithoutGnome(col % 2 == 0 ? WegeCard.CardType.LAND : WegeCard.CardType.WATER, 0, col));
+        }
+        for (int col = 0; col < 3; col++) {
+            gameMaster.tryPlaceCard(createCardWithoutGnome(col % 2 == 0 ? WegeCard.CardType.WATER : WegeCard.CardType.LAND, 1, col));
+        }
+        assertTrue(slowSubscriber.events.isEmpty());
+        assertTrue(eventPublisher.getDroppedEvents() > 0);
+    }
+
+    /**
+     * Rotate a card until it can be played on the board, then play it.
+     *
+     * @param card the card to play.
+     * @param isSwap whether to swap the card with the card on the board.
+     * @return <code>true</code> if the card is played in one of the orientations.
+     */
+    private boolean playInAnyOrientation(WegePlayingCard card, boolean isSwap) {
+        for (Pos orientation : new Pos[]{Pos.TOP_LEFT, Pos.TOP_RIGHT, Pos.BOTTOM_RIGHT, Pos.BOTTOM_LEFT}) {
+            card.setOrientation(orientation);
+            if (isSwap ? gameMaster.trySwapCard(card) : gameMaster.tryPlaceCard(card)) return true;
+        }
+        return false;
+    }
+
+    /**
+     * A subscriber which records every event it receives.
+     */
+    private static class RecordingSubscriber implements Flow.Subscriber<WegeGameEvent> {
+
+        /* The events received so far. */
+        private final List<WegeGameEvent> events = new ArrayList<>();
+
+        /* The number of events requested when subscribed. */
+        private final long initialRequest;
+
+        /* Whether the publisher completed this subscriber. */
+        private boolean completed;
+
+        RecordingSubscriber(long initialRequest) {
+            this.initialRequest = initialRequest;
+        }
+
+        @Override
+        public void onSubscribe(Flow.Subscription subscription) {
+            if (initialRequest > 0) subscription.request(initialRequest);
+        }
+
+        @Override
+        public void onNext(WegeGameEvent item) {
+            events.add(item);
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+            fail(throwable);
+        }
+
+        @Override
+        public void onComplete() {
+            completed = true;
+        }
+    }
+}
@@ -4,12 +4,20 @@ import javafx.geometry.Pos;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
 
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Random;
 
 import static game.TestUtil.createCardWithoutGnome;
 import static game.TestUtil.createLandCard;
+import static game.TestUtil.playRandomMove;
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 @DisplayName("Test cases for the game master of the game Wege")
@@ -109,6 +117,28 @@ class WegeGameMasterTest {
         assertFalse(gameMaster.trySwapCard(createCardWithoutGnome(WegeCard.CardType.BRIDGE)));
     }
 
+    @Test
+    @DisplayName("Test swap card with Bridge card")
+    void shouldNotSwapCardIfBridge() {
+        assertTrue(gameMaster.trySwapCard(createCardWithoutGnome(WegeCard.CardType.BRIDGE)));
+        assertFalse(gameMaster.trySwapCard(createCardWithoutGnome(WegeCard.CardType.BRIDGE)));
+    }
+
+    @Test
+    @DisplayName("Test hand the replaced card to the next player after a swap")
+    void shouldHandReplacedCardToNextPlayer() {
+        WegeGameMaster thisTestMaster = createNewGameMaster();
+        WegePlayingCard landCard = createLandCard(0, 0);
+        thisTestMaster.tryPlaceCard(landCard);
+        assertNull(thisTestMaster.getReplacedCard());
+        assertTrue(thisTestMaster.trySwapCard(createCardWithoutGnome(WegeCard.CardType.BRIDGE)));
+        assertSame(landCard, thisTestMaster.getReplacedCard());
+        // The next player plays the replaced card, and the card after it is drawn again.
+        WegeMove move = thisTestMaster.findLegalMoves(landCard).get(0);
+        assertTrue(move.play(thisTestMaster, landCard));
+        assertNull(thisTestMaster.getReplacedCard());
+    }
+
     @Test
     @DisplayName("Test swap card with land has gnome group")
     void shouldNotSwapCardIfLandHasGnomeGroup() {
@@ -125,6 +155,125 @@ class WegeGameMasterTest {
         assertFalse(thisTestMaster.trySwapCard(createCardWithoutGnome(WegeCard.CardType.BRIDGE)));
     }
 
+    @Test
+    @DisplayName("Test any card has a legal move at game start")
+    void shouldHaveLegalMoveAtGameStart() {
+        assertTrue(createNewGameMaster().hasLegalMove(createCardWithoutGnome(WegeCard.CardType.COSSACK)));
+    }
+
+    @Test
+    @DisplayName("Test card has a legal move next to a played card")
+    void shouldHaveLegalMoveNextToPlayedCard() {
+        for (WegeCard.CardType cardType : WegeCard.CardType.values()) {
+            assertTrue(gameMaster.hasLegalMove(createCardWithoutGnome(cardType)));
+        }
+    }
+
+    @Test
+    @DisplayName("Test card has no legal move on a full board")
+    void shouldNotHaveLegalMoveOnFullBoard() {
+        WegeGameMaster thisTestMaster = createFullGameMaster(WegeCard.CardType.COSSACK);
+        assertFalse(thisTestMaster.hasLegalMove(createCardWithoutGnome(WegeCard.CardType.LAND)));
+        assertFalse(thisTestMaster.hasLegalMove(createCardWithoutGnome(WegeCard.CardType.BRIDGE)));
+        assertTrue(thisTestMaster.isGameEnded(1));
+    }
+
+    @Test
+    @DisplayName("Test bridge card has a legal swap on a full board")
+    void shouldHaveLegalSwapOnFullBoard() {
+        WegeGameMaster thisTestMaster = createFullGameMaster(WegeCard.CardType.LAND);
+        assertFalse(thisTestMaster.hasLegalMove(createCardWithoutGnome(WegeCard.CardType.WATER)));
+        assertTrue(thisTestMaster.hasLegalMove(createCardWithoutGnome(WegeCard.CardType.BRIDGE)));
+    }
+
+    @Test
+    @DisplayName("Test pass turn when card has no legal move")
+    void shouldPassTurnWithoutLegalMove() {
+        WegeGameMaster thisTestMaster = createFullGameMaster(WegeCard.CardType.COSSACK);
+        assertTrue(thisTestMaster.passTurn(createCardWithoutGnome(WegeCard.CardType.WATER)));
+        assertEquals(1, thisTestMaster.getCardsDiscarded());
+    }
+
+    @Test
+    @DisplayName("Test not pass turn when card has a legal move")
+    void shouldNotPassTurnWithLegalMove() {
+        assertFalse(gameMaster.passTurn(createCardWithoutGnome(WegeCard.CardType.WATER)));
+        assertEquals(0, gameMaster.getCardsDiscarded());
+    }
+
+    @Test
+    @DisplayName("Test game ended when no card left to play")
+    void shouldEndGameWithoutCardsLeft() {
+        assertFalse(gameMaster.isGameEnded(1));
+        assertTrue(gameMaster.isGameEnded(0));
+    }
+
+    @ParameterizedTest(name = "Score bounds on {0} x {1} board")
+    @CsvSource({"3,3", "4,4", "6,6", "5,7"})
+    @DisplayName("Test final scores are within the estimated score bounds")
+    void shouldEstimateScoreBoundsOfFinalScores(int rows, int cols) {
+        Random random = new Random(rows * 31L + cols);
+        for (int game = 0; game < 20; game++) {
+            WegePlayingBoard gameBoard = new WegePlayingBoard(rows, cols);
+            WegeGameMaster thisTestMaster = new WegeGameMaster(gameBoard);
+            WegeDeck deck = WegeDeck.createWegeDeck(rows, cols);
+            List<GameOutcome> outcomes = new ArrayList<>();
+            WegePlayingCard nextCard = null;
+            while (true) {
+                if (nextCard == null && !deck.isEmpty()) nextCard = deck.drawFromFront();
+                outcomes.add(thisTestMaster.estimateOutcome(deck, nextCard));
+                if (thisTestMaster.isGameEnded(deck.size() + (nextCard == null ? 0 : 1))) break;
+                if (thisTestMaster.passTurn(nextCard)) {
+                    nextCard = null;
+                } else {
+                    nextCard = playRandomMove(thisTestMaster, gameBoard, nextCard, random);
+                }
+            }
+            List<Player> players = thisTestMaster.collectPlayerStatistic();
+            int landTotal = players.get(0).getGameScore().total();
+            int waterTotal = players.get(1).getGameScore().total();
+            for (GameOutcome outcome : outcomes) {
+                assertTrue(outcome.land().lowerBound() <= landTotal && landTotal <= outcome.land().upperBound());
+                assertTrue(outcome.water().lowerBound() <= waterTotal && waterTotal <= outcome.water().upperBound());
+                if (outcome.getWinner() != null) {
+                    assertEquals(outcome.getWinner().isLandPlayer(), landTotal > waterTotal);
+                }
+            }
+            GameOutcome lastOutcome = outcomes.get(outcomes.size() - 1);
+            assertTrue(lastOutcome.isDecided());
+            assertEquals(landTotal, lastOutcome.land().lowerBound());
+            assertEquals(waterTotal, lastOutcome.water().upperBound());
+        }
+    }
+
+    @Test
+    @DisplayName("Test outcome is not decided at game start")
+    void shouldNotDecideOutcomeAtGameStart() {
+        GameOutcome outcome = createNewGameMaster().estimateOutcome(WegeDeck.createWegeDeck(3, 3), null);
+        assertFalse(outcome.isDecided());
+        assertEquals(0, outcome.land().lowerBound());
+        assertNull(outcome.getWinner());
+    }
+
+    /**
+     * Create a game master with a 3 x 3 board filled up with cards of the same type.
+     *
+     * @param cardType the type of the cards on the board.
+     * @return a new game master.
+     */
+    private WegeGameMaster createFullGameMaster(WegeCard.CardType cardType) {
+        WegePlayingBoard gameBoard = new WegePlayingBoard(3, 3);
+        for (int row = 0; row < 3; row++) {
+            for (int col = 0; col < 3; col++) {
+                gameBoard.placeCardOnBoard(createCardWithoutGnome(cardType, row, col));
+            }
+        }
+        WegeGameMaster thisTestMaster = new WegeGameMaster(gameBoard);
+        // Start the game, a swap does not start the game.
+        thisTestMaster.tryPlaceCard(createCardWithoutGnome(cardType, 0, 0));
+        return thisTestMaster;
+    }
+
     /**
      * Generate a list of cards in the gnome group.
      *
@@ -0,0 +1,174 @@
+package game;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.function.Predicate;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Test cases for the game store and its indexes")
+class WegeGameStoreTest {
+
+    @Test
+    @DisplayName("Test read the games and find them by their indexes")
+    void shouldFindGamesByIndexes(@TempDir Path directory) throws IOException {
+        List<WegeGameRecord> games = createRandomGames(500);
+        try (WegeGameStore store = new WegeGameStore(directory, 256)) {
+            for (int number = 0; number < games.size(); number++) {
+                assertEquals(number, store.append(games.get(number)));
+            }
+            assertGamesStored(store, games);
+            assertQueryMatches(games, e -> true, store.query());
+            assertQueryMatches(games, e -> e.rows() == 6 && e.cols() == 6 && e.waterEdges() == 4,
+                    store.query()
+                            .where(WegeGameStore.Field.BOARD_SIZE, WegeGameStore.boardSize(6, 6))
+                            .where(WegeGameStore.Field.WATER_EDGES, 4));
+            assertQueryMatches(games, e -> e.winner() == WegeGameRecord.LAND_WINS && e.deckVariant() == 2,
+                    store.query()
+                            .where(WegeGameStore.Field.WINNER, WegeGameRecord.LAND_WINS)
+                            .where(WegeGameStore.Field.DECK_VARIANT, 2));
+            assertQueryMatches(games, e -> e.landScore() >= 10 && e.landScore() <= 20 && e.landEdges() >= 3,
+                    store.query()
+                            .whereBetween(WegeGameStore.Field.LAND_SCORE, 10, 20)
+                            .whereBetween(WegeGameStore.Field.LAND_EDGES, 3, 4));
+            assertEquals(0, store.query().where(WegeGameStore.Field.WATER_SCORE, 999).count());
+        }
+    }
+
+    @Test
+    @DisplayName("Test keep the games after the store is opened again")
+    void shouldKeepGamesAfterReopen(@TempDir Path directory) throws IOException {
+        List<WegeGameRecord> games = createRandomGames(100);
+        try (WegeGameStore store = new WegeGameStore(directory, 256)) {
+            for (WegeGameRecord game : games.subList(0, 60)) {
+                store.append(game);
+            }
+            store.flush();
+        }
+        try (WegeGameStore store = new WegeGameStore(directory, 256)) {
+            assertEquals(60, store.size());
+            for (WegeGameRecord game : games.subList(60, 100)) {
+                store.append(game);
+            }
+            assertGamesStored(store, games);
+            assertQueryMatches(games, e -> e.waterEdges() == 2,
+                    store.query().where(WegeGameStore.Field.WATER_EDGES, 2));
+        }
+    }
+
+    @Test
+    @DisplayName("Test drop a game which was not completely written")
+    void shouldDropIncompleteGame(@TempDir Path directory) throws IOException {
+        List<WegeGameRecord> games = createRandomGames(10);
+        try (WegeGameStore store = new WegeGameStore(directory, 256)) {
+            for (WegeGameRecord game : games) {
+                store.append(game);
+            }
+        }
+        // Cut the offset of the last game in half, as if the writer stopped there.
+        try (WegeMappedFile offsets = new WegeMappedFile(directory.resolve("offsets.idx"), 256)) {
+            offsets.truncate(9 * Long.BYTES + 4);
+        }
+        try (WegeGameStore store = new WegeGameStore(directory, 256)) {
+            assertEquals(9, store.size());
+            assertQueryMatches(games.subList(0, 9), e -> true, store.query());
+            assertEquals(9, store.append(games.get(9)));
+            assertQueryMatches(games, e -> e.waterEdges() == games.get(9).waterEdges(),
+                    store.query().where(WegeGameStore.Field.WATER_EDGES, games.get(9).waterEdges()));
+        }
+    }
+
+    @Test
+    @DisplayName("Test keep unsigned values and reject a store of another version")
+    void shouldRejectOtherVersion(@TempDir Path directory) throws IOException {
+        WegeGameRecord game = new WegeGameRecord(200, 3, 0, 1, 2, 130, 0, new int[0], new byte[0]);
+        try (WegeGameStore store = new WegeGameStore(directory, 256)) {
+            store.append(game);
+            assertEquals(200, store.read(0).rows());
+            assertEquals(130, store.read(0).landEdges());
+            assertThrows(IllegalArgumentException.class,
+                    () -> store.append(new WegeGameRecord(256, 3, 0, 1, 2, 0, 0, new int[0], new byte[0])));
+        }
+        Path records = directory.resolve("games.dat");
+        byte[] bytes = Files.readAllBytes(records);
+        bytes[4]++;
+        Files.write(records, bytes);
+        assertThrows(IOException.class, () -> new WegeGameStore(directory, 256));
+        bytes[0]++;
+        Files.write(records, bytes);
+        assertThrows(IOException.class, () -> new WegeGameStore(directory, 256));
+    }
+
+    @Test
+    @DisplayName("Test append values without crossing two regions")
+    void shouldNotCrossRegions(@TempDir Path directory) throws IOException {
+        try (WegeMappedFile file = new WegeMappedFile(directory.resolve("file"), 16)) {
+            assertEquals(0, file.append(ByteBuffer.allocate(12)));
+            assertEquals(16, file.append(ByteBuffer.allocate(8).order(ByteOrder.LITTLE_ENDIAN).putLong(0, 42)));
+            assertEquals(24, file.append(ByteBuffer.allocate(4).order(ByteOrder.LITTLE_ENDIAN).putInt(0, 7)));
+            assertEquals(42, file.getLong(16));
+            assertEquals(7, file.getInt(24));
+        }
+    }
+
+    /**
+     * Create games with random board sizes, decks, results and moves.
+     */
+    private List<WegeGameRecord> createRandomGames(int count) {
+        Random random = new Random(count);
+        List<WegeGameRecord> games = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            int size = 3 + random.nextInt(4);
+            int[] moves = new int[random.nextInt(40)];
+            byte[] cards = new byte[moves.length];
+            for (int move = 0; move < moves.length; move++) {
+                moves[move] = random.nextInt(8) == 0 ? WegeMove.PASS : WegeMove.pack(random.nextInt(size),
+                        random.nextInt(size), random.nextInt(4), random.nextBoolean());
+                cards[move] = WegeRules.encodeCard(random.nextInt(4), random.nextInt(4), random.nextInt(3));
+            }
+            games.add(new WegeGameRecord(size, size, random.nextInt(3), random.nextInt(30), random.nextInt(30),
+                    random.nextInt(5), random.nextInt(5), moves, cards));
+        }
+        return games;
+    }
+
+    /**
+     * Assert every game can be read back from the store.
+     */
+    private void assertGamesStored(WegeGameStore store, List<WegeGameRecord> games) throws IOException {
+        assertEquals(games.size(), store.size());
+        for (int number = 0; number < games.size(); number++) {
+            WegeGameRecord expected = games.get(number);
+            WegeGameRecord game = store.read(number);
+            assertEquals(expected.rows(), game.rows());
+            assertEquals(expected.cols(), game.cols());
+            assertEquals(expected.deckVariant(), game.deckVariant());
+            assertEquals(expected.landScore(), game.landScore());
+            assertEquals(expected.waterScore(), game.waterScore());
+            assertEquals(expected.landEdges(), game.landEdges());
+            assertEquals(expected.waterEdges(), game.waterEdges());
+            assertArrayEquals(expected.moves(), game.moves());
+            assertArrayEquals(expected.cards(), game.cards());
+        }
+    }
+
+    /**
+     * Assert a query finds the same games as a filter over all games.
+     */
+    private void assertQueryMatches(List<WegeGameRecord> games, Predicate<WegeGameRecord> filter,
+                                    WegeGameStore.Query query) {
+        int[] expected = IntStream.range(0, games.size()).filter(i -> filter.test(games.get(i))).toArray();
+        assertArrayEquals(expected, query.stream().toArray());
+    }
+}
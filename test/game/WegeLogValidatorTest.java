@@ -0,0 +1,144 @@
+package game;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Test cases for the validator of the game logs")
+class WegeLogValidatorTest {
+
+    @Test
+    @DisplayName("Test accept the games played by the game master")
+    void shouldAcceptGames() {
+        WegeLogValidator validator = new WegeLogValidator();
+        for (WegeSimulator simulator : List.of(new WegeSimulator(3, 3, 0, 1), new WegeSimulator(6, 6, 0, 2),
+                new WegeSimulator(5, 5, 2, 3))) {
+            for (int game = 0; game < 100; game++) {
+                WegeGameRecord record = simulator.recordGame(game);
+                WegeLogValidator.Verdict verdict = validator.validate(game, record);
+                assertEquals(WegeLogValidator.Status.VALID, verdict.status());
+                assertEquals(-1, verdict.ply());
+                assertEquals(record.landScore(), verdict.landScore());
+                assertEquals(record.waterScore(), verdict.waterScore());
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("Test reject the games of a store with the first move which is not valid")
+    void shouldRejectGamesOfStore(@TempDir Path directory) throws IOException, InterruptedException {
+        WegeSimulator simulator = new WegeSimulator(4, 4, 0, 4);
+        try (WegeGameStore store = new WegeGameStore(directory, 4096)) {
+            for (int game = 0; game < 200; game++) {
+                WegeGameRecord record = simulator.recordGame(game);
+                int[] moves = record.moves().clone();
+                byte[] cards = record.cards().clone();
+                int landScore = record.landScore();
+                switch (game) {
+                    case 10 -> landScore++;
+                    // A card placed on the first card.
+                    case 20 -> moves[3] = WegeMove.pack(moves[0] >>> 12, (moves[0] >>> 4) & 0xFF, 0, false);
+                    // A card which is in no deck: a gnome code which does not exist.
+                    case 30 -> cards[2] = WegeRules.encodeCard(WegeRules.WATER, WegeRules.TOP_LEFT, 3);
+                    case 40 -> {
+                        moves = Arrays.copyOf(moves, moves.length - 1);
+                        cards = Arrays.copyOf(cards, cards.length - 1);
+                    }
+                    // The second card always touches the first card.
+                    case 50 -> moves[1] = WegeMove.PASS;
+                    default -> {}
+                }
+                store.append(new WegeGameRecord(record.rows(), record.cols(), record.deckVariant(), landScore,
+                        record.waterScore(), record.landEdges(), record.waterEdges(), moves, cards));
+            }
+            WegeLogValidator.Report report = new WegeLogValidator().validate(store, 2);
+            assertEquals(200, report.games());
+            assertEquals(195, report.valid());
+            assertEquals(List.of(WegeLogValidator.Status.WRONG_SCORE, WegeLogValidator.Status.ILLEGAL_MOVE,
+                            WegeLogValidator.Status.MALFORMED, WegeLogValidator.Status.UNFINISHED,
+                            WegeLogValidator.Status.ILLEGAL_MOVE),
+                    report.rejected().stream().map(WegeLogValidator.Verdict::status).toList());
+            assertEquals(List.of(10, 20, 30, 40, 50),
+                    report.rejected().stream().map(WegeLogValidator.Verdict::game).toList());
+            assertEquals(List.of(-1, 3, 2, simulator.recordGame(40).moves().length - 1, 1),
+                    report.rejected().stream().map(WegeLogValidator.Verdict::ply).toList());
+            assertEquals(2, report.count(WegeLogValidator.Status.ILLEGAL_MOVE));
+            assertEquals(report.rejected(), new WegeLogValidator().validate(store, 1).rejected());
+        }
+    }
+
+    @Test
+    @DisplayName("Test reject a game whose record cannot be read without stopping the validation")
+    void shouldRejectUnreadableGame(@TempDir Path directory) throws IOException, InterruptedException {
+        WegeSimulator simulator = new WegeSimulator(4, 4, 0, 3);
+        try (WegeGameStore store = WegeGameStore.open(directory)) {
+            for (int game = 0; game < 20; game++) {
+                store.append(simulator.recordGame(game));
+            }
+        }
+        // The last record claims more moves than the file holds.
+        Path records = directory.resolve("games.dat");
+        byte[] bytes = Files.readAllBytes(records);
+        int lastRecord = bytes.length - 12 - 5 * simulator.recordGame(19).moves().length;
+        bytes[lastRecord + 10] = (byte) 0xFF;
+        bytes[lastRecord + 11] = (byte) 0xFF;
+        Files.write(records, bytes);
+        try (WegeGameStore store = WegeGameStore.open(directory)) {
+            assertThrows(IOException.class, () -> store.read(19));
+            WegeLogValidator.Report report = new WegeLogValidator().validate(store, 2);
+            assertEquals(19, report.valid());
+            assertEquals(List.of(new WegeLogValidator.Verdict(19, WegeLogValidator.Status.MALFORMED, -1, -1, -1)),
+                    report.rejected());
+        }
+    }
+
+    @Test
+    @DisplayName("Test reject a game which draws a card after a swap instead of the replaced card")
+    void shouldRejectCardAfterSwap() {
+        WegeLogValidator validator = new WegeLogValidator();
+        WegeSimulator simulator = new WegeSimulator(4, 4, 0, 5);
+        int swaps = 0;
+        for (int game = 0; game < 100; game++) {
+            WegeGameRecord record = simulator.recordGame(game);
+            int[] moves = record.moves();
+            for (int ply = 0; ply + 1 < moves.length; ply++) {
+                if ((moves[ply] & 2) == 0) continue;
+                swaps++;
+                // The bridge itself is never the replaced card.
+                byte[] cards = record.cards().clone();
+                cards[ply + 1] = cards[ply];
+                WegeLogValidator.Verdict verdict = validator.validate(game, new WegeGameRecord(record.rows(),
+                        record.cols(), record.deckVariant(), record.landScore(), record.waterScore(),
+                        record.landEdges(), record.waterEdges(), moves, cards));
+                assertEquals(WegeLogValidator.Status.ILLEGAL_MOVE, verdict.status());
+                assertEquals(ply + 1, verdict.ply());
+            }
+        }
+        assertTrue(swaps > 0);
+    }
+
+    @Test
+    @DisplayName("Test reject games which cannot be read")
+    void shouldRejectMalformedGames() {
+        WegeLogValidator validator = new WegeLogValidator();
+        WegeGameRecord record = new WegeSimulator(3, 3, 0, 5).recordGame(0);
+        assertEquals(WegeLogValidator.Status.MALFORMED, validator.validate(0, new WegeGameRecord(0, 3, 0, 0, 0, 0, 0,
+                record.moves(), record.cards())).status());
+        assertEquals(WegeLogValidator.Status.MALFORMED, validator.validate(0, new WegeGameRecord(3, 3, 0, 0, 0, 0, 0,
+                record.moves(), new byte[1])).status());
+        int[] moves = record.moves().clone();
+        moves[0] = WegeMove.pack(3, 0, 0, false);
+        WegeLogValidator.Verdict verdict = validator.validate(0, new WegeGameRecord(3, 3, 0, record.landScore(),
+                record.waterScore(), 0, 0, moves, record.cards()));
+        assertEquals(WegeLogValidator.Status.ILLEGAL_MOVE, verdict.status());
+        assertEquals(0, verdict.ply());
+    }
+}
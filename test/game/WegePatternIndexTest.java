@@ -0,0 +1,175 @@
+package game;
+
+import javafx.geometry.Pos;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Test cases for the pattern search over archived games")
+class WegePatternIndexTest {
+
+    @Test
+    @DisplayName("Test find the same games as replaying every game")
+    void shouldFindSameGamesAsReplay() {
+        List<WegeGameRecord> games = playRandomGames(200, 5, 5);
+        WegePatternIndex index = new WegePatternIndex();
+        for (int game = 0; game < games.size(); game++) {
+            index.addGame(game, games.get(game));
+        }
+        Random random = new Random(7);
+        for (int i = 0; i < 30; i++) {
+            // A window reached in a game, with some locations left out.
+            WegeGameRecord game = games.get(random.nextInt(games.size()));
+            byte[] cards = replay(game, 5, random.nextInt(game.moves().length) + 1);
+            WegePattern pattern = new WegePattern();
+            int top = random.nextInt(3);
+            int left = random.nextInt(3);
+            for (int row = 0; row < 3; row++) {
+                for (int col = 0; col < 3; col++) {
+                    if (i % 3 != 0 && random.nextInt(3) == 0) continue;
+                    int code = cards[(top + row) * 5 + left + col];
+                    if (code == WegeRules.EMPTY) pattern.empty(row, col);
+                    else pattern.card(row, col, WegeCard.CardType.values()[WegeRules.cardTypeOf(code)],
+                            WegeRules.positionOf(WegeRules.orientationOf(code)));
+                }
+            }
+            List<WegePatternIndex.Match> expected = findByReplay(games, pattern, 5, 5);
+            assertFalse(expected.isEmpty());
+            assertEquals(expected, index.find(pattern));
+        }
+        // A pattern without any location matches every window.
+        assertEquals(findByReplay(games, new WegePattern(), 5, 5), index.find(new WegePattern()));
+    }
+
+    @Test
+    @DisplayName("Test match a pattern in every rotation and reflection")
+    void shouldMatchSymmetricPatterns() {
+        WegePattern pattern = new WegePattern()
+                .card(0, 0, WegeCard.CardType.LAND, Pos.TOP_LEFT)
+                .card(0, 1, WegeCard.CardType.BRIDGE, Pos.TOP_LEFT)
+                .empty(1, 1);
+        // The same cards turned a quarter clockwise: the top row becomes the right column.
+        byte[] rotated = new byte[9];
+        rotated[2] = WegeRules.encodeCard(WegeRules.LAND, WegeRules.TOP_RIGHT, WegeRules.NO_GNOME);
+        rotated[5] = WegeRules.encodeCard(WegeRules.BRIDGE, WegeRules.TOP_RIGHT, WegeRules.NO_GNOME);
+        assertTrue(pattern.matches(WegePattern.keyOf(rotated, 3, 0, 0)));
+        // The same cards reflected left to right.
+        byte[] reflected = new byte[9];
+        reflected[2] = WegeRules.encodeCard(WegeRules.LAND, WegeRules.BOTTOM_LEFT, WegeRules.NO_GNOME);
+        reflected[1] = WegeRules.encodeCard(WegeRules.BRIDGE, WegeRules.TOP_RIGHT, WegeRules.NO_GNOME);
+        assertTrue(pattern.matches(WegePattern.keyOf(reflected, 3, 0, 0)));
+        assertEquals(WegePattern.canonicalKeyOf(WegePattern.keyOf(rotated, 3, 0, 0)),
+                WegePattern.canonicalKeyOf(WegePattern.keyOf(reflected, 3, 0, 0)));
+        // The land card on the other diagonal is another pattern.
+        reflected[2] = WegeRules.encodeCard(WegeRules.LAND, WegeRules.TOP_LEFT, WegeRules.NO_GNOME);
+        assertFalse(pattern.matches(WegePattern.keyOf(reflected, 3, 0, 0)));
+    }
+
+    @Test
+    @DisplayName("Test find the games which reached all patterns")
+    void shouldFindGamesWithAllPatterns(@TempDir Path directory) throws IOException {
+        List<WegeGameRecord> games = playRandomGames(100, 4, 4);
+        WegePatternIndex index = new WegePatternIndex();
+        for (int game = 0; game < games.size(); game++) {
+            index.addGame(game, games.get(game));
+        }
+        WegePattern landCorner = new WegePattern().card(0, 0, WegeCard.CardType.LAND, Pos.TOP_LEFT);
+        WegePattern twoBridges = new WegePattern()
+                .card(1, 0, WegeCard.CardType.BRIDGE, Pos.TOP_LEFT)
+                .card(1, 1, WegeCard.CardType.BRIDGE, Pos.TOP_LEFT);
+        int[] expected = IntStream.range(0, games.size())
+                .filter(game -> !findByReplay(games.subList(game, game + 1), landCorner, 4, 4).isEmpty()
+                        && !findByReplay(games.subList(game, game + 1), twoBridges, 4, 4).isEmpty())
+                .toArray();
+        assertArrayEquals(expected, index.findGames(landCorner, twoBridges));
+
+        Path file = directory.resolve("patterns.idx");
+        index.write(file);
+        WegePatternIndex readIndex = WegePatternIndex.read(file);
+        assertEquals(index.size(), readIndex.size());
+        assertArrayEquals(expected, readIndex.findGames(landCorner, twoBridges));
+        assertThrows(IllegalArgumentException.class, () -> readIndex.addGame(99, games.get(0)));
+    }
+
+    /**
+     * Play random games with the batch engine and record the cards and the moves of each game.
+     */
+    private List<WegeGameRecord> playRandomGames(int count, int rows, int cols) {
+        WegeDeck deck = WegeDeck.createWegeDeck(rows, cols);
+        WegeBatchEngine engine = new WegeBatchEngine(new WegeGameSetting(rows, cols, deck), count, rows * 17L + cols);
+        List<List<Integer>> moves = new ArrayList<>();
+        List<List<Byte>> cards = new ArrayList<>();
+        for (int game = 0; game < count; game++) {
+            moves.add(new ArrayList<>());
+            cards.add(new ArrayList<>());
+        }
+        while (engine.getGamesRunning() > 0) {
+            boolean[] wasRunning = new boolean[count];
+            for (int game = 0; game < count; game++) {
+                wasRunning[game] = engine.isRunning(game);
+                if (wasRunning[game]) cards.get(game).add(engine.peekCard(game));
+            }
+            engine.step();
+            for (int game = 0; game < count; game++) {
+                if (wasRunning[game]) moves.get(game).add(engine.getLastMove(game));
+            }
+        }
+        List<WegeGameRecord> games = new ArrayList<>();
+        for (int game = 0; game < count; game++) {
+            byte[] gameCards = new byte[cards.get(game).size()];
+            for (int i = 0; i < gameCards.length; i++) {
+                gameCards[i] = cards.get(game).get(i);
+            }
+            games.add(new WegeGameRecord(rows, cols, 0, engine.getLandScore(game), engine.getWaterScore(game), 0, 0,
+                    moves.get(game).stream().mapToInt(Integer::intValue).toArray(), gameCards));
+        }
+        return games;
+    }
+
+    /**
+     * Replay the first moves of a game.
+     */
+    private byte[] replay(WegeGameRecord game, int cols, int moves) {
+        byte[] cards = new byte[game.rows() * cols];
+        for (int move = 0; move < moves; move++) {
+            WegeMove played = WegeMove.unpack(game.moves()[move]);
+            if (played == null) continue;
+            cards[played.row() * cols + played.col()] =
+                    WegeRules.rotate(game.cards()[move], WegeRules.cornerOf(played.orientation()));
+        }
+        return cards;
+    }
+
+    /**
+     * Find the games which reached a pattern by replaying every game and checking every window.
+     */
+    private List<WegePatternIndex.Match> findByReplay(List<WegeGameRecord> games, WegePattern pattern,
+                                                       int rows, int cols) {
+        List<WegePatternIndex.Match> matches = new ArrayList<>();
+        for (int game = 0; game < games.size(); game++) {
+            WegeGameRecord record = games.get(game);
+            search:
+            for (int move = 0; move < record.moves().length; move++) {
+                byte[] cards = replay(record, cols, move + 1);
+                for (int top = 0; top + 3 <= rows; top++) {
+                    for (int left = 0; left + 3 <= cols; left++) {
+                        if (pattern.matches(WegePattern.keyOf(cards, cols, top, left))) {
+                            matches.add(new WegePatternIndex.Match(game, move));
+                            break search;
+                        }
+                    }
+                }
+            }
+        }
+        return matches;
+    }
+}
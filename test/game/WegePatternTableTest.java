@@ -0,0 +1,111 @@
+package game;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Test cases for the pattern table of the rollout policies")
+class WegePatternTableTest {
+
+    /* The table built from games of self-play on a 4 x 4 board. */
+    private static WegePatternTable table;
+
+    @BeforeAll
+    static void buildTable() throws InterruptedException {
+        WegePatternTable.Builder builder = new WegePatternTable.Builder();
+        builder.addSelfPlay(new WegeSimulator(4, 4, 0, 1), WegeEvaluator.SCORE, 400, 2);
+        assertTrue(builder.countSeen() > 0);
+        table = builder.build();
+    }
+
+    @Test
+    @DisplayName("Test index a move by the intersections and edges around its location, the side and the card")
+    void shouldIndexMove() {
+        byte card = WegeRules.encodeCard(WegeRules.LAND, WegeRules.TOP_LEFT, WegeRules.NO_GNOME);
+        WegePosition position = new WegePosition(3, 3, new byte[] {card, card});
+        int topLeft = WegeMove.pack(0, 0, WegeRules.TOP_RIGHT, false);
+        assertEquals((1 << 12 | 1 << 15 | 1 << 16) << 6 | WegeRules.rotate(card, WegeRules.TOP_RIGHT) - 1,
+                WegePatternTable.indexOf(position, topLeft, card));
+        position.play(WegeMove.pack(1, 1, WegeRules.TOP_LEFT, false));
+        // The location at the right shares the top right and bottom right corners of the card, water to move.
+        int right = WegeMove.pack(1, 2, WegeRules.TOP_LEFT, false);
+        int pattern = stateOf(position.findPoint(1, 2)) | stateOf(position.findPoint(2, 2)) << 6 | 1 << 13;
+        assertEquals(pattern << 6 | card - 1, WegePatternTable.indexOf(position, right, card));
+        assertTrue(WegePatternTable.indexOf(position, right, card) < WegePatternTable.SIZE);
+    }
+
+    @Test
+    @DisplayName("Test write and read a table")
+    void shouldWriteAndReadTable(@TempDir Path directory) throws IOException {
+        Path file = directory.resolve("patterns.bin");
+        table.write(file);
+        WegePatternTable read = WegePatternTable.read(file);
+        WegeGameRecord record = new WegeSimulator(4, 4, 0, 2).recordGame(0);
+        WegePosition position = new WegePosition(4, 4, record.drawnCards());
+        int[] moves = new int[position.maxMoves()];
+        for (int move : record.moves()) {
+            int count = position.generateMoves(moves);
+            for (int i = 0; i < count && moves[i] != WegeMove.PASS; i++) {
+                assertEquals(table.quality(position, moves[i], position.peekCard()),
+                        read.quality(position, moves[i], position.peekCard()));
+            }
+            position.play(move);
+        }
+        Files.writeString(file, "not a table");
+        assertThrows(IOException.class, () -> WegePatternTable.read(file));
+        assertThrows(IllegalArgumentException.class, () -> new WegePatternTable(new short[16]));
+    }
+
+    @Test
+    @DisplayName("Test play rollouts better than random moves and take them back")
+    void shouldPlayRollouts() {
+        WegeSimulator simulator = new WegeSimulator(4, 4, 0, 3);
+        long margin = 0;
+        for (int game = 0; game < 300; game++) {
+            byte[] deck = WegeRules.encodeDeck(simulator.createDeck(game));
+            SplittableRandom random = WegeRandom.forGame(3, game, WegeRandom.Purpose.ROLLOUT);
+            margin += playAgainstRandom(deck, true, random) - playAgainstRandom(deck, false, random);
+        }
+        assertTrue(margin > 0, "margin " + margin);
+        WegeGameRecord record = new WegeSimulator(4, 4, 0, 4).recordGame(1);
+        WegePosition position = new WegePosition(4, 4, record.drawnCards());
+        position.play(record.moves()[0]);
+        long hash = position.getHash();
+        int value = table.rollout(position, new SplittableRandom(5));
+        assertEquals(hash, position.getHash());
+        assertEquals(1, position.getPly());
+        assertEquals(value, table.rollout(position, new SplittableRandom(5)));
+    }
+
+    /**
+     * Play a game of the rollout policy against random moves.
+     *
+     * @return the margin of the rollout policy.
+     */
+    private static int playAgainstRandom(byte[] deck, boolean isPolicyLand, SplittableRandom random) {
+        WegePosition position = new WegePosition(4, 4, deck);
+        int[] moves = new int[position.maxMoves()];
+        while (!position.isGameEnded()) {
+            int count = position.generateMoves(moves);
+            boolean isPolicy = position.isLandTurn() == isPolicyLand;
+            position.play(isPolicy ? table.chooseMove(position, moves, count, random) : moves[random.nextInt(count)]);
+        }
+        return isPolicyLand ? position.evaluate() : -position.evaluate();
+    }
+
+    /**
+     * Return the pattern state of an intersection code, without its gnome.
+     */
+    private static int stateOf(int code) {
+        if ((code & WegeRules.POINT_EXISTS) == 0) return 0;
+        return (code & WegeRules.POINT_LAND) != 0 ? 2 : 1;
+    }
+}
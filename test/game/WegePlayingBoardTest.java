@@ -226,6 +226,59 @@ class WegePlayingBoardTest {
         assertTrue(surroundIntersections.isEmpty());
     }
 
+    @Test
+    @DisplayName("Test frontier of a single card on game board")
+    void shouldCountFrontierAroundCard() {
+        assertEquals(0, gameBoard.countFrontier());
+        gameBoard.placeCardOnBoard(createLandCard(2, 2));
+        // The locations above, below, on the left and on the right share two corners with the card
+        assertEquals(4, gameBoard.countFrontier());
+    }
+
+    @Test
+    @DisplayName("Test frontier shrinks when a location is filled")
+    void shouldRemoveFilledLocationFromFrontier() {
+        gameBoard.placeCardOnBoard(createLandCard(2, 2));
+        gameBoard.placeCardOnBoard(createCardWithoutGnome(WegeCard.CardType.WATER, 1, 2));
+        // The filled location leaves the frontier and the water card adds three locations
+        assertEquals(6, gameBoard.countFrontier());
+        assertEquals(2, gameBoard.getCardsPlayed());
+        assertFalse(gameBoard.isFull());
+    }
+
+    @Test
+    @DisplayName("Test snapshot of game board after placing a card")
+    void shouldTakeSnapshotAfterPlacingCard() {
+        WegeBoardSnapshot before = gameBoard.getSnapshot();
+        gameBoard.placeCardOnBoard(new WegePlayingCard(WegeCard.CardType.WATER, true, true));
+        WegeBoardSnapshot after = gameBoard.getSnapshot();
+        assertEquals(before.getVersion() + 1, after.getVersion());
+        assertEquals(1, after.getCardsPlayed());
+        assertEquals(WegeCard.CardType.WATER, after.findCard(0, 0).cardType());
+        assertTrue(after.findCard(0, 0).hasGnome());
+        assertFalse(after.isConnectLand(0, 0));
+        assertTrue(after.isConnectLand(0, 1));
+        assertEquals(1, after.getFacingGnomeCount(0, 0));
+        assertFalse(after.hasIntersection(2, 2));
+        // The previous snapshot never changes
+        assertNull(before.findCard(0, 0));
+        assertFalse(before.hasIntersection(0, 0));
+    }
+
+    @Test
+    @DisplayName("Test snapshot shares rows not changed by a card")
+    void shouldShareUnchangedRowsBetweenSnapshots() {
+        gameBoard.placeCardOnBoard(createLandCard(2, 2));
+        WegeBoardSnapshot before = gameBoard.getSnapshot();
+        gameBoard.placeCardOnBoard(createCardWithoutGnome(WegeCard.CardType.WATER, 2, 3));
+        WegeBoardSnapshot after = gameBoard.getSnapshot();
+        assertFalse(after.isSharingCardRow(before, 2));
+        for (int row : new int[]{0, 1, 3, 4, 5}) {
+            assertTrue(after.isSharingCardRow(before, row));
+        }
+        assertEquals(WegeCard.CardType.LAND, after.findCard(2, 2).cardType());
+    }
+
     static List<Arguments> provideIntersectionTypeTestArguments() {
         return List.of(
                 Arguments.of(WegeCard.CardType.LAND, true, false, true, false),
@@ -0,0 +1,138 @@
+package game;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Test cases for the puzzles mined from the endgames of games")
+class WegePuzzleGeneratorTest {
+
+    /* The puzzles of simulated games on a 4 x 4 board. */
+    private static WegePuzzleGenerator.Report report;
+
+    @BeforeAll
+    static void generatePuzzles() throws InterruptedException {
+        report = new WegePuzzleGenerator(4, 4, null, 3).generate(new WegeSimulator(4, 4, 0, 1), 60, 2);
+        assertFalse(report.puzzles().isEmpty());
+        assertTrue(report.candidates() >= report.puzzles().size());
+    }
+
+    @Test
+    @DisplayName("Test verify that exactly one board after the card drawn is winning")
+    void shouldFindOnlyWinningMove() {
+        Set<Long> keys = new HashSet<>();
+        for (WegePuzzle puzzle : report.puzzles()) {
+            WegePosition position = puzzle.createPosition();
+            assertEquals(puzzle.getCard(), position.peekCard());
+            assertTrue(keys.add(WegePuzzleGenerator.keyOf(position)), "duplicate puzzle");
+            WegeEndgameSolver solver = new WegeEndgameSolver(4, 4, null, 3);
+            int sign = position.isLandTurn() ? 1 : -1;
+            int[] moves = new int[position.maxMoves()];
+            int count = position.generateMoves(moves);
+            int losingMoves = 0;
+            for (int i = 0; i < count; i++) {
+                position.play(moves[i]);
+                double margin = sign * solver.solve(position);
+                position.undo();
+                assertEquals(margin > 0, puzzle.isSolution(moves[i]));
+                if (margin > 0) {
+                    assertEquals(puzzle.margin(), margin, 1e-6);
+                } else {
+                    losingMoves++;
+                    assertTrue(margin <= puzzle.secondMargin() + 1e-6);
+                }
+            }
+            assertTrue(losingMoves > 0);
+            assertTrue(puzzle.isSolution(puzzle.solution()));
+        }
+    }
+
+    @Test
+    @DisplayName("Test accept the solution rotated twice for a card without a gnome")
+    void shouldAcceptRotatedSolution() {
+        int symmetric = 0;
+        for (WegePuzzle puzzle : report.puzzles()) {
+            WegeMove solution = WegeMove.unpack(puzzle.solution());
+            int rotated = WegeMove.pack(solution.row(), solution.col(),
+                    (WegeRules.cornerOf(solution.orientation()) + 2) & 3, solution.isSwap());
+            boolean hasGnome = WegeRules.gnomeOf(puzzle.getCard()) != WegeRules.NO_GNOME;
+            if (!hasGnome) symmetric++;
+            // A card with a gnome rotated twice moves its gnome, which is another board.
+            assertEquals(!hasGnome, puzzle.isSolution(rotated));
+        }
+        assertTrue(symmetric > 0);
+    }
+
+    @Test
+    @DisplayName("Test generate the same puzzles on any number of threads and from a game store")
+    void shouldGenerateSamePuzzles(@TempDir Path directory) throws IOException, InterruptedException {
+        WegePuzzleGenerator generator = new WegePuzzleGenerator(4, 4, null, 3);
+        WegeSimulator simulator = new WegeSimulator(4, 4, 0, 1);
+        assertSamePuzzles(report.puzzles(), generator.generate(simulator, 60, 1).puzzles());
+        try (WegeGameStore store = WegeGameStore.open(directory)) {
+            for (int game = 0; game < 60; game++) {
+                store.append(simulator.recordGame(game));
+                // A game of another board size is skipped.
+                if (game == 30) store.append(new WegeSimulator(3, 3, 0, 1).recordGame(game));
+            }
+            WegePuzzleGenerator.Report stored = generator.generate(store, 2);
+            assertEquals(61, stored.games());
+            assertSamePuzzles(report.puzzles(), stored.puzzles());
+        }
+        assertThrows(IllegalArgumentException.class, () -> generator.generate(new WegeSimulator(3, 3, 0, 1), 1, 1));
+    }
+
+    @Test
+    @DisplayName("Test write and read a puzzle pack and replay a puzzle on a game master")
+    void shouldWriteAndReadPack(@TempDir Path directory) throws IOException {
+        Path file = directory.resolve("puzzles.bin");
+        WegePuzzle.writePack(file, report.puzzles());
+        List<WegePuzzle> read = WegePuzzle.readPack(file);
+        assertSamePuzzles(report.puzzles(), read);
+        for (int i = 0; i < read.size(); i++) {
+            assertEquals(report.puzzles().get(i).margin(), read.get(i).margin());
+            assertEquals(report.puzzles().get(i).secondMargin(), read.get(i).secondMargin());
+        }
+        WegePuzzle puzzle = read.get(0);
+        WegeGameMaster gameMaster = new WegeGameMaster(new WegePlayingBoard(4, 4));
+        puzzle.replay(gameMaster);
+        WegeDeck deck = puzzle.createDeck();
+        assertEquals(puzzle.createPosition().getCardsLeft(), deck.size());
+        WegePosition position = gameMaster.createPosition(deck, deck.drawFromFront());
+        WegePosition expected = puzzle.createPosition();
+        assertEquals(expected.isLandTurn(), position.isLandTurn());
+        assertEquals(expected.peekCard(), position.peekCard());
+        for (int cell = 0; cell < 16; cell++) {
+            assertEquals(expected.findCard(cell / 4, cell % 4), position.findCard(cell / 4, cell % 4));
+        }
+        List<String> arguments = List.of("--puzzle", file.toString(), String.valueOf(read.size()));
+        assertTrue(WegeCLI.isPuzzle(arguments));
+        assertSamePuzzles(List.of(read.get(read.size() - 1)), List.of(WegeCLI.loadPuzzle(arguments)));
+        assertSamePuzzles(List.of(puzzle), List.of(WegeCLI.loadPuzzle(List.of("--puzzle", file.toString()))));
+        assertThrows(IllegalArgumentException.class, () -> WegeCLI.loadPuzzle(List.of("--puzzle", file.toString(), "0")));
+        Files.writeString(file, "not a pack");
+        assertThrows(IOException.class, () -> WegePuzzle.readPack(file));
+    }
+
+    /**
+     * Check that two lists have the same puzzles in the same order.
+     */
+    private static void assertSamePuzzles(List<WegePuzzle> expected, List<WegePuzzle> actual) {
+        assertEquals(expected.size(), actual.size());
+        for (int i = 0; i < expected.size(); i++) {
+            assertArrayEquals(expected.get(i).cards(), actual.get(i).cards());
+            assertArrayEquals(expected.get(i).moves(), actual.get(i).moves());
+            assertEquals(expected.get(i).solution(), actual.get(i).solution());
+        }
+    }
+}
@@ -0,0 +1,138 @@
+package game;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Test cases for the score statistic of many games")
+class WegeScoreStatisticsTest {
+
+    @ParameterizedTest
+    @CsvSource({"0.0", "0.1", "0.5", "0.9", "0.99", "1.0"})
+    @DisplayName("Test find the same quantile as sorting the values")
+    void shouldFindQuantile(double q) {
+        Random random = new Random(3);
+        int[] values = new int[1001];
+        WegeScoreHistogram histogram = new WegeScoreHistogram();
+        for (int i = 0; i < values.length; i++) {
+            values[i] = random.nextInt(81) - 40;
+            histogram.add(values[i]);
+        }
+        Arrays.sort(values);
+        int rank = Math.max(1, (int) Math.ceil(q * values.length));
+        assertEquals(values[rank - 1], histogram.quantile(q));
+        assertEquals(values[0], histogram.getMin());
+        assertEquals(values[values.length - 1], histogram.getMax());
+        assertEquals(Arrays.stream(values).average().orElseThrow(), histogram.getMean(), 1e-9);
+    }
+
+    @Test
+    @DisplayName("Test merge histograms with different ranges")
+    void shouldMergeHistograms() {
+        WegeScoreHistogram first = new WegeScoreHistogram();
+        WegeScoreHistogram second = new WegeScoreHistogram();
+        first.add(5, 3);
+        second.add(-2);
+        second.add(12, 2);
+        first.merge(second);
+        assertEquals(6, first.getCount());
+        assertEquals(3, first.getCount(5));
+        assertEquals(1, first.getCount(-2));
+        assertEquals(2, first.getCount(12));
+        assertEquals(0, first.getCount(100));
+        assertEquals(-2, first.getMin());
+        assertEquals(5, first.quantile(0.5));
+        assertEquals(0, new WegeScoreHistogram().quantile(0.5));
+    }
+
+    @Test
+    @DisplayName("Test collect the same statistic on one thread and on many threads")
+    void shouldCollectOnManyThreads() {
+        List<List<Player>> games = createRandomGames(20_000);
+        WegeScoreStatistics sequential = new WegeScoreStatistics();
+        games.forEach(sequential::accept);
+        WegeScoreStatistics parallel = games.parallelStream().collect(WegeScoreStatistics.collector());
+
+        assertEquals(games.size(), parallel.getGames());
+        assertEquals(sequential.getLandWins(), parallel.getLandWins());
+        assertEquals(sequential.getWaterWins(), parallel.getWaterWins());
+        assertEquals(games.size(), parallel.getLandWins() + parallel.getWaterWins() + parallel.getDraws());
+        for (WegeScoreStatistics.Component component : WegeScoreStatistics.Component.values()) {
+            for (boolean isLandPlayer : new boolean[]{true, false}) {
+                WegeScoreHistogram expected = sequential.getHistogram(isLandPlayer, component);
+                WegeScoreHistogram actual = parallel.getHistogram(isLandPlayer, component);
+                for (int value = expected.getMin(); value <= expected.getMax(); value++) {
+                    assertEquals(expected.getCount(value), actual.getCount(value));
+                }
+            }
+        }
+        int[] margins = games.stream()
+                .mapToInt(p -> p.get(0).getGameScore().total() - p.get(1).getGameScore().total())
+                .sorted().toArray();
+        assertEquals(margins[margins.length / 2 - 1], parallel.getMargins().quantile(0.5));
+        long landWins = Arrays.stream(margins).filter(margin -> margin > 0).count();
+        assertEquals(landWins, parallel.getLandWins());
+    }
+
+    @Test
+    @DisplayName("Test add every score component of a player")
+    void shouldAddScoreComponents() {
+        Player land = new Player(true);
+        land.setMaximumEdgeTouched(3);
+        land.increaseCentralGround();
+        land.increaseCossackCardPlayed();
+        Player water = new Player(false);
+        // The first group of a size is not counted.
+        water.increaseFacingGnomeGroup(2);
+        water.increaseFacingGnomeGroup(2);
+        WegeScoreStatistics statistics = new WegeScoreStatistics();
+        statistics.accept(List.of(land, water));
+
+        assertEquals(1, statistics.getHistogram(true, WegeScoreStatistics.Component.SIDE_CONNECTED).getCount(7));
+        assertEquals(1, statistics.getHistogram(true, WegeScoreStatistics.Component.CENTRAL_GROUND).getCount(4));
+        assertEquals(1, statistics.getHistogram(true, WegeScoreStatistics.Component.COSSACK).getCount(1));
+        assertEquals(1, statistics.getHistogram(true, WegeScoreStatistics.Component.TOTAL).getCount(12));
+        int waterGnomes = water.getGameScore().total();
+        assertEquals(1, statistics.getHistogram(false, WegeScoreStatistics.Component.GNOME_GROUP).getCount(waterGnomes));
+        assertEquals(1, statistics.getMargins().getCount(12 - waterGnomes));
+        assertEquals(1, statistics.getLandWins());
+    }
+
+    /**
+     * Create the players of games with random statistic.
+     */
+    private List<List<Player>> createRandomGames(int count) {
+        Random random = new Random(count);
+        List<List<Player>> games = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            games.add(List.of(createRandomPlayer(random, true), createRandomPlayer(random, false)));
+        }
+        return games;
+    }
+
+    /**
+     * Create a player with random statistic.
+     */
+    private Player createRandomPlayer(Random random, boolean isLandPlayer) {
+        Player player = new Player(isLandPlayer);
+        player.setMaximumEdgeTouched(random.nextInt(5));
+        for (int i = random.nextInt(4); i > 0; i--) {
+            player.increaseCentralGround();
+        }
+        for (int i = random.nextInt(3); i > 0; i--) {
+            player.increaseCossackCardPlayed();
+        }
+        for (int i = random.nextInt(6); i > 0; i--) {
+            player.increaseFacingGnomeGroup(1 + random.nextInt(4));
+        }
+        return player;
+    }
+}
@@ -0,0 +1,313 @@
+package game;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Test cases for the positions, the transposition table and the alpha-beta search")
+class WegeSearchTest {
+
+    @Test
+    @DisplayName("Test replay a game with the same scores as the game master")
+    void shouldReplayGame() {
+        WegeGameRecord record = new WegeSimulator(5, 5, 0, 4).recordGame(2);
+        WegePosition position = new WegePosition(5, 5, record.drawnCards());
+        for (int move : record.moves()) {
+            position.play(move);
+        }
+        assertTrue(position.isGameEnded());
+        int[] scores = new int[2];
+        position.score(scores);
+        assertEquals(record.landScore(), scores[0]);
+        assertEquals(record.waterScore(), scores[1]);
+    }
+
+    @Test
+    @DisplayName("Test undo moves back to the same board and hash")
+    void shouldUndoMoves() {
+        WegeGameRecord record = new WegeSimulator(4, 4, 0, 8).recordGame(5);
+        WegePosition position = new WegePosition(4, 4, record.drawnCards());
+        long[] hashes = new long[record.moves().length + 1];
+        for (int i = 0; i < record.moves().length; i++) {
+            hashes[i] = position.getHash();
+            position.play(record.moves()[i]);
+        }
+        hashes[record.moves().length] = position.getHash();
+        assertEquals(hashes[record.moves().length], position.copy().getHash());
+        for (int i = record.moves().length - 1; i >= 0; i--) {
+            assertEquals(record.moves()[i], position.getPlayedMove(i));
+            position.undo();
+            assertEquals(hashes[i], position.getHash());
+        }
+        assertEquals(0, position.getCardsPlayed());
+        assertEquals(new WegePosition(4, 4, record.drawnCards()).getHash(), position.getHash());
+        assertThrows(IllegalStateException.class, position::undo);
+    }
+
+    @Test
+    @DisplayName("Test create a position from the board of a game master")
+    void shouldCreateFromBoard() {
+        WegeGameRecord record = new WegeSimulator(4, 4, 0, 6).recordGame(1);
+        WegeGameMaster gameMaster = new WegeGameMaster(new WegePlayingBoard(4, 4));
+        WegePosition position = new WegePosition(4, 4, record.drawnCards());
+        for (int i = 0; i < 8; i++) {
+            WegePlayingCard card = WegeRules.decodeCard(record.cards()[i], 0, 0);
+            WegeMove move = WegeMove.unpack(record.moves()[i]);
+            assertTrue(move == null ? gameMaster.passTurn(card) : move.play(gameMaster, card));
+            position.play(record.moves()[i]);
+        }
+        WegePosition fromBoard = WegePosition.of(gameMaster.getBoardSnapshot(), position.getNextCards(),
+                position.isLandTurn(), 0, 0);
+        for (int row = 0; row < 4; row++) {
+            for (int col = 0; col < 4; col++) {
+                assertEquals(position.findCard(row, col), fromBoard.findCard(row, col));
+            }
+        }
+        for (int x = 0; x <= 4; x++) {
+            for (int y = 0; y <= 4; y++) {
+                assertEquals(position.findPoint(x, y), fromBoard.findPoint(x, y));
+            }
+        }
+        assertEquals(position.getCardsPlayed(), fromBoard.getCardsPlayed());
+        assertEquals(position.peekCard(), fromBoard.peekCard());
+    }
+
+    @Test
+    @DisplayName("Test store and probe entries of the transposition table")
+    void shouldStoreEntries() {
+        WegeTranspositionTable table = new WegeTranspositionTable(1 << 10);
+        assertEquals(64, table.capacity());
+        table.store(42, 5, -17, WegeTranspositionTable.UPPER, WegeMove.pack(3, 2, 1, true));
+        long entry = table.probe(42);
+        assertEquals(-17, WegeTranspositionTable.valueOf(entry));
+        assertEquals(5, WegeTranspositionTable.depthOf(entry));
+        assertEquals(WegeTranspositionTable.UPPER, WegeTranspositionTable.boundOf(entry));
+        assertEquals(WegeMove.pack(3, 2, 1, true), WegeTranspositionTable.moveOf(entry));
+        assertEquals(0, table.probe(43));
+        table.clear();
+        assertEquals(0, table.probe(42));
+    }
+
+    @ParameterizedTest
+    @DisplayName("Test solve endgames of a small board with the same value as a full minimax")
+    @CsvSource({"0", "1", "2", "3", "4", "5"})
+    void shouldSolveAsMinimax(int game) {
+        WegePosition position = createEndgame(3, 3, 1, game, 6);
+        WegeSearch.Result result = new WegeSearch(new WegeTranspositionTable(1 << 20)).solve(position);
+        assertTrue(result.isSolved());
+        assertEquals(minimax(position), result.value());
+        position.play(result.move());
+        assertEquals(result.value(), -minimax(position));
+    }
+
+    @Test
+    @DisplayName("Test solve an endgame of a 6x6 board with 10 empty locations")
+    void shouldSolveLargeEndgame() {
+        WegePosition position = createEndgame(6, 6, 2, 0, 10);
+        long hash = position.getHash();
+        WegeTranspositionTable table = new WegeTranspositionTable(1 << 24);
+        WegeSearch.Result result = new WegeSearch(table).solve(position);
+        assertTrue(result.isSolved());
+        assertEquals(hash, position.getHash());
+        assertNotNull(result.bestMove());
+
+        position.play(result.move());
+        WegeSearch.Result reply = new WegeSearch(table).solve(position);
+        assertEquals(result.value(), -reply.value());
+    }
+
+    @Test
+    @DisplayName("Test search to a depth without solving the game")
+    void shouldSearchToDepth() {
+        WegePosition position = createEndgame(6, 6, 2, 1, 20);
+        WegeSearch.Result result = new WegeSearch(new WegeTranspositionTable(1 << 20)).search(position, 3);
+        assertEquals(3, result.depth());
+        assertFalse(result.isSolved());
+        int[] moves = new int[position.maxMoves()];
+        int count = position.generateMoves(moves);
+        assertTrue(IntStream.of(moves).limit(count).anyMatch(move -> move == result.move()));
+    }
+
+    @ParameterizedTest
+    @DisplayName("Test solve endgames on many threads with the same value as one thread")
+    @CsvSource({"LAZY_SMP, 0", "LAZY_SMP, 3", "YOUNG_BROTHERS_WAIT, 0", "YOUNG_BROTHERS_WAIT, 3"})
+    void shouldSolveInParallel(WegeParallelSearch.Mode mode, int game) {
+        WegePosition position = createEndgame(6, 6, 2, game, 9);
+        long hash = position.getHash();
+        WegeSearch.Result serial = new WegeSearch(new WegeTranspositionTable(1 << 22)).solve(position);
+        WegeSearch.Result parallel = new WegeParallelSearch(new WegeTranspositionTable(1 << 22), 3, mode).solve(position);
+        assertTrue(parallel.isSolved());
+        assertEquals(serial.value(), parallel.value());
+        assertEquals(hash, position.getHash());
+
+        position.play(parallel.move());
+        assertEquals(serial.value(), -new WegeSearch(new WegeTranspositionTable(1 << 22)).solve(position).value());
+    }
+
+    @ParameterizedTest
+    @DisplayName("Test search one move ahead and solve the last card on many threads")
+    @CsvSource({"LAZY_SMP", "YOUNG_BROTHERS_WAIT"})
+    void shouldSearchOneMoveInParallel(WegeParallelSearch.Mode mode) {
+        WegeParallelSearch search = new WegeParallelSearch(new WegeTranspositionTable(1 << 16), 2, mode);
+        WegePosition position = createEndgame(6, 6, 2, 0, 20);
+        WegeSearch.Result result = search.search(position, 1);
+        assertEquals(1, result.depth());
+        assertEquals(new WegeSearch(new WegeTranspositionTable(1 << 16)).search(position, 1).value(), result.value());
+        // The last card of a deck without a bridge, so only one turn is left.
+        WegePosition lastCard = new WegePosition(3, 3, new byte[] {
+                WegeRules.encodeCard(WegeRules.LAND, WegeRules.TOP_LEFT, WegeRules.NO_GNOME),
+                WegeRules.encodeCard(WegeRules.WATER, WegeRules.TOP_LEFT, WegeRules.PATH_GNOME)});
+        lastCard.play(WegeMove.pack(1, 1, 0, false));
+        assertEquals(1, lastCard.getMaxTurnsLeft());
+        assertFalse(lastCard.isGameEnded());
+        WegeSearch.Result solved = search.solve(lastCard);
+        assertTrue(solved.isSolved());
+        assertEquals(minimax(lastCard), solved.value());
+    }
+
+    @Test
+    @DisplayName("Test share a table between two orders of the cards left")
+    void shouldShareTableBetweenDecks() {
+        for (long game = 0; game < 6; game++) {
+            WegePosition position = createEndgame(6, 6, 2, game, 7);
+            byte[] deck = WegeRules.encodeDeck(WegeGameSetting.createGame(List.of(6, 6),
+                    WegeRandom.forGame(2, game, WegeRandom.Purpose.DECK)).deck());
+            // The same board with the cards left drawn the other way round.
+            int drawn = deck.length - position.getCardsLeft();
+            for (int i = drawn, j = deck.length - 1; i < j; i++, j--) {
+                byte card = deck[i];
+                deck[i] = deck[j];
+                deck[j] = card;
+            }
+            WegeGameRecord record = new WegeSimulator(6, 6, 0, 2).recordGame(game);
+            WegePosition reversed = new WegePosition(6, 6, deck);
+            for (int i = 0; reversed.getCardsPlayed() < position.getCardsPlayed(); i++) {
+                reversed.play(record.moves()[i]);
+            }
+            assertEquals(position.getBoardHash(), reversed.getBoardHash());
+            WegeTranspositionTable table = new WegeTranspositionTable(1 << 20);
+            new WegeSearch(table).solve(position);
+            assertEquals(new WegeSearch(new WegeTranspositionTable(1 << 20)).solve(reversed).value(),
+                    new WegeSearch(table).solve(reversed).value());
+        }
+    }
+
+    @Test
+    @DisplayName("Test ignore an entry torn by two threads")
+    void shouldIgnoreTornEntry() {
+        WegeTranspositionTable table = new WegeTranspositionTable(1 << 10);
+        table.store(42, 5, 17, WegeTranspositionTable.EXACT, WegeMove.pack(1, 1, 0, false));
+        long entry = table.probe(42);
+        table.tearEntry(42, entry ^ 1);
+        assertEquals(0, table.probe(42));
+    }
+
+    @Test
+    @DisplayName("Test stop a search from another thread")
+    void shouldStopSearch() throws InterruptedException {
+        WegePosition position = createEndgame(6, 6, 2, 0, 20);
+        long hash = position.getHash();
+        WegeSearch search = new WegeSearch(new WegeTranspositionTable(1 << 20));
+        Thread stopper = new Thread(() -> {
+            try {
+                Thread.sleep(200);
+            } catch (InterruptedException e) {
+                return;
+            }
+            search.stop();
+        });
+        stopper.start();
+        WegeSearch.Result result = search.solve(position);
+        stopper.join();
+        assertFalse(result.isSolved());
+        assertEquals(hash, position.getHash());
+    }
+
+    @ParameterizedTest
+    @DisplayName("Test analyze the best moves of endgames with the same values as a full minimax")
+    @CsvSource({"0", "2", "4"})
+    void shouldAnalyzeBestMoves(int game) {
+        WegePosition position = createEndgame(3, 3, 1, game, 6);
+        long hash = position.getHash();
+        int[] moves = new int[position.maxMoves()];
+        int count = position.generateMoves(moves);
+        int[] expected = new int[count];
+        for (int i = 0; i < count; i++) {
+            position.play(moves[i]);
+            expected[i] = -minimax(position);
+            position.undo();
+        }
+        List<WegeAnalysis.Report> reports = new ArrayList<>();
+        WegeAnalysis.Report report = new WegeAnalysis(new WegeTranspositionTable(1 << 20), 3)
+                .analyze(position, position.getCardsLeft(), Long.MAX_VALUE, reports::add);
+        assertEquals(hash, position.getHash());
+        assertSame(report, reports.get(reports.size() - 1));
+        for (int i = 0; i < reports.size(); i++) {
+            assertEquals(i + 1, reports.get(i).depth());
+        }
+        int[] best = IntStream.of(expected).boxed().sorted(Comparator.reverseOrder()).mapToInt(Integer::intValue)
+                .limit(3).toArray();
+        assertArrayEquals(best, report.lines().stream().mapToInt(WegeAnalysis.Line::value).toArray());
+        for (WegeAnalysis.Line line : report.lines()) {
+            assertTrue(line.isSolved());
+            assertEquals(line.bestMove(), line.pv().get(0));
+            int index = IntStream.range(0, count).filter(i -> moves[i] == line.move()).findFirst().orElseThrow();
+            assertEquals(expected[index], line.value());
+        }
+    }
+
+    @Test
+    @DisplayName("Test stop an analysis when its time is over")
+    void shouldStopAnalysis() {
+        WegePosition position = createEndgame(6, 6, 2, 0, 24);
+        long hash = position.getHash();
+        long start = System.nanoTime();
+        WegeAnalysis.Report report = new WegeAnalysis(new WegeTranspositionTable(1 << 20), 2)
+                .analyze(position, Integer.MAX_VALUE, 300, depthReport -> {});
+        assertTrue((System.nanoTime() - start) / 1_000_000 < 5000);
+        assertEquals(hash, position.getHash());
+        assertTrue(report.depth() > 0);
+        assertEquals(2, report.lines().size());
+        assertTrue(report.lines().get(0).value() >= report.lines().get(1).value());
+        assertThrows(IllegalArgumentException.class, () -> new WegeAnalysis(new WegeTranspositionTable(1 << 10), 0));
+    }
+
+    /**
+     * Play a simulated game until a number of locations are left empty.
+     */
+    private WegePosition createEndgame(int rows, int cols, long seed, long game, int emptyCells) {
+        WegeGameRecord record = new WegeSimulator(rows, cols, 0, seed).recordGame(game);
+        byte[] deck = WegeRules.encodeDeck(WegeGameSetting.createGame(List.of(rows, cols),
+                WegeRandom.forGame(seed, game, WegeRandom.Purpose.DECK)).deck());
+        WegePosition position = new WegePosition(rows, cols, deck);
+        for (int i = 0; position.getCardsPlayed() < rows * cols - emptyCells; i++) {
+            position.play(record.moves()[i]);
+        }
+        return position;
+    }
+
+    /**
+     * Find the value of a position for the player to move by searching every move.
+     */
+    private int minimax(WegePosition position) {
+        int sign = position.isLandTurn() ? 1 : -1;
+        if (position.isGameEnded()) return sign * position.evaluate();
+        int[] moves = new int[position.maxMoves()];
+        int count = position.generateMoves(moves);
+        int best = Integer.MIN_VALUE;
+        for (int i = 0; i < count; i++) {
+            position.play(moves[i]);
+            best = Math.max(best, -minimax(position));
+            position.undo();
+        }
+        return best;
+    }
+}
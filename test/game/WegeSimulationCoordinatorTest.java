@@ -0,0 +1,107 @@
+package game;
+
+import javafx.geometry.Pos;
+import javafx.util.Pair;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.net.URISyntaxException;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Test cases for the coordinator and the workers of a distributed simulation")
+class WegeSimulationCoordinatorTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    @DisplayName("Test write and read a statistic")
+    void shouldWriteStatistics() throws Exception {
+        WegeScoreStatistics statistics = new WegeSimulator(4, 4, 0, 2).simulate(50, 1);
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        statistics.write(new DataOutputStream(bytes));
+        WegeScoreStatistics read = WegeScoreStatistics.read(new DataInputStream(new ByteArrayInputStream(bytes.toByteArray())));
+        assertSameStatistics(statistics, read);
+    }
+
+    @Test
+    @DisplayName("Test split the games into shards")
+    void shouldSplitShards() throws IOException {
+        WegeSimulationCoordinator coordinator = new WegeSimulationCoordinator(directory, 4, 4, 0, 1, 25, 10);
+        assertEquals(List.of(new WegeSimulationCoordinator.Shard(0, 0, 10),
+                new WegeSimulationCoordinator.Shard(1, 10, 10),
+                new WegeSimulationCoordinator.Shard(2, 20, 5)), coordinator.getShards());
+        assertThrows(IllegalStateException.class,
+                () -> new WegeSimulationCoordinator(directory, 4, 4, 0, 2, 25, 10));
+    }
+
+    @Test
+    @DisplayName("Test resume a simulation without playing the finished shards again")
+    void shouldResumeFromCheckpoint() throws Exception {
+        WegeSimulationCoordinator coordinator = new WegeSimulationCoordinator(directory, 4, 4, 0, 7, 100, 20);
+        WegeSimulationCoordinator.ShardRunner local = WegeSimulationCoordinator.localRunner(1);
+        assertThrows(IOException.class, () -> coordinator.run(2, (c, shard, file) -> {
+            if (shard.index() == 3) throw new IOException("Worker crashed!");
+            local.run(c, shard, file);
+        }));
+        assertEquals(List.of(coordinator.getShards().get(3)), coordinator.getPendingShards());
+
+        AtomicInteger played = new AtomicInteger();
+        WegeSimulationCoordinator resumed = new WegeSimulationCoordinator(directory, 4, 4, 0, 7, 100, 20);
+        WegeScoreStatistics statistics = resumed.run(2, (c, shard, file) -> {
+            played.incrementAndGet();
+            local.run(c, shard, file);
+        });
+        assertEquals(1, played.get());
+        assertSameStatistics(new WegeSimulator(4, 4, 0, 7).simulate(100, 2), statistics);
+    }
+
+    @Test
+    @DisplayName("Test play the shards in worker processes")
+    void shouldRunWorkerProcesses() throws Exception {
+        WegeSimulationCoordinator coordinator = new WegeSimulationCoordinator(directory, 4, 4, 0, 5, 60, 20);
+        String classPath = String.join(File.pathSeparator,
+                pathOf(WegeSimulationWorker.class), pathOf(Pos.class), pathOf(Pair.class));
+        WegeScoreStatistics statistics = coordinator.run(2, WegeSimulationCoordinator.processRunner(classPath, 1));
+        assertTrue(coordinator.getPendingShards().isEmpty());
+        assertSameStatistics(new WegeSimulator(4, 4, 0, 5).simulate(60, 1), statistics);
+    }
+
+    /**
+     * Return the class path entry a class is loaded from.
+     */
+    private String pathOf(Class<?> type) throws URISyntaxException {
+        return Path.of(type.getProtectionDomain().getCodeSource().getLocation().toURI()).toString();
+    }
+
+    /**
+     * Assert two statistics hold the same games.
+     */
+    private void assertSameStatistics(WegeScoreStatistics expected, WegeScoreStatistics actual) {
+        assertEquals(expected.getGames(), actual.getGames());
+        assertEquals(expected.getLandWins(), actual.getLandWins());
+        assertEquals(expected.getWaterWins(), actual.getWaterWins());
+        for (WegeScoreStatistics.Component component : WegeScoreStatistics.Component.values()) {
+            for (boolean isLand : new boolean[] {true, false}) {
+                WegeScoreHistogram histogram = expected.getHistogram(isLand, component);
+                for (int value = histogram.getMin(); value <= histogram.getMax(); value++) {
+                    assertEquals(histogram.getCount(value), actual.getHistogram(isLand, component).getCount(value));
+                }
+            }
+        }
+        for (int margin = -100; margin <= 100; margin++) {
+            assertEquals(expected.getMargins().getCount(margin), actual.getMargins().getCount(margin));
+        }
+    }
+}
@@ -0,0 +1,130 @@
+package game;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Test cases for the simulator and the random generators of each game")
+class WegeSimulatorTest {
+
+    @Test
+    @DisplayName("Test shuffle the same deck for the same seed and game")
+    void shouldShuffleSameDeck() {
+        List<Byte> deck = encode(WegeDeck.createWegeDeck(6, 6, WegeRandom.forGame(42, 7, WegeRandom.Purpose.DECK)));
+        List<Byte> sameDeck = encode(WegeDeck.createWegeDeck(6, 6, WegeRandom.forGame(42, 7, WegeRandom.Purpose.DECK)));
+        List<Byte> otherDeck = encode(WegeDeck.createWegeDeck(6, 6, WegeRandom.forGame(42, 8, WegeRandom.Purpose.DECK)));
+        assertEquals(deck, sameDeck);
+        assertNotEquals(deck, otherDeck);
+        assertNotEquals(WegeRandom.seedOf(42, 7, WegeRandom.Purpose.DECK), WegeRandom.seedOf(42, 7, WegeRandom.Purpose.POLICY));
+        assertNotEquals(WegeRandom.seedOf(42, 7, WegeRandom.Purpose.DECK), WegeRandom.seedOf(43, 7, WegeRandom.Purpose.DECK));
+    }
+
+    @Test
+    @DisplayName("Test collect the same statistic on one thread and on many threads")
+    void shouldSimulateSameOnAnyThreads() throws InterruptedException {
+        WegeSimulator simulator = new WegeSimulator(4, 4, 0, 11);
+        WegeScoreStatistics oneThread = simulator.simulate(300, 1);
+        WegeScoreStatistics manyThreads = simulator.simulate(300, 4);
+        assertEquals(300, manyThreads.getGames());
+        assertEquals(oneThread.getLandWins(), manyThreads.getLandWins());
+        assertEquals(oneThread.getWaterWins(), manyThreads.getWaterWins());
+        for (int margin = -60; margin <= 60; margin++) {
+            assertEquals(oneThread.getMargins().getCount(margin), manyThreads.getMargins().getCount(margin));
+        }
+    }
+
+    @Test
+    @DisplayName("Test record a game which replays with the same scores")
+    void shouldRecordGame() {
+        WegeSimulator simulator = new WegeSimulator(5, 5, 0, 3);
+        WegeGameRecord record = simulator.recordGame(9);
+        WegeGameRecord sameRecord = simulator.recordGame(9);
+        assertArrayEquals(record.moves(), sameRecord.moves());
+        assertArrayEquals(record.cards(), sameRecord.cards());
+
+        WegeGameMaster gameMaster = new WegeGameMaster(new WegePlayingBoard(5, 5));
+        for (int i = 0; i < record.moves().length; i++) {
+            WegePlayingCard card = WegeRules.decodeCard(record.cards()[i], 0, 0);
+            WegeMove move = WegeMove.unpack(record.moves()[i]);
+            assertTrue(move == null ? gameMaster.passTurn(card) : move.play(gameMaster, card));
+        }
+        List<Player> players = gameMaster.collectPlayerStatistic();
+        assertEquals(record.landScore(), players.get(0).getGameScore().total());
+        assertEquals(record.waterScore(), players.get(1).getGameScore().total());
+    }
+
+    @Test
+    @DisplayName("Test play the replaced card after a swap instead of drawing a card, like the game window")
+    void shouldPlayReplacedCardAfterSwap() {
+        WegeSimulator simulator = new WegeSimulator(4, 4, 0, 6);
+        int swaps = 0;
+        for (int game = 0; game < 100; game++) {
+            WegeGameRecord record = simulator.recordGame(game);
+            byte[] deck = WegeRules.encodeDeck(simulator.createDeck(game));
+            byte[] drawn = record.drawnCards();
+            assertArrayEquals(Arrays.copyOf(deck, drawn.length), drawn);
+            WegeGameMaster gameMaster = new WegeGameMaster(new WegePlayingBoard(4, 4));
+            WegePosition position = new WegePosition(4, 4, drawn);
+            for (int i = 0; i < record.moves().length; i++) {
+                WegePlayingCard replaced = gameMaster.getReplacedCard();
+                byte card = WegeRules.rotate(record.cards()[i], WegeRules.TOP_LEFT);
+                if (replaced != null) {
+                    swaps++;
+                    assertEquals(WegeRules.rotate(WegeRules.encodeCard(replaced), WegeRules.TOP_LEFT), card);
+                }
+                assertEquals(replaced == null ? WegeRules.EMPTY : card, position.getHeldCard());
+                assertEquals(card, WegeRules.rotate(position.peekCard(), WegeRules.TOP_LEFT));
+                assertEquals(gameMaster.isLandTurn(), position.isLandTurn());
+                WegeMove move = WegeMove.unpack(record.moves()[i]);
+                WegePlayingCard playingCard = WegeRules.decodeCard(record.cards()[i], 0, 0);
+                assertTrue(move == null ? gameMaster.passTurn(playingCard) : move.play(gameMaster, playingCard));
+                position.play(record.moves()[i]);
+            }
+            assertTrue(position.isGameEnded());
+            assertEquals(record.landScore() - record.waterScore(), position.evaluate());
+        }
+        assertTrue(swaps > 0);
+    }
+
+    @Test
+    @DisplayName("Test play the same games when the batch is split over many engines")
+    void shouldSplitBatch() {
+        WegeGameSetting setting = WegeGameSetting.createStandardGame();
+        WegeBatchEngine engine = new WegeBatchEngine(setting, 30, 5);
+        WegeBatchEngine firstHalf = new WegeBatchEngine(setting, 10, 5, 0);
+        WegeBatchEngine secondHalf = new WegeBatchEngine(setting, 20, 5, 10);
+        engine.playToEnd();
+        firstHalf.playToEnd();
+        secondHalf.playToEnd();
+        for (int game = 0; game < 30; game++) {
+            WegeBatchEngine half = game < 10 ? firstHalf : secondHalf;
+            int halfGame = game < 10 ? game : game - 10;
+            assertEquals(engine.getLandScore(game), half.getLandScore(halfGame));
+            assertEquals(engine.getWaterScore(game), half.getWaterScore(halfGame));
+            assertEquals(engine.getCardsPlayed(game), half.getCardsPlayed(halfGame));
+        }
+    }
+
+    @Test
+    @DisplayName("Test shuffle a deck with a generator")
+    void shouldShuffleWithGenerator() {
+        WegeDeck deck = WegeDeck.createStandardDeck(new SplittableRandom(1));
+        WegeDeck sameDeck = WegeDeck.createStandardDeck(new SplittableRandom(1));
+        assertEquals(encode(deck), encode(sameDeck));
+        assertEquals(40, deck.size());
+        assertEquals(encode(WegeDeck.createSpecialDeck(2, new SplittableRandom(4))),
+                encode(WegeDeck.createSpecialDeck(2, new SplittableRandom(4))));
+    }
+
+    /**
+     * Encode the cards of a deck in the order they are drawn.
+     */
+    private List<Byte> encode(WegeDeck deck) {
+        return deck.getAllCards().stream().map(WegeRules::encodeCard).toList();
+    }
+}
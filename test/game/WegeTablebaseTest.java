@@ -0,0 +1,214 @@
+package game;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Test cases for the endgame tablebase and solver")
+class WegeTablebaseTest {
+
+    @TempDir
+    Path directory;
+
+    @ParameterizedTest
+    @CsvSource({"3, 3, 1, 3", "3, 3, 2, 4", "4, 4, 5, 4"})
+    @DisplayName("Test build the expected result of an endgame")
+    void shouldBuildExpectedResult(int rows, int cols, long game, int emptyCells) {
+        WegePosition position = createPosition(rows, cols, game, emptyCells, false);
+        double expected = expect(position, toList(position.getDeckLeft()));
+        assertEquals(expected, WegeTablebase.builder(rows, cols, emptyCells).add(position), 1e-9);
+    }
+
+    @Test
+    @DisplayName("Test probe the endgames of a written tablebase")
+    void shouldProbeWrittenTablebase() throws IOException {
+        WegeTablebase.Builder builder = WegeTablebase.builder(4, 4, 4);
+        List<Double> values = new ArrayList<>();
+        for (long game = 0; game < 4; game++) {
+            values.add(builder.add(createPosition(4, 4, game, 4, false)));
+        }
+        Path file = directory.resolve("endgames.tb");
+        builder.write(file);
+        try (WegeTablebase tablebase = WegeTablebase.open(file)) {
+            assertEquals(builder.size(), tablebase.size());
+            assertEquals(4, tablebase.getEmptyCells());
+            for (long game = 0; game < 4; game++) {
+                // The cards left are probed in another order than they were added.
+                WegePosition position = createPosition(4, 4, game, 4, true);
+                assertEquals(values.get((int) game), tablebase.probe(position), 1e-9);
+                int move = tablebase.findBestMove(position);
+                int[] moves = new int[position.maxMoves()];
+                int count = position.generateMoves(moves);
+                assertTrue(IntStream.range(0, count).anyMatch(i -> moves[i] == move));
+            }
+            assertTrue(Double.isNaN(tablebase.probe(createPosition(4, 4, 0, 5, false))));
+            assertTrue(Double.isNaN(tablebase.probe(createPosition(3, 3, 0, 2, false))));
+        }
+    }
+
+    @Test
+    @DisplayName("Test reject positions with too many empty locations")
+    void shouldRejectLargeEndgame() {
+        WegeTablebase.Builder builder = WegeTablebase.builder(4, 4, 3);
+        assertThrows(IllegalArgumentException.class, () -> builder.add(createPosition(4, 4, 0, 4, false)));
+        assertThrows(IllegalArgumentException.class, () -> builder.add(createPosition(3, 3, 0, 3, false)));
+    }
+
+    @Test
+    @DisplayName("Test reject a file which is not a tablebase or of another version")
+    void shouldRejectOtherFile() throws IOException {
+        Path file = directory.resolve("other.tb");
+        Files.write(file, new byte[64]);
+        assertThrows(IllegalArgumentException.class, () -> WegeTablebase.open(file));
+        // A tablebase of another version of the file format.
+        WegeTablebase.builder(4, 4, 2).write(file);
+        byte[] bytes = Files.readAllBytes(file);
+        bytes[24]++;
+        Files.write(file, bytes);
+        assertThrows(IllegalArgumentException.class, () -> WegeTablebase.open(file));
+    }
+
+    @Test
+    @DisplayName("Test solve endgames with the tablebase and on the fly")
+    void shouldSolveEndgames() throws IOException {
+        WegeTablebase.Builder builder = WegeTablebase.builder(4, 4, 5);
+        double tablebaseValue = builder.add(createPosition(4, 4, 1, 5, false));
+        builder.write(directory.resolve(WegeEndgameSolver.fileName(4, 4)));
+        WegeEndgameSolver solver = WegeEndgameSolver.load(4, 4, directory);
+        assertEquals(tablebaseValue, solver.solve(createPosition(4, 4, 1, 5, true)), 1e-9);
+        // Not in the tablebase, but few enough empty locations to compute.
+        WegePosition position = createPosition(4, 4, 3, 4, false);
+        assertEquals(WegeTablebase.builder(4, 4, 4).add(position), solver.solve(position), 1e-9);
+        assertTrue(solver.isSolvable(position));
+        assertFalse(solver.isSolvable(createPosition(4, 4, 3, 6, false)));
+        assertFalse(solver.isSolvable(createPosition(3, 3, 3, 2, false)));
+        int move = solver.findBestMove(position);
+        int[] moves = new int[position.maxMoves()];
+        int count = position.generateMoves(moves);
+        assertTrue(IntStream.range(0, count).anyMatch(i -> moves[i] == move));
+    }
+
+    @Test
+    @DisplayName("Test ponder an endgame before the next card is drawn")
+    void shouldPonderEndgame() {
+        WegeEndgameSolver solver = new WegeEndgameSolver(4, 4, null, 5);
+        WegePosition position = createPosition(4, 4, 2, 5, false);
+        Thread.currentThread().interrupt();
+        assertFalse(solver.ponder(position));
+        assertTrue(Thread.interrupted());
+        assertTrue(solver.ponder(position));
+        int livePositions = solver.getLivePositions();
+        assertTrue(livePositions > 0);
+        // Every card which can be drawn was looked at, so its best move is found at once.
+        int move = solver.findBestMove(position);
+        assertNotEquals(WegeMove.PASS, move);
+        assertEquals(livePositions, solver.getLivePositions());
+        assertEquals(WegeTablebase.builder(4, 4, 5).add(position), solver.solve(position), 1e-9);
+    }
+
+    @Test
+    @DisplayName("Test create the position of a game master with the cards left")
+    void shouldCreatePositionOfGameMaster() {
+        WegeGameRecord record = new WegeSimulator(3, 3, 0, 12).recordGame(2);
+        WegeGameMaster gameMaster = new WegeGameMaster(new WegePlayingBoard(3, 3));
+        WegePosition position = new WegePosition(3, 3, record.drawnCards());
+        for (int i = 0; i < 5; i++) {
+            WegePlayingCard card = WegeRules.decodeCard(record.cards()[i], 0, 0);
+            WegeMove move = WegeMove.unpack(record.moves()[i]);
+            assertTrue(move == null ? gameMaster.passTurn(card) : move.play(gameMaster, card));
+            position.play(record.moves()[i]);
+        }
+        byte[] nextCards = position.getNextCards();
+        LinkedList<WegePlayingCard> cards = new LinkedList<>();
+        for (int i = 1; i < nextCards.length; i++) {
+            cards.add(WegeRules.decodeCard(nextCards[i], 0, 0));
+        }
+        WegePlayingCard nextCard = WegeRules.decodeCard(nextCards[0], 0, 0);
+        WegePosition fromGame = gameMaster.createPosition(new WegeDeck(cards), nextCard);
+        assertEquals(position.getBoardHash(), fromGame.getBoardHash());
+        assertEquals(position.isLandTurn(), fromGame.isLandTurn());
+        assertEquals(position.peekCard(), fromGame.peekCard());
+        assertArrayEquals(position.getNextCards(), fromGame.getNextCards());
+        assertEquals(position.evaluate(), fromGame.evaluate());
+    }
+
+    /**
+     * Replay a simulated game until a number of locations are empty, with the cards left
+     * in the order of the game or reversed.
+     */
+    private static WegePosition createPosition(int rows, int cols, long game, int emptyCells, boolean isReversed) {
+        WegeGameRecord record = new WegeSimulator(rows, cols, 0, 12).recordGame(game);
+        WegePosition position = new WegePosition(rows, cols, record.drawnCards());
+        int played = 0;
+        while (position.getCardsPlayed() < rows * cols - emptyCells) {
+            position.play(record.moves()[played++]);
+        }
+        if (!isReversed) return position;
+        byte[] deck = record.drawnCards();
+        for (int i = position.getDeckPosition(), j = deck.length - 1; i < j; i++, j--) {
+            byte card = deck[i];
+            deck[i] = deck[j];
+            deck[j] = card;
+        }
+        WegePosition reversed = new WegePosition(rows, cols, deck);
+        for (int i = 0; i < played; i++) {
+            reversed.play(record.moves()[i]);
+        }
+        return reversed;
+    }
+
+    /**
+     * Compute the expected result of a position by drawing each card left in turn, or playing
+     * the card held after a swap, without the kinds of cards and the table of the builder.
+     */
+    private static double expect(WegePosition position, List<Byte> cardsLeft) {
+        if (position.isGameEnded()) return position.evaluate();
+        int sign = position.isLandTurn() ? 1 : -1;
+        int[] moves = new int[position.maxMoves()];
+        if (position.getHeldCard() != WegeRules.EMPTY) {
+            // The card replaced by a swap is played next, without drawing.
+            int count = position.generateMoves(moves);
+            double best = Double.NEGATIVE_INFINITY;
+            for (int j = 0; j < count; j++) {
+                position.play(moves[j]);
+                best = Math.max(best, sign * expect(position, cardsLeft));
+                position.undo();
+            }
+            return sign * best;
+        }
+        double sum = 0;
+        for (int i = 0; i < cardsLeft.size(); i++) {
+            byte card = cardsLeft.remove(i);
+            int count = position.generateMoves(moves, card);
+            double best = Double.NEGATIVE_INFINITY;
+            for (int j = 0; j < count; j++) {
+                position.play(moves[j], card);
+                best = Math.max(best, sign * expect(position, cardsLeft));
+                position.undo();
+            }
+            cardsLeft.add(i, card);
+            sum += sign * best;
+        }
+        return sum / cardsLeft.size();
+    }
+
+    private static List<Byte> toList(byte[] cards) {
+        List<Byte> list = new ArrayList<>();
+        for (byte card : cards) {
+            list.add(card);
+        }
+        return list;
+    }
+}
@@ -0,0 +1,110 @@
+package game;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Test cases for the tournaments, the Elo ratings and the sequential tests")
+class WegeTournamentTest {
+
+    /* A bot which plays the first legal move. */
+    private static final WegeBot FIRST_MOVE_BOT = (view, card) -> view.getLegalMoves().get(0);
+
+    @Test
+    @DisplayName("Test rate players from their games")
+    void shouldRatePlayers() {
+        WegeEloRatings ratings = new WegeEloRatings(3);
+        for (int i = 0; i < 30; i++) {
+            ratings.add(0, 1, i % 4 == 0 ? 0 : 1);
+            ratings.add(1, 2, 0.5);
+        }
+        double[] elo = ratings.getRatings();
+        assertEquals(0, elo[0] + elo[1] + elo[2], 1e-6);
+        assertTrue(elo[0] > elo[1]);
+        assertEquals(elo[1], elo[2], 1e-6);
+        // The prior pulls the difference of a 75% score towards 0.
+        assertTrue(elo[0] - elo[1] < WegeEloRatings.eloOf(0.75));
+        assertTrue(elo[0] - elo[1] > WegeEloRatings.eloOf(0.7));
+        double[] errors = ratings.getErrors();
+        assertTrue(errors[1] < errors[0]);
+        assertEquals(Double.POSITIVE_INFINITY, new WegeEloRatings(2).getErrors()[0]);
+        assertEquals(0, WegeEloRatings.eloOf(0.5));
+        assertEquals(0.75, WegeEloRatings.scoreOf(WegeEloRatings.eloOf(0.75)), 1e-9);
+    }
+
+    @Test
+    @DisplayName("Test decide the sequential test of pair scores")
+    void shouldDecideSprt() {
+        WegeSprt better = new WegeSprt(0, 20, 0.05, 0.05);
+        int pairs = 0;
+        while (better.decide() == WegeSprt.Decision.CONTINUE) {
+            better.add(pairs++ % 3 == 0 ? 0.5 : 0.75);
+        }
+        assertEquals(WegeSprt.Decision.H1, better.decide());
+        assertTrue(better.llr() >= better.getUpperBound());
+        WegeSprt equal = better.copy();
+        assertEquals(0, equal.getSamples());
+        while (equal.decide() == WegeSprt.Decision.CONTINUE) {
+            equal.add(0.5);
+        }
+        assertEquals(WegeSprt.Decision.H0, equal.decide());
+        assertThrows(IllegalArgumentException.class, () -> new WegeSprt(5, 0, 0.05, 0.05));
+    }
+
+    @Test
+    @DisplayName("Test play the rounds of a pairing on the same deck with the sides swapped")
+    void shouldPlayPairedRounds(@TempDir Path directory) throws IOException, InterruptedException {
+        Path resultsFile = directory.resolve("results.csv");
+        WegeTournament tournament = new WegeTournament(4, 4, 1000, 60000, 3, null, false)
+                .register(WegeTournament.Entrant.of("first", () -> FIRST_MOVE_BOT))
+                .register(WegeTournament.Entrant.of("copy", () -> FIRST_MOVE_BOT));
+        WegeTournament.Report report = tournament.run(2, 5, resultsFile);
+        List<String> lines = Files.readAllLines(resultsFile);
+        assertEquals(11, lines.size());
+        for (String line : lines.subList(1, lines.size())) {
+            String[] fields = line.split(",");
+            // The same bots on the same deck play the same game.
+            String round = fields[0];
+            String other = lines.stream().filter(l -> l.startsWith(round + ",") && !l.equals(line))
+                    .findFirst().orElseThrow();
+            assertEquals(fields[3], other.split(",")[3]);
+            assertEquals(fields[4], other.split(",")[4]);
+        }
+        WegeTournament.Pairing pairing = report.pairings().get(0);
+        assertEquals(5, pairing.rounds());
+        assertEquals(0.5, pairing.score(), 1e-9);
+        for (WegeTournament.Standing standing : report.standings()) {
+            assertEquals(10, standing.games());
+            assertEquals(5, standing.points(), 1e-9);
+            assertEquals(0, standing.margin());
+            assertEquals(0, standing.elo(), 1e-6);
+        }
+    }
+
+    @Test
+    @DisplayName("Test stop a round robin once the sequential tests are decided")
+    void shouldStopAtSprtBound() throws IOException, InterruptedException {
+        WegeSprt sprt = new WegeSprt(0, 100, 0.05, 0.05);
+        WegeTournament tournament = new WegeTournament(4, 4, 5000, 60000, 3, sprt, true)
+                .register(WegeTournament.Entrant.of("greedy", WegeGreedyBot::new))
+                .register(WegeTournament.Entrant.of("first", () -> FIRST_MOVE_BOT))
+                .register(WegeTournament.Entrant.of("copy", () -> FIRST_MOVE_BOT));
+        WegeTournament.Report report = tournament.run(2, 200, null);
+        assertEquals(3, report.pairings().size());
+        for (WegeTournament.Pairing pairing : report.pairings()) {
+            assertNotEquals(WegeSprt.Decision.CONTINUE, pairing.decision());
+            assertTrue(pairing.rounds() < 200);
+        }
+        assertEquals(WegeSprt.Decision.H1, report.pairings().get(0).decision());
+        assertEquals(WegeSprt.Decision.H0, report.pairings().get(2).decision());
+        List<WegeTournament.Standing> standings = report.standings();
+        assertTrue(standings.get(0).elo() > standings.get(1).elo() + standings.get(1).eloError());
+    }
+}
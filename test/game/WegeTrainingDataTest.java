@@ -0,0 +1,127 @@
+package game;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Test cases for the columnar training data")
+class WegeTrainingDataTest {
+
+    @Test
+    @DisplayName("Test write and read the positions of recorded games across blocks and regions")
+    void shouldWriteAndReadPositions(@TempDir Path directory) throws IOException {
+        Path file = directory.resolve("training.bin");
+        WegeSimulator simulator = new WegeSimulator(4, 5, 0, 1);
+        WegeGameRecord[] records = new WegeGameRecord[6];
+        // Small blocks and regions, so the blocks are split over regions.
+        try (WegeTrainingData.Writer writer = new WegeTrainingData.Writer(file, 4, 5, 7, 1 << 10)) {
+            for (int game = 0; game < records.length; game++) {
+                records[game] = simulator.recordGame(game);
+                writer.addGame(game, records[game]);
+            }
+        }
+        try (WegeTrainingData.Reader reader = new WegeTrainingData.Reader(file, 1 << 10)) {
+            assertEquals(4, reader.getRows());
+            assertEquals(5, reader.getCols());
+            assertTrue(reader.fileSize() > 1 << 10);
+            int block = 0;
+            int row = 0;
+            WegeTrainingData.Block rows = reader.readBlock(0);
+            for (int game = 0; game < records.length; game++) {
+                WegeGameRecord record = records[game];
+                WegePosition position = new WegePosition(4, 5, record.drawnCards());
+                for (int move : record.moves()) {
+                    if (row == rows.size()) {
+                        rows = reader.readBlock(++block);
+                        row = 0;
+                    }
+                    assertRow(rows, row++, game, position, move, record);
+                    position.play(move);
+                }
+            }
+            assertEquals(row, rows.size());
+            assertEquals(block + 1, reader.blocks());
+        }
+    }
+
+    @Test
+    @DisplayName("Test export the games of a simulator with compressed columns")
+    void shouldExportSimulation(@TempDir Path directory) throws IOException, InterruptedException {
+        Path file = directory.resolve("training.bin");
+        long positions;
+        try (WegeTrainingData.Writer writer = new WegeTrainingData.Writer(file, 6, 6)) {
+            new WegeSimulator(6, 6, 0, 2).export(writer, 50, 2);
+            positions = writer.size();
+        }
+        try (WegeTrainingData.Reader reader = new WegeTrainingData.Reader(file)) {
+            assertEquals(1, reader.blocks());
+            WegeTrainingData.Block rows = reader.readBlock(0);
+            assertEquals(positions, rows.size());
+            assertEquals(49, rows.getInt(WegeTrainingData.Column.GAME, rows.size() - 1));
+            // The compressed file is smaller than the raw rows.
+            int rowWidth = 0;
+            for (WegeTrainingData.Column column : WegeTrainingData.Column.values()) {
+                rowWidth += column.widthOf(36);
+                assertEquals(positions * column.widthOf(36), rows.column(column).remaining());
+            }
+            assertTrue(reader.fileSize() < positions * rowWidth / 2, "size " + reader.fileSize());
+            WegeGameRecord record = new WegeSimulator(6, 6, 0, 2).recordGame(0);
+            assertRow(rows, 0, 0, new WegePosition(6, 6, record.drawnCards()), record.moves()[0], record);
+        }
+    }
+
+    @Test
+    @DisplayName("Test reject an incomplete file and an invalid board size")
+    void shouldRejectInvalidFile(@TempDir Path directory) throws IOException {
+        Path file = directory.resolve("training.bin");
+        Files.writeString(file, "not training data at all");
+        assertThrows(IOException.class, () -> new WegeTrainingData.Reader(file));
+        WegeGameRecord record = new WegeSimulator(4, 4, 0, 3).recordGame(0);
+        try (WegeTrainingData.Writer writer = new WegeTrainingData.Writer(file, 4, 5)) {
+            assertThrows(IllegalArgumentException.class, () -> writer.addGame(0, record));
+            assertEquals(0, writer.size());
+        }
+        try (WegeTrainingData.Reader reader = new WegeTrainingData.Reader(file)) {
+            assertEquals(0, reader.blocks());
+        }
+        assertThrows(IllegalArgumentException.class, () -> new WegeTrainingData.Writer(file, 0, 5));
+    }
+
+    /**
+     * Check a row against the position before its move.
+     */
+    private static void assertRow(WegeTrainingData.Block rows, int row, int game, WegePosition position,
+                                  int move, WegeGameRecord record) {
+        int cols = record.cols();
+        assertEquals(game, rows.getInt(WegeTrainingData.Column.GAME, row));
+        assertEquals(position.getTurn(), rows.getInt(WegeTrainingData.Column.PLY, row));
+        assertEquals(position.peekCard(), rows.getInt(WegeTrainingData.Column.CARD, row));
+        assertEquals(position.isLandTurn() ? 1 : 0, rows.getInt(WegeTrainingData.Column.SIDE, row));
+        assertEquals(move, rows.getInt(WegeTrainingData.Column.MOVE, row));
+        assertEquals(record.landScore(), rows.getInt(WegeTrainingData.Column.LAND_SCORE, row));
+        assertEquals(record.waterScore(), rows.getInt(WegeTrainingData.Column.WATER_SCORE, row));
+        int drawnType = WegeRules.cardTypeOf(position.peekCard());
+        for (int type = WegeRules.WATER; type <= WegeRules.COSSACK; type++) {
+            assertEquals(position.countCardsLeft(type) - (type == drawnType ? 1 : 0), rows.getCardsLeft(row, type));
+        }
+        for (int cell = 0; cell < record.rows() * cols; cell++) {
+            int code = position.findCard(cell / cols, cell % cols);
+            int type = code == WegeRules.EMPTY ? -1 : WegeRules.cardTypeOf(code);
+            assertEquals(type == WegeRules.LAND, rows.isSet(WegeTrainingData.Column.LAND, row, cell));
+            assertEquals(type == WegeRules.WATER, rows.isSet(WegeTrainingData.Column.WATER, row, cell));
+            assertEquals(type == WegeRules.BRIDGE, rows.isSet(WegeTrainingData.Column.BRIDGE, row, cell));
+            assertEquals(type == WegeRules.COSSACK, rows.isSet(WegeTrainingData.Column.COSSACK, row, cell));
+            assertEquals(code != WegeRules.EMPTY && WegeRules.gnomeOf(code) != WegeRules.NO_GNOME,
+                    rows.isSet(WegeTrainingData.Column.GNOME, row, cell));
+            assertEquals(code != WegeRules.EMPTY && WegeRules.gnomeOf(code) == WegeRules.CORNER_GNOME,
+                    rows.isSet(WegeTrainingData.Column.CORNER_GNOME, row, cell));
+            assertEquals(code == WegeRules.EMPTY ? 0 : WegeRules.orientationOf(code), rows.getOrientation(row, cell));
+        }
+    }
+}